@@ -9,8 +9,8 @@ package com.reactnativecommunity.asyncstorage;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Iterator;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
@@ -18,9 +18,10 @@ import android.database.sqlite.SQLiteDatabase;
 import android.os.Build;
 import android.text.TextUtils;
 import android.util.Log;
+import com.facebook.common.logging.FLog;
 import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.common.ReactConstants;
 import org.json.JSONException;
-import org.json.JSONObject;
 import static com.reactnativecommunity.asyncstorage.ReactDatabaseSupplier.KEY_COLUMN;
 import static com.reactnativecommunity.asyncstorage.ReactDatabaseSupplier.TABLE_CATALYST;
 import static com.reactnativecommunity.asyncstorage.ReactDatabaseSupplier.VALUE_COLUMN;
@@ -54,10 +55,33 @@ public class AsyncLocalStorageUtil {
     return selectionArgs;
   }
 
+  /**
+   * Returns the smallest string that is greater than every string starting with the given prefix,
+   * or null if there is none. Keys starting with the prefix are the keys k for which
+   * prefix <= k < upper bound, which lets SQLite answer prefix scans with a range of the primary
+   * key index. Strings are compared by code point, like SQLite compares UTF-8 text.
+   */
+  public static @Nullable String getPrefixUpperBound(String prefix) {
+    int end = prefix.length();
+    while (end > 0) {
+      int codePoint = prefix.codePointBefore(end);
+      int start = end - Character.charCount(codePoint);
+      if (codePoint < Character.MAX_CODE_POINT) {
+        int next = codePoint + 1;
+        if (next >= Character.MIN_SURROGATE && next <= Character.MAX_SURROGATE) {
+          next = Character.MAX_SURROGATE + 1;
+        }
+        return new StringBuilder(prefix.substring(0, start)).appendCodePoint(next).toString();
+      }
+      end = start;
+    }
+    return null;
+  }
+
   /**
    * Returns the value of the given key, or null if not found.
    */
-  public static @Nullable String getItemImpl(SQLiteDatabase db, String key) {
+  public static @Nullable String getItemImpl(SQLiteDatabase db, String key) throws IOException {
     String[] columns = {VALUE_COLUMN};
     String[] selectionArgs = {key};
 
@@ -74,7 +98,7 @@ public class AsyncLocalStorageUtil {
       if (!cursor.moveToFirst()) {
         return null;
       } else {
-        return cursor.getString(0);
+        return AsyncStorageValueFiles.decode(db, cursor.getString(0));
       }
     } finally {
       cursor.close();
@@ -87,7 +111,12 @@ public class AsyncLocalStorageUtil {
   /* package */ static boolean setItemImpl(SQLiteDatabase db, String key, String value) {
     ContentValues contentValues = new ContentValues();
     contentValues.put(KEY_COLUMN, key);
-    contentValues.put(VALUE_COLUMN, value);
+    try {
+      contentValues.put(VALUE_COLUMN, AsyncStorageValueFiles.encode(db, value));
+    } catch (IOException e) {
+      FLog.w(ReactConstants.TAG, "Could not write value file for " + key, e);
+      return false;
+    }
 
     long inserted = db.insertWithOnConflict(
         TABLE_CATALYST,
@@ -104,43 +133,23 @@ public class AsyncLocalStorageUtil {
    * @return the errorCode of the operation
    */
   /* package */ static boolean mergeImpl(SQLiteDatabase db, String key, String value)
-      throws JSONException {
+      throws JSONException, IOException {
     String oldValue = getItemImpl(db, key);
-    String newValue;
-
-    if (oldValue == null) {
-      newValue = value;
-    } else {
-      JSONObject oldJSON = new JSONObject(oldValue);
-      JSONObject newJSON = new JSONObject(value);
-      deepMergeInto(oldJSON, newJSON);
-      newValue = oldJSON.toString();
-    }
-
-    return setItemImpl(db, key, newValue);
+    return setItemImpl(db, key, mergeValues(oldValue, value));
   }
 
   /**
-   * Merges two {@link JSONObject}s. The newJSON object will be merged with the oldJSON object by
-   * either overriding its values, or merging them (if the values of the same key in both objects
-   * are of type {@link JSONObject}). oldJSON will contain the result of this merge.
+   * Returns the result of merging value into oldValue, or value itself if there is no oldValue.
+   * Nested objects present in both values are merged as well, see {@link StreamingJsonMerger}.
    */
-  private static void deepMergeInto(JSONObject oldJSON, JSONObject newJSON)
+  /* package */ static String mergeValues(@Nullable String oldValue, String value)
       throws JSONException {
-    Iterator<?> keys = newJSON.keys();
-    while (keys.hasNext()) {
-      String key = (String) keys.next();
-
-      JSONObject newJSONObject = newJSON.optJSONObject(key);
-      JSONObject oldJSONObject = oldJSON.optJSONObject(key);
-      if (newJSONObject != null && oldJSONObject != null) {
-        deepMergeInto(oldJSONObject, newJSONObject);
-        oldJSON.put(key, oldJSONObject);
-      } else {
-        oldJSON.put(key, newJSON.get(key));
-      }
+    if (oldValue == null) {
+      return value;
     }
+    return StreamingJsonMerger.merge(oldValue, value);
   }
+
   /**
    * From Pie and up, Android started to use Write-ahead logging (WAL), instead of journal rollback
    * for atomic commits and rollbacks.
@@ -27,8 +27,14 @@ import com.facebook.react.common.annotations.VisibleForTesting;
 import com.facebook.react.module.annotations.ReactModule;
 import com.facebook.react.modules.common.ModuleDataCleaner;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -39,14 +45,23 @@ public final class AsyncStorageModule
   // changed name to not conflict with AsyncStorage from RN repo
   public static final String NAME = "RNCAsyncStorage";
 
+  // Matches the default size of the WAL connection pool of Android, minus the primary connection
+  private static final int MAX_CONCURRENT_READS = 3;
+
   // SQL variable number limit, defined by SQLITE_LIMIT_VARIABLE_NUMBER:
   // https://raw.githubusercontent.com/android/platform_external_sqlite/master/dist/sqlite3.c
   private static final int MAX_SQL_KEYS = 999;
 
+  // Largest page returned by the prefix scans, also used when no valid limit is given
+  private static final int MAX_PAGE_SIZE = 1000;
+
   private ReactDatabaseSupplier mReactDatabaseSupplier;
   private boolean mShuttingDown = false;
+  private final @Nullable AsyncStorageReadCache mReadCache;
+  private final @Nullable AsyncStorageWriteBatcher mWriteBatcher;
 
   private final SerialExecutor executor;
+  private final AsyncStorageScheduler mScheduler;
 
   public AsyncStorageModule(ReactApplicationContext reactContext) {
     this(
@@ -64,9 +79,41 @@ public final class AsyncStorageModule
     AsyncStorageExpoMigration.migrate(reactContext);
 
     this.executor = new SerialExecutor(executor);
+    mScheduler = new AsyncStorageScheduler(
+        this.executor,
+        BuildConfig.AsyncStorage_concurrentReads
+            ? Executors.newFixedThreadPool(MAX_CONCURRENT_READS)
+            : null);
     reactContext.addLifecycleEventListener(this);
     // Creating the database MUST happen after the migration.
     mReactDatabaseSupplier = ReactDatabaseSupplier.getInstance(reactContext);
+    mReadCache = BuildConfig.AsyncStorage_read_cache_size > 0
+        ? new AsyncStorageReadCache(BuildConfig.AsyncStorage_read_cache_size * 1024)
+        : null;
+    mWriteBatcher = BuildConfig.AsyncStorage_write_behind_window > 0
+        ? new AsyncStorageWriteBatcher(
+            mReactDatabaseSupplier,
+            mScheduler,
+            mReadCache,
+            BuildConfig.AsyncStorage_write_behind_window)
+        : null;
+
+    if (AsyncStorageValueFiles.isEnabled()) {
+      // Writes delete the files they release once committed, this catches those left behind by a
+      // write that was interrupted in between
+      mScheduler.write(null, new Runnable() {
+        @Override
+        public void run() {
+          try {
+            if (mReactDatabaseSupplier.ensureDatabase()) {
+              AsyncStorageValueFiles.collectGarbage(mReactDatabaseSupplier.get());
+            }
+          } catch (Exception e) {
+            FLog.w(ReactConstants.TAG, e.getMessage(), e);
+          }
+        }
+      });
+    }
   }
 
   @Override
@@ -83,6 +130,10 @@ public final class AsyncStorageModule
   @Override
   public void onCatalystInstanceDestroy() {
     mShuttingDown = true;
+    if (mWriteBatcher != null) {
+      mWriteBatcher.shutdown();
+    }
+    mScheduler.shutdown();
   }
 
   @Override
@@ -91,23 +142,64 @@ public final class AsyncStorageModule
     // cause a privacy violation. We're still not recovering from this well, but at least the error
     // will be reported to the server.
     mReactDatabaseSupplier.clearAndCloseDatabase();
+    if (mReadCache != null) {
+      mReadCache.clear();
+    }
   }
 
   @Override
   public void onHostResume() {}
 
   @Override
-  public void onHostPause() {}
+  public void onHostPause() {
+    // the process may be killed while in background, commit what is in the write-behind buffer
+    if (mWriteBatcher != null) {
+      mWriteBatcher.flush();
+    }
+  }
 
   @Override
   public void onHostDestroy() {
+    if (mWriteBatcher != null) {
+      mWriteBatcher.flush();
+      // close the database once the buffered writes have been committed
+      mScheduler.write(null, new Runnable() {
+        @Override
+        public void run() {
+          mReactDatabaseSupplier.closeDatabase();
+        }
+      });
+      return;
+    }
     // ensure we close database when activity is destroyed
     mReactDatabaseSupplier.closeDatabase();
   }
 
+  /**
+   * Returns the statistics of the read cache, or null if the cache is disabled. The cache is
+   * enabled by setting AsyncStorage_read_cache_size_in_KB in gradle.properties.
+   */
+  public @Nullable WritableMap getReadCacheStatistics() {
+    if (mReadCache == null) {
+      return null;
+    }
+    WritableMap statistics = Arguments.createMap();
+    statistics.putDouble("hitCount", mReadCache.getHitCount());
+    statistics.putDouble("missCount", mReadCache.getMissCount());
+    statistics.putDouble("evictionCount", mReadCache.getEvictionCount());
+    statistics.putDouble("sizeBytes", mReadCache.getSizeBytes());
+    statistics.putDouble("maxSizeBytes", mReadCache.getMaxBytes());
+    return statistics;
+  }
+
   /**
    * Given an array of keys, this returns a map of (key, value) pairs for the keys found, and
    * (key, null) for the keys that haven't been found.
+   *
+   * If the read cache is enabled and holds all the keys, the database is not queried. When none
+   * of the keys has a pending write, the callback is invoked right away without going through the
+   * executor. Otherwise the cache is read on the executor of the read, behind those writes, so the
+   * callback observes them.
    */
   @ReactMethod
   @Override
@@ -117,9 +209,26 @@ public final class AsyncStorageModule
       return;
     }
 
+    if (mWriteBatcher != null) {
+      mWriteBatcher.flushIfPending(toKeyList(keys));
+    }
+    // Checked once, so that a miss is not counted twice
+    final boolean checkCacheOnExecutor =
+        mReadCache != null && mScheduler.hasPendingWrite(toKeyList(keys));
+    if (mReadCache != null
+        && !checkCacheOnExecutor
+        && invokeWithCachedValues(keys, callback)) {
+      return;
+    }
+    // Whatever this read finds must not be cached if a write is enqueued before it runs
+    final long cacheGeneration = mReadCache != null ? mReadCache.getGeneration() : 0;
+
     new GuardedAsyncTask<Void, Void>(getReactApplicationContext()) {
       @Override
       protected void doInBackgroundGuarded(Void... params) {
+        if (checkCacheOnExecutor && invokeWithCachedValues(keys, callback)) {
+          return;
+        }
         if (!ensureDatabase()) {
           callback.invoke(AsyncStorageErrorUtil.getDBError(null), null);
           return;
@@ -149,11 +258,16 @@ public final class AsyncStorageModule
 
             if (cursor.moveToFirst()) {
               do {
+                String value = AsyncStorageValueFiles.decode(
+                    mReactDatabaseSupplier.get(), cursor.getString(1));
                 WritableArray row = Arguments.createArray();
                 row.pushString(cursor.getString(0));
-                row.pushString(cursor.getString(1));
+                row.pushString(value);
                 data.pushArray(row);
                 keysRemaining.remove(cursor.getString(0));
+                if (mReadCache != null) {
+                  mReadCache.putIfCurrent(cacheGeneration, cursor.getString(0), value);
+                }
               } while (cursor.moveToNext());
             }
           } catch (Exception e) {
@@ -169,13 +283,16 @@ public final class AsyncStorageModule
             row.pushString(key);
             row.pushNull();
             data.pushArray(row);
+            if (mReadCache != null && key != null) {
+              mReadCache.putIfCurrent(cacheGeneration, key, null);
+            }
           }
           keysRemaining.clear();
         }
 
         callback.invoke(null, data);
       }
-    }.executeOnExecutor(executor);
+    }.executeOnExecutor(mScheduler.forRead(toKeyList(keys)));
   }
 
   /**
@@ -191,10 +308,33 @@ public final class AsyncStorageModule
       return;
     }
 
+    if (mWriteBatcher != null) {
+      WritableMap error = validateKeyValuePairs(keyValueArray);
+      if (error != null) {
+        callback.invoke(error);
+        return;
+      }
+    }
+
+    if (mReadCache != null) {
+      for (int idx = 0; idx < keyValueArray.size(); idx++) {
+        ReadableArray pair = keyValueArray.getArray(idx);
+        if (pair.size() == 2 && pair.getString(0) != null && pair.getString(1) != null) {
+          mReadCache.put(pair.getString(0), pair.getString(1));
+        }
+      }
+    }
+
+    if (mWriteBatcher != null) {
+      mWriteBatcher.set(keyValueArray, callback);
+      return;
+    }
+
     new GuardedAsyncTask<Void, Void>(getReactApplicationContext()) {
       @Override
       protected void doInBackgroundGuarded(Void... params) {
         if (!ensureDatabase()) {
+          invalidateCachedPairs(keyValueArray);
           callback.invoke(AsyncStorageErrorUtil.getDBError(null));
           return;
         }
@@ -202,8 +342,11 @@ public final class AsyncStorageModule
         String sql = "INSERT OR REPLACE INTO " + ReactDatabaseSupplier.TABLE_CATALYST + " VALUES (?, ?);";
         SQLiteStatement statement = mReactDatabaseSupplier.get().compileStatement(sql);
         WritableMap error = null;
+        Set<String> releasedFiles = Collections.emptySet();
         try {
           mReactDatabaseSupplier.get().beginTransaction();
+          releasedFiles = AsyncStorageValueFiles.getFiles(
+              mReactDatabaseSupplier.get(), toPairKeyList(keyValueArray));
           for (int idx=0; idx < keyValueArray.size(); idx++) {
             if (keyValueArray.getArray(idx).size() != 2) {
               error = AsyncStorageErrorUtil.getInvalidValueError(null);
@@ -220,7 +363,8 @@ public final class AsyncStorageModule
 
             statement.clearBindings();
             statement.bindString(1, keyValueArray.getArray(idx).getString(0));
-            statement.bindString(2, keyValueArray.getArray(idx).getString(1));
+            statement.bindString(2, AsyncStorageValueFiles.encode(
+                mReactDatabaseSupplier.get(), keyValueArray.getArray(idx).getString(1)));
             statement.execute();
           }
           mReactDatabaseSupplier.get().setTransactionSuccessful();
@@ -236,14 +380,20 @@ public final class AsyncStorageModule
               error = AsyncStorageErrorUtil.getError(null, e.getMessage());
             }
           }
+          if (error != null) {
+            // Nothing was written, the values cached when the write was enqueued are wrong
+            invalidateCachedPairs(keyValueArray);
+          }
         }
         if (error != null) {
           callback.invoke(error);
         } else {
+          AsyncStorageValueFiles.deleteUnreferencedAfterReads(
+              mReactDatabaseSupplier, mScheduler, releasedFiles);
           callback.invoke();
         }
       }
-    }.executeOnExecutor(executor);
+    }.executeOnExecutor(mScheduler.forWrite(toPairKeyList(keyValueArray)));
   }
 
   /**
@@ -257,17 +407,34 @@ public final class AsyncStorageModule
       return;
     }
 
+    if (mReadCache != null) {
+      for (int idx = 0; idx < keys.size(); idx++) {
+        if (keys.getString(idx) != null) {
+          mReadCache.put(keys.getString(idx), null);
+        }
+      }
+    }
+
+    if (mWriteBatcher != null) {
+      mWriteBatcher.remove(keys, callback);
+      return;
+    }
+
     new GuardedAsyncTask<Void, Void>(getReactApplicationContext()) {
       @Override
       protected void doInBackgroundGuarded(Void... params) {
         if (!ensureDatabase()) {
+          invalidateCachedKeys(keys);
           callback.invoke(AsyncStorageErrorUtil.getDBError(null));
           return;
         }
 
         WritableMap error = null;
+        Set<String> releasedFiles = Collections.emptySet();
         try {
           mReactDatabaseSupplier.get().beginTransaction();
+          releasedFiles =
+              AsyncStorageValueFiles.getFiles(mReactDatabaseSupplier.get(), toKeyList(keys));
           for (int keyStart = 0; keyStart < keys.size(); keyStart += MAX_SQL_KEYS) {
             int keyCount = Math.min(keys.size() - keyStart, MAX_SQL_KEYS);
             mReactDatabaseSupplier.get().delete(
@@ -290,12 +457,15 @@ public final class AsyncStorageModule
           }
         }
         if (error != null) {
+          invalidateCachedKeys(keys);
           callback.invoke(error);
         } else {
+          AsyncStorageValueFiles.deleteUnreferencedAfterReads(
+              mReactDatabaseSupplier, mScheduler, releasedFiles);
           callback.invoke();
         }
       }
-    }.executeOnExecutor(executor);
+    }.executeOnExecutor(mScheduler.forWrite(toKeyList(keys)));
   }
 
   /**
@@ -305,6 +475,22 @@ public final class AsyncStorageModule
   @ReactMethod
   @Override
   public void multiMerge(final ReadableArray keyValueArray, final Callback callback) {
+    if (mWriteBatcher != null) {
+      WritableMap error = validateKeyValuePairs(keyValueArray);
+      if (error != null) {
+        callback.invoke(error);
+        return;
+      }
+    }
+
+    // The merged values are only known once the merge ran, read them from the database next time
+    invalidateCachedPairs(keyValueArray);
+
+    if (mWriteBatcher != null) {
+      mWriteBatcher.merge(keyValueArray, callback);
+      return;
+    }
+
     new GuardedAsyncTask<Void, Void>(getReactApplicationContext()) {
       @Override
       protected void doInBackgroundGuarded(Void... params) {
@@ -313,8 +499,11 @@ public final class AsyncStorageModule
           return;
         }
         WritableMap error = null;
+        Set<String> releasedFiles = Collections.emptySet();
         try {
           mReactDatabaseSupplier.get().beginTransaction();
+          releasedFiles = AsyncStorageValueFiles.getFiles(
+              mReactDatabaseSupplier.get(), toPairKeyList(keyValueArray));
           for (int idx = 0; idx < keyValueArray.size(); idx++) {
             if (keyValueArray.getArray(idx).size() != 2) {
               error = AsyncStorageErrorUtil.getInvalidValueError(null);
@@ -356,10 +545,12 @@ public final class AsyncStorageModule
         if (error != null) {
           callback.invoke(error);
         } else {
+          AsyncStorageValueFiles.deleteUnreferencedAfterReads(
+              mReactDatabaseSupplier, mScheduler, releasedFiles);
           callback.invoke();
         }
       }
-    }.executeOnExecutor(executor);
+    }.executeOnExecutor(mScheduler.forWrite(toPairKeyList(keyValueArray)));
   }
 
   /**
@@ -368,6 +559,13 @@ public final class AsyncStorageModule
   @ReactMethod
   @Override
   public void clear(final Callback callback) {
+    if (mWriteBatcher != null) {
+      mWriteBatcher.flush();
+    }
+    if (mReadCache != null) {
+      mReadCache.clear();
+    }
+
     new GuardedAsyncTask<Void, Void>(getReactApplicationContext()) {
       @Override
       protected void doInBackgroundGuarded(Void... params) {
@@ -383,7 +581,7 @@ public final class AsyncStorageModule
           callback.invoke(AsyncStorageErrorUtil.getError(null, e.getMessage()));
         }
       }
-    }.executeOnExecutor(executor);
+    }.executeOnExecutor(mScheduler.forWrite(null));
   }
 
   /**
@@ -392,6 +590,9 @@ public final class AsyncStorageModule
   @ReactMethod
   @Override
   public void getAllKeys(final Callback callback) {
+    if (mWriteBatcher != null) {
+      mWriteBatcher.flush();
+    }
     new GuardedAsyncTask<Void, Void>(getReactApplicationContext()) {
       @Override
       protected void doInBackgroundGuarded(Void... params) {
@@ -418,7 +619,199 @@ public final class AsyncStorageModule
         }
         callback.invoke(null, data);
       }
-    }.executeOnExecutor(executor);
+    }.executeOnExecutor(mScheduler.forRead(null));
+  }
+
+  /**
+   * Invokes the callback of a multiGet with the cached values of the keys. Returns false without
+   * invoking it if one of the keys is not cached.
+   */
+  private boolean invokeWithCachedValues(ReadableArray keys, Callback callback) {
+    String[] cachedKeys = new String[keys.size()];
+    for (int i = 0; i < cachedKeys.length; i++) {
+      cachedKeys[i] = keys.getString(i);
+    }
+    String[] cachedValues = new String[cachedKeys.length];
+    if (!mReadCache.getAll(cachedKeys, cachedValues)) {
+      return false;
+    }
+    WritableArray data = Arguments.createArray();
+    for (int i = 0; i < cachedKeys.length; i++) {
+      WritableArray row = Arguments.createArray();
+      row.pushString(cachedKeys[i]);
+      row.pushString(cachedValues[i]);
+      data.pushArray(row);
+    }
+    callback.invoke(null, data);
+    return true;
+  }
+
+  /**
+   * Returns the error to report for the first invalid (key, value) pair, or null if all are valid.
+   */
+  private static @Nullable WritableMap validateKeyValuePairs(ReadableArray keyValueArray) {
+    for (int idx = 0; idx < keyValueArray.size(); idx++) {
+      ReadableArray pair = keyValueArray.getArray(idx);
+      if (pair.size() != 2) {
+        return AsyncStorageErrorUtil.getInvalidValueError(null);
+      }
+      if (pair.getString(0) == null) {
+        return AsyncStorageErrorUtil.getInvalidKeyError(null);
+      }
+      if (pair.getString(1) == null) {
+        return AsyncStorageErrorUtil.getInvalidValueError(null);
+      }
+    }
+    return null;
+  }
+
+  private void invalidateCachedPairs(ReadableArray keyValueArray) {
+    if (mReadCache == null) {
+      return;
+    }
+    for (int idx = 0; idx < keyValueArray.size(); idx++) {
+      ReadableArray pair = keyValueArray.getArray(idx);
+      if (pair.size() > 0 && pair.getString(0) != null) {
+        mReadCache.invalidate(pair.getString(0));
+      }
+    }
+  }
+
+  private void invalidateCachedKeys(ReadableArray keys) {
+    if (mReadCache == null) {
+      return;
+    }
+    for (int idx = 0; idx < keys.size(); idx++) {
+      if (keys.getString(idx) != null) {
+        mReadCache.invalidate(keys.getString(idx));
+      }
+    }
+  }
+
+  private static List<String> toKeyList(ReadableArray keys) {
+    List<String> list = new ArrayList<>(keys.size());
+    for (int idx = 0; idx < keys.size(); idx++) {
+      list.add(keys.getString(idx));
+    }
+    return list;
+  }
+
+  private static List<String> toPairKeyList(ReadableArray keyValueArray) {
+    List<String> list = new ArrayList<>(keyValueArray.size());
+    for (int idx = 0; idx < keyValueArray.size(); idx++) {
+      ReadableArray pair = keyValueArray.getArray(idx);
+      if (pair.size() > 0) {
+        list.add(pair.getString(0));
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Returns a page of the keys starting with the given prefix, in ascending order, as
+   * {keys, cursor}. The cursor is passed back to get the next page, it is null after the last one.
+   */
+  @ReactMethod
+  @Override
+  public void getKeysWithPrefix(
+      final String prefix, double limit, final @Nullable String cursor, final Callback callback) {
+    scanPrefix(prefix, limit, cursor, false, callback);
+  }
+
+  /**
+   * Same as {@link #getKeysWithPrefix}, but returns the (key, value) pairs as {entries, cursor}.
+   */
+  @ReactMethod
+  @Override
+  public void multiGetByPrefix(
+      final String prefix, double limit, final @Nullable String cursor, final Callback callback) {
+    scanPrefix(prefix, limit, cursor, true, callback);
+  }
+
+  private void scanPrefix(
+      final String prefix,
+      double limit,
+      final @Nullable String cursor,
+      final boolean withValues,
+      final Callback callback) {
+    if (prefix == null) {
+      callback.invoke(AsyncStorageErrorUtil.getInvalidKeyError(null), null);
+      return;
+    }
+    final int pageSize = limit >= 1 ? (int) Math.min(limit, MAX_PAGE_SIZE) : MAX_PAGE_SIZE;
+    if (mWriteBatcher != null) {
+      mWriteBatcher.flush();
+    }
+
+    new GuardedAsyncTask<Void, Void>(getReactApplicationContext()) {
+      @Override
+      protected void doInBackgroundGuarded(Void... params) {
+        if (!ensureDatabase()) {
+          callback.invoke(AsyncStorageErrorUtil.getDBError(null), null);
+          return;
+        }
+        // Only range conditions on the key, so that SQLite walks the primary key index
+        StringBuilder selection = new StringBuilder(ReactDatabaseSupplier.KEY_COLUMN + " >= ?");
+        List<String> selectionArgs = new ArrayList<>();
+        selectionArgs.add(prefix);
+        String upperBound = AsyncLocalStorageUtil.getPrefixUpperBound(prefix);
+        if (upperBound != null) {
+          selection.append(" AND " + ReactDatabaseSupplier.KEY_COLUMN + " < ?");
+          selectionArgs.add(upperBound);
+        }
+        if (cursor != null) {
+          selection.append(" AND " + ReactDatabaseSupplier.KEY_COLUMN + " > ?");
+          selectionArgs.add(cursor);
+        }
+        String[] columns = withValues
+            ? new String[] {ReactDatabaseSupplier.KEY_COLUMN, ReactDatabaseSupplier.VALUE_COLUMN}
+            : new String[] {ReactDatabaseSupplier.KEY_COLUMN};
+
+        WritableArray page = Arguments.createArray();
+        String nextCursor = null;
+        Cursor dbCursor = mReactDatabaseSupplier.get().query(
+            ReactDatabaseSupplier.TABLE_CATALYST,
+            columns,
+            selection.toString(),
+            selectionArgs.toArray(new String[0]),
+            null,
+            null,
+            ReactDatabaseSupplier.KEY_COLUMN,
+            // One more row than needed tells whether there is a next page
+            String.valueOf(pageSize + 1));
+        try {
+          int count = 0;
+          String lastKey = null;
+          while (dbCursor.moveToNext()) {
+            if (++count > pageSize) {
+              nextCursor = lastKey;
+              break;
+            }
+            lastKey = dbCursor.getString(0);
+            if (withValues) {
+              WritableArray row = Arguments.createArray();
+              row.pushString(lastKey);
+              row.pushString(AsyncStorageValueFiles.decode(
+                  mReactDatabaseSupplier.get(), dbCursor.getString(1)));
+              page.pushArray(row);
+            } else {
+              page.pushString(lastKey);
+            }
+          }
+        } catch (Exception e) {
+          FLog.w(ReactConstants.TAG, e.getMessage(), e);
+          callback.invoke(AsyncStorageErrorUtil.getError(null, e.getMessage()), null);
+          return;
+        } finally {
+          dbCursor.close();
+        }
+
+        WritableMap result = Arguments.createMap();
+        result.putArray(withValues ? "entries" : "keys", page);
+        result.putString("cursor", nextCursor);
+        callback.invoke(null, result);
+      }
+    }.executeOnExecutor(mScheduler.forRead(null));
   }
 
   /**
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.reactnativecommunity.asyncstorage;
+
+import javax.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of (key, value) pairs sitting in front of the database.
+ *
+ * Keys known to be absent from the database are cached as well, with a null value, so that
+ * repeated reads of missing keys are answered without a query. The cache is kept coherent by the
+ * write paths of {@link AsyncStorageModule}, which update or invalidate entries when a write is
+ * enqueued. Every write bumps a generation counter; reads that were started before a write must
+ * not populate the cache with what they read, see {@link #putIfCurrent}.
+ */
+/* package */ class AsyncStorageReadCache {
+
+  // Rough per-entry cost of the map node, the entry and the String headers
+  private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+  private final long mMaxBytes;
+  private final LinkedHashMap<String, String> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+  private long mSizeBytes = 0;
+  private long mGeneration = 0;
+
+  private long mHitCount = 0;
+  private long mMissCount = 0;
+  private long mEvictionCount = 0;
+
+  /* package */ AsyncStorageReadCache(long maxBytes) {
+    mMaxBytes = maxBytes;
+  }
+
+  /**
+   * Looks up all the given keys. Returns true and fills {@code values} if every key is cached
+   * (with null for keys known to be absent), false if at least one key has to be read from the
+   * database.
+   */
+  /* package */ synchronized boolean getAll(String[] keys, String[] values) {
+    for (int i = 0; i < keys.length; i++) {
+      String key = keys[i];
+      if (key == null || !mEntries.containsKey(key)) {
+        mMissCount += keys.length - i;
+        return false;
+      }
+      values[i] = mEntries.get(key);
+    }
+    mHitCount += keys.length;
+    return true;
+  }
+
+  /**
+   * Returns the generation to pass to {@link #putIfCurrent} for the results of a read that is
+   * about to be enqueued.
+   */
+  /* package */ synchronized long getGeneration() {
+    return mGeneration;
+  }
+
+  /**
+   * Caches a value read from the database, unless a write was enqueued after the read started.
+   */
+  /* package */ synchronized void putIfCurrent(long generation, String key, @Nullable String value) {
+    if (generation == mGeneration) {
+      putLocked(key, value);
+    }
+  }
+
+  /** Records a value written to the database. A null value marks the key as absent. */
+  /* package */ synchronized void put(String key, @Nullable String value) {
+    mGeneration++;
+    putLocked(key, value);
+  }
+
+  /** Forgets the cached value of a key, it will be read from the database next time. */
+  /* package */ synchronized void invalidate(String key) {
+    mGeneration++;
+    if (mEntries.containsKey(key)) {
+      mSizeBytes -= sizeOf(key, mEntries.remove(key));
+    }
+  }
+
+  /* package */ synchronized void clear() {
+    mGeneration++;
+    mEntries.clear();
+    mSizeBytes = 0;
+  }
+
+  /* package */ synchronized long getHitCount() {
+    return mHitCount;
+  }
+
+  /* package */ synchronized long getMissCount() {
+    return mMissCount;
+  }
+
+  /* package */ synchronized long getEvictionCount() {
+    return mEvictionCount;
+  }
+
+  /* package */ synchronized long getSizeBytes() {
+    return mSizeBytes;
+  }
+
+  /* package */ long getMaxBytes() {
+    return mMaxBytes;
+  }
+
+  private void putLocked(String key, @Nullable String value) {
+    long size = sizeOf(key, value);
+    if (mEntries.containsKey(key)) {
+      mSizeBytes -= sizeOf(key, mEntries.remove(key));
+    }
+    if (size > mMaxBytes / 2) {
+      // Not worth evicting half of the cache for a single value
+      return;
+    }
+    mEntries.put(key, value);
+    mSizeBytes += size;
+
+    Iterator<Map.Entry<String, String>> it = mEntries.entrySet().iterator();
+    while (mSizeBytes > mMaxBytes && it.hasNext()) {
+      Map.Entry<String, String> eldest = it.next();
+      it.remove();
+      mSizeBytes -= sizeOf(eldest.getKey(), eldest.getValue());
+      mEvictionCount++;
+    }
+  }
+
+  private static long sizeOf(String key, @Nullable String value) {
+    // Java strings take two bytes per char
+    return ENTRY_OVERHEAD_BYTES + 2L * (key.length() + (value == null ? 0 : value.length()));
+  }
+}
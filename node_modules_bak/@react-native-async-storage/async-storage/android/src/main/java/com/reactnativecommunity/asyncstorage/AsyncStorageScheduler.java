@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.reactnativecommunity.asyncstorage;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Decides where the database operations of {@link AsyncStorageModule} run.
+ *
+ * Writes always go through the serial executor, in the order they were issued. Reads run on the
+ * read executor, concurrently with each other and with writes, unless a write touching one of the
+ * keys they read is still pending. Such reads are queued on the serial executor behind that write,
+ * so a read always observes the writes to its keys that were issued before it.
+ *
+ * Without a read executor every operation goes through the serial executor. Pending writes are
+ * tracked either way, so that reads answered from a cache can tell whether they would observe a
+ * write that has not run yet, see {@link #hasPendingWrite}.
+ */
+/* package */ class AsyncStorageScheduler {
+
+  private final Executor mSerialExecutor;
+  private @Nullable ExecutorService mReadExecutor;
+
+  // Number of pending writes per key, and of pending writes that touch every key (clear)
+  private final HashMap<String, Integer> mPendingWrites = new HashMap<>();
+  private int mPendingGlobalWrites = 0;
+
+  // Ids of the reads running or queued on the read executor, and the tasks waiting for them
+  private long mNextReadId = 0;
+  private final TreeSet<Long> mReadsInFlight = new TreeSet<>();
+  private final List<DeferredTask> mDeferredTasks = new ArrayList<>();
+
+  /* package */ AsyncStorageScheduler(
+      Executor serialExecutor,
+      @Nullable ExecutorService readExecutor) {
+    mSerialExecutor = serialExecutor;
+    mReadExecutor = readExecutor;
+  }
+
+  /**
+   * Returns an executor for a read of the given keys.
+   *
+   * @param keys the keys read by the task, or null if it reads all keys
+   */
+  /* package */ Executor forRead(@Nullable final List<String> keys) {
+    return new Executor() {
+      @Override
+      public void execute(Runnable task) {
+        read(keys, task);
+      }
+    };
+  }
+
+  /**
+   * Returns an executor for a write of the given keys.
+   *
+   * @param keys the keys written by the task, or null if it may write any key
+   */
+  /* package */ Executor forWrite(@Nullable final List<String> keys) {
+    return new Executor() {
+      @Override
+      public void execute(Runnable task) {
+        write(keys, task);
+      }
+    };
+  }
+
+  /* package */ synchronized void read(@Nullable Collection<String> keys, final Runnable task) {
+    if (mReadExecutor == null || hasPendingWrite(keys)) {
+      mSerialExecutor.execute(task);
+      return;
+    }
+    final long readId = mNextReadId++;
+    mReadsInFlight.add(readId);
+    mReadExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          task.run();
+        } finally {
+          onReadFinished(readId);
+        }
+      }
+    });
+  }
+
+  /* package */ synchronized void write(
+      @Nullable final Collection<String> keys,
+      final Runnable task) {
+    addPendingWrite(keys);
+    mSerialExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          task.run();
+        } finally {
+          removePendingWrite(keys);
+        }
+      }
+    });
+  }
+
+  /**
+   * Runs the task on the serial executor once the reads running or queued on the read executor
+   * have completed. Reads scheduled later do not delay it.
+   *
+   * Used to delete what a committed write released, which reads that started before the commit
+   * may still be using.
+   */
+  /* package */ synchronized void afterCurrentReads(Runnable task) {
+    if (mReadsInFlight.isEmpty()) {
+      mSerialExecutor.execute(task);
+    } else {
+      mDeferredTasks.add(new DeferredTask(mNextReadId, task));
+    }
+  }
+
+  /**
+   * Shuts the read executor down once the reads queued on it have run. Later operations all go
+   * through the serial executor.
+   */
+  /* package */ synchronized void shutdown() {
+    if (mReadExecutor != null) {
+      mReadExecutor.shutdown();
+      mReadExecutor = null;
+    }
+  }
+
+  private synchronized void onReadFinished(long readId) {
+    mReadsInFlight.remove(readId);
+    long oldestReadId = mReadsInFlight.isEmpty() ? mNextReadId : mReadsInFlight.first();
+    Iterator<DeferredTask> iterator = mDeferredTasks.iterator();
+    while (iterator.hasNext()) {
+      DeferredTask deferredTask = iterator.next();
+      if (deferredTask.readIdBound <= oldestReadId) {
+        iterator.remove();
+        mSerialExecutor.execute(deferredTask.task);
+      }
+    }
+  }
+
+  /**
+   * Returns whether a write of one of the given keys has been scheduled and has not run yet.
+   *
+   * @param keys the keys to check, or null for all keys
+   */
+  /* package */ synchronized boolean hasPendingWrite(@Nullable Collection<String> keys) {
+    if (mPendingGlobalWrites > 0) {
+      return true;
+    }
+    if (keys == null) {
+      return !mPendingWrites.isEmpty();
+    }
+    for (String key : keys) {
+      if (mPendingWrites.containsKey(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void addPendingWrite(@Nullable Collection<String> keys) {
+    if (keys == null) {
+      mPendingGlobalWrites++;
+      return;
+    }
+    for (String key : keys) {
+      Integer count = mPendingWrites.get(key);
+      mPendingWrites.put(key, count == null ? 1 : count + 1);
+    }
+  }
+
+  private synchronized void removePendingWrite(@Nullable Collection<String> keys) {
+    if (keys == null) {
+      mPendingGlobalWrites--;
+      return;
+    }
+    for (String key : keys) {
+      Integer count = mPendingWrites.get(key);
+      if (count == null || count <= 1) {
+        mPendingWrites.remove(key);
+      } else {
+        mPendingWrites.put(key, count - 1);
+      }
+    }
+  }
+
+  private static class DeferredTask {
+    // The task waits for the reads with a lower id
+    final long readIdBound;
+    final Runnable task;
+
+    DeferredTask(long readIdBound, Runnable task) {
+      this.readIdBound = readIdBound;
+      this.task = task;
+    }
+  }
+}
@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.reactnativecommunity.asyncstorage;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.facebook.common.logging.FLog;
+import com.facebook.react.common.ReactConstants;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Side storage for large values, next to the database file.
+ *
+ * Values whose UTF-8 encoding is larger than the threshold set with
+ * AsyncStorage_large_value_threshold_in_KB are written to files named after the SHA-256 of their
+ * content, and the table only holds a pointer to the file. Keeping them out of the table keeps
+ * rows far from the CursorWindow limit and the database file small. Files are read through a
+ * memory mapping.
+ *
+ * Several keys may point to the same file, so a file is only deleted once no row points to it:
+ * writes look up the files of the keys they overwrite or remove with {@link #getFiles} and pass
+ * them to {@link #deleteUnreferenced} once committed. Concurrent reads may still be about to read
+ * a file they found a pointer to before the commit, so the deletion waits for the reads in flight,
+ * see {@link AsyncStorageScheduler#afterCurrentReads}. {@link #collectGarbage} removes the files
+ * left behind by a write that was interrupted in between.
+ */
+/* package */ class AsyncStorageValueFiles {
+
+  // SQL variable number limit, see AsyncStorageModule
+  private static final int MAX_SQL_KEYS = 999;
+
+  // Starts with a noncharacter, so it cannot collide with text produced by JSON.stringify. Stored
+  // values that happen to start with it are written to a file as well, to stay unambiguous.
+  private static final String POINTER_PREFIX = "\uFDD0RKStorageFile:";
+  private static final String DIRECTORY_NAME = "RKStorage-values";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private AsyncStorageValueFiles() {}
+
+  /* package */ static boolean isEnabled() {
+    return BuildConfig.AsyncStorage_large_value_threshold > 0;
+  }
+
+  /**
+   * Returns what to store in the value column for the given value: the value itself, or a pointer
+   * to the file it was written to.
+   */
+  /* package */ static String encode(SQLiteDatabase db, String value) throws IOException {
+    byte[] bytes = null;
+    boolean large = false;
+    if (isEnabled()) {
+      long threshold = BuildConfig.AsyncStorage_large_value_threshold * 1024L;
+      // A char takes at most three bytes in UTF-8, so shorter values are never encoded
+      if (value.length() * 3L > threshold) {
+        bytes = value.getBytes(StandardCharsets.UTF_8);
+        large = bytes.length > threshold;
+      }
+    }
+    if (!large && !value.startsWith(POINTER_PREFIX)) {
+      return value;
+    }
+    if (bytes == null) {
+      bytes = value.getBytes(StandardCharsets.UTF_8);
+    }
+    String name = sha256(bytes);
+    File directory = getDirectory(db);
+    File file = new File(directory, name);
+    if (!file.exists()) {
+      if (!directory.exists() && !directory.mkdirs()) {
+        throw new IOException("Could not create " + directory);
+      }
+      // Write to a temporary file first, a file with the final name is always complete
+      File temp = File.createTempFile(name, TEMP_FILE_SUFFIX, directory);
+      try {
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+          out.write(bytes);
+          out.getFD().sync();
+        } finally {
+          out.close();
+        }
+        if (!temp.renameTo(file)) {
+          throw new IOException("Could not rename " + temp + " to " + file);
+        }
+      } finally {
+        if (temp.exists()) {
+          temp.delete();
+        }
+      }
+    }
+    return POINTER_PREFIX + name;
+  }
+
+  /**
+   * Returns the value for what is stored in the value column, reading it from its file if needed.
+   *
+   * @throws IOException if the file cannot be read
+   */
+  /* package */ static @Nullable String decode(SQLiteDatabase db, @Nullable String stored)
+      throws IOException {
+    if (stored == null || !stored.startsWith(POINTER_PREFIX)) {
+      return stored;
+    }
+    File file = new File(getDirectory(db), stored.substring(POINTER_PREFIX.length()));
+    FileInputStream in = new FileInputStream(file);
+    try {
+      FileChannel channel = in.getChannel();
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return StandardCharsets.UTF_8.decode(buffer).toString();
+    } finally {
+      in.close();
+    }
+  }
+
+  /** Deletes the value files of the database at the given path. */
+  /* package */ static void deleteAll(File databaseFile) {
+    File[] files = new File(databaseFile.getParentFile(), DIRECTORY_NAME).listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      deleteFile(file);
+    }
+  }
+
+  /**
+   * Returns the names of the files the given keys point to. Called in the transaction of a write,
+   * before the keys are overwritten or removed.
+   */
+  /* package */ static Set<String> getFiles(SQLiteDatabase db, Collection<String> allKeys) {
+    HashSet<String> names = new HashSet<>();
+    if (!getDirectory(db).exists()) {
+      return names;
+    }
+    List<String> keys = new ArrayList<>(allKeys.size());
+    for (String key : allKeys) {
+      if (key != null) {
+        keys.add(key);
+      }
+    }
+    for (int keyStart = 0; keyStart < keys.size(); keyStart += MAX_SQL_KEYS) {
+      int keyCount = Math.min(keys.size() - keyStart, MAX_SQL_KEYS);
+      Cursor cursor = db.query(
+          ReactDatabaseSupplier.TABLE_CATALYST,
+          new String[] {ReactDatabaseSupplier.VALUE_COLUMN},
+          AsyncLocalStorageUtil.buildKeySelection(keyCount) + " AND " + getPointerSelection(),
+          getSelectionArgs(keys.subList(keyStart, keyStart + keyCount)),
+          null,
+          null,
+          null);
+      try {
+        while (cursor.moveToNext()) {
+          names.add(cursor.getString(0).substring(POINTER_PREFIX.length()));
+        }
+      } finally {
+        cursor.close();
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Deletes those of the given files that no row points to anymore, once the reads in flight have
+   * completed. Called on the write queue once the write that overwrote or removed the keys returned
+   * by {@link #getFiles} is committed.
+   */
+  /* package */ static void deleteUnreferencedAfterReads(
+      final ReactDatabaseSupplier reactDatabaseSupplier,
+      AsyncStorageScheduler scheduler,
+      final Collection<String> names) {
+    if (names.isEmpty()) {
+      return;
+    }
+    scheduler.afterCurrentReads(new Runnable() {
+      @Override
+      public void run() {
+        if (reactDatabaseSupplier.ensureDatabase()) {
+          deleteUnreferenced(reactDatabaseSupplier.get(), names);
+        }
+      }
+    });
+  }
+
+  /**
+   * Deletes those of the given files that no row points to anymore. Called on the write queue once
+   * the write that overwrote or removed the keys returned by {@link #getFiles} is committed and the
+   * reads that started before have completed.
+   */
+  private static void deleteUnreferenced(SQLiteDatabase db, Collection<String> names) {
+    for (String name : names) {
+      try {
+        Cursor cursor = db.query(
+            ReactDatabaseSupplier.TABLE_CATALYST,
+            new String[] {ReactDatabaseSupplier.KEY_COLUMN},
+            ReactDatabaseSupplier.VALUE_COLUMN + "=?",
+            new String[] {POINTER_PREFIX + name},
+            null,
+            null,
+            null,
+            "1");
+        try {
+          if (cursor.getCount() == 0) {
+            deleteFile(new File(getDirectory(db), name));
+          }
+        } finally {
+          cursor.close();
+        }
+      } catch (Exception e) {
+        // The file is left for the next collectGarbage()
+        FLog.w(ReactConstants.TAG, e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Deletes the files that no row points to, and temporary files left behind by an interrupted
+   * write. Must run on the write queue.
+   */
+  /* package */ static void collectGarbage(SQLiteDatabase db) {
+    File[] files = getDirectory(db).listFiles();
+    if (files == null || files.length == 0) {
+      return;
+    }
+    HashSet<String> referenced = new HashSet<>();
+    Cursor cursor = db.query(
+        ReactDatabaseSupplier.TABLE_CATALYST,
+        new String[] {ReactDatabaseSupplier.VALUE_COLUMN},
+        getPointerSelection(),
+        new String[] {POINTER_PREFIX},
+        null,
+        null,
+        null);
+    try {
+      while (cursor.moveToNext()) {
+        referenced.add(cursor.getString(0).substring(POINTER_PREFIX.length()));
+      }
+    } finally {
+      cursor.close();
+    }
+    for (File file : files) {
+      if (!referenced.contains(file.getName())) {
+        deleteFile(file);
+      }
+    }
+  }
+
+  /** Selects the rows that hold a pointer. Takes the pointer prefix as its last argument. */
+  private static String getPointerSelection() {
+    return "substr(" + ReactDatabaseSupplier.VALUE_COLUMN + ", 1, " + POINTER_PREFIX.length()
+        + ")=?";
+  }
+
+  private static String[] getSelectionArgs(List<String> keys) {
+    String[] args = new String[keys.size() + 1];
+    keys.toArray(args);
+    args[keys.size()] = POINTER_PREFIX;
+    return args;
+  }
+
+  private static File getDirectory(SQLiteDatabase db) {
+    return new File(new File(db.getPath()).getParentFile(), DIRECTORY_NAME);
+  }
+
+  private static void deleteFile(File file) {
+    if (!file.delete() && file.exists()) {
+      FLog.w(ReactConstants.TAG, "Could not delete value file " + file);
+    }
+  }
+
+  private static String sha256(byte[] bytes) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest(bytes)) {
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+}
@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.reactnativecommunity.asyncstorage;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.facebook.common.logging.FLog;
+import com.facebook.react.bridge.Callback;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.common.ReactConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Write-behind buffer for {@link AsyncStorageModule}.
+ *
+ * Writes issued within the batching window are folded together per key, the last multiSet or
+ * multiRemove of a key wins and the multiMerge calls that follow it are applied on top, and the
+ * result is committed in a single transaction on the write queue. The callbacks of all the calls
+ * in a batch are invoked once the shared transaction has been committed.
+ *
+ * Reads of keys with pending writes must call {@link #flushIfPending} before they are scheduled,
+ * so that they are queued behind the commit.
+ */
+/* package */ class AsyncStorageWriteBatcher {
+
+  // How long shutdown() waits for the pending writes to be committed
+  private static final long SHUTDOWN_TIMEOUT_MS = 2000;
+
+  private final ReactDatabaseSupplier mReactDatabaseSupplier;
+  private final AsyncStorageScheduler mScheduler;
+  private final @Nullable AsyncStorageReadCache mReadCache;
+  private final long mWindowMs;
+  private final ScheduledExecutorService mTimer = Executors.newSingleThreadScheduledExecutor();
+
+  private LinkedHashMap<String, PendingValue> mPending = new LinkedHashMap<>();
+  private List<PendingCall> mPendingCalls = new ArrayList<>();
+  private boolean mFlushScheduled = false;
+  private volatile boolean mShuttingDown = false;
+
+  /* package */ AsyncStorageWriteBatcher(
+      ReactDatabaseSupplier reactDatabaseSupplier,
+      AsyncStorageScheduler scheduler,
+      @Nullable AsyncStorageReadCache readCache,
+      long windowMs) {
+    mReactDatabaseSupplier = reactDatabaseSupplier;
+    mScheduler = scheduler;
+    mReadCache = readCache;
+    mWindowMs = windowMs;
+  }
+
+  /** Buffers a multiSet. The (key, value) pairs must have been validated by the caller. */
+  /* package */ synchronized void set(ReadableArray keyValueArray, Callback callback) {
+    addCall(callback);
+    for (int idx = 0; idx < keyValueArray.size(); idx++) {
+      ReadableArray pair = keyValueArray.getArray(idx);
+      pendingValue(pair.getString(0)).replace(pair.getString(1));
+    }
+    scheduleFlush();
+  }
+
+  /** Buffers a multiMerge. The (key, value) pairs must have been validated by the caller. */
+  /* package */ synchronized void merge(ReadableArray keyValueArray, Callback callback) {
+    PendingCall call = addCall(callback);
+    for (int idx = 0; idx < keyValueArray.size(); idx++) {
+      ReadableArray pair = keyValueArray.getArray(idx);
+      pendingValue(pair.getString(0)).merge(pair.getString(1), call);
+    }
+    scheduleFlush();
+  }
+
+  /** Buffers a multiRemove. */
+  /* package */ synchronized void remove(ReadableArray keys, Callback callback) {
+    addCall(callback);
+    for (int idx = 0; idx < keys.size(); idx++) {
+      if (keys.getString(idx) != null) {
+        pendingValue(keys.getString(idx)).replace(null);
+      }
+    }
+    scheduleFlush();
+  }
+
+  /**
+   * Commits the pending writes if any of the given keys has one.
+   *
+   * @param keys the keys about to be read, or null for all keys
+   */
+  /* package */ synchronized void flushIfPending(@Nullable Collection<String> keys) {
+    if (keys == null) {
+      flush();
+      return;
+    }
+    for (String key : keys) {
+      if (mPending.containsKey(key)) {
+        flush();
+        return;
+      }
+    }
+  }
+
+  /** Hands the pending writes over to the write queue. */
+  /* package */ synchronized void flush() {
+    if (mPendingCalls.isEmpty()) {
+      return;
+    }
+    final LinkedHashMap<String, PendingValue> batch = mPending;
+    final List<PendingCall> calls = mPendingCalls;
+    mPending = new LinkedHashMap<>();
+    mPendingCalls = new ArrayList<>();
+    // Still holding the lock, so that a read that calls flushIfPending() right after is scheduled
+    // behind this commit
+    mScheduler.write(new ArrayList<>(batch.keySet()), new Runnable() {
+      @Override
+      public void run() {
+        commit(batch, calls);
+      }
+    });
+  }
+
+  /**
+   * Commits the pending writes and waits until they, and the writes handed over before them, are
+   * committed. The callbacks of the writes committed from then on are not invoked anymore, since
+   * the module is going away, and writes buffered later are handed over right away.
+   */
+  /* package */ void shutdown() {
+    final CountDownLatch committed = new CountDownLatch(1);
+    synchronized (this) {
+      mShuttingDown = true;
+      flush();
+      mScheduler.write(null, new Runnable() {
+        @Override
+        public void run() {
+          committed.countDown();
+        }
+      });
+    }
+    mTimer.shutdown();
+    try {
+      if (!committed.await(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        FLog.w(ReactConstants.TAG, "Timed out committing the AsyncStorage write-behind buffer");
+      }
+      mTimer.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private PendingCall addCall(Callback callback) {
+    PendingCall call = new PendingCall(callback);
+    mPendingCalls.add(call);
+    return call;
+  }
+
+  private PendingValue pendingValue(String key) {
+    PendingValue value = mPending.get(key);
+    if (value == null) {
+      value = new PendingValue();
+      mPending.put(key, value);
+    }
+    return value;
+  }
+
+  private void scheduleFlush() {
+    if (mShuttingDown) {
+      flush();
+      return;
+    }
+    if (mFlushScheduled) {
+      return;
+    }
+    mFlushScheduled = true;
+    mTimer.schedule(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (AsyncStorageWriteBatcher.this) {
+          mFlushScheduled = false;
+          flush();
+        }
+      }
+    }, mWindowMs, TimeUnit.MILLISECONDS);
+  }
+
+  private void commit(Map<String, PendingValue> batch, List<PendingCall> calls) {
+    boolean databaseError = false;
+    String error = null;
+    Set<String> releasedFiles = Collections.emptySet();
+    // Unlike the other operations, this does not check whether the module is shutting down: the
+    // writes have been acknowledged to the write-behind buffer and must not be dropped
+    if (!mReactDatabaseSupplier.ensureDatabase()) {
+      databaseError = true;
+    } else {
+      SQLiteDatabase db = mReactDatabaseSupplier.get();
+      try {
+        db.beginTransaction();
+        releasedFiles = AsyncStorageValueFiles.getFiles(db, batch.keySet());
+        SQLiteStatement insert = db.compileStatement(
+            "INSERT OR REPLACE INTO " + ReactDatabaseSupplier.TABLE_CATALYST + " VALUES (?, ?);");
+        SQLiteStatement delete = db.compileStatement(
+            "DELETE FROM " + ReactDatabaseSupplier.TABLE_CATALYST
+                + " WHERE " + ReactDatabaseSupplier.KEY_COLUMN + " = ?;");
+        for (Map.Entry<String, PendingValue> entry : batch.entrySet()) {
+          String key = entry.getKey();
+          String value;
+          try {
+            value = entry.getValue().resolve(db, key);
+          } catch (Exception e) {
+            // The stored value could not be read, only the calls that merged into this key fail
+            // and the key keeps its stored value
+            FLog.w(ReactConstants.TAG, e.getMessage(), e);
+            entry.getValue().fail(key, e.getMessage(), 0);
+            invalidate(key);
+            continue;
+          }
+          if (value == null) {
+            delete.clearBindings();
+            delete.bindString(1, key);
+            delete.execute();
+          } else {
+            insert.clearBindings();
+            insert.bindString(1, key);
+            insert.bindString(2, AsyncStorageValueFiles.encode(db, value));
+            insert.execute();
+          }
+        }
+        db.setTransactionSuccessful();
+      } catch (Exception e) {
+        FLog.w(ReactConstants.TAG, e.getMessage(), e);
+        error = String.valueOf(e.getMessage());
+      } finally {
+        try {
+          db.endTransaction();
+        } catch (Exception e) {
+          FLog.w(ReactConstants.TAG, e.getMessage(), e);
+          if (error == null) {
+            error = String.valueOf(e.getMessage());
+          }
+        }
+      }
+    }
+
+    if (databaseError || error != null) {
+      for (String key : batch.keySet()) {
+        invalidate(key);
+      }
+    } else {
+      AsyncStorageValueFiles.deleteUnreferencedAfterReads(
+          mReactDatabaseSupplier, mScheduler, releasedFiles);
+    }
+    if (mShuttingDown) {
+      return;
+    }
+    // Error maps are consumed when passed to a callback, each call gets its own
+    for (PendingCall call : calls) {
+      if (databaseError) {
+        call.callback.invoke(AsyncStorageErrorUtil.getDBError(null));
+      } else if (error != null) {
+        call.callback.invoke(AsyncStorageErrorUtil.getError(null, error));
+      } else if (call.errorMessage != null) {
+        call.callback.invoke(AsyncStorageErrorUtil.getError(call.errorKey, call.errorMessage));
+      } else {
+        call.callback.invoke();
+      }
+    }
+  }
+
+  private void invalidate(String key) {
+    if (mReadCache != null) {
+      mReadCache.invalidate(key);
+    }
+  }
+
+  private static class PendingCall {
+    final Callback callback;
+    @Nullable String errorKey;
+    @Nullable String errorMessage;
+
+    PendingCall(Callback callback) {
+      this.callback = callback;
+    }
+  }
+
+  /**
+   * The pending state of a key: optionally a new base value (null for a removal), followed by the
+   * values merged into it.
+   */
+  private static class PendingValue {
+    boolean replaced = false;
+    @Nullable String base;
+    final List<String> merges = new ArrayList<>();
+    final List<PendingCall> mergeCalls = new ArrayList<>();
+
+    void replace(@Nullable String value) {
+      replaced = true;
+      base = value;
+      merges.clear();
+      mergeCalls.clear();
+    }
+
+    void merge(String value, PendingCall call) {
+      merges.add(value);
+      mergeCalls.add(call);
+    }
+
+    /**
+     * Returns the value to store, or null if the key must be removed. If a merge fails, returns the
+     * value resolved before it and fails the calls of that merge and of the ones after it, the
+     * value they merged into being unknown.
+     */
+    @Nullable
+    String resolve(SQLiteDatabase db, String key) throws Exception {
+      String value = replaced ? base : AsyncLocalStorageUtil.getItemImpl(db, key);
+      for (int i = 0; i < merges.size(); i++) {
+        try {
+          value = AsyncLocalStorageUtil.mergeValues(value, merges.get(i));
+        } catch (Exception e) {
+          FLog.w(ReactConstants.TAG, e.getMessage(), e);
+          fail(key, e.getMessage(), i);
+          break;
+        }
+      }
+      return value;
+    }
+
+    /** Fails the calls of the merges from the given index on. */
+    void fail(String key, @Nullable String message, int fromIndex) {
+      for (int i = fromIndex; i < mergeCalls.size(); i++) {
+        PendingCall call = mergeCalls.get(i);
+        call.errorKey = key;
+        call.errorMessage = String.valueOf(message);
+      }
+    }
+  }
+}
@@ -46,6 +46,11 @@ public class ReactDatabaseSupplier extends SQLiteOpenHelper {
   private ReactDatabaseSupplier(Context context) {
     super(context, DATABASE_NAME, null, DATABASE_VERSION);
     mContext = context;
+    if (BuildConfig.AsyncStorage_concurrentReads) {
+      // In WAL mode, readers use their own connections from the pool of SQLiteDatabase and are not
+      // blocked by an ongoing write transaction
+      setWriteAheadLoggingEnabled(true);
+    }
   }
 
   public static ReactDatabaseSupplier getInstance(Context context) {
@@ -131,6 +136,7 @@ public class ReactDatabaseSupplier extends SQLiteOpenHelper {
 
   /* package */ synchronized void clear() {
     get().delete(TABLE_CATALYST, null, null);
+    AsyncStorageValueFiles.deleteAll(mContext.getDatabasePath(DATABASE_NAME));
   }
 
   /**
@@ -146,6 +152,7 @@ public class ReactDatabaseSupplier extends SQLiteOpenHelper {
 
   private synchronized boolean deleteDatabase() {
     closeDatabase();
+    AsyncStorageValueFiles.deleteAll(mContext.getDatabasePath(DATABASE_NAME));
     return mContext.deleteDatabase(DATABASE_NAME);
   }
 
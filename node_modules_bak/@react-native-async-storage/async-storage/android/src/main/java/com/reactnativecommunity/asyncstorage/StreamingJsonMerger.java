@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.reactnativecommunity.asyncstorage;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+import android.util.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONException;
+
+/**
+ * Deep merge of two JSON objects that streams the stored value instead of building a tree of it.
+ *
+ * Only the new value, usually a small patch, is parsed into memory. The stored value is walked
+ * with a pull parser and copied token by token to the output, replacing the members that the patch
+ * overrides and descending into the objects present on both sides. As with the tree based merge,
+ * the members of the stored value keep their order and the members only present in the patch are
+ * appended to their object. Number literals are copied as they are.
+ */
+public final class StreamingJsonMerger {
+
+  private static final Object JSON_NULL = new Object();
+
+  private StreamingJsonMerger() {}
+
+  /**
+   * Merges newValue into oldValue and returns the result.
+   *
+   * @throws JSONException if either value is not a JSON object
+   */
+  public static String merge(String oldValue, String newValue) throws JSONException {
+    try {
+      Map<String, Object> patch = readPatch(newValue);
+      StringWriter out = new StringWriter(oldValue.length() + newValue.length());
+      JsonReader reader = new JsonReader(new StringReader(oldValue));
+      reader.setLenient(true);
+      JsonWriter writer = new JsonWriter(out);
+      try {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+          throw new JSONException("Stored value is not a JSON object");
+        }
+        mergeObject(reader, writer, patch);
+        writer.flush();
+      } finally {
+        reader.close();
+      }
+      return out.toString();
+    } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+      throw new JSONException(e.getMessage());
+    }
+  }
+
+  private static Map<String, Object> readPatch(String value) throws IOException, JSONException {
+    JsonReader reader = new JsonReader(new StringReader(value));
+    reader.setLenient(true);
+    try {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        throw new JSONException("Merged value is not a JSON object");
+      }
+      @SuppressWarnings("unchecked")
+      Map<String, Object> patch = (Map<String, Object>) readValue(reader);
+      return patch;
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Copies the object the reader is positioned on to the writer, merging the patch into it.
+   */
+  private static void mergeObject(JsonReader reader, JsonWriter writer, Map<String, Object> patch)
+      throws IOException {
+    // Members that have not been written yet, they are appended at the end of the object
+    Map<String, Object> remaining = new LinkedHashMap<>(patch);
+    reader.beginObject();
+    writer.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      writer.name(name);
+      if (!remaining.containsKey(name)) {
+        copyValue(reader, writer);
+        continue;
+      }
+      Object patchValue = remaining.remove(name);
+      if (patchValue instanceof Map && reader.peek() == JsonToken.BEGIN_OBJECT) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> nestedPatch = (Map<String, Object>) patchValue;
+        mergeObject(reader, writer, nestedPatch);
+      } else {
+        reader.skipValue();
+        writeValue(writer, patchValue);
+      }
+    }
+    for (Map.Entry<String, Object> member : remaining.entrySet()) {
+      writer.name(member.getKey());
+      writeValue(writer, member.getValue());
+    }
+    reader.endObject();
+    writer.endObject();
+  }
+
+  private static void copyValue(JsonReader reader, JsonWriter writer) throws IOException {
+    switch (reader.peek()) {
+      case BEGIN_OBJECT:
+        reader.beginObject();
+        writer.beginObject();
+        while (reader.hasNext()) {
+          writer.name(reader.nextName());
+          copyValue(reader, writer);
+        }
+        reader.endObject();
+        writer.endObject();
+        break;
+      case BEGIN_ARRAY:
+        reader.beginArray();
+        writer.beginArray();
+        while (reader.hasNext()) {
+          copyValue(reader, writer);
+        }
+        reader.endArray();
+        writer.endArray();
+        break;
+      case STRING:
+        writer.value(reader.nextString());
+        break;
+      case NUMBER:
+        writer.value(new NumberLiteral(reader.nextString()));
+        break;
+      case BOOLEAN:
+        writer.value(reader.nextBoolean());
+        break;
+      case NULL:
+        reader.nextNull();
+        writer.nullValue();
+        break;
+      default:
+        throw new IllegalStateException("Unexpected token " + reader.peek());
+    }
+  }
+
+  /**
+   * Reads a value of the patch: objects become maps, arrays lists, numbers {@link NumberLiteral}s.
+   */
+  private static Object readValue(JsonReader reader) throws IOException {
+    switch (reader.peek()) {
+      case BEGIN_OBJECT:
+        Map<String, Object> object = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+          // Like JSONObject, the last occurrence of a duplicated name wins
+          String name = reader.nextName();
+          object.remove(name);
+          object.put(name, readValue(reader));
+        }
+        reader.endObject();
+        return object;
+      case BEGIN_ARRAY:
+        List<Object> array = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+          array.add(readValue(reader));
+        }
+        reader.endArray();
+        return array;
+      case STRING:
+        return reader.nextString();
+      case NUMBER:
+        return new NumberLiteral(reader.nextString());
+      case BOOLEAN:
+        return reader.nextBoolean();
+      case NULL:
+        reader.nextNull();
+        return JSON_NULL;
+      default:
+        throw new IllegalStateException("Unexpected token " + reader.peek());
+    }
+  }
+
+  private static void writeValue(JsonWriter writer, Object value) throws IOException {
+    if (value instanceof Map) {
+      writer.beginObject();
+      for (Map.Entry<?, ?> member : ((Map<?, ?>) value).entrySet()) {
+        writer.name((String) member.getKey());
+        writeValue(writer, member.getValue());
+      }
+      writer.endObject();
+    } else if (value instanceof List) {
+      writer.beginArray();
+      for (Object element : (List<?>) value) {
+        writeValue(writer, element);
+      }
+      writer.endArray();
+    } else if (value instanceof String) {
+      writer.value((String) value);
+    } else if (value instanceof Number) {
+      writer.value((Number) value);
+    } else if (value instanceof Boolean) {
+      writer.value((Boolean) value);
+    } else {
+      writer.nullValue();
+    }
+  }
+
+  /**
+   * A number that is written exactly as it was read. JsonWriter writes numbers with toString().
+   */
+  private static final class NumberLiteral extends Number {
+    private final String mLiteral;
+
+    NumberLiteral(String literal) {
+      mLiteral = literal;
+    }
+
+    @Override
+    public int intValue() {
+      return (int) doubleValue();
+    }
+
+    @Override
+    public long longValue() {
+      return (long) doubleValue();
+    }
+
+    @Override
+    public float floatValue() {
+      return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+      return Double.parseDouble(mLiteral);
+    }
+
+    @Override
+    public String toString() {
+      return mLiteral;
+    }
+  }
+}
@@ -2,8 +2,6 @@ package com.reactnativecommunity.asyncstorage.next
 
 import com.facebook.react.bridge.Arguments
 import com.facebook.react.bridge.ReadableArray
-import org.json.JSONException
-import org.json.JSONObject
 
 fun ReadableArray.toEntryList(): List<Entry> {
     val list = mutableListOf<Entry>()
@@ -41,6 +39,15 @@ fun ReadableArray.toKeyList(): List<String> {
     return list as List<String>
 }
 
+/**
+ * Page size for the prefix scans: the requested limit, capped to [MAX_PAGE_SIZE], which is also
+ * used when no valid limit is given.
+ */
+fun Double.toPageSize(): Int =
+    if (this >= 1) minOf(this, MAX_PAGE_SIZE.toDouble()).toInt() else MAX_PAGE_SIZE
+
+const val MAX_PAGE_SIZE = 1000
+
 fun List<Entry>.toKeyValueArgument(): ReadableArray {
     val args = Arguments.createArray()
 
@@ -53,34 +60,3 @@ fun List<Entry>.toKeyValueArgument(): ReadableArray {
 
     return args
 }
-
-fun String?.isValidJson(): Boolean {
-    if (this == null) return false
-
-    return try {
-        JSONObject(this)
-        true
-    } catch (e: JSONException) {
-        false
-    }
-}
-
-fun JSONObject.mergeWith(newObject: JSONObject): JSONObject {
-
-    val keys = newObject.keys()
-    val mergedObject = JSONObject(this.toString())
-
-    while (keys.hasNext()) {
-        val key = keys.next()
-        val curValue = this.optJSONObject(key)
-        val newValue = newObject.optJSONObject(key)
-
-        if (curValue != null && newValue != null) {
-            val merged = curValue.mergeWith(newValue)
-            mergedObject.put(key, merged)
-        } else {
-            mergedObject.put(key, newObject.get(key))
-        }
-    }
-    return mergedObject
-}
\ No newline at end of file
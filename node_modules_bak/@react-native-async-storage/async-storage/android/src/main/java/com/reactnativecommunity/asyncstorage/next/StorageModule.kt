@@ -84,6 +84,34 @@ class StorageModule(reactContext: ReactApplicationContext) : NativeAsyncStorageM
         }
     }
 
+    @ReactMethod
+    override fun getKeysWithPrefix(prefix: String, limit: Double, cursor: String?, cb: Callback) {
+        launch(createExceptionHandler(cb)) {
+            val pageSize = limit.toPageSize()
+            val keys = storage.getKeysWithPrefix(prefix, cursor, pageSize + 1)
+            val result = Arguments.createMap()
+            val page = Arguments.createArray()
+            keys.take(pageSize).forEach { page.pushString(it) }
+            result.putArray("keys", page)
+            result.putString("cursor", if (keys.size > pageSize) keys[pageSize - 1] else null)
+            cb.invoke(null, result)
+        }
+    }
+
+    @ReactMethod
+    override fun multiGetByPrefix(prefix: String, limit: Double, cursor: String?, cb: Callback) {
+        launch(createExceptionHandler(cb)) {
+            val pageSize = limit.toPageSize()
+            val entries = storage.getValuesWithPrefix(prefix, cursor, pageSize + 1)
+            val result = Arguments.createMap()
+            result.putArray("entries", entries.take(pageSize).toKeyValueArgument())
+            result.putString(
+                "cursor", if (entries.size > pageSize) entries[pageSize - 1].key else null
+            )
+            cb.invoke(null, result)
+        }
+    }
+
     @ReactMethod
     override fun clear(cb: Callback) {
         launch(createExceptionHandler(cb)) {
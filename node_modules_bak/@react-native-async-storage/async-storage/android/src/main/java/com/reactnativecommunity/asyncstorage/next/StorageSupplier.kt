@@ -10,12 +10,17 @@ import androidx.room.Insert
 import androidx.room.OnConflictStrategy
 import androidx.room.PrimaryKey
 import androidx.room.Query
+import androidx.room.RawQuery
 import androidx.room.Room
 import androidx.room.RoomDatabase
 import androidx.room.Transaction
 import androidx.room.migration.Migration
+import androidx.sqlite.db.SimpleSQLiteQuery
 import androidx.sqlite.db.SupportSQLiteDatabase
-import org.json.JSONObject
+import androidx.sqlite.db.SupportSQLiteQuery
+import com.reactnativecommunity.asyncstorage.AsyncLocalStorageUtil
+import com.reactnativecommunity.asyncstorage.StreamingJsonMerger
+import org.json.JSONException
 
 private const val DATABASE_VERSION = 2
 private const val DATABASE_NAME = "AsyncStorage"
@@ -47,22 +52,24 @@ internal interface StorageDao {
 
     @Transaction
     suspend fun mergeValues(entries: List<Entry>) {
-        val currentDbEntries = getValues(entries.map { it.key })
-        val newEntries = mutableListOf<Entry>()
+        // Values merged so far, so that merging the same key twice builds on the first merge
+        val values = getValues(entries.map { it.key })
+            .associateTo(HashMap()) { it.key to it.value }
 
         entries.forEach { newEntry ->
-            val oldEntry = currentDbEntries.find { it.key == newEntry.key }
-            if (oldEntry?.value == null) {
-                newEntries.add(newEntry)
-            } else if (!oldEntry.value.isValidJson() || !newEntry.value.isValidJson()) {
-                newEntries.add(newEntry)
+            val oldValue = values[newEntry.key]
+            values[newEntry.key] = if (oldValue == null || newEntry.value == null) {
+                newEntry.value
             } else {
-                val newValue =
-                    JSONObject(oldEntry.value).mergeWith(JSONObject(newEntry.value)).toString()
-                newEntries.add(newEntry.copy(value = newValue))
+                try {
+                    StreamingJsonMerger.merge(oldValue, newEntry.value)
+                } catch (e: JSONException) {
+                    // one of the values is not a JSON object, the new value replaces the old one
+                    newEntry.value
+                }
             }
         }
-        setValues(newEntries)
+        setValues(entries.map { it.key }.distinct().map { Entry(it, values[it]) })
     }
 
     @Transaction
@@ -72,6 +79,39 @@ internal interface StorageDao {
     @Transaction
     @Query("DELETE FROM $TABLE_NAME")
     suspend fun clear()
+
+    @RawQuery
+    suspend fun getKeysInRange(query: SupportSQLiteQuery): List<String>
+
+    @RawQuery
+    suspend fun getEntriesInRange(query: SupportSQLiteQuery): List<Entry>
+}
+
+/**
+ * Builds a query for at most [limit] rows whose key starts with [prefix] and comes after [cursor],
+ * ordered by key. Only range conditions are used, so that SQLite walks the primary key index.
+ */
+private fun prefixQuery(
+    column: String,
+    prefix: String,
+    cursor: String?,
+    limit: Int
+): SupportSQLiteQuery {
+    val selection = StringBuilder("`$COLUMN_KEY` >= ?")
+    val args = mutableListOf<Any>(prefix)
+    AsyncLocalStorageUtil.getPrefixUpperBound(prefix)?.let {
+        selection.append(" AND `$COLUMN_KEY` < ?")
+        args.add(it)
+    }
+    if (cursor != null) {
+        selection.append(" AND `$COLUMN_KEY` > ?")
+        args.add(cursor)
+    }
+    args.add(limit)
+    return SimpleSQLiteQuery(
+        "SELECT $column FROM $TABLE_NAME WHERE $selection ORDER BY `$COLUMN_KEY` LIMIT ?",
+        args.toTypedArray()
+    )
 }
 
 
@@ -141,6 +181,8 @@ interface AsyncStorageAccess {
     suspend fun getKeys(): List<String>
     suspend fun clear()
     suspend fun mergeValues(entries: List<Entry>)
+    suspend fun getKeysWithPrefix(prefix: String, cursor: String?, limit: Int): List<String>
+    suspend fun getValuesWithPrefix(prefix: String, cursor: String?, limit: Int): List<Entry>
 }
 
 class StorageSupplier internal constructor(db: StorageDb) : AsyncStorageAccess {
@@ -158,4 +200,8 @@ class StorageSupplier internal constructor(db: StorageDb) : AsyncStorageAccess {
     override suspend fun mergeValues(entries: List<Entry>) = access.mergeValues(entries)
     override suspend fun getKeys() = access.getKeys()
     override suspend fun clear() = access.clear()
+    override suspend fun getKeysWithPrefix(prefix: String, cursor: String?, limit: Int) =
+        access.getKeysInRange(prefixQuery("`$COLUMN_KEY`", prefix, cursor, limit))
+    override suspend fun getValuesWithPrefix(prefix: String, cursor: String?, limit: Int) =
+        access.getEntriesInRange(prefixQuery("*", prefix, cursor, limit))
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReactModuleWithSpec;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.turbomodule.core.interfaces.TurboModule;
+import javax.annotation.Nullable;
 
 public abstract class NativeAsyncStorageModuleSpec extends ReactContextBaseJavaModule implements ReactModuleWithSpec, TurboModule {
   public NativeAsyncStorageModuleSpec(ReactApplicationContext reactContext) {
@@ -44,4 +45,12 @@ public abstract class NativeAsyncStorageModuleSpec extends ReactContextBaseJavaM
   @ReactMethod
   @DoNotStrip
   public abstract void clear(Callback callback);
+
+  @ReactMethod
+  @DoNotStrip
+  public abstract void getKeysWithPrefix(String prefix, double limit, @Nullable String cursor, Callback callback);
+
+  @ReactMethod
+  @DoNotStrip
+  public abstract void multiGetByPrefix(String prefix, double limit, @Nullable String cursor, Callback callback);
 }
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) Facebook, Inc. and its affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.reactnativecommunity.asyncstorage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Mixed read/write bursts against the catalyst table, scheduled by {@link AsyncStorageScheduler}
+ * like {@link AsyncStorageModule} does, once with every operation on the serial executor and once
+ * with concurrent reads in WAL mode.
+ *
+ * Checks that every read observes the writes to its keys issued before it, and prints the read
+ * latencies of both modes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AsyncStorageContentionBenchmark {
+
+  private static final String DATABASE_NAME = "AsyncStorageContentionBenchmark";
+  private static final int BURSTS = 50;
+  private static final int ENTRIES_PER_WRITE = 200;
+  private static final int READS_PER_BURST = 20;
+  private static final int HOT_KEYS = 10;
+  private static final int MAX_CONCURRENT_READS = 3;
+
+  private Context mContext;
+
+  @Before
+  public void setup() {
+    mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    mContext.deleteDatabase(DATABASE_NAME);
+  }
+
+  @After
+  public void tearDown() {
+    mContext.deleteDatabase(DATABASE_NAME);
+  }
+
+  @Test
+  public void serialReadsAndWrites() throws InterruptedException {
+    report("serial", runBursts(false));
+  }
+
+  @Test
+  public void concurrentReadsWithSerialWrites() throws InterruptedException {
+    report("concurrent", runBursts(true));
+  }
+
+  private List<Long> runBursts(boolean concurrentReads) throws InterruptedException {
+    Helper helper = new Helper(mContext, concurrentReads);
+    final SQLiteDatabase db = helper.getWritableDatabase();
+    ExecutorService writeThread = Executors.newSingleThreadExecutor();
+    AsyncStorageScheduler scheduler = new AsyncStorageScheduler(
+        new SerialExecutor(writeThread),
+        concurrentReads ? Executors.newFixedThreadPool(MAX_CONCURRENT_READS) : null);
+    List<String> hotKeys = new ArrayList<>();
+    for (int i = 0; i < HOT_KEYS; i++) {
+      hotKeys.add("hot" + i);
+      write(db, Collections.singletonList("hot" + i), "value of hot" + i);
+    }
+
+    final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+    final ConcurrentLinkedQueue<String> staleReads = new ConcurrentLinkedQueue<>();
+    final CountDownLatch done = new CountDownLatch(BURSTS * (READS_PER_BURST + 2));
+    try {
+      for (int burst = 0; burst < BURSTS; burst++) {
+        final List<String> bulkKeys = new ArrayList<>();
+        for (int i = 0; i < ENTRIES_PER_WRITE; i++) {
+          bulkKeys.add("bulk" + i);
+        }
+        final String bulkValue = repeat(String.valueOf(burst), 512);
+        scheduler.write(bulkKeys, new Runnable() {
+          @Override
+          public void run() {
+            write(db, bulkKeys, bulkValue);
+            done.countDown();
+          }
+        });
+
+        final String ownKey = "own" + burst;
+        final String ownValue = "written in burst " + burst;
+        scheduler.write(Collections.singletonList(ownKey), new Runnable() {
+          @Override
+          public void run() {
+            write(db, Collections.singletonList(ownKey), ownValue);
+            done.countDown();
+          }
+        });
+        for (int i = 0; i < READS_PER_BURST; i++) {
+          // Every other read must observe the write above even if it has not run yet
+          final String key = i % 2 == 0 ? ownKey : hotKeys.get(i % HOT_KEYS);
+          final String expected = i % 2 == 0 ? ownValue : "value of " + key;
+          final long enqueuedAt = System.nanoTime();
+          scheduler.read(Collections.singletonList(key), new Runnable() {
+            @Override
+            public void run() {
+              String value = read(db, key);
+              latencies.add(System.nanoTime() - enqueuedAt);
+              if (!expected.equals(value)) {
+                staleReads.add(key + "=" + value);
+              }
+              done.countDown();
+            }
+          });
+        }
+      }
+      assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      scheduler.shutdown();
+      writeThread.shutdown();
+      writeThread.awaitTermination(10, TimeUnit.SECONDS);
+      helper.close();
+    }
+    assertThat(staleReads).isEmpty();
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    return sorted;
+  }
+
+  private static void write(SQLiteDatabase db, List<String> keys, String value) {
+    db.beginTransaction();
+    try {
+      for (String key : keys) {
+        ContentValues row = new ContentValues();
+        row.put(ReactDatabaseSupplier.KEY_COLUMN, key);
+        row.put(ReactDatabaseSupplier.VALUE_COLUMN, value);
+        db.insertWithOnConflict(
+            ReactDatabaseSupplier.TABLE_CATALYST, null, row, SQLiteDatabase.CONFLICT_REPLACE);
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  private static @Nullable String read(SQLiteDatabase db, String key) {
+    Cursor cursor = db.query(
+        ReactDatabaseSupplier.TABLE_CATALYST,
+        new String[] {ReactDatabaseSupplier.VALUE_COLUMN},
+        AsyncLocalStorageUtil.buildKeySelection(1),
+        new String[] {key},
+        null,
+        null,
+        null);
+    try {
+      return cursor.moveToFirst() ? cursor.getString(0) : null;
+    } finally {
+      cursor.close();
+    }
+  }
+
+  private static void report(String mode, List<Long> latencies) {
+    System.out.println(
+        "[AsyncStorage] " + mode + ": " + latencies.size() + " reads"
+            + ", p50 " + percentile(latencies, 50) + "us"
+            + ", p95 " + percentile(latencies, 95) + "us"
+            + ", p99 " + percentile(latencies, 99) + "us");
+  }
+
+  private static long percentile(List<Long> sortedLatencies, int percentile) {
+    long nanos = sortedLatencies.get((sortedLatencies.size() - 1) * percentile / 100);
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  private static String repeat(String string, int count) {
+    StringBuilder builder = new StringBuilder(string.length() * count);
+    for (int i = 0; i < count; i++) {
+      builder.append(string);
+    }
+    return builder.toString();
+  }
+
+  private static class Helper extends SQLiteOpenHelper {
+
+    Helper(Context context, boolean writeAheadLogging) {
+      super(context, DATABASE_NAME, null, 1);
+      setWriteAheadLoggingEnabled(writeAheadLogging);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+      db.execSQL(ReactDatabaseSupplier.VERSION_TABLE_CREATE);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {}
+  }
+}
@@ -68,6 +68,37 @@ class AsyncStorageAccessTest {
         assertThat(current.value).isEqualTo(VALUE_MERGED)
     }
 
+    @Test
+    fun mergesSameKeyTwiceInOneCall() = runBlocking {
+        asyncStorage.setValues(listOf(Entry("key", "{\"a\":1,\"b\":{\"c\":1.50}}")))
+        asyncStorage.mergeValues(
+            listOf(
+                Entry("key", "{\"b\":{\"d\":2}}"),
+                Entry("key", "{\"a\":[true,null],\"e\":\"x\"}"),
+                Entry("other", "not json"),
+            )
+        )
+        val current = asyncStorage.getValues(listOf("key", "other")).associateBy { it.key }
+        assertThat(current["key"]?.value)
+            .isEqualTo("{\"a\":[true,null],\"b\":{\"c\":1.50,\"d\":2},\"e\":\"x\"}")
+        assertThat(current["other"]?.value).isEqualTo("not json")
+    }
+
+    @Test
+    fun pagesThroughKeysWithPrefix() = runBlocking {
+        asyncStorage.setValues(
+            listOf("user:3", "user:1", "users", "user;", "user:2", "user", "use").map {
+                Entry(it, "v_$it")
+            }
+        )
+        val firstPage = asyncStorage.getKeysWithPrefix("user:", null, 2)
+        assertThat(firstPage).containsExactly("user:1", "user:2").inOrder()
+        val secondPage = asyncStorage.getValuesWithPrefix("user:", firstPage.last(), 2)
+        assertThat(secondPage).containsExactly(Entry("user:3", "v_user:3"))
+        assertThat(asyncStorage.getKeysWithPrefix("", "user:3", 10))
+            .containsExactly("user;", "users").inOrder()
+    }
+
     @Test
     fun updatesExistingValues() = runBlocking {
         val key = "test_key"
@@ -37,6 +37,8 @@ const asMock = {
   multiSet: jest.fn(_multiSet),
   multiRemove: jest.fn(_multiRemove),
   multiMerge: jest.fn(_multiMerge),
+  getKeysWithPrefix: jest.fn(_getKeysWithPrefix),
+  multiGetByPrefix: jest.fn(_multiGetByPrefix),
   useAsyncStorage: jest.fn((key) => {
     return {
       getItem: (...args) => asMock.getItem(key, ...args),
@@ -104,4 +106,35 @@ async function _multiMerge(keyValuePairs, callback) {
   return null;
 }
 
+function _scanKeys(prefix, limit, cursor) {
+  const pageSize = limit >= 1 ? Math.min(Math.floor(limit), 1000) : 1000;
+  const keys = Object.keys(asMock.__INTERNAL_MOCK_STORAGE__)
+    .filter((key) => key.startsWith(prefix) && (cursor == null || key > cursor))
+    .sort();
+  const page = keys.slice(0, pageSize);
+  return {
+    keys: page,
+    cursor: keys.length > pageSize ? page[pageSize - 1] : null,
+  };
+}
+
+async function _getKeysWithPrefix(prefix, limit, cursor, callback) {
+  const result = _scanKeys(prefix, limit, cursor);
+  callback && callback(null, result);
+  return result;
+}
+
+async function _multiGetByPrefix(prefix, limit, cursor, callback) {
+  const page = _scanKeys(prefix, limit, cursor);
+  const result = {
+    entries: page.keys.map((key) => [
+      key,
+      asMock.__INTERNAL_MOCK_STORAGE__[key],
+    ]),
+    cursor: page.cursor,
+  };
+  callback && callback(null, result);
+  return result;
+}
+
 module.exports = asMock;
@@ -7,6 +7,14 @@ export interface Spec extends TurboModule {
     multiMerge: (kvPairs: [string, string][], callback: (error?: ErrorLike[]) => void) => void;
     getAllKeys: (callback: (error?: ErrorLike[], result?: [string, string][]) => void) => void;
     clear: (callback: (error?: ErrorLike[]) => void) => void;
+    getKeysWithPrefix?: (prefix: string, limit: number, cursor: string | null, callback: (error?: ErrorLike, result?: {
+        keys: string[];
+        cursor: string | null;
+    }) => void) => void;
+    multiGetByPrefix?: (prefix: string, limit: number, cursor: string | null, callback: (error?: ErrorLike, result?: {
+        entries: [string, string][];
+        cursor: string | null;
+    }) => void) => void;
 }
 declare const _default: Spec | null;
 export default _default;
@@ -1,5 +1,5 @@
 import AsyncStorage from "./AsyncStorage";
 export { useAsyncStorage } from "./hooks";
-export type { AsyncStorageStatic } from "./types";
+export type { AsyncStorageStatic, KeyPage, KeyValuePage } from "./types";
 export default AsyncStorage;
 //# sourceMappingURL=index.d.ts.map
\ No newline at end of file
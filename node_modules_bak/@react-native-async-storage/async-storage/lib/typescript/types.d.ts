@@ -5,6 +5,14 @@ export type ErrorLike = {
 export type Callback = (error?: Error | null) => void;
 export type CallbackWithResult<T> = (error?: Error | null, result?: T | null) => void;
 export type KeyValuePair = [string, string | null];
+export type KeyPage = {
+    keys: readonly string[];
+    cursor: string | null;
+};
+export type KeyValuePage = {
+    entries: readonly KeyValuePair[];
+    cursor: string | null;
+};
 export type MultiCallback = (errors?: readonly (Error | null)[] | null) => void;
 export type MultiGetCallback = (errors?: readonly (Error | null)[] | null, result?: readonly KeyValuePair[]) => void;
 export type MultiRequest = {
@@ -110,5 +118,15 @@ export type AsyncStorageStatic = {
      * See https://react-native-async-storage.github.io/async-storage/docs/api#multimerge
      */
     multiMerge: (keyValuePairs: [string, string][], callback?: MultiCallback) => Promise<void>;
+    /**
+     * Gets the keys starting with `prefix`, in ascending order, at most `limit`
+     * of them (1000 at most, the default). Pass the returned `cursor` to get the
+     * next page; it is `null` on the last page.
+     */
+    getKeysWithPrefix: (prefix: string, limit?: number, cursor?: string | null, callback?: CallbackWithResult<KeyPage>) => Promise<KeyPage>;
+    /**
+     * Like `getKeysWithPrefix`, but returns the key-value pairs of the page.
+     */
+    multiGetByPrefix: (prefix: string, limit?: number, cursor?: string | null, callback?: CallbackWithResult<KeyValuePage>) => Promise<KeyValuePage>;
 };
 //# sourceMappingURL=types.d.ts.map
\ No newline at end of file
@@ -15,10 +15,18 @@ import RCTAsyncStorage from "./RCTAsyncStorage";
 import type {
   AsyncStorageStatic,
   ErrorLike,
+  KeyPage,
+  KeyValuePage,
   KeyValuePair,
   MultiRequest,
 } from "./types";
 
+function unsupported(method: string): Error {
+  return new Error(
+    `[@RNC/AsyncStorage]: ${method} is not supported on this platform.`
+  );
+}
+
 if (!RCTAsyncStorage) {
   throw new Error(`[@RNC/AsyncStorage]: NativeModule: AsyncStorage is null.
 
@@ -350,6 +358,66 @@ const AsyncStorage = ((): AsyncStorageStatic => {
         });
       });
     },
+
+    /**
+     * Gets the keys starting with `prefix`, in ascending order, one page at a
+     * time.
+     */
+    getKeysWithPrefix: (prefix, limit, cursor, callback) => {
+      return new Promise((resolve, reject) => {
+        checkValidInput(prefix);
+        if (!RCTAsyncStorage.getKeysWithPrefix) {
+          const err = unsupported("getKeysWithPrefix");
+          callback?.(err);
+          reject(err);
+          return;
+        }
+        RCTAsyncStorage.getKeysWithPrefix(
+          prefix,
+          limit ?? 0,
+          cursor ?? null,
+          (error?: ErrorLike, page?: KeyPage) => {
+            const err = convertError(error);
+            callback?.(err, page);
+            if (page) {
+              resolve(page);
+            } else {
+              reject(err);
+            }
+          }
+        );
+      });
+    },
+
+    /**
+     * Gets the key-value pairs whose key starts with `prefix`, in ascending
+     * order of keys, one page at a time.
+     */
+    multiGetByPrefix: (prefix, limit, cursor, callback) => {
+      return new Promise((resolve, reject) => {
+        checkValidInput(prefix);
+        if (!RCTAsyncStorage.multiGetByPrefix) {
+          const err = unsupported("multiGetByPrefix");
+          callback?.(err);
+          reject(err);
+          return;
+        }
+        RCTAsyncStorage.multiGetByPrefix(
+          prefix,
+          limit ?? 0,
+          cursor ?? null,
+          (error?: ErrorLike, page?: KeyValuePage) => {
+            const err = convertError(error);
+            callback?.(err, page);
+            if (page) {
+              resolve(page);
+            } else {
+              reject(err);
+            }
+          }
+        );
+      });
+    },
   };
 })();
 
@@ -9,6 +9,7 @@
 import mergeOptions from "merge-options";
 import type {
   AsyncStorageStatic,
+  KeyValuePair,
   MultiCallback,
   MultiGetCallback,
 } from "./types";
@@ -18,6 +19,8 @@ type OnMultiResult = Function;
 // eslint-disable-next-line @typescript-eslint/ban-types
 type OnResult = Function;
 
+const MAX_PAGE_SIZE = 1000;
+
 const merge = mergeOptions.bind({
   concatArrays: true,
   ignoreUndefined: true,
@@ -35,6 +38,38 @@ function mergeLocalStorageItem(key: string, value: string) {
   }
 }
 
+/**
+ * Returns one page of the keys starting with `prefix` and coming after
+ * `cursor`, in ascending order.
+ */
+function scanLocalStorageKeys(
+  prefix: string,
+  limit: number | undefined,
+  cursor: string | null | undefined
+) {
+  const pageSize =
+    limit && limit >= 1
+      ? Math.min(Math.floor(limit), MAX_PAGE_SIZE)
+      : MAX_PAGE_SIZE;
+  const keys: string[] = [];
+  for (let i = 0; i < window.localStorage.length; i += 1) {
+    const key = window.localStorage.key(i);
+    if (
+      key != null &&
+      key.startsWith(prefix) &&
+      (cursor == null || key > cursor)
+    ) {
+      keys.push(key);
+    }
+  }
+  keys.sort();
+  const page = keys.slice(0, pageSize);
+  return {
+    keys: page,
+    cursor: keys.length > pageSize ? page[pageSize - 1] : null,
+  };
+}
+
 function createPromise<Result, Callback extends OnResult>(
   getValue: () => Result,
   callback?: Callback
@@ -176,6 +211,32 @@ const AsyncStorage: AsyncStorageStatic = {
     );
     return createPromiseAll(promises, callback);
   },
+
+  /**
+   * Gets one page of the keys starting with `prefix`, in ascending order.
+   */
+  getKeysWithPrefix: (prefix, limit, cursor, callback) => {
+    return createPromise(
+      () => scanLocalStorageKeys(prefix, limit, cursor),
+      callback
+    );
+  },
+
+  /**
+   * Gets one page of the key-value pairs whose key starts with `prefix`.
+   */
+  multiGetByPrefix: (prefix, limit, cursor, callback) => {
+    return createPromise(() => {
+      const page = scanLocalStorageKeys(prefix, limit, cursor);
+      return {
+        entries: page.keys.map<KeyValuePair>((key) => [
+          key,
+          window.localStorage.getItem(key),
+        ]),
+        cursor: page.cursor,
+      };
+    }, callback);
+  },
 };
 
 export default AsyncStorage;
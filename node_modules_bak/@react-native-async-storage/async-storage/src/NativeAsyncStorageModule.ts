@@ -23,6 +23,25 @@ export interface Spec extends TurboModule {
     callback: (error?: ErrorLike[], result?: [string, string][]) => void
   ) => void;
   clear: (callback: (error?: ErrorLike[]) => void) => void;
+  // Only implemented on Android
+  getKeysWithPrefix?: (
+    prefix: string,
+    limit: number,
+    cursor: string | null,
+    callback: (
+      error?: ErrorLike,
+      result?: { keys: string[]; cursor: string | null }
+    ) => void
+  ) => void;
+  multiGetByPrefix?: (
+    prefix: string,
+    limit: number,
+    cursor: string | null,
+    callback: (
+      error?: ErrorLike,
+      result?: { entries: [string, string][]; cursor: string | null }
+    ) => void
+  ) => void;
 }
 
 export default TurboModuleRegistry.get<Spec>("RNCAsyncStorage");
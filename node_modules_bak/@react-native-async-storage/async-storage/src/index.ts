@@ -2,6 +2,6 @@ import AsyncStorage from "./AsyncStorage";
 
 export { useAsyncStorage } from "./hooks";
 
-export type { AsyncStorageStatic } from "./types";
+export type { AsyncStorageStatic, KeyPage, KeyValuePage } from "./types";
 
 export default AsyncStorage;
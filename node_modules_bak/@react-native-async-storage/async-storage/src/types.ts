@@ -12,6 +12,16 @@ export type CallbackWithResult<T> = (
 
 export type KeyValuePair = [string, string | null];
 
+export type KeyPage = {
+  keys: readonly string[];
+  cursor: string | null;
+};
+
+export type KeyValuePage = {
+  entries: readonly KeyValuePair[];
+  cursor: string | null;
+};
+
 export type MultiCallback = (errors?: readonly (Error | null)[] | null) => void;
 
 export type MultiGetCallback = (
@@ -152,4 +162,26 @@ export type AsyncStorageStatic = {
     keyValuePairs: [string, string][],
     callback?: MultiCallback
   ) => Promise<void>;
+
+  /**
+   * Gets the keys starting with `prefix`, in ascending order, at most `limit`
+   * of them (1000 at most, the default). Pass the returned `cursor` to get the
+   * next page; it is `null` on the last page.
+   */
+  getKeysWithPrefix: (
+    prefix: string,
+    limit?: number,
+    cursor?: string | null,
+    callback?: CallbackWithResult<KeyPage>
+  ) => Promise<KeyPage>;
+
+  /**
+   * Like `getKeysWithPrefix`, but returns the key-value pairs of the page.
+   */
+  multiGetByPrefix: (
+    prefix: string,
+    limit?: number,
+    cursor?: string | null,
+    callback?: CallbackWithResult<KeyValuePage>
+  ) => Promise<KeyValuePage>;
 };
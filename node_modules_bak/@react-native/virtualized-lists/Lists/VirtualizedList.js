@@ -1074,6 +1074,14 @@ class VirtualizedList extends StateSafePureComponent<Props, State> {
       onScrollEndDrag: this._onScrollEndDrag,
       onMomentumScrollBegin: this._onMomentumScrollBegin,
       onMomentumScrollEnd: this._onMomentumScrollEnd,
+      // On Android, clipped subviews are detached when they leave the render
+      // window rather than the viewport, and changes of the cells in the
+      // window are reported by onVisibleRangeChange.
+      virtualizationWindowSize:
+        Platform.OS === 'android' && this.props.removeClippedSubviews
+          ? windowSizeOrDefault(this.props.windowSize)
+          : undefined,
+      onVisibleRangeChange: this._onVisibleRangeChange,
       // iOS/macOS requires a non-zero scrollEventThrottle to fire more than a
       // single notification while scrolling. This will otherwise no-op.
       scrollEventThrottle: this.props.scrollEventThrottle ?? 0.0001,
@@ -1713,6 +1721,13 @@ class VirtualizedList extends StateSafePureComponent<Props, State> {
     this._scheduleCellsToRenderUpdate();
   };
 
+  _onVisibleRangeChange = (e: Object) => {
+    this.props.onVisibleRangeChange && this.props.onVisibleRangeChange(e);
+    // The cells in the render window changed, e.g. after a scroll that was
+    // not reported yet because of scrollEventThrottle or after a layout
+    this._scheduleCellsToRenderUpdate();
+  };
+
   _offsetFromScrollEvent(e: ScrollEvent): number {
     const {contentOffset, contentSize, layoutMeasurement} = e.nativeEvent;
     const {horizontal, rtl} = this._orientation();
@@ -9,6 +9,7 @@ import com.facebook.react.common.MapBuilder;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.ViewGroupManager;
 import com.facebook.react.uimanager.annotations.ReactProp;
+import com.facebook.react.uimanager.events.EventDispatcherImpl;
 import com.facebook.react.views.scroll.ScrollEventType;
 import com.reactnativecommunity.webview.events.TopCustomMenuSelectionEvent;
 import com.reactnativecommunity.webview.events.TopHttpErrorEvent;
@@ -25,6 +26,12 @@ import java.util.Map;
 
 public class RNCWebViewManager extends ViewGroupManager<RNCWebViewWrapper> {
 
+    static {
+        // Only the latest progress of a web view matters once JS is behind
+        EventDispatcherImpl.setCoalescingPolicy(
+            TopLoadingProgressEvent.EVENT_NAME, EventDispatcherImpl.CoalescingPolicy.LATEST);
+    }
+
     private final RNCWebViewManagerImpl mRNCWebViewManagerImpl;
 
     public RNCWebViewManager() {
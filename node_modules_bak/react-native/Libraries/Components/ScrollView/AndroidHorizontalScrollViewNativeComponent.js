@@ -19,7 +19,11 @@ import * as NativeComponentRegistry from '../../NativeComponent/NativeComponentR
 export const __INTERNAL_VIEW_CONFIG: PartialViewConfig = {
   uiViewClassName: 'AndroidHorizontalScrollView',
   bubblingEventTypes: {},
-  directEventTypes: {},
+  directEventTypes: {
+    topVisibleRangeChange: {
+      registrationName: 'onVisibleRangeChange',
+    },
+  },
   validAttributes: {
     decelerationRate: true,
     disableIntervalMomentum: true,
@@ -58,6 +62,7 @@ export const __INTERNAL_VIEW_CONFIG: PartialViewConfig = {
       process: require('../../StyleSheet/processColor').default,
     },
     pointerEvents: true,
+    virtualizationWindowSize: true,
   },
 };
 
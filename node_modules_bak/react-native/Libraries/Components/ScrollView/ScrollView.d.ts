@@ -580,6 +580,33 @@ export interface ScrollViewPropsAndroid {
    * Causes the scrollbars not to turn transparent when they are not in use. The default value is false.
    */
   persistentScrollbar?: boolean | undefined;
+
+  /**
+   * Length of the virtualization window, in viewport lengths along the scroll axis and centered
+   * on the viewport. With `removeClippedSubviews`, children are detached when they leave the
+   * window rather than the viewport.
+   *
+   * The default value is 0, which disables the window.
+   * @platform android
+   */
+  virtualizationWindowSize?: number | undefined;
+
+  /**
+   * Called when the indices of the first and last children of the content container
+   * intersecting the viewport or the virtualization window change. Indices are -1 when no child
+   * intersects.
+   * @platform android
+   */
+  onVisibleRangeChange?:
+    | ((
+        event: NativeSyntheticEvent<{
+          firstVisibleIndex: number;
+          lastVisibleIndex: number;
+          firstWindowIndex: number;
+          lastWindowIndex: number;
+        }>,
+      ) => void)
+    | undefined;
 }
 
 export interface ScrollViewProps
@@ -17,6 +17,7 @@ import type {
   LayoutEvent,
   PressEvent,
   ScrollEvent,
+  VisibleRangeChangeEvent,
 } from '../../Types/CoreEventTypes';
 import type {EventSubscription} from '../../vendor/emitter/EventEmitter';
 import type {KeyboardEvent, KeyboardMetrics} from '../Keyboard/Keyboard';
@@ -412,6 +413,26 @@ type AndroidProps = $ReadOnly<{|
    * @platform android
    */
   fadingEdgeLength?: ?number,
+  /**
+   * Length of the virtualization window, in viewport lengths along the
+   * scroll axis and centered on the viewport. With `removeClippedSubviews`,
+   * children are detached when they leave the window rather than the
+   * viewport. The children intersecting the viewport and the window are
+   * reported with `onVisibleRangeChange`.
+   *
+   * The default value is 0, which disables the window.
+   *
+   * @platform android
+   */
+  virtualizationWindowSize?: ?number,
+  /**
+   * Called when the indices of the first and last children of the content
+   * container intersecting the viewport or the virtualization window change.
+   * Indices are -1 when no child intersects.
+   *
+   * @platform android
+   */
+  onVisibleRangeChange?: ?(event: VisibleRangeChangeEvent) => void,
 |}>;
 
 type StickyHeaderComponentType = React.AbstractComponent<
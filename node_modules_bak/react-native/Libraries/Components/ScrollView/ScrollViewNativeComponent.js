@@ -39,6 +39,9 @@ export const __INTERNAL_VIEW_CONFIG: PartialViewConfig =
           topScrollEndDrag: {
             registrationName: 'onScrollEndDrag',
           },
+          topVisibleRangeChange: {
+            registrationName: 'onVisibleRangeChange',
+          },
         },
         validAttributes: {
           contentOffset: {
@@ -87,6 +90,7 @@ export const __INTERNAL_VIEW_CONFIG: PartialViewConfig =
           },
           pointerEvents: true,
           isInvertedVirtualizedList: true,
+          virtualizationWindowSize: true,
         },
       }
     : {
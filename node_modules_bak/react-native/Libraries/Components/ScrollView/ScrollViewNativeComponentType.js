@@ -13,7 +13,10 @@
 import type {EdgeInsetsProp} from '../../StyleSheet/EdgeInsetsPropType';
 import type {PointProp} from '../../StyleSheet/PointPropType';
 import type {ColorValue} from '../../StyleSheet/StyleSheet';
-import type {ScrollEvent} from '../../Types/CoreEventTypes';
+import type {
+  ScrollEvent,
+  VisibleRangeChangeEvent,
+} from '../../Types/CoreEventTypes';
 import type {ViewProps} from '../View/ViewPropTypes';
 
 export type ScrollViewNativeProps = $ReadOnly<{
@@ -56,6 +59,7 @@ export type ScrollViewNativeProps = $ReadOnly<{
   onScrollBeginDrag?: ?(event: ScrollEvent) => void,
   onScrollEndDrag?: ?(event: ScrollEvent) => void,
   onScrollToTop?: (event: ScrollEvent) => void,
+  onVisibleRangeChange?: ?(event: VisibleRangeChangeEvent) => void,
   overScrollMode?: ?('auto' | 'always' | 'never'),
   pagingEnabled?: ?boolean,
   persistentScrollbar?: ?boolean,
@@ -74,6 +78,7 @@ export type ScrollViewNativeProps = $ReadOnly<{
   snapToInterval?: ?number,
   snapToOffsets?: ?$ReadOnlyArray<number>,
   snapToStart?: ?boolean,
+  virtualizationWindowSize?: ?number,
   zoomScale?: ?number,
   // Overrides
   onResponderGrant?: ?(e: $FlowFixMe) => void | boolean,
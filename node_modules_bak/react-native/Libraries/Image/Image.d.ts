@@ -70,8 +70,12 @@ interface ImagePropsAndroid {
    * 'scale': The image gets drawn downscaled or upscaled. Compared to resize, scale is faster (usually hardware accelerated)
    * and produces higher quality images. This should be used if the image is smaller than the view.
    * It should also be used if the image is slightly bigger than the view.
+   *
+   * 'downsample': Like resize, but also applied to network images. The image is decoded with a
+   * sample size matching the view's size, rounded up to a size bucket so that views of similar
+   * size share cache entries. This should be used for large remote images shown in small views.
    */
-  resizeMethod?: 'auto' | 'resize' | 'scale' | undefined;
+  resizeMethod?: 'auto' | 'resize' | 'scale' | 'downsample' | undefined;
 
   /**
    * Duration of fade in animation in ms. Defaults to 300
@@ -208,11 +212,15 @@ export interface ImagePropsBase
    * should be used if the image is smaller than the view. It should also be used if the
    * image is slightly bigger than the view.
    *
+   * - `downsample`: Like `resize`, but also applied to network images. The image is
+   * decoded with a sample size matching the view's size, rounded up to a size bucket so
+   * that views of similar size share cache entries.
+   *
    * More details about `resize` and `scale` can be found at http://frescolib.org/docs/resizing-rotating.html.
    *
    * @platform android
    */
-  resizeMethod?: 'auto' | 'resize' | 'scale' | undefined;
+  resizeMethod?: 'auto' | 'resize' | 'scale' | 'downsample' | undefined;
 
   /**
    * The image source (either a remote URL or a local file resource).
@@ -186,7 +186,7 @@ export type ImageProps = {|
   /**
    * See https://reactnative.dev/docs/image#resizemethod
    */
-  resizeMethod?: ?('auto' | 'resize' | 'scale'),
+  resizeMethod?: ?('auto' | 'resize' | 'scale' | 'downsample'),
 
   /**
    * The image source (either a remote URL or a local file resource).
@@ -9,7 +9,7 @@
  */
 
 import type {RequestBody} from './convertRequestBody';
-import type {NativeResponseType} from './XMLHttpRequest';
+import type {NativeResponseType, RequestPriority} from './XMLHttpRequest';
 
 // Do not require the native RCTNetworking module directly! Use this wrapper module instead.
 // It will add the necessary requestId, so that you don't have to generate it yourself.
@@ -60,6 +60,7 @@ class RCTNetworking extends NativeEventEmitter<$FlowFixMe> {
     timeout: number,
     callback: (requestId: number) => mixed,
     withCredentials: boolean,
+    priority?: ?RequestPriority,
   ) {
     const body = convertRequestBody(data);
     if (body && body.formData) {
@@ -74,7 +75,7 @@ class RCTNetworking extends NativeEventEmitter<$FlowFixMe> {
       url,
       requestId,
       convertHeadersMapToArray(headers),
-      {...body, trackingName},
+      {...body, trackingName, priority},
       responseType,
       incrementalUpdates,
       timeout,
@@ -90,6 +91,18 @@ class RCTNetworking extends NativeEventEmitter<$FlowFixMe> {
   clearCookies(callback: (result: boolean) => any) {
     NativeNetworkingAndroid.clearCookies(callback);
   }
+
+  getCacheStatistics(): Promise<Object> {
+    return NativeNetworkingAndroid.getCacheStatistics();
+  }
+
+  setPriorityPaused(priority: RequestPriority, paused: boolean) {
+    NativeNetworkingAndroid.setPriorityPaused(priority, paused);
+  }
+
+  getTimingHistograms(): Promise<Object> {
+    return NativeNetworkingAndroid.getTimingHistograms();
+  }
 }
 
 export default (new RCTNetworking(): RCTNetworking);
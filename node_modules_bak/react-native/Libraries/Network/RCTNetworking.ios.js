@@ -83,6 +83,8 @@ const RCTNetworking = {
     timeout: number,
     callback: (requestId: number) => void,
     withCredentials: boolean,
+    // Only used on Android
+    priority?: ?string,
   ) {
     const body = convertRequestBody(data);
     NativeNetworkingIOS.sendRequest(
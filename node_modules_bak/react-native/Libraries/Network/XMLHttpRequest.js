@@ -33,6 +33,23 @@ export type ResponseType =
   | 'text';
 export type Response = ?Object | string;
 
+export type RequestPriority =
+  | 'interactive'
+  | 'visible'
+  | 'prefetch'
+  | 'background';
+
+export type NetworkTiming = {
+  dns: number,
+  connect: number,
+  tls: number,
+  ttfb: number,
+  download: number,
+  total: number,
+  connectionReused: boolean,
+  protocol: ?string,
+};
+
 type XHRInterceptor = interface {
   requestSent(id: number, url: string, method: string, headers: Object): void,
   responseReceived(
@@ -122,6 +139,9 @@ class XMLHttpRequest extends (EventTarget(...XHR_EVENTS): any) {
   timeout: number = 0;
   responseURL: ?string;
   withCredentials: boolean = true;
+  // Android only: phase durations in milliseconds, -1 for the phases that did
+  // not happen, set once the request completes
+  networkTiming: ?NetworkTiming = null;
 
   upload: XMLHttpRequestEventTarget = new XMLHttpRequestEventTarget();
 
@@ -135,6 +155,7 @@ class XMLHttpRequest extends (EventTarget(...XHR_EVENTS): any) {
   _lowerCaseResponseHeaders: Object;
   _method: ?string = null;
   _perfKey: ?string = null;
+  _priority: ?RequestPriority = null;
   _responseType: ResponseType;
   _response: string = '';
   _sent: boolean;
@@ -158,6 +179,7 @@ class XMLHttpRequest extends (EventTarget(...XHR_EVENTS): any) {
     this.responseHeaders = undefined;
     this.status = 0;
     delete this.responseURL;
+    this.networkTiming = null;
 
     this._requestId = null;
 
@@ -379,8 +401,10 @@ class XMLHttpRequest extends (EventTarget(...XHR_EVENTS): any) {
     requestId: number,
     error: string,
     timeOutError: boolean,
+    timing?: NetworkTiming,
   ): void {
     if (requestId === this._requestId) {
+      this.networkTiming = timing ?? null;
       if (error) {
         if (this._responseType === '' || this._responseType === 'text') {
           this._response = error;
@@ -486,6 +510,15 @@ class XMLHttpRequest extends (EventTarget(...XHR_EVENTS): any) {
     return this;
   }
 
+  /**
+   * Custom extension for scheduling the request ahead of or behind others,
+   * Android only. Requests default to 'interactive'.
+   */
+  setPriority(priority: RequestPriority): XMLHttpRequest {
+    this._priority = priority;
+    return this;
+  }
+
   /**
    * Custom extension for setting a custom performance logger
    */
@@ -591,6 +624,7 @@ class XMLHttpRequest extends (EventTarget(...XHR_EVENTS): any) {
         // $FlowFixMe[method-unbinding] added when improving typing for this parameters
         this.__didCreateRequest.bind(this),
         this.withCredentials,
+        this._priority,
       );
     };
     if (DEBUG_NETWORK_SEND_DELAY) {
@@ -270,6 +270,15 @@ export type ScrollEvent = SyntheticEvent<
   |}>,
 >;
 
+export type VisibleRangeChangeEvent = SyntheticEvent<
+  $ReadOnly<{|
+    firstVisibleIndex: number,
+    lastVisibleIndex: number,
+    firstWindowIndex: number,
+    lastWindowIndex: number,
+  |}>,
+>;
+
 export type BlurEvent = SyntheticEvent<
   $ReadOnly<{|
     target: number,
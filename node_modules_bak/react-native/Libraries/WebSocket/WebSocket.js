@@ -51,14 +51,17 @@ const WEBSOCKET_EVENTS = ['close', 'error', 'message', 'open'];
 
 let nextWebSocketId = 0;
 
+type WebSocketMessage =
+  | {type: 'binary', id: number, data: string}
+  | {type: 'text', id: number, data: string}
+  | {type: 'blob', id: number, data: BlobData};
+
 type WebSocketEventDefinitions = {
   websocketOpen: [{id: number, protocol: string}],
   websocketClosed: [{id: number, code: number, reason: string}],
-  websocketMessage: [
-    | {type: 'binary', id: number, data: string}
-    | {type: 'text', id: number, data: string}
-    | {type: 'blob', id: number, data: BlobData},
-  ],
+  websocketMessage: [WebSocketMessage],
+  // Sent instead of websocketMessage by sockets opened with `batchMessages`
+  websocketMessageBatch: [{id: number, messages: Array<WebSocketMessage>}],
   websocketFailed: [{id: number, message: string}],
 };
 
@@ -98,7 +101,12 @@ class WebSocket extends (EventTarget(...WEBSOCKET_EVENTS): any) {
   constructor(
     url: string,
     protocols: ?string | ?Array<string>,
-    options: ?{headers?: {origin?: string, ...}, ...},
+    options: ?{
+      headers?: {origin?: string, ...},
+      // Android only: deliver the messages received during a frame together
+      batchMessages?: boolean,
+      ...
+    },
   ) {
     super();
     this.url = url;
@@ -106,7 +114,11 @@ class WebSocket extends (EventTarget(...WEBSOCKET_EVENTS): any) {
       protocols = [protocols];
     }
 
-    const {headers = {}, ...unrecognized} = options || {};
+    const {
+      headers = {},
+      batchMessages = false,
+      ...unrecognized
+    } = options || {};
 
     // Preserve deprecated backwards compatibility for the 'origin' option
     // $FlowFixMe[prop-missing]
@@ -145,7 +157,12 @@ class WebSocket extends (EventTarget(...WEBSOCKET_EVENTS): any) {
     );
     this._socketId = nextWebSocketId++;
     this._registerEvents();
-    NativeWebSocketModule.connect(url, protocols, {headers}, this._socketId);
+    NativeWebSocketModule.connect(
+      url,
+      protocols,
+      {headers, batchMessages},
+      this._socketId,
+    );
   }
 
   get binaryType(): ?BinaryType {
@@ -230,22 +247,32 @@ class WebSocket extends (EventTarget(...WEBSOCKET_EVENTS): any) {
     this._subscriptions = [];
   }
 
+  _dispatchMessage(message: WebSocketMessage): void {
+    let data: Blob | BlobData | ArrayBuffer | string = message.data;
+    switch (message.type) {
+      case 'binary':
+        data = base64.toByteArray(message.data).buffer;
+        break;
+      case 'blob':
+        data = BlobManager.createFromOptions(message.data);
+        break;
+    }
+    this.dispatchEvent(new WebSocketEvent('message', {data}));
+  }
+
   _registerEvents(): void {
     this._subscriptions = [
       this._eventEmitter.addListener('websocketMessage', ev => {
         if (ev.id !== this._socketId) {
           return;
         }
-        let data: Blob | BlobData | ArrayBuffer | string = ev.data;
-        switch (ev.type) {
-          case 'binary':
-            data = base64.toByteArray(ev.data).buffer;
-            break;
-          case 'blob':
-            data = BlobManager.createFromOptions(ev.data);
-            break;
+        this._dispatchMessage(ev);
+      }),
+      this._eventEmitter.addListener('websocketMessageBatch', ev => {
+        if (ev.id !== this._socketId) {
+          return;
         }
-        this.dispatchEvent(new WebSocketEvent('message', {data}));
+        ev.messages.forEach(message => this._dispatchMessage(message));
       }),
       this._eventEmitter.addListener('websocketOpen', ev => {
         if (ev.id !== this._socketId) {
@@ -66,7 +66,8 @@ const WebSocketInterceptor = {
   },
 
   /**
-   * Invoked when event "websocketMessage" happens.
+   * Invoked when event "websocketMessage" happens, and for each message of a
+   * "websocketMessageBatch" event.
    */
   setOnMessageCallback(callback) {
     onMessageCallback = callback;
@@ -110,6 +111,18 @@ const WebSocketInterceptor = {
           );
         }
       }),
+      eventEmitter.addListener('websocketMessageBatch', ev => {
+        if (onMessageCallback) {
+          ev.messages.forEach(message =>
+            onMessageCallback(
+              ev.id,
+              message.type === 'binary'
+                ? WebSocketInterceptor._arrayBufferToString(message.data)
+                : message.data,
+            ),
+          );
+        }
+      }),
       eventEmitter.addListener('websocketOpen', ev => {
         if (onOpenCallback) {
           onOpenCallback(ev.id);
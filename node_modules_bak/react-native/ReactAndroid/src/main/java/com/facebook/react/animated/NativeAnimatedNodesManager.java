@@ -30,12 +30,10 @@ import com.facebook.react.uimanager.common.ViewUtil;
 import com.facebook.react.uimanager.events.Event;
 import com.facebook.react.uimanager.events.EventDispatcher;
 import com.facebook.react.uimanager.events.EventDispatcherListener;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Queue;
 
 /**
  * This is the main class that coordinates how native animated JS implementation drives UI changes.
@@ -63,7 +61,16 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
   private final ReactApplicationContext mReactApplicationContext;
   private int mAnimatedGraphBFSColor = 0;
   // Used to avoid allocating a new array on every frame in `runUpdates` and `onEventDispatch`.
-  private final List<AnimatedNode> mRunUpdateNodeList = new LinkedList<>();
+  private final List<AnimatedNode> mRunUpdateNodeList = new ArrayList<>();
+  // Nodes to update in topological order, computed from the graph and the list of nodes passed to
+  // `updateNodes`. Reused on the next frames while neither of them changes.
+  private AnimatedNode[] mUpdateOrder = new AnimatedNode[16];
+  private int mUpdateOrderSize = 0;
+  private AnimatedNode[] mUpdateOrderRoots = new AnimatedNode[16];
+  private int mUpdateOrderRootsSize = 0;
+  private boolean mUpdateOrderValid = false;
+  // Queue of the traversal that finds the active nodes, kept to avoid allocating it on every frame
+  private AnimatedNode[] mActiveNodesQueue = new AnimatedNode[16];
 
   private boolean mEventListenerInitializedForFabric = false;
   private boolean mEventListenerInitializedForNonFabric = false;
@@ -150,6 +157,7 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
     node.mTag = tag;
     mAnimatedNodes.put(tag, node);
     mUpdatedNodes.put(tag, node);
+    mUpdateOrderValid = false;
   }
 
   @UiThread
@@ -171,6 +179,7 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
   public void dropAnimatedNode(int tag) {
     mAnimatedNodes.remove(tag);
     mUpdatedNodes.remove(tag);
+    mUpdateOrderValid = false;
   }
 
   @UiThread
@@ -388,6 +397,7 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
     }
     parentNode.addChild(childNode);
     mUpdatedNodes.put(childNodeTag, childNode);
+    mUpdateOrderValid = false;
   }
 
   public void disconnectAnimatedNodes(int parentNodeTag, int childNodeTag) {
@@ -407,6 +417,7 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
     }
     parentNode.removeChild(childNode);
     mUpdatedNodes.put(childNodeTag, childNode);
+    mUpdateOrderValid = false;
   }
 
   @UiThread
@@ -626,6 +637,10 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
    * an attribute {@code mActiveIncomingNodes}. The second BFS runs in topological order over the
    * sub-graph of *active* nodes. This is done by adding node to the BFS queue only if all its
    * "predecessors" have already been visited.
+   *
+   * <p>The resulting order is kept and reused on the next frames as long as the graph is not
+   * changed and the nodes to start from are the same, which is the case while the same animations
+   * run. Nodes are then updated by walking the order, without traversing the graph.
    */
   @UiThread
   public void runUpdates(long frameTimeNanos) {
@@ -689,6 +704,12 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
 
   @UiThread
   private void updateNodes(List<AnimatedNode> nodes) {
+    if (mUpdateOrderValid && hasSameUpdateOrderRoots(nodes)) {
+      runUpdateOrder();
+      return;
+    }
+    mUpdateOrderValid = false;
+
     int activeNodesCount = 0;
     int updatedNodesCount = 0;
 
@@ -704,29 +725,29 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
       mAnimatedGraphBFSColor++;
     }
 
-    Queue<AnimatedNode> nodesQueue = new ArrayDeque<>();
     for (AnimatedNode node : nodes) {
       if (node.mBFSColor != mAnimatedGraphBFSColor) {
         node.mBFSColor = mAnimatedGraphBFSColor;
+        mActiveNodesQueue = append(mActiveNodesQueue, activeNodesCount, node);
         activeNodesCount++;
-        nodesQueue.add(node);
       }
     }
 
-    while (!nodesQueue.isEmpty()) {
-      AnimatedNode nextNode = nodesQueue.poll();
+    for (int queueHead = 0; queueHead < activeNodesCount; queueHead++) {
+      AnimatedNode nextNode = mActiveNodesQueue[queueHead];
       if (nextNode.mChildren != null) {
         for (int i = 0; i < nextNode.mChildren.size(); i++) {
           AnimatedNode child = nextNode.mChildren.get(i);
           child.mActiveIncomingNodes++;
           if (child.mBFSColor != mAnimatedGraphBFSColor) {
             child.mBFSColor = mAnimatedGraphBFSColor;
+            mActiveNodesQueue = append(mActiveNodesQueue, activeNodesCount, child);
             activeNodesCount++;
-            nodesQueue.add(child);
           }
         }
       }
     }
+    Arrays.fill(mActiveNodesQueue, 0, activeNodesCount, null);
 
     // STEP 2
     // BFS over the graph of active nodes in topological order -> visit node only when all its
@@ -734,7 +755,8 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
     // order as they may often use values of their predecessors in order to calculate "next state"
     // of their own. We start by determining the starting set of nodes by looking for nodes with
     // `mActiveIncomingNodes = 0` (those can only be the ones that we start BFS in the previous
-    // step). We store number of visited nodes in this step in `updatedNodesCount`
+    // step). The order array is used as the BFS queue, its size is the number of visited nodes
+    // `updatedNodesCount`
 
     mAnimatedGraphBFSColor++;
     if (mAnimatedGraphBFSColor == AnimatedNode.INITIAL_BFS_COLOR) {
@@ -744,52 +766,36 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
 
     // find nodes with zero "incoming nodes", those can be either nodes from `mUpdatedNodes` or
     // ones connected to active animations
+    Arrays.fill(mUpdateOrder, 0, mUpdateOrderSize, null);
     for (AnimatedNode node : nodes) {
       if (node.mActiveIncomingNodes == 0 && node.mBFSColor != mAnimatedGraphBFSColor) {
         node.mBFSColor = mAnimatedGraphBFSColor;
+        mUpdateOrder = append(mUpdateOrder, updatedNodesCount, node);
         updatedNodesCount++;
-        nodesQueue.add(node);
       }
     }
 
-    // Run main "update" loop
     int cyclesDetected = 0;
-    while (!nodesQueue.isEmpty()) {
-      AnimatedNode nextNode = nodesQueue.poll();
-      try {
-        nextNode.update();
-        if (nextNode instanceof PropsAnimatedNode) {
-          // Send property updates to native view manager
-          ((PropsAnimatedNode) nextNode).updateView();
-        }
-      } catch (JSApplicationCausedNativeException e) {
-        // An exception is thrown if the view hasn't been created yet. This can happen because
-        // views are created in batches. If this particular view didn't make it into a batch yet,
-        // the view won't exist and an exception will be thrown when attempting to start an
-        // animation on it.
-        //
-        // Eat the exception rather than crashing. The impact is that we may drop one or more
-        // frames of the animation.
-        FLog.e(TAG, "Native animation workaround, frame lost as result of race condition", e);
-      }
-      if (nextNode instanceof ValueAnimatedNode) {
-        // Potentially send events to JS when the node's value is updated
-        ((ValueAnimatedNode) nextNode).onValueUpdate();
-      }
+    for (int queueHead = 0; queueHead < updatedNodesCount; queueHead++) {
+      AnimatedNode nextNode = mUpdateOrder[queueHead];
       if (nextNode.mChildren != null) {
         for (int i = 0; i < nextNode.mChildren.size(); i++) {
           AnimatedNode child = nextNode.mChildren.get(i);
           child.mActiveIncomingNodes--;
           if (child.mBFSColor != mAnimatedGraphBFSColor && child.mActiveIncomingNodes == 0) {
             child.mBFSColor = mAnimatedGraphBFSColor;
+            mUpdateOrder = append(mUpdateOrder, updatedNodesCount, child);
             updatedNodesCount++;
-            nodesQueue.add(child);
           } else if (child.mBFSColor == mAnimatedGraphBFSColor) {
             cyclesDetected++;
           }
         }
       }
     }
+    mUpdateOrderSize = updatedNodesCount;
+
+    // Run main "update" loop
+    runUpdateOrder();
 
     // Verify that we've visited *all* active nodes. Throw otherwise as this could mean there is a
     // cycle in animated node graph, or that the graph is only partially set up. We also take
@@ -838,7 +844,64 @@ public class NativeAnimatedNodesManager implements EventDispatcherListener {
       }
     } else {
       mWarnedAboutGraphTraversal = false;
+      // The order is complete, keep it for the next frames
+      mUpdateOrderRootsSize = 0;
+      Arrays.fill(mUpdateOrderRoots, null);
+      for (AnimatedNode node : nodes) {
+        mUpdateOrderRoots = append(mUpdateOrderRoots, mUpdateOrderRootsSize, node);
+        mUpdateOrderRootsSize++;
+      }
+      mUpdateOrderValid = true;
+    }
+  }
+
+  /** Updates the nodes of {@code mUpdateOrder}, which is in topological order. */
+  @UiThread
+  private void runUpdateOrder() {
+    for (int orderIdx = 0; orderIdx < mUpdateOrderSize; orderIdx++) {
+      AnimatedNode nextNode = mUpdateOrder[orderIdx];
+      try {
+        nextNode.update();
+        if (nextNode instanceof PropsAnimatedNode) {
+          // Send property updates to native view manager
+          ((PropsAnimatedNode) nextNode).updateView();
+        }
+      } catch (JSApplicationCausedNativeException e) {
+        // An exception is thrown if the view hasn't been created yet. This can happen because
+        // views are created in batches. If this particular view didn't make it into a batch yet,
+        // the view won't exist and an exception will be thrown when attempting to start an
+        // animation on it.
+        //
+        // Eat the exception rather than crashing. The impact is that we may drop one or more
+        // frames of the animation.
+        FLog.e(TAG, "Native animation workaround, frame lost as result of race condition", e);
+      }
+      if (nextNode instanceof ValueAnimatedNode) {
+        // Potentially send events to JS when the node's value is updated
+        ((ValueAnimatedNode) nextNode).onValueUpdate();
+      }
+    }
+  }
+
+  private boolean hasSameUpdateOrderRoots(List<AnimatedNode> nodes) {
+    if (nodes.size() != mUpdateOrderRootsSize) {
+      return false;
+    }
+    for (int i = 0; i < mUpdateOrderRootsSize; i++) {
+      if (nodes.get(i) != mUpdateOrderRoots[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Sets the element at {@code index} of the array, growing it if needed. */
+  private static AnimatedNode[] append(AnimatedNode[] array, int index, AnimatedNode node) {
+    if (index == array.length) {
+      array = Arrays.copyOf(array, array.length * 2);
     }
+    array[index] = node;
+    return array;
   }
 
   private String normalizeEventName(String eventHandlerName) {
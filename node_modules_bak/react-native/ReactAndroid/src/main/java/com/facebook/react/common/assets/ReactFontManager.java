@@ -46,6 +46,7 @@ public class ReactFontManager {
 
   private final Map<String, AssetFontFamily> mFontCache;
   private final Map<String, Typeface> mCustomTypefaceCache;
+  private volatile int mGeneration;
 
   private ReactFontManager() {
     mFontCache = new HashMap<>();
@@ -109,6 +110,7 @@ public class ReactFontManager {
     Typeface font = ResourcesCompat.getFont(context, fontId);
     if (font != null) {
       mCustomTypefaceCache.put(fontFamily, font);
+      mGeneration++;
     }
   }
 
@@ -119,6 +121,7 @@ public class ReactFontManager {
   public void addCustomFont(String fontFamily, @Nullable Typeface font) {
     if (font != null) {
       mCustomTypefaceCache.put(fontFamily, font);
+      mGeneration++;
     }
   }
 
@@ -139,9 +142,18 @@ public class ReactFontManager {
         mFontCache.put(fontFamilyName, assetFontFamily);
       }
       assetFontFamily.setTypefaceForStyle(style, typeface);
+      mGeneration++;
     }
   }
 
+  /**
+   * Returns a number that changes whenever a font is registered with {@link #addCustomFont} or
+   * {@link #setTypeface}, so that caches of text measurements know when to drop their entries.
+   */
+  public int getGeneration() {
+    return mGeneration;
+  }
+
   private static Typeface createAssetTypeface(
       String fontFamilyName, int style, AssetManager assetManager) {
     String extension = EXTENSIONS[style];
@@ -1200,9 +1200,16 @@ public class FabricUIManager implements UIManager, LifecycleEventListener, UIBlo
     performanceCounters.put("BatchedExecutionTime", mMountItemDispatcher.getBatchedExecutionTime());
     performanceCounters.put("FinishFabricTransactionTime", mFinishTransactionTime);
     performanceCounters.put("FinishFabricTransactionCPPTime", mFinishTransactionCPPTime);
+    performanceCounters.put("FrameIntervalNanos", mMountItemDispatcher.getFrameIntervalNanos());
+    performanceCounters.put("ExceededFrameCount", mMountItemDispatcher.getExceededFrameCount());
     return performanceCounters;
   }
 
+  /** Returns the mounting work of the last frames, see {@link MountItemDispatcher}. */
+  public List<MountItemDispatcher.FrameMetrics> getMountFrameMetrics() {
+    return mMountItemDispatcher.getFrameMetrics();
+  }
+
   private class MountItemDispatchListener implements MountItemDispatcher.ItemDispatchListener {
     @Override
     public void willMountItems(@Nullable List<MountItem> mountItems) {
@@ -12,6 +12,7 @@ import static com.facebook.react.fabric.FabricUIManager.ENABLE_FABRIC_LOGS;
 import static com.facebook.react.fabric.FabricUIManager.IS_DEVELOPMENT_ENVIRONMENT;
 
 import android.os.SystemClock;
+import android.util.SparseBooleanArray;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -25,17 +26,78 @@ import com.facebook.react.bridge.RetryableMountingLayerException;
 import com.facebook.react.fabric.mounting.mountitems.DispatchCommandMountItem;
 import com.facebook.react.fabric.mounting.mountitems.MountItem;
 import com.facebook.systrace.Systrace;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Executes the mount items of all surfaces on the UI thread.
+ *
+ * <p>Pre mount items (view preallocation) are executed on frames that have time to spare, those of
+ * visible surfaces first, within a budget derived from the frame interval of the display. The ones
+ * of a surface are executed before its mount items, as these may delete the preallocated views.
+ *
+ * <p>The mounting work of the last frames can be queried with {@link #getFrameMetrics}.
+ */
 public class MountItemDispatcher {
 
   private static final String TAG = "MountItemDispatcher";
-  private static final int FRAME_TIME_MS = 16;
-  private static final int MAX_TIME_IN_FRAME_FOR_NON_BATCHED_OPERATIONS_MS = 8;
+  // Part of the frame interval, counted from the start of the frame, given to pre mount items
+  private static final float PRE_MOUNT_FRAME_BUDGET_RATIO = 0.5f;
+  private static final long DEFAULT_FRAME_INTERVAL_NANOS = 1000000000L / 60;
+  // The frame interval is the shortest interval between frames over this many frames, which skips
+  // the frames that were dropped and follows changes of the refresh rate
+  private static final int FRAME_INTERVAL_WINDOW = 32;
+  private static final int FRAME_METRICS_CAPACITY = 120;
+
+  /** Mounting work done in one frame. */
+  public static final class FrameMetrics {
+    private final long mFrameTimeNanos;
+    private final int mMountedItemCount;
+    private final int mPreMountedItemCount;
+    private final long mWorkDurationNanos;
+    private final boolean mExceededFrame;
+
+    private FrameMetrics(
+        long frameTimeNanos,
+        int mountedItemCount,
+        int preMountedItemCount,
+        long workDurationNanos,
+        boolean exceededFrame) {
+      mFrameTimeNanos = frameTimeNanos;
+      mMountedItemCount = mountedItemCount;
+      mPreMountedItemCount = preMountedItemCount;
+      mWorkDurationNanos = workDurationNanos;
+      mExceededFrame = exceededFrame;
+    }
+
+    /** The start of the frame, in the {@link System#nanoTime()} base. */
+    public long getFrameTimeNanos() {
+      return mFrameTimeNanos;
+    }
+
+    /** Number of mount items and view commands executed. */
+    public int getMountedItemCount() {
+      return mMountedItemCount;
+    }
+
+    public int getPreMountedItemCount() {
+      return mPreMountedItemCount;
+    }
+
+    /** Time spent executing items. */
+    public long getWorkDurationNanos() {
+      return mWorkDurationNanos;
+    }
+
+    /** Whether items were still being executed after the frame interval had elapsed. */
+    public boolean hasExceededFrame() {
+      return mExceededFrame;
+    }
+  }
 
   private final MountingManager mMountingManager;
   private final ItemDispatchListener mItemDispatchListener;
@@ -50,11 +112,39 @@ public class MountItemDispatcher {
   @NonNull
   private final ConcurrentLinkedQueue<MountItem> mPreMountItems = new ConcurrentLinkedQueue<>();
 
+  // Pre mount items taken from mPreMountItems, by visibility of their surface at that time
+  @ThreadConfined(UI)
+  private final ArrayDeque<MountItem> mVisiblePreMountItems = new ArrayDeque<>();
+
+  @ThreadConfined(UI)
+  private final ArrayDeque<MountItem> mOffscreenPreMountItems = new ArrayDeque<>();
+
+  @ThreadConfined(UI)
+  private final SparseBooleanArray mSurfacesToMount = new SparseBooleanArray();
+
   private boolean mInDispatch = false;
   private int mReDispatchCounter = 0;
   private long mBatchedExecutionTime = 0L;
   private long mRunStartTime = 0L;
 
+  private volatile long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+  private long mFrameIntervalWindowMin = Long.MAX_VALUE;
+  private int mFrameIntervalWindowCount = 0;
+
+  // Work of the current frame, started at mFrameTimeNanos
+  private long mFrameTimeNanos = 0L;
+  private int mFrameMountedItemCount = 0;
+  private int mFramePreMountedItemCount = 0;
+  private long mFrameWorkDurationNanos = 0L;
+  private long mFrameWorkEndNanos = 0L;
+
+  // Ring buffer of the work of the last frames that had any
+  private final Object mFrameMetricsLock = new Object();
+  private final FrameMetrics[] mFrameMetrics = new FrameMetrics[FRAME_METRICS_CAPACITY];
+  private int mFrameMetricsNext = 0;
+  private int mFrameMetricsSize = 0;
+  private long mExceededFrameCount = 0L;
+
   public MountItemDispatcher(MountingManager mountingManager, ItemDispatchListener listener) {
     mMountingManager = mountingManager;
     mItemDispatchListener = listener;
@@ -173,6 +263,19 @@ public class MountItemDispatcher {
   @UiThread
   @ThreadConfined(UI)
   private boolean dispatchMountItems() {
+    long startNanos = System.nanoTime();
+    try {
+      return dispatchMountItemsUnmeasured();
+    } finally {
+      long endNanos = System.nanoTime();
+      mFrameWorkDurationNanos += endNanos - startNanos;
+      mFrameWorkEndNanos = endNanos;
+    }
+  }
+
+  @UiThread
+  @ThreadConfined(UI)
+  private boolean dispatchMountItemsUnmeasured() {
     if (mReDispatchCounter == 0) {
       mBatchedExecutionTime = 0;
     }
@@ -203,6 +306,7 @@ public class MountItemDispatcher {
       Systrace.beginSection(
           Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
           "FabricUIManager::mountViews viewCommandMountItems");
+      mFrameMountedItemCount += viewCommandMountItemsToDispatch.size();
       for (DispatchCommandMountItem command : viewCommandMountItemsToDispatch) {
         if (ENABLE_FABRIC_LOGS) {
           printMountItem(command, "dispatchMountItems: Executing viewCommandMountItem");
@@ -239,21 +343,9 @@ public class MountItemDispatcher {
       Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
     }
 
-    // If there are MountItems to dispatch, we make sure all the "pre mount items" are executed
-    // first
-    Collection<MountItem> preMountItemsToDispatch = getAndResetPreMountItems();
-    if (preMountItemsToDispatch != null) {
-      Systrace.beginSection(
-          Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "FabricUIManager::mountViews preMountItems");
-      for (MountItem preMountItem : preMountItemsToDispatch) {
-        if (ENABLE_FABRIC_LOGS) {
-          printMountItem(preMountItem, "dispatchMountItems: Executing preMountItem");
-        }
-        executeOrEnqueue(preMountItem);
-      }
-
-      Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
-    }
+    // If there are MountItems to dispatch, we make sure the "pre mount items" of their surfaces
+    // are executed first. Those of other surfaces wait for a frame with time to spare.
+    dispatchPreMountItemsForSurfaces(viewCommandMountItemsToDispatch, mountItemsToDispatch);
 
     if (mountItemsToDispatch != null) {
       Systrace.beginSection(
@@ -261,6 +353,7 @@ public class MountItemDispatcher {
           "FabricUIManager::mountViews mountItems to execute");
 
       long batchedExecutionStartTime = SystemClock.uptimeMillis();
+      mFrameMountedItemCount += mountItemsToDispatch.size();
 
       for (MountItem mountItem : mountItemsToDispatch) {
         if (ENABLE_FABRIC_LOGS) {
@@ -308,12 +401,17 @@ public class MountItemDispatcher {
    * Executes pre mount items. Pre mount items are operations that can be executed before the mount items come. For example view preallocation.
    * This is a performance optimisation to do as much work ahead of time as possible.
    *
-   * `tryDispatchMountItems` will also execute pre mount items, but only if there are mount items to be executed.
+   * Items are executed until the budget of the frame is spent, those of visible surfaces first.
+   * This is expected to be called once per frame, at its start.
+   *
+   * `tryDispatchMountItems` will also execute the pre mount items of the surfaces it mounts.
    */
   @UiThread
   @ThreadConfined(UI)
   public void dispatchPreMountItems(long frameTimeNanos) {
-    if (mPreMountItems.isEmpty()) {
+    onFrameStart(frameTimeNanos);
+    moveQueuedPreMountItems();
+    if (mVisiblePreMountItems.isEmpty() && mOffscreenPreMountItems.isEmpty()) {
       // Avoid starting systrace if there are no pre mount items.
       return;
     }
@@ -324,14 +422,15 @@ public class MountItemDispatcher {
     // reentering during dispatchPreMountItems
     mInDispatch = true;
 
+    long startNanos = System.nanoTime();
+    long deadlineNanos =
+        frameTimeNanos + (long) (mFrameIntervalNanos * PRE_MOUNT_FRAME_BUDGET_RATIO);
     try {
-      while (true) {
-        if (haveExceededNonBatchedFrameTime(frameTimeNanos)) {
-          break;
+      while (System.nanoTime() < deadlineNanos) {
+        MountItem preMountItemToDispatch = mVisiblePreMountItems.poll();
+        if (preMountItemToDispatch == null) {
+          preMountItemToDispatch = mOffscreenPreMountItems.poll();
         }
-
-        MountItem preMountItemToDispatch = mPreMountItems.poll();
-        // If list is empty, `poll` will return null, or var will never be set
         if (preMountItemToDispatch == null) {
           break;
         }
@@ -340,14 +439,136 @@ public class MountItemDispatcher {
           printMountItem(preMountItemToDispatch, "dispatchPreMountItems");
         }
         executeOrEnqueue(preMountItemToDispatch);
+        mFramePreMountedItemCount++;
       }
     } finally {
       mInDispatch = false;
+      long endNanos = System.nanoTime();
+      mFrameWorkDurationNanos += endNanos - startNanos;
+      mFrameWorkEndNanos = endNanos;
     }
 
     Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
   }
 
+  /** Executes the pending pre mount items of the surfaces of the given items. */
+  @UiThread
+  @ThreadConfined(UI)
+  private void dispatchPreMountItemsForSurfaces(
+      @Nullable List<? extends MountItem> viewCommandMountItems,
+      @Nullable List<MountItem> mountItems) {
+    moveQueuedPreMountItems();
+    if (mVisiblePreMountItems.isEmpty() && mOffscreenPreMountItems.isEmpty()) {
+      return;
+    }
+
+    mSurfacesToMount.clear();
+    addSurfaceIds(mSurfacesToMount, viewCommandMountItems);
+    addSurfaceIds(mSurfacesToMount, mountItems);
+    if (mSurfacesToMount.size() == 0) {
+      return;
+    }
+
+    Systrace.beginSection(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "FabricUIManager::mountViews preMountItems");
+    dispatchPreMountItemsForSurfaces(mVisiblePreMountItems);
+    dispatchPreMountItemsForSurfaces(mOffscreenPreMountItems);
+    Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
+  }
+
+  @UiThread
+  @ThreadConfined(UI)
+  private void dispatchPreMountItemsForSurfaces(ArrayDeque<MountItem> preMountItems) {
+    Iterator<MountItem> iterator = preMountItems.iterator();
+    while (iterator.hasNext()) {
+      MountItem preMountItem = iterator.next();
+      if (!mSurfacesToMount.get(preMountItem.getSurfaceId())) {
+        continue;
+      }
+      iterator.remove();
+      if (ENABLE_FABRIC_LOGS) {
+        printMountItem(preMountItem, "dispatchMountItems: Executing preMountItem");
+      }
+      executeOrEnqueue(preMountItem);
+      mFramePreMountedItemCount++;
+    }
+  }
+
+  private static void addSurfaceIds(
+      SparseBooleanArray surfaceIds, @Nullable List<? extends MountItem> items) {
+    if (items == null) {
+      return;
+    }
+    for (int i = 0; i < items.size(); i++) {
+      surfaceIds.put(items.get(i).getSurfaceId(), true);
+    }
+  }
+
+  /** Moves the pre mount items queued from other threads to the queue of their visibility. */
+  @UiThread
+  @ThreadConfined(UI)
+  private void moveQueuedPreMountItems() {
+    MountItem preMountItem;
+    while ((preMountItem = mPreMountItems.poll()) != null) {
+      SurfaceMountingManager surfaceManager =
+          mMountingManager.getSurfaceManager(preMountItem.getSurfaceId());
+      if (surfaceManager != null && surfaceManager.isRootViewVisible()) {
+        mVisiblePreMountItems.add(preMountItem);
+      } else {
+        mOffscreenPreMountItems.add(preMountItem);
+      }
+    }
+  }
+
+  /** Records the work of the previous frame and updates the frame interval. */
+  @UiThread
+  @ThreadConfined(UI)
+  private void onFrameStart(long frameTimeNanos) {
+    if (mFrameTimeNanos != 0) {
+      recordFrameMetrics();
+
+      long interval = frameTimeNanos - mFrameTimeNanos;
+      if (interval > 0) {
+        mFrameIntervalWindowMin = Math.min(mFrameIntervalWindowMin, interval);
+      }
+      if (++mFrameIntervalWindowCount == FRAME_INTERVAL_WINDOW) {
+        if (mFrameIntervalWindowMin != Long.MAX_VALUE) {
+          mFrameIntervalNanos = mFrameIntervalWindowMin;
+        }
+        mFrameIntervalWindowMin = Long.MAX_VALUE;
+        mFrameIntervalWindowCount = 0;
+      }
+    }
+
+    mFrameTimeNanos = frameTimeNanos;
+    mFrameMountedItemCount = 0;
+    mFramePreMountedItemCount = 0;
+    mFrameWorkDurationNanos = 0;
+    mFrameWorkEndNanos = 0;
+  }
+
+  private void recordFrameMetrics() {
+    if (mFrameMountedItemCount == 0 && mFramePreMountedItemCount == 0) {
+      return;
+    }
+    boolean exceededFrame = mFrameWorkEndNanos - mFrameTimeNanos > mFrameIntervalNanos;
+    FrameMetrics metrics =
+        new FrameMetrics(
+            mFrameTimeNanos,
+            mFrameMountedItemCount,
+            mFramePreMountedItemCount,
+            mFrameWorkDurationNanos,
+            exceededFrame);
+    synchronized (mFrameMetricsLock) {
+      mFrameMetrics[mFrameMetricsNext] = metrics;
+      mFrameMetricsNext = (mFrameMetricsNext + 1) % FRAME_METRICS_CAPACITY;
+      mFrameMetricsSize = Math.min(mFrameMetricsSize + 1, FRAME_METRICS_CAPACITY);
+      if (exceededFrame) {
+        mExceededFrameCount++;
+      }
+    }
+  }
+
   private void executeOrEnqueue(MountItem item) {
     if (mMountingManager.isWaitingForViewAttach(item.getSurfaceId())) {
       if (ENABLE_FABRIC_LOGS) {
@@ -383,12 +604,6 @@ public class MountItemDispatcher {
     return result;
   }
 
-  /** Detect if we still have processing time left in this frame. */
-  private static boolean haveExceededNonBatchedFrameTime(long frameTimeNanos) {
-    long timeLeftInFrame = FRAME_TIME_MS - ((System.nanoTime() - frameTimeNanos) / 1000000);
-    return timeLeftInFrame < MAX_TIME_IN_FRAME_FOR_NON_BATCHED_OPERATIONS_MS;
-  }
-
   @UiThread
   @ThreadConfined(UI)
   private List<DispatchCommandMountItem> getAndResetViewCommandMountItems() {
@@ -401,10 +616,6 @@ public class MountItemDispatcher {
     return drainConcurrentItemQueue(mMountItems);
   }
 
-  private Collection<MountItem> getAndResetPreMountItems() {
-    return drainConcurrentItemQueue(mPreMountItems);
-  }
-
   public long getBatchedExecutionTime() {
     return mBatchedExecutionTime;
   }
@@ -413,6 +624,33 @@ public class MountItemDispatcher {
     return mRunStartTime;
   }
 
+  /** Returns the interval between frames of the display, as observed by the dispatcher. */
+  public long getFrameIntervalNanos() {
+    return mFrameIntervalNanos;
+  }
+
+  /** Returns the number of frames in which items were executed past the end of the frame. */
+  public long getExceededFrameCount() {
+    synchronized (mFrameMetricsLock) {
+      return mExceededFrameCount;
+    }
+  }
+
+  /**
+   * Returns the mounting work of the last frames that executed items, from the oldest to the most
+   * recent. The current frame is not included.
+   */
+  public List<FrameMetrics> getFrameMetrics() {
+    synchronized (mFrameMetricsLock) {
+      List<FrameMetrics> result = new ArrayList<>(mFrameMetricsSize);
+      int first = mFrameMetricsNext - mFrameMetricsSize + FRAME_METRICS_CAPACITY;
+      for (int i = 0; i < mFrameMetricsSize; i++) {
+        result.add(mFrameMetrics[(first + i) % FRAME_METRICS_CAPACITY]);
+      }
+      return result;
+    }
+  }
+
   private static void printMountItem(MountItem mountItem, String prefix) {
     // If a MountItem description is split across multiple lines, it's because it's a
     // compound MountItem. Log each line separately.
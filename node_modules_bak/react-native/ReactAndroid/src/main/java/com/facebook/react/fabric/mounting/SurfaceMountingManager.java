@@ -47,6 +47,7 @@ import com.facebook.react.uimanager.RootView;
 import com.facebook.react.uimanager.RootViewManager;
 import com.facebook.react.uimanager.StateWrapper;
 import com.facebook.react.uimanager.ThemedReactContext;
+import com.facebook.react.uimanager.TouchTargetHelper;
 import com.facebook.react.uimanager.ViewManager;
 import com.facebook.react.uimanager.ViewManagerRegistry;
 import com.facebook.react.uimanager.events.EventCategoryDef;
@@ -128,6 +129,16 @@ public class SurfaceMountingManager {
     return mRootViewAttached;
   }
 
+  /** Returns true if the root view is attached and shown, see {@link View#isShown()}. */
+  @UiThread
+  public boolean isRootViewVisible() {
+    if (!mRootViewAttached || isStopped()) {
+      return false;
+    }
+    ViewState rootViewState = getNullableViewState(mSurfaceId);
+    return rootViewState != null && rootViewState.mView != null && rootViewState.mView.isShown();
+  }
+
   @Nullable
   public ThemedReactContext getContext() {
     return mThemedReactContext;
@@ -418,6 +429,7 @@ public class SurfaceMountingManager {
               + index,
           e);
     }
+    TouchTargetHelper.invalidateTouchTargetBounds(view);
 
     // Display children after inserting
     if (SHOW_CHANGED_VIEW_HIERARCHIES) {
@@ -867,6 +879,7 @@ public class SurfaceMountingManager {
 
     Assertions.assertNotNull(viewState.mViewManager)
         .updateProperties(view, viewState.mCurrentProps);
+    TouchTargetHelper.invalidateTouchTargetBounds(view);
   }
 
   @Deprecated
@@ -989,6 +1002,7 @@ public class SurfaceMountingManager {
     if (viewToUpdate.getVisibility() != visibility) {
       viewToUpdate.setVisibility(visibility);
     }
+    TouchTargetHelper.invalidateTouchTargetBounds(viewToUpdate);
   }
 
   @UiThread
@@ -24,7 +24,6 @@ import com.facebook.react.common.MapBuilder;
 import com.facebook.react.module.annotations.ReactModule;
 import com.facebook.react.modules.network.NetworkingModule;
 import com.facebook.react.modules.websocket.WebSocketModule;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -32,19 +31,24 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
 import java.util.UUID;
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
+import okio.BufferedSink;
 import okio.ByteString;
 
 @ReactModule(name = NativeBlobModuleSpec.NAME)
 public class BlobModule extends NativeBlobModuleSpec {
 
-  private final Map<String, byte[]> mBlobs = new HashMap<>();
+  /** Blob data beyond this total is spilled to memory-mapped files in the cache directory. */
+  private static final long MEMORY_BUDGET_BYTES = 32 * 1024 * 1024;
+
+  private static final String SPILL_DIRECTORY_NAME = "blobs";
+
+  private final BlobStore mBlobStore;
 
   private final WebSocketModule.ContentHandler mWebSocketContentHandler =
       new WebSocketModule.ContentHandler() {
@@ -55,13 +59,15 @@ public class BlobModule extends NativeBlobModuleSpec {
 
         @Override
         public void onMessage(ByteString bytes, WritableMap params) {
-          byte[] data = bytes.toByteArray();
+          String blobId = UUID.randomUUID().toString();
+          // ByteStrings are immutable, small frames are stored without a copy
+          int size = mBlobStore.putImmutable(blobId, bytes.asByteBuffer());
 
           WritableMap blob = Arguments.createMap();
 
-          blob.putString("blobId", store(data));
+          blob.putString("blobId", blobId);
           blob.putInt("offset", 0);
-          blob.putInt("size", data.length);
+          blob.putInt("size", size);
 
           params.putMap("data", blob);
           params.putString("type", "blob");
@@ -80,12 +86,13 @@ public class BlobModule extends NativeBlobModuleSpec {
 
         @Override
         public WritableMap fetch(Uri uri) throws IOException {
-          byte[] data = getBytesFromUri(uri);
+          String blobId = UUID.randomUUID().toString();
+          int size = storeFromUri(uri, blobId);
 
           WritableMap blob = Arguments.createMap();
-          blob.putString("blobId", store(data));
+          blob.putString("blobId", blobId);
           blob.putInt("offset", 0);
-          blob.putInt("size", data.length);
+          blob.putInt("size", size);
           blob.putString("type", getMimeTypeFromUri(uri));
 
           // Needed for files
@@ -114,9 +121,29 @@ public class BlobModule extends NativeBlobModuleSpec {
           }
           ReadableMap blob = data.getMap("blob");
           String blobId = blob.getString("blobId");
-          byte[] bytes = resolve(blobId, blob.getInt("offset"), blob.getInt("size"));
+          final ByteBuffer bytes =
+              resolveBuffer(blobId, blob.getInt("offset"), blob.getInt("size"));
+          final MediaType mediaType = MediaType.parse(type);
+          if (bytes == null) {
+            return RequestBody.create(mediaType, new byte[0]);
+          }
 
-          return RequestBody.create(MediaType.parse(type), bytes);
+          return new RequestBody() {
+            @Override
+            public @Nullable MediaType contentType() {
+              return mediaType;
+            }
+
+            @Override
+            public long contentLength() {
+              return bytes.remaining();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+              sink.write(bytes.duplicate());
+            }
+          };
         }
       };
 
@@ -129,21 +156,31 @@ public class BlobModule extends NativeBlobModuleSpec {
 
         @Override
         public WritableMap toResponseData(ResponseBody body) throws IOException {
-          byte[] data = body.bytes();
+          String blobId = UUID.randomUUID().toString();
+          int size;
+          try {
+            size = mBlobStore.put(blobId, body.byteStream(), body.contentLength());
+          } finally {
+            body.close();
+          }
           WritableMap blob = Arguments.createMap();
-          blob.putString("blobId", store(data));
+          blob.putString("blobId", blobId);
           blob.putInt("offset", 0);
-          blob.putInt("size", data.length);
+          blob.putInt("size", size);
           return blob;
         }
       };
 
   public BlobModule(ReactApplicationContext reactContext) {
     super(reactContext);
+    mBlobStore =
+        new BlobStore(
+            new File(reactContext.getCacheDir(), SPILL_DIRECTORY_NAME), MEMORY_BUDGET_BYTES);
   }
 
   @Override
   public void initialize() {
+    mBlobStore.clearSpillDirectory();
     BlobCollector.install(getReactApplicationContext(), this);
   }
 
@@ -169,19 +206,39 @@ public class BlobModule extends NativeBlobModuleSpec {
   }
 
   public void store(byte[] data, String blobId) {
-    synchronized (mBlobs) {
-      mBlobs.put(blobId, data);
-    }
+    mBlobStore.put(blobId, Collections.singletonList(ByteBuffer.wrap(data)));
+  }
+
+  /**
+   * Stores the contents of a stream as a new blob without buffering it on the Java heap.
+   *
+   * @param stream the data of the blob, read until its end but not closed
+   * @param contentLength the expected length of the stream, or -1 if unknown
+   * @return the id of the new blob
+   */
+  public String store(InputStream stream, long contentLength) throws IOException {
+    String blobId = UUID.randomUUID().toString();
+    mBlobStore.put(blobId, stream, contentLength);
+    return blobId;
   }
 
   @DoNotStrip
   public void remove(String blobId) {
-    synchronized (mBlobs) {
-      mBlobs.remove(blobId);
-    }
+    mBlobStore.remove(blobId);
   }
 
   public @Nullable byte[] resolve(Uri uri) {
+    ByteBuffer buffer = resolveBuffer(uri);
+    if (buffer == null) {
+      return null;
+    }
+    byte[] data = new byte[buffer.remaining()];
+    buffer.get(data);
+    return data;
+  }
+
+  /* package */ @Nullable
+  ByteBuffer resolveBuffer(Uri uri) {
     String blobId = uri.getLastPathSegment();
     int offset = 0;
     int size = -1;
@@ -193,44 +250,45 @@ public class BlobModule extends NativeBlobModuleSpec {
     if (sizeParam != null) {
       size = Integer.parseInt(sizeParam, 10);
     }
-    return resolve(blobId, offset, size);
+    return resolveBuffer(blobId, offset, size);
   }
 
   public @Nullable byte[] resolve(String blobId, int offset, int size) {
-    synchronized (mBlobs) {
-      byte[] data = mBlobs.get(blobId);
-      if (data == null) {
-        return null;
-      }
-      if (size == -1) {
-        size = data.length - offset;
-      }
-      if (offset > 0 || size != data.length) {
-        data = Arrays.copyOfRange(data, offset, offset + size);
-      }
-      return data;
+    ByteBuffer buffer = resolveBuffer(blobId, offset, size);
+    if (buffer == null) {
+      return null;
     }
+    byte[] data = new byte[buffer.remaining()];
+    buffer.get(data);
+    return data;
+  }
+
+  /**
+   * Resolves a slice of a blob without copying it.
+   *
+   * @param size the size of the slice, or -1 for the rest of the blob
+   * @return a read-only view over the blob data, or null if the blob does not exist
+   */
+  public @Nullable ByteBuffer resolveBuffer(String blobId, int offset, int size) {
+    return mBlobStore.get(blobId, offset, size);
   }
 
   public @Nullable byte[] resolve(ReadableMap blob) {
     return resolve(blob.getString("blobId"), blob.getInt("offset"), blob.getInt("size"));
   }
 
-  private byte[] getBytesFromUri(Uri contentUri) throws IOException {
+  private int storeFromUri(Uri contentUri, String blobId) throws IOException {
     InputStream is = getReactApplicationContext().getContentResolver().openInputStream(contentUri);
 
     if (is == null) {
       throw new FileNotFoundException("File not found for " + contentUri);
     }
 
-    ByteArrayOutputStream byteBuffer = new ByteArrayOutputStream();
-    int bufferSize = 1024;
-    byte[] buffer = new byte[bufferSize];
-    int len;
-    while ((len = is.read(buffer)) != -1) {
-      byteBuffer.write(buffer, 0, len);
+    try {
+      return mBlobStore.put(blobId, is, -1);
+    } finally {
+      is.close();
     }
-    return byteBuffer.toByteArray();
   }
 
   private String getNameFromUri(Uri contentUri) {
@@ -330,7 +388,8 @@ public class BlobModule extends NativeBlobModuleSpec {
     WebSocketModule webSocketModule = getWebSocketModule("sendOverSocket");
 
     if (webSocketModule != null) {
-      byte[] data = resolve(blob.getString("blobId"), blob.getInt("offset"), blob.getInt("size"));
+      ByteBuffer data =
+          resolveBuffer(blob.getString("blobId"), blob.getInt("offset"), blob.getInt("size"));
 
       if (data != null) {
         webSocketModule.sendBinary(ByteString.of(data), id);
@@ -342,30 +401,24 @@ public class BlobModule extends NativeBlobModuleSpec {
 
   @Override
   public void createFromParts(ReadableArray parts, String blobId) {
-    int totalBlobSize = 0;
-    ArrayList<byte[]> partList = new ArrayList<>(parts.size());
+    ArrayList<ByteBuffer> partList = new ArrayList<>(parts.size());
     for (int i = 0; i < parts.size(); i++) {
       ReadableMap part = parts.getMap(i);
       switch (part.getString("type")) {
         case "blob":
           ReadableMap blob = part.getMap("data");
-          totalBlobSize += blob.getInt("size");
-          partList.add(i, resolve(blob));
+          String partBlobId = blob.getString("blobId");
+          partList.add(i, resolveBuffer(partBlobId, blob.getInt("offset"), blob.getInt("size")));
           break;
         case "string":
           byte[] bytes = part.getString("data").getBytes(Charset.forName("UTF-8"));
-          totalBlobSize += bytes.length;
-          partList.add(i, bytes);
+          partList.add(i, ByteBuffer.wrap(bytes));
           break;
         default:
           throw new IllegalArgumentException("Invalid type for blob: " + part.getString("type"));
       }
     }
-    ByteBuffer buffer = ByteBuffer.allocate(totalBlobSize);
-    for (byte[] bytes : partList) {
-      buffer.put(bytes);
-    }
-    store(buffer.array(), blobId);
+    mBlobStore.put(blobId, partList);
   }
 
   @Override
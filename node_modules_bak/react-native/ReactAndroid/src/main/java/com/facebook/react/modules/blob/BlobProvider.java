@@ -18,8 +18,10 @@ import com.facebook.react.ReactApplication;
 import com.facebook.react.ReactNativeHost;
 import com.facebook.react.bridge.ReactContext;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -79,7 +81,7 @@ public final class BlobProvider extends ContentProvider {
       throw new RuntimeException("No blob module associated with BlobProvider");
     }
 
-    final byte[] data = blobModule.resolve(uri);
+    final ByteBuffer data = blobModule.resolveBuffer(uri);
     if (data == null) {
       throw new FileNotFoundException("Cannot open " + uri + ", blob not found.");
     }
@@ -93,11 +95,12 @@ public final class BlobProvider extends ContentProvider {
     ParcelFileDescriptor readSide = pipe[0];
     final ParcelFileDescriptor writeSide = pipe[1];
 
-    if (data.length <= PIPE_CAPACITY) {
+    if (data.remaining() <= PIPE_CAPACITY) {
       // If the blob length is less than or equal to pipe capacity (64 KB),
       // we can write the data synchronously to the pipe buffer.
-      try (OutputStream outputStream = new ParcelFileDescriptor.AutoCloseOutputStream(writeSide)) {
-        outputStream.write(data);
+      try (FileOutputStream outputStream =
+          new ParcelFileDescriptor.AutoCloseOutputStream(writeSide)) {
+        writeFully(outputStream, data);
       } catch (IOException exception) {
         return null;
       }
@@ -110,9 +113,9 @@ public final class BlobProvider extends ContentProvider {
       Runnable writer =
           new Runnable() {
             public void run() {
-              try (OutputStream outputStream =
+              try (FileOutputStream outputStream =
                   new ParcelFileDescriptor.AutoCloseOutputStream(writeSide)) {
-                outputStream.write(data);
+                writeFully(outputStream, data);
               } catch (IOException exception) {
                 // no-op
               }
@@ -123,4 +126,12 @@ public final class BlobProvider extends ContentProvider {
 
     return readSide;
   }
+
+  private static void writeFully(FileOutputStream outputStream, ByteBuffer data)
+      throws IOException {
+    FileChannel channel = outputStream.getChannel();
+    while (data.hasRemaining()) {
+      channel.write(data);
+    }
+  }
 }
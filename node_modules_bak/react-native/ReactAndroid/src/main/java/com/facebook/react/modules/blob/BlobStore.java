@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.modules.blob;
+
+import androidx.annotation.Nullable;
+import com.facebook.common.logging.FLog;
+import com.facebook.react.common.ReactConstants;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage for blob data backing {@link BlobModule}.
+ *
+ * <p>Small blobs stay on the Java heap. Larger blobs are copied into direct buffers outside of the
+ * Java heap as long as the total stays within the memory budget; beyond that they are spilled to a
+ * file in the cache directory which is memory-mapped and unlinked right away, so the kernel pages
+ * the data in on demand and reclaims it once the mapping is collected.
+ *
+ * <p>The memory budget is approximate: a blob stops counting against it when it is removed, but
+ * its direct buffer is only freed once it is garbage collected, as views returned by {@link #get}
+ * may still be in use. Memory-mapped spill files are not counted at all, the kernel can evict their
+ * pages at any time.
+ *
+ * <p>Lookups go through a {@link ConcurrentHashMap} and return read-only views over the backing
+ * buffer, so resolving a slice of a blob does not copy it.
+ */
+class BlobStore {
+
+  /** Blobs up to this size are kept as heap arrays, direct buffers are not worth it for them. */
+  private static final int HEAP_BLOB_MAX_BYTES = 16 * 1024;
+
+  private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+  /**
+   * The spill directory is shared by every store in the process, and the store of a reloading
+   * instance may still be writing to it, so it is only cleared once per process.
+   */
+  private static final AtomicBoolean sSpillDirectoryCleared = new AtomicBoolean();
+
+  private final ConcurrentHashMap<String, Entry> mEntries = new ConcurrentHashMap<>();
+  private final AtomicLong mMemoryUsage = new AtomicLong();
+  private final File mSpillDirectory;
+  private final long mMemoryBudgetBytes;
+
+  BlobStore(File spillDirectory, long memoryBudgetBytes) {
+    mSpillDirectory = spillDirectory;
+    mMemoryBudgetBytes = memoryBudgetBytes;
+  }
+
+  /**
+   * Stores the given parts, concatenated, under {@code blobId}. Returns the size of the blob.
+   *
+   * <p>If the blob is over budget and cannot be spilled to disk, it is kept on the Java heap.
+   */
+  int put(String blobId, List<ByteBuffer> parts) {
+    long total = 0;
+    for (ByteBuffer part : parts) {
+      total += part.remaining();
+    }
+    if (total > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Blob too large: " + total + " bytes");
+    }
+    int size = (int) total;
+
+    if (size <= HEAP_BLOB_MAX_BYTES) {
+      if (parts.size() == 1 && parts.get(0).hasArray() && isWholeArray(parts.get(0))) {
+        putEntry(blobId, new Entry(parts.get(0).asReadOnlyBuffer(), 0));
+      } else {
+        putEntry(blobId, new Entry(concat(ByteBuffer.allocate(size), parts), 0));
+      }
+    } else if (tryReserve(size)) {
+      putEntry(blobId, new Entry(concat(ByteBuffer.allocateDirect(size), parts), size));
+    } else {
+      try {
+        putEntry(blobId, new Entry(spill(parts, size), 0));
+      } catch (IOException e) {
+        FLog.w(ReactConstants.TAG, "Could not spill blob to disk, keeping it in memory", e);
+        putEntry(blobId, new Entry(concat(ByteBuffer.allocate(size), parts), 0));
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Stores {@code buffer} under {@code blobId}, keeping a reference to it instead of copying it when
+   * it is small enough to stay on the heap. The caller must guarantee that the contents of the
+   * buffer never change. Returns the size of the blob.
+   */
+  int putImmutable(String blobId, ByteBuffer buffer) {
+    if (buffer.remaining() <= HEAP_BLOB_MAX_BYTES && !buffer.isDirect()) {
+      putEntry(blobId, new Entry(buffer.asReadOnlyBuffer(), 0));
+      return buffer.remaining();
+    }
+    return put(blobId, Collections.singletonList(buffer));
+  }
+
+  private ByteBuffer spill(List<ByteBuffer> parts, int size) throws IOException {
+    File file = createSpillFile();
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      FileChannel channel = out.getChannel();
+      for (ByteBuffer part : parts) {
+        ByteBuffer source = part.duplicate();
+        while (source.hasRemaining()) {
+          channel.write(source);
+        }
+      }
+    } catch (IOException e) {
+      deleteSpillFile(file);
+      throw e;
+    }
+    return mapSpillFile(file, size);
+  }
+
+  /**
+   * Stores the contents of {@code stream} under {@code blobId}, buffering no more of it than the
+   * memory budget allows. Returns the size of the blob.
+   *
+   * @param contentLength the expected length of the stream, or -1 if unknown
+   */
+  int put(String blobId, InputStream stream, long contentLength) throws IOException {
+    ReadableByteChannel source = Channels.newChannel(stream);
+    if (contentLength < 0) {
+      return putUnknownLength(blobId, source);
+    }
+    if (contentLength <= Integer.MAX_VALUE
+        && (contentLength <= HEAP_BLOB_MAX_BYTES || tryReserve(contentLength))) {
+      int reserved = contentLength <= HEAP_BLOB_MAX_BYTES ? 0 : (int) contentLength;
+      ByteBuffer head =
+          reserved == 0
+              ? ByteBuffer.allocate((int) contentLength)
+              : ByteBuffer.allocateDirect((int) contentLength);
+      ByteBuffer probe = ByteBuffer.allocate(1);
+      boolean ended;
+      try {
+        while (head.hasRemaining() && source.read(head) != -1) {}
+        int read = 0;
+        while (!head.hasRemaining() && (read = source.read(probe)) == 0) {}
+        ended = read == -1 || head.hasRemaining();
+      } catch (IOException e) {
+        release(reserved);
+        throw e;
+      }
+      head.flip();
+      if (ended) {
+        putEntry(blobId, new Entry(head.asReadOnlyBuffer(), reserved));
+        return head.remaining();
+      }
+      // The stream is longer than announced, continue on disk
+      probe.flip();
+      return spill(blobId, Arrays.asList(head, probe), source, reserved);
+    }
+    return spill(blobId, Collections.<ByteBuffer>emptyList(), source, 0);
+  }
+
+  /**
+   * Reads a stream of unknown length into a heap buffer while it fits in a heap blob, then into
+   * chunks reserved against the memory budget, and only spills it to disk once the budget is
+   * exhausted.
+   */
+  private int putUnknownLength(String blobId, ReadableByteChannel source) throws IOException {
+    List<ByteBuffer> chunks = new ArrayList<>();
+    // One byte more than a heap blob, to tell whether the stream ends within it
+    ByteBuffer chunk = ByteBuffer.allocate(HEAP_BLOB_MAX_BYTES + 1);
+    long reserved = 0;
+    boolean overBudget = false;
+    try {
+      while (true) {
+        if (!chunk.hasRemaining()) {
+          chunk.flip();
+          chunks.add(chunk);
+          if (!tryReserve(COPY_BUFFER_BYTES)) {
+            overBudget = true;
+            break;
+          }
+          reserved += COPY_BUFFER_BYTES;
+          chunk = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+        }
+        if (source.read(chunk) == -1) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      release(reserved);
+      throw e;
+    }
+    if (overBudget) {
+      return spill(blobId, chunks, source, reserved);
+    }
+    chunk.flip();
+    chunks.add(chunk);
+
+    long total = 0;
+    for (ByteBuffer part : chunks) {
+      total += part.remaining();
+    }
+    if (total <= HEAP_BLOB_MAX_BYTES) {
+      putEntry(blobId, new Entry(chunk.asReadOnlyBuffer(), 0));
+      return (int) total;
+    }
+    // Trade the reservation of the chunks for one of the exact size of the blob
+    if (total > reserved && !tryReserve(total - reserved)) {
+      release(reserved);
+      try {
+        putEntry(blobId, new Entry(spill(chunks, (int) total), 0));
+      } catch (IOException e) {
+        FLog.w(ReactConstants.TAG, "Could not spill blob to disk, keeping it in memory", e);
+        putEntry(blobId, new Entry(concat(ByteBuffer.allocate((int) total), chunks), 0));
+      }
+      return (int) total;
+    }
+    release(reserved - total);
+    putEntry(
+        blobId, new Entry(concat(ByteBuffer.allocateDirect((int) total), chunks), (int) total));
+    return (int) total;
+  }
+
+  private int spill(String blobId, List<ByteBuffer> head, ReadableByteChannel source, long reserved)
+      throws IOException {
+    File file = createSpillFile();
+    long size = 0;
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      FileChannel channel = out.getChannel();
+      for (ByteBuffer part : head) {
+        size += part.remaining();
+        while (part.hasRemaining()) {
+          channel.write(part);
+        }
+      }
+      // The memory reserved for the head is no longer needed once it has been written out
+      release(reserved);
+      reserved = 0;
+      ByteBuffer chunk = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+      while (source.read(chunk) != -1) {
+        chunk.flip();
+        size += chunk.remaining();
+        while (chunk.hasRemaining()) {
+          channel.write(chunk);
+        }
+        chunk.clear();
+      }
+    } catch (IOException e) {
+      release(reserved);
+      deleteSpillFile(file);
+      throw e;
+    }
+    if (size > Integer.MAX_VALUE) {
+      deleteSpillFile(file);
+      throw new IOException("Blob too large: " + size + " bytes");
+    }
+    putEntry(blobId, new Entry(mapSpillFile(file, (int) size), 0));
+    return (int) size;
+  }
+
+  /**
+   * Returns a read-only view of a slice of the blob, or null if there is no blob with the given id.
+   *
+   * @param size the size of the slice, or -1 for the rest of the blob
+   */
+  @Nullable
+  ByteBuffer get(String blobId, int offset, int size) {
+    Entry entry = mEntries.get(blobId);
+    if (entry == null) {
+      return null;
+    }
+    ByteBuffer view = entry.buffer.duplicate();
+    if (size == -1) {
+      size = view.limit() - offset;
+    }
+    view.position(offset);
+    view.limit(offset + size);
+    return view.slice();
+  }
+
+  void remove(String blobId) {
+    Entry entry = mEntries.remove(blobId);
+    if (entry != null) {
+      release(entry.reservedBytes);
+    }
+  }
+
+  /**
+   * Deletes spill files left behind by a previous process. Does nothing after the first call in the
+   * process.
+   */
+  void clearSpillDirectory() {
+    if (!sSpillDirectoryCleared.compareAndSet(false, true)) {
+      return;
+    }
+    File[] files = mSpillDirectory.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      deleteSpillFile(file);
+    }
+  }
+
+  long getMemoryUsage() {
+    return mMemoryUsage.get();
+  }
+
+  private void putEntry(String blobId, Entry entry) {
+    Entry previous = mEntries.put(blobId, entry);
+    if (previous != null) {
+      release(previous.reservedBytes);
+    }
+  }
+
+  private boolean tryReserve(long bytes) {
+    while (true) {
+      long current = mMemoryUsage.get();
+      if (current + bytes > mMemoryBudgetBytes) {
+        return false;
+      }
+      if (mMemoryUsage.compareAndSet(current, current + bytes)) {
+        return true;
+      }
+    }
+  }
+
+  private void release(long bytes) {
+    if (bytes > 0) {
+      mMemoryUsage.addAndGet(-bytes);
+    }
+  }
+
+  private File createSpillFile() throws IOException {
+    if (!mSpillDirectory.exists() && !mSpillDirectory.mkdirs()) {
+      throw new IOException("Could not create blob directory " + mSpillDirectory);
+    }
+    return File.createTempFile("blob", null, mSpillDirectory);
+  }
+
+  private static ByteBuffer mapSpillFile(File file, int size) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      if (size == 0) {
+        return ByteBuffer.allocate(0).asReadOnlyBuffer();
+      }
+      // The mapping stays valid after the channel is closed and the file is unlinked
+      return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+    } finally {
+      deleteSpillFile(file);
+    }
+  }
+
+  private static void deleteSpillFile(File file) {
+    if (!file.delete() && file.exists()) {
+      FLog.w(ReactConstants.TAG, "Could not delete blob file " + file);
+    }
+  }
+
+  private static boolean isWholeArray(ByteBuffer buffer) {
+    return buffer.arrayOffset() == 0
+        && buffer.position() == 0
+        && buffer.remaining() == buffer.array().length;
+  }
+
+  private static ByteBuffer concat(ByteBuffer target, List<ByteBuffer> parts) {
+    for (ByteBuffer part : parts) {
+      target.put(part.duplicate());
+    }
+    target.flip();
+    return target.asReadOnlyBuffer();
+  }
+
+  private static class Entry {
+    final ByteBuffer buffer;
+    final int reservedBytes;
+
+    Entry(ByteBuffer buffer, int reservedBytes) {
+      this.buffer = buffer;
+      this.reservedBytes = reservedBytes;
+    }
+  }
+}
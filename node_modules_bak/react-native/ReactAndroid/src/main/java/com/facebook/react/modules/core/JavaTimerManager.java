@@ -18,8 +18,8 @@ import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.common.SystemClock;
 import com.facebook.react.devsupport.interfaces.DevSupportManager;
 import com.facebook.react.jstasks.HeadlessJsTaskContext;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -38,15 +38,14 @@ public class JavaTimerManager {
   // at 60 fps.
   private static final float FRAME_DURATION_MS = 1000.f / 60.f;
 
-  private static class Timer {
+  private static class Timer extends TimerWheel.Entry {
     private final int mCallbackID;
     private final boolean mRepeat;
     private final int mInterval;
-    private long mTargetTime;
 
     private Timer(int callbackID, long initialTargetTime, int duration, boolean repeat) {
+      super(initialTargetTime);
       mCallbackID = callbackID;
-      mTargetTime = initialTargetTime;
       mInterval = duration;
       mRepeat = repeat;
     }
@@ -56,6 +55,8 @@ public class JavaTimerManager {
 
     // Temporary map for constructing the individual arrays of timers to call
     private @Nullable WritableArray mTimersToCall = null;
+    // Timers that expired in the current frame, reused across frames
+    private final List<TimerWheel.Entry> mExpiredTimers = new ArrayList<>();
 
     /** Calls all timers that have expired since the last time this frame callback was called. */
     @Override
@@ -66,8 +67,10 @@ public class JavaTimerManager {
 
       long frameTimeMillis = frameTimeNanos / 1000000;
       synchronized (mTimerGuard) {
-        while (!mTimers.isEmpty() && mTimers.peek().mTargetTime < frameTimeMillis) {
-          Timer timer = mTimers.poll();
+        // Timers fire in the first frame that starts after their target time
+        mTimers.advance(frameTimeMillis - 1, mExpiredTimers);
+        for (int i = 0; i < mExpiredTimers.size(); i++) {
+          Timer timer = (Timer) mExpiredTimers.get(i);
           if (mTimersToCall == null) {
             mTimersToCall = Arguments.createArray();
           }
@@ -79,6 +82,7 @@ public class JavaTimerManager {
             mTimerIdsToTimers.remove(timer.mCallbackID);
           }
         }
+        mExpiredTimers.clear();
       }
 
       if (mTimersToCall != null) {
@@ -157,7 +161,7 @@ public class JavaTimerManager {
   private final DevSupportManager mDevSupportManager;
   private final Object mTimerGuard = new Object();
   private final Object mIdleCallbackGuard = new Object();
-  private final PriorityQueue<Timer> mTimers;
+  private final TimerWheel mTimers;
   private final SparseArray<Timer> mTimerIdsToTimers;
   private final AtomicBoolean isPaused = new AtomicBoolean(true);
   private final AtomicBoolean isRunningTasks = new AtomicBoolean(false);
@@ -178,23 +182,8 @@ public class JavaTimerManager {
     mReactChoreographer = reactChoreographer;
     mDevSupportManager = devSupportManager;
 
-    // We store timers sorted by finish time.
-    mTimers =
-        new PriorityQueue<Timer>(
-            11, // Default capacity: for some reason they don't expose a (Comparator) constructor
-            new Comparator<Timer>() {
-              @Override
-              public int compare(Timer lhs, Timer rhs) {
-                long diff = lhs.mTargetTime - rhs.mTargetTime;
-                if (diff == 0) {
-                  return 0;
-                } else if (diff < 0) {
-                  return -1;
-                } else {
-                  return 1;
-                }
-              }
-            });
+    // Timers are bucketed by finish time, so that creating and deleting them is O(1)
+    mTimers = new TimerWheel(SystemClock.nanoTime() / 1000000);
     mTimerIdsToTimers = new SparseArray<>();
   }
 
@@ -389,18 +378,8 @@ public class JavaTimerManager {
    */
   /* package */ boolean hasActiveTimersInRange(long rangeMs) {
     synchronized (mTimerGuard) {
-      Timer nextTimer = mTimers.peek();
-      if (nextTimer == null) {
-        // Timers queue is empty
-        return false;
-      }
-      if (isTimerInRange(nextTimer, rangeMs)) {
-        // First check the next timer, so we can avoid iterating over the entire queue if it's
-        // already within range.
-        return true;
-      }
-      for (Timer timer : mTimers) {
-        if (isTimerInRange(timer, rangeMs)) {
+      for (int i = 0; i < mTimerIdsToTimers.size(); i++) {
+        if (isTimerInRange(mTimerIdsToTimers.valueAt(i), rangeMs)) {
           return true;
         }
       }
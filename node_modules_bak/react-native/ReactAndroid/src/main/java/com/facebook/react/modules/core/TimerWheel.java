@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.modules.core;
+
+import androidx.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel with a resolution of one millisecond, used by {@link JavaTimerManager}.
+ *
+ * <p>Each of the four levels has 64 buckets, a bucket of level {@code n} covering
+ * {@code 64^n} milliseconds. An entry is put in the lowest level whose range covers its delay and
+ * moves down a level each time the wheel reaches the start of its bucket, so that adding and
+ * removing an entry is O(1): buckets are intrusive doubly linked lists. Delays beyond the highest
+ * level (about 4.6 hours) are kept in an overflow bucket that is redistributed once per turn of
+ * that level.
+ *
+ * <p>Each level keeps a bitmap of its non-empty buckets, which lets {@link #advance} skip the
+ * milliseconds where nothing happens. Catching up after the app was paused for a long time is
+ * therefore proportional to the number of entries, not to the elapsed time.
+ *
+ * <p>This class is not thread safe.
+ */
+/* package */ final class TimerWheel {
+
+  /** An entry of the wheel, subclassed by the users of the wheel to carry their data. */
+  /* package */ static class Entry {
+    /** The time at which the entry expires, in milliseconds. */
+    long mTargetTime;
+
+    private @Nullable Entry mPrev;
+    private @Nullable Entry mNext;
+    private int mBucket = NO_BUCKET;
+
+    /* package */ Entry(long targetTime) {
+      mTargetTime = targetTime;
+    }
+  }
+
+  private static final int LEVELS = 4;
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int OVERFLOW_BUCKET = LEVELS * SLOTS;
+  private static final int NO_BUCKET = -1;
+
+  // Heads and tails of the buckets, entries are kept in the order they were added
+  private final @Nullable Entry[] mHeads = new Entry[OVERFLOW_BUCKET + 1];
+  private final @Nullable Entry[] mTails = new Entry[OVERFLOW_BUCKET + 1];
+  // Bit n of mOccupied[level] is set when the bucket n of the level is not empty
+  private final long[] mOccupied = new long[LEVELS];
+  private long mCurrentTime;
+  private int mSize;
+
+  /* package */ TimerWheel(long currentTime) {
+    mCurrentTime = currentTime;
+  }
+
+  /* package */ int size() {
+    return mSize;
+  }
+
+  /**
+   * Adds an entry that is not in the wheel. Entries whose target time is not after the current time
+   * of the wheel expire on the next {@link #advance}.
+   */
+  /* package */ void add(Entry entry) {
+    place(entry, Math.max(entry.mTargetTime, mCurrentTime + 1));
+    mSize++;
+  }
+
+  /** Removes an entry from the wheel, returns false if it was not in it. */
+  /* package */ boolean remove(Entry entry) {
+    if (entry.mBucket == NO_BUCKET) {
+      return false;
+    }
+    unlink(entry);
+    mSize--;
+    return true;
+  }
+
+  /**
+   * Moves the wheel to the given time, removing the entries whose target time is up to and
+   * including it and appending them to {@code expired} in order of target time.
+   */
+  /* package */ void advance(long time, List<Entry> expired) {
+    while (mCurrentTime < time) {
+      mCurrentTime = nextEventTime(time);
+      cascade(mCurrentTime);
+      Entry entry = detach((int) (mCurrentTime & SLOT_MASK));
+      while (entry != null) {
+        Entry next = entry.mNext;
+        entry.mPrev = null;
+        entry.mNext = null;
+        entry.mBucket = NO_BUCKET;
+        mSize--;
+        expired.add(entry);
+        entry = next;
+      }
+    }
+  }
+
+  /**
+   * Returns the first time after the current one at which a bucket of the first level expires or a
+   * bucket of another level moves down, capped to {@code limit}.
+   */
+  private long nextEventTime(long limit) {
+    long next = mCurrentTime + 1;
+    long result = limit;
+    if (mOccupied[0] != 0) {
+      long pending = Long.rotateRight(mOccupied[0], (int) (next & SLOT_MASK));
+      result = Math.min(result, next + Long.numberOfTrailingZeros(pending));
+    }
+    // Buckets of lower levels move down more often, so the lowest non-empty level comes first
+    for (int level = 1; level <= LEVELS; level++) {
+      boolean occupied =
+          level < LEVELS ? mOccupied[level] != 0 : mHeads[OVERFLOW_BUCKET] != null;
+      if (occupied) {
+        long span = 1L << (SLOT_BITS * level);
+        result = Math.min(result, (next + span - 1) & ~(span - 1));
+        break;
+      }
+    }
+    return result;
+  }
+
+  /** Moves down the entries of the buckets of the higher levels that start at the given time. */
+  private void cascade(long time) {
+    for (int level = LEVELS; level >= 1; level--) {
+      long span = 1L << (SLOT_BITS * level);
+      if ((time & (span - 1)) != 0) {
+        continue;
+      }
+      int bucket =
+          level < LEVELS
+              ? level * SLOTS + (int) ((time >> (SLOT_BITS * level)) & SLOT_MASK)
+              : OVERFLOW_BUCKET;
+      // Detached first, as overflowing entries may go back to the bucket they come from
+      Entry entry = detach(bucket);
+      while (entry != null) {
+        Entry next = entry.mNext;
+        place(entry, Math.max(entry.mTargetTime, time));
+        entry = next;
+      }
+    }
+  }
+
+  private void place(Entry entry, long time) {
+    long delay = time - mCurrentTime;
+    int bucket = OVERFLOW_BUCKET;
+    for (int level = 0; level < LEVELS; level++) {
+      if (delay < 1L << (SLOT_BITS * (level + 1))) {
+        int slot = (int) ((time >> (SLOT_BITS * level)) & SLOT_MASK);
+        bucket = level * SLOTS + slot;
+        mOccupied[level] |= 1L << slot;
+        break;
+      }
+    }
+    Entry tail = mTails[bucket];
+    entry.mPrev = tail;
+    entry.mNext = null;
+    if (tail != null) {
+      tail.mNext = entry;
+    } else {
+      mHeads[bucket] = entry;
+    }
+    mTails[bucket] = entry;
+    entry.mBucket = bucket;
+  }
+
+  /** Empties a bucket and returns its former head, the entries stay linked through mNext. */
+  private @Nullable Entry detach(int bucket) {
+    Entry head = mHeads[bucket];
+    mHeads[bucket] = null;
+    mTails[bucket] = null;
+    if (bucket != OVERFLOW_BUCKET) {
+      mOccupied[bucket / SLOTS] &= ~(1L << (bucket & SLOT_MASK));
+    }
+    return head;
+  }
+
+  private void unlink(Entry entry) {
+    int bucket = entry.mBucket;
+    if (entry.mPrev != null) {
+      entry.mPrev.mNext = entry.mNext;
+    } else {
+      mHeads[bucket] = entry.mNext;
+    }
+    if (entry.mNext != null) {
+      entry.mNext.mPrev = entry.mPrev;
+    } else {
+      mTails[bucket] = entry.mPrev;
+    }
+    entry.mPrev = null;
+    entry.mNext = null;
+    entry.mBucket = NO_BUCKET;
+    if (mHeads[bucket] == null && bucket != OVERFLOW_BUCKET) {
+      mOccupied[bucket / SLOTS] &= ~(1L << (bucket & SLOT_MASK));
+    }
+  }
+}
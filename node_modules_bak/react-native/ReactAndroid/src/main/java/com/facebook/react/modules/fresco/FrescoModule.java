@@ -180,7 +180,13 @@ public class FrescoModule extends ReactContextBaseJavaModule
     HashSet<RequestListener> requestListeners = new HashSet<>();
     requestListeners.add(new SystraceRequestListener());
 
-    OkHttpClient client = OkHttpClientProvider.createClient();
+    // Shares the connection pool and dispatcher of the networking module, but not its HTTP cache:
+    // the image pipeline has its own disk caches
+    OkHttpClient client =
+        OkHttpClientProvider.createSharedClient(context.getApplicationContext())
+            .newBuilder()
+            .cache(null)
+            .build();
 
     // make sure to forward cookies for any requests via the okHttpClient
     // so that image requests to endpoints that use cookies still work
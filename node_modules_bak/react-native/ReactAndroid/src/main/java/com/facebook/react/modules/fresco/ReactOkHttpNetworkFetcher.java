@@ -10,9 +10,11 @@ package com.facebook.react.modules.fresco;
 import android.net.Uri;
 import android.os.SystemClock;
 import com.facebook.imagepipeline.backends.okhttp3.OkHttpNetworkFetcher;
+import com.facebook.imagepipeline.common.Priority;
 import com.facebook.imagepipeline.producers.NetworkFetcher;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.modules.network.RequestScheduler;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -29,9 +31,15 @@ class ReactOkHttpNetworkFetcher extends OkHttpNetworkFetcher {
   private final OkHttpClient mOkHttpClient;
   private final Executor mCancellationExecutor;
 
-  /** @param okHttpClient client to use */
+  /**
+   * Calls go through the {@link RequestScheduler}, with the priority of the image request.
+   *
+   * @param okHttpClient client to use
+   */
   public ReactOkHttpNetworkFetcher(OkHttpClient okHttpClient) {
-    super(okHttpClient);
+    super(
+        RequestScheduler.getInstance().wrap(okHttpClient, RequestScheduler.Priority.VISIBLE),
+        okHttpClient.dispatcher().executorService());
     mOkHttpClient = okHttpClient;
     mCancellationExecutor = okHttpClient.dispatcher().executorService();
   }
@@ -50,6 +58,16 @@ class ReactOkHttpNetworkFetcher extends OkHttpNetworkFetcher {
     return map;
   }
 
+  /**
+   * On screen images are requested with a high priority, prefetches with a medium (the default of
+   * the image pipeline) or low one.
+   */
+  private static RequestScheduler.Priority toRequestPriority(Priority priority) {
+    return priority == Priority.HIGH
+        ? RequestScheduler.Priority.VISIBLE
+        : RequestScheduler.Priority.PREFETCH;
+  }
+
   @Override
   public void fetch(
       final OkHttpNetworkFetcher.OkHttpNetworkFetchState fetchState,
@@ -70,6 +88,9 @@ class ReactOkHttpNetworkFetcher extends OkHttpNetworkFetcher {
             .cacheControl(new CacheControl.Builder().noStore().build())
             .url(uri.toString())
             .headers(Headers.of(requestHeaders))
+            .tag(
+                RequestScheduler.Priority.class,
+                toRequestPriority(fetchState.getContext().getPriority()))
             .get()
             .build();
 
@@ -35,6 +35,8 @@ import com.facebook.react.module.annotations.ReactModule;
 import com.facebook.react.modules.fresco.ReactNetworkImageRequest;
 import com.facebook.react.views.image.ReactCallerContextFactory;
 import com.facebook.react.views.imagehelper.ImageSource;
+import java.util.ArrayList;
+import java.util.List;
 
 @ReactModule(name = NativeImageLoaderAndroidSpec.NAME)
 public class ImageLoaderModule extends NativeImageLoaderAndroidSpec
@@ -49,6 +51,7 @@ public class ImageLoaderModule extends NativeImageLoaderAndroidSpec
   private final SparseArray<DataSource<Void>> mEnqueuedRequests = new SparseArray<>();
   private @Nullable ImagePipeline mImagePipeline = null;
   private @Nullable ReactCallerContextFactory mCallerContextFactory;
+  private @Nullable ImagePrefetchScheduler mPrefetchScheduler;
 
   public ImageLoaderModule(ReactApplicationContext reactContext) {
     super(reactContext);
@@ -80,6 +83,13 @@ public class ImageLoaderModule extends NativeImageLoaderAndroidSpec
     return mImagePipeline != null ? mImagePipeline : Fresco.getImagePipeline();
   }
 
+  private synchronized ImagePrefetchScheduler getPrefetchScheduler() {
+    if (mPrefetchScheduler == null) {
+      mPrefetchScheduler = new ImagePrefetchScheduler(getImagePipeline(), getCallerContext());
+    }
+    return mPrefetchScheduler;
+  }
+
   /**
    * Fetch the width and height of the given image.
    *
@@ -259,6 +269,49 @@ public class ImageLoaderModule extends NativeImageLoaderAndroidSpec
     }
   }
 
+  /**
+   * Updates the prefetch window of a scrollable rail of images. Visible items are kept at the front
+   * of the queue, the next items in the scroll direction are prefetched to the disk cache at low
+   * priority and pending work for items that left the window is cancelled.
+   *
+   * @param railId identifies the rail, chosen by the caller
+   * @param uris the ordered URIs of the rail, or null to reuse the previously reported list
+   * @param firstVisibleIndex index of the first visible item
+   * @param lastVisibleIndex index of the last visible item (inclusive)
+   */
+  @Override
+  public void setPrefetchWindow(
+      final String railId,
+      final @Nullable ReadableArray uris,
+      final double firstVisibleIndex,
+      final double lastVisibleIndex) {
+    if (railId == null) {
+      return;
+    }
+    List<String> uriList = null;
+    if (uris != null) {
+      uriList = new ArrayList<>(uris.size());
+      for (int i = 0; i < uris.size(); i++) {
+        uriList.add(uris.isNull(i) ? null : uris.getString(i));
+      }
+    }
+    getPrefetchScheduler()
+        .updateWindow(railId, uriList, (int) firstVisibleIndex, (int) lastVisibleIndex);
+  }
+
+  /**
+   * Cancels all prefetches of a rail, e.g. when it is unmounted.
+   *
+   * @param railId the rail identifier previously passed to {@link #setPrefetchWindow}
+   */
+  @Override
+  public void clearPrefetchWindow(final String railId) {
+    if (railId == null) {
+      return;
+    }
+    getPrefetchScheduler().clearWindow(railId);
+  }
+
   @ReactMethod
   public void queryCache(final ReadableArray uris, final Promise promise) {
     // perform cache interrogation in async task as disk cache checks are expensive
@@ -315,5 +368,10 @@ public class ImageLoaderModule extends NativeImageLoaderAndroidSpec
       }
       mEnqueuedRequests.clear();
     }
+    synchronized (this) {
+      if (mPrefetchScheduler != null) {
+        mPrefetchScheduler.clearAll();
+      }
+    }
   }
 }
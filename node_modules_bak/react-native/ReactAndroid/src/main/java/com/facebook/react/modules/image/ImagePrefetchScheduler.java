@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.modules.image;
+
+import android.net.Uri;
+import androidx.annotation.Nullable;
+import com.facebook.common.executors.CallerThreadExecutor;
+import com.facebook.common.logging.FLog;
+import com.facebook.datasource.BaseDataSubscriber;
+import com.facebook.datasource.DataSource;
+import com.facebook.imagepipeline.common.Priority;
+import com.facebook.imagepipeline.core.ImagePipeline;
+import com.facebook.imagepipeline.request.ImageRequest;
+import com.facebook.imagepipeline.request.ImageRequestBuilder;
+import com.facebook.react.common.ReactConstants;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Schedules disk cache prefetches for scrollable rails of images (carousels, grids, lists).
+ *
+ * <p>For every rail, JS reports the ordered list of image URIs together with the currently visible
+ * index range. The scheduler keeps the visible items at the front of the queue and prefetches the
+ * next items in the direction of the scroll at low priority. Work for items that leave the window
+ * is cancelled, and the number of in-flight requests per host is capped so that prefetching never
+ * saturates the connections needed by on-screen images.
+ *
+ * <p>Visible items are never cancelled while they stay on screen: the image view mounted for them
+ * issues its own request for the same URI, which Fresco multiplexes with the prefetch and runs at
+ * the higher of the two priorities.
+ */
+class ImagePrefetchScheduler {
+
+  static final int DEFAULT_LOOKAHEAD = 6;
+  static final int DEFAULT_MAX_REQUESTS_PER_HOST = 2;
+
+  private static final Comparator<PrefetchTask> TASK_ORDER =
+      new Comparator<PrefetchTask>() {
+        @Override
+        public int compare(PrefetchTask lhs, PrefetchTask rhs) {
+          int byPriority = rhs.priority.ordinal() - lhs.priority.ordinal();
+          return byPriority != 0 ? byPriority : lhs.distance - rhs.distance;
+        }
+      };
+
+  private final ImagePipeline mImagePipeline;
+  private final @Nullable Object mCallerContext;
+  private final int mLookahead;
+  private final int mMaxRequestsPerHost;
+
+  private final Object mLock = new Object();
+  private final Map<String, Rail> mRails = new HashMap<>();
+  private final List<PrefetchTask> mPending = new ArrayList<>();
+  private final Map<String, Integer> mInFlightPerHost = new HashMap<>();
+
+  ImagePrefetchScheduler(ImagePipeline imagePipeline, @Nullable Object callerContext) {
+    this(imagePipeline, callerContext, DEFAULT_LOOKAHEAD, DEFAULT_MAX_REQUESTS_PER_HOST);
+  }
+
+  ImagePrefetchScheduler(
+      ImagePipeline imagePipeline,
+      @Nullable Object callerContext,
+      int lookahead,
+      int maxRequestsPerHost) {
+    mImagePipeline = imagePipeline;
+    mCallerContext = callerContext;
+    mLookahead = lookahead;
+    mMaxRequestsPerHost = maxRequestsPerHost;
+  }
+
+  /**
+   * Updates the prefetch window of a rail.
+   *
+   * @param railId identifies the rail, chosen by the caller
+   * @param uris the ordered URIs of the rail, or {@code null} to keep the previously reported list
+   * @param firstVisible index of the first visible item
+   * @param lastVisible index of the last visible item (inclusive)
+   */
+  void updateWindow(String railId, @Nullable List<String> uris, int firstVisible, int lastVisible) {
+    List<PrefetchTask> toStart;
+    synchronized (mLock) {
+      Rail rail = mRails.get(railId);
+      if (rail == null) {
+        rail = new Rail(railId);
+        mRails.put(railId, rail);
+      }
+      if (uris != null && !uris.equals(rail.uris)) {
+        rail.uris = new ArrayList<>(uris);
+        rail.completed.clear();
+      }
+
+      if (rail.firstVisible >= 0 && firstVisible != rail.firstVisible) {
+        rail.forward = firstVisible > rail.firstVisible;
+      }
+      rail.firstVisible = firstVisible;
+      rail.lastVisible = lastVisible;
+
+      Map<String, PrefetchTask> wanted = computeWindow(rail);
+      for (Iterator<PrefetchTask> it = rail.tasks.values().iterator(); it.hasNext(); ) {
+        PrefetchTask task = it.next();
+        if (!wanted.containsKey(task.uri.toString())) {
+          it.remove();
+          cancelLocked(task);
+        }
+      }
+      for (PrefetchTask candidate : wanted.values()) {
+        PrefetchTask existing = rail.tasks.get(candidate.uri.toString());
+        if (existing == null) {
+          rail.tasks.put(candidate.uri.toString(), candidate);
+          mPending.add(candidate);
+        } else if (existing.state == PrefetchTask.STATE_PENDING) {
+          existing.priority = candidate.priority;
+          existing.distance = candidate.distance;
+        }
+      }
+      toStart = pollStartableLocked();
+    }
+    start(toStart);
+  }
+
+  /** Cancels all outstanding work of a rail and forgets its state. */
+  void clearWindow(String railId) {
+    List<PrefetchTask> toStart;
+    synchronized (mLock) {
+      Rail rail = mRails.remove(railId);
+      if (rail == null) {
+        return;
+      }
+      for (PrefetchTask task : rail.tasks.values()) {
+        cancelLocked(task);
+      }
+      rail.tasks.clear();
+      toStart = pollStartableLocked();
+    }
+    start(toStart);
+  }
+
+  /** Cancels all outstanding work of every rail. */
+  void clearAll() {
+    synchronized (mLock) {
+      for (Rail rail : mRails.values()) {
+        for (PrefetchTask task : rail.tasks.values()) {
+          cancelLocked(task);
+        }
+      }
+      mRails.clear();
+      mPending.clear();
+      mInFlightPerHost.clear();
+    }
+  }
+
+  private Map<String, PrefetchTask> computeWindow(Rail rail) {
+    Map<String, PrefetchTask> wanted = new LinkedHashMap<>();
+    List<String> uris = rail.uris;
+    int size = uris.size();
+    if (size == 0) {
+      return wanted;
+    }
+    int first = Math.max(0, Math.min(rail.firstVisible, size - 1));
+    int last = Math.max(first, Math.min(rail.lastVisible, size - 1));
+
+    for (int i = first; i <= last; i++) {
+      addToWindow(rail, wanted, uris.get(i), Priority.HIGH, i - first);
+    }
+    int step = rail.forward ? 1 : -1;
+    int index = rail.forward ? last + 1 : first - 1;
+    for (int distance = 1; distance <= mLookahead && index >= 0 && index < size; distance++) {
+      addToWindow(rail, wanted, uris.get(index), Priority.LOW, distance);
+      index += step;
+    }
+    return wanted;
+  }
+
+  private void addToWindow(
+      Rail rail,
+      Map<String, PrefetchTask> wanted,
+      @Nullable String uriString,
+      Priority priority,
+      int distance) {
+    if (uriString == null || uriString.isEmpty()) {
+      return;
+    }
+    if (wanted.containsKey(uriString) || rail.completed.contains(uriString)) {
+      return;
+    }
+    Uri uri = Uri.parse(uriString);
+    if (mImagePipeline.isInBitmapMemoryCache(uri)) {
+      return;
+    }
+    wanted.put(uriString, new PrefetchTask(rail.id, uri, priority, distance));
+  }
+
+  private void cancelLocked(PrefetchTask task) {
+    int previousState = task.state;
+    task.state = PrefetchTask.STATE_CANCELLED;
+    if (previousState == PrefetchTask.STATE_PENDING) {
+      mPending.remove(task);
+    } else if (previousState == PrefetchTask.STATE_RUNNING) {
+      releaseHostSlotLocked(task.host);
+      if (task.dataSource != null) {
+        task.dataSource.close();
+        task.dataSource = null;
+      }
+    }
+  }
+
+  private List<PrefetchTask> pollStartableLocked() {
+    if (mPending.isEmpty()) {
+      return Collections.emptyList();
+    }
+    Collections.sort(mPending, TASK_ORDER);
+    List<PrefetchTask> toStart = new ArrayList<>();
+    for (Iterator<PrefetchTask> it = mPending.iterator(); it.hasNext(); ) {
+      PrefetchTask task = it.next();
+      Integer inFlight = mInFlightPerHost.get(task.host);
+      int count = inFlight == null ? 0 : inFlight;
+      if (count >= mMaxRequestsPerHost) {
+        continue;
+      }
+      mInFlightPerHost.put(task.host, count + 1);
+      task.state = PrefetchTask.STATE_RUNNING;
+      it.remove();
+      toStart.add(task);
+    }
+    return toStart;
+  }
+
+  private void releaseHostSlotLocked(String host) {
+    Integer inFlight = mInFlightPerHost.get(host);
+    if (inFlight == null || inFlight <= 1) {
+      mInFlightPerHost.remove(host);
+    } else {
+      mInFlightPerHost.put(host, inFlight - 1);
+    }
+  }
+
+  /**
+   * Issues the Fresco requests for the given tasks. Called without holding {@link #mLock}, since
+   * data source subscribers may run synchronously on the calling thread.
+   */
+  private void start(List<PrefetchTask> tasks) {
+    for (final PrefetchTask task : tasks) {
+      ImageRequest request = ImageRequestBuilder.newBuilderWithSource(task.uri).build();
+      DataSource<Void> dataSource;
+      try {
+        dataSource = mImagePipeline.prefetchToDiskCache(request, mCallerContext, task.priority);
+      } catch (RuntimeException e) {
+        FLog.w(ReactConstants.TAG, "Failed to schedule prefetch for " + task.uri, e);
+        onTaskFinished(task, false);
+        continue;
+      }
+
+      synchronized (mLock) {
+        if (task.state == PrefetchTask.STATE_CANCELLED) {
+          dataSource.close();
+          continue;
+        }
+        task.dataSource = dataSource;
+      }
+
+      dataSource.subscribe(
+          new BaseDataSubscriber<Void>() {
+            @Override
+            protected void onNewResultImpl(DataSource<Void> dataSource) {
+              if (!dataSource.isFinished()) {
+                return;
+              }
+              try {
+                onTaskFinished(task, true);
+              } finally {
+                dataSource.close();
+              }
+            }
+
+            @Override
+            protected void onFailureImpl(DataSource<Void> dataSource) {
+              try {
+                onTaskFinished(task, false);
+              } finally {
+                dataSource.close();
+              }
+            }
+          },
+          CallerThreadExecutor.getInstance());
+    }
+  }
+
+  private void onTaskFinished(PrefetchTask task, boolean succeeded) {
+    List<PrefetchTask> toStart;
+    synchronized (mLock) {
+      if (task.state != PrefetchTask.STATE_RUNNING) {
+        return;
+      }
+      task.state = PrefetchTask.STATE_FINISHED;
+      task.dataSource = null;
+      releaseHostSlotLocked(task.host);
+      Rail rail = mRails.get(task.railId);
+      if (rail != null && rail.tasks.get(task.uri.toString()) == task) {
+        rail.tasks.remove(task.uri.toString());
+        if (succeeded) {
+          rail.completed.add(task.uri.toString());
+        }
+      }
+      toStart = pollStartableLocked();
+    }
+    start(toStart);
+  }
+
+  private static class Rail {
+    final String id;
+    List<String> uris = Collections.emptyList();
+    int firstVisible = -1;
+    int lastVisible = -1;
+    boolean forward = true;
+    final Map<String, PrefetchTask> tasks = new HashMap<>();
+    final Set<String> completed = new HashSet<>();
+
+    Rail(String id) {
+      this.id = id;
+    }
+  }
+
+  private static class PrefetchTask {
+    static final int STATE_PENDING = 0;
+    static final int STATE_RUNNING = 1;
+    static final int STATE_FINISHED = 2;
+    static final int STATE_CANCELLED = 3;
+
+    final String railId;
+    final Uri uri;
+    final String host;
+    Priority priority;
+    int distance;
+    int state = STATE_PENDING;
+    @Nullable DataSource<Void> dataSource;
+
+    PrefetchTask(String railId, Uri uri, Priority priority, int distance) {
+      this.railId = railId;
+      this.uri = uri;
+      String host = uri.getHost();
+      this.host = host != null ? host : "";
+      this.priority = priority;
+      this.distance = distance;
+    }
+  }
+}
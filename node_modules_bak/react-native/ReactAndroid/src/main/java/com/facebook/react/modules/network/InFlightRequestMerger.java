@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.modules.network;
+
+import androidx.annotation.Nullable;
+import com.facebook.common.logging.FLog;
+import com.facebook.react.common.ReactConstants;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Merges identical idempotent requests while they are in flight.
+ *
+ * <p>The first call for a given method, URL, headers and credentials mode is enqueued; calls that
+ * arrive while it is running are not enqueued but attached to it, so they hold neither a
+ * dispatcher thread nor a connection slot while they wait. When the response arrives, its body is
+ * buffered in memory, up to {@link #MAX_MERGED_BODY_BYTES} whether or not its length is known, and
+ * every attached call receives its own copy of it. If the body is larger, or the first call fails,
+ * the attached calls are enqueued at once and go to the network on their own.
+ */
+class InFlightRequestMerger {
+
+  private static final long MAX_MERGED_BODY_BYTES = 2 * 1024 * 1024;
+
+  // Delivers the merged responses, so that the callbacks of the attached calls run in parallel
+  private static final ExecutorService sCallbackExecutor = Executors.newCachedThreadPool();
+
+  private final Map<String, Flight> mInFlight = new HashMap<>();
+  private final AtomicLong mStartedCount = new AtomicLong();
+  private final AtomicLong mMergedCount = new AtomicLong();
+
+  /**
+   * Enqueues the call, or attaches it to an identical call in flight, in which case the callback
+   * receives a copy of the response of that call.
+   */
+  void enqueue(Call call, boolean withCredentials, Callback callback) {
+    Request request = call.request();
+    if (!isIdempotent(request)) {
+      call.enqueue(callback);
+      return;
+    }
+
+    String key = getKey(request, withCredentials);
+    Flight flight;
+    synchronized (this) {
+      Flight existing = mInFlight.get(key);
+      if (existing != null) {
+        existing.mWaiters.add(new Waiter(call, callback));
+        return;
+      }
+      flight = new Flight(key);
+      mInFlight.put(key, flight);
+    }
+    mStartedCount.incrementAndGet();
+    call.enqueue(new LeaderCallback(flight, callback));
+  }
+
+  /**
+   * Fails the attached call with the given tag, as if it had been canceled. Returns false if no
+   * attached call has this tag.
+   */
+  boolean cancelTag(Object tag) {
+    Waiter canceled = null;
+    synchronized (this) {
+      for (Flight flight : mInFlight.values()) {
+        Iterator<Waiter> iterator = flight.mWaiters.iterator();
+        while (iterator.hasNext()) {
+          Waiter waiter = iterator.next();
+          if (tag.equals(waiter.mCall.request().tag())) {
+            iterator.remove();
+            canceled = waiter;
+            break;
+          }
+        }
+        if (canceled != null) {
+          break;
+        }
+      }
+    }
+    if (canceled == null) {
+      return false;
+    }
+    canceled.mCall.cancel();
+    canceled.mCallback.onFailure(canceled.mCall, new IOException("Canceled"));
+    return true;
+  }
+
+  /** Number of requests that went to the network as the first of their kind. */
+  long getStartedCount() {
+    return mStartedCount.get();
+  }
+
+  /** Number of requests that were served by a response of another in-flight request. */
+  long getMergedCount() {
+    return mMergedCount.get();
+  }
+
+  /** Ends the flight and returns the calls attached to it. */
+  private synchronized List<Waiter> land(Flight flight) {
+    mInFlight.remove(flight.mKey);
+    return flight.mWaiters;
+  }
+
+  private static void enqueueAll(List<Waiter> waiters) {
+    for (Waiter waiter : waiters) {
+      waiter.mCall.enqueue(waiter.mCallback);
+    }
+  }
+
+  private static boolean isIdempotent(Request request) {
+    String method = request.method();
+    return ("GET".equals(method) || "HEAD".equals(method)) && request.body() == null;
+  }
+
+  private static String getKey(Request request, boolean withCredentials) {
+    StringBuilder key = new StringBuilder();
+    key.append(request.method())
+        .append(' ')
+        .append(request.url())
+        .append(withCredentials ? " credentials" : " anonymous");
+    Headers headers = request.headers();
+    for (int i = 0; i < headers.size(); i++) {
+      key.append('\n').append(headers.name(i)).append(':').append(headers.value(i));
+    }
+    return key.toString();
+  }
+
+  private static final class Flight {
+    private final String mKey;
+    // Guarded by the merger
+    private final List<Waiter> mWaiters = new ArrayList<>();
+
+    Flight(String key) {
+      mKey = key;
+    }
+  }
+
+  private static final class Waiter {
+    private final Call mCall;
+    private final Callback mCallback;
+
+    Waiter(Call call, Callback callback) {
+      mCall = call;
+      mCallback = callback;
+    }
+  }
+
+  private final class LeaderCallback implements Callback {
+    private final Flight mFlight;
+    private final Callback mCallback;
+
+    LeaderCallback(Flight flight, Callback callback) {
+      mFlight = flight;
+      mCallback = callback;
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+      enqueueAll(land(mFlight));
+      mCallback.onFailure(call, e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) throws IOException {
+      ResponseBody body = response.body();
+      if (body == null || body.contentLength() > MAX_MERGED_BODY_BYTES) {
+        enqueueAll(land(mFlight));
+        mCallback.onResponse(call, response);
+        return;
+      }
+
+      // Buffers the body without consuming it, so that it can still be handed over as is if it
+      // turns out to be too large
+      BufferedSource source = body.source();
+      boolean tooLarge;
+      try {
+        tooLarge = source.request(MAX_MERGED_BODY_BYTES + 1);
+      } catch (IOException e) {
+        response.close();
+        onFailure(call, e);
+        return;
+      }
+      if (tooLarge) {
+        enqueueAll(land(mFlight));
+        mCallback.onResponse(call, response);
+        return;
+      }
+
+      byte[] bytes = source.readByteArray();
+      response.close();
+      MediaType contentType = body.contentType();
+      for (Waiter waiter : land(mFlight)) {
+        mMergedCount.incrementAndGet();
+        sCallbackExecutor.execute(() -> deliver(waiter, response, contentType, bytes));
+      }
+      mCallback.onResponse(
+          call, response.newBuilder().body(ResponseBody.create(contentType, bytes)).build());
+    }
+  }
+
+  private static void deliver(
+      Waiter waiter, Response response, @Nullable MediaType contentType, byte[] bytes) {
+    Response copy =
+        response
+            .newBuilder()
+            .request(waiter.mCall.request())
+            .body(ResponseBody.create(contentType, bytes))
+            .build();
+    try {
+      waiter.mCallback.onResponse(waiter.mCall, copy);
+    } catch (IOException e) {
+      // As OkHttp does for the callbacks of the calls it runs
+      FLog.w(ReactConstants.TAG, "Callback failure for " + waiter.mCall.request().url(), e);
+    }
+  }
+}
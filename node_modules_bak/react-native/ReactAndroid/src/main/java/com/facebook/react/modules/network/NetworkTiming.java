@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.modules.network;
+
+import androidx.annotation.Nullable;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Phase timestamps of one call, filled in by {@link NetworkTimingEventListener}.
+ *
+ * <p>Timestamps are {@link System#nanoTime()} values, 0 when the phase did not happen. When a call
+ * goes through several connections (retries, redirects), the first start and the last end of each
+ * phase are kept.
+ *
+ * <p>A request can carry its own instance as a tag of type {@code NetworkTiming}, the listener
+ * then records into it so that the caller can read the timings once the call completes. The
+ * histograms of {@link NetworkTimingEventListener} keep copies taken when the call ended, which
+ * nothing writes to anymore.
+ */
+public final class NetworkTiming {
+
+  /** Phases reported in summaries and histograms, see {@link #getDurationMs}. */
+  /* package */ static final String[] PHASES = {
+    "dns", "connect", "tls", "ttfb", "download", "total"
+  };
+
+  // Written on the network threads and read on the thread that completes the request
+  volatile @Nullable String host;
+  volatile @Nullable String protocol;
+  volatile long callStart;
+  volatile long dnsStart;
+  volatile long dnsEnd;
+  volatile long connectStart;
+  volatile long connectEnd;
+  volatile long secureConnectStart;
+  volatile long secureConnectEnd;
+  volatile long requestHeadersStart;
+  volatile long responseHeadersStart;
+  volatile long responseHeadersEnd;
+  volatile long responseBodyEnd;
+  volatile long callEnd;
+  volatile boolean connectionAcquired;
+  volatile boolean connectionReused;
+  volatile boolean failed;
+
+  /** Returns the host of the request, or null if the call did not start. */
+  public @Nullable String getHost() {
+    return host;
+  }
+
+  /** Returns true if the call went out on a pooled connection, without connecting. */
+  public boolean isConnectionReused() {
+    return connectionReused;
+  }
+
+  /** Returns a copy of the timings recorded so far, for keeping after the call completed. */
+  /* package */ NetworkTiming copy() {
+    NetworkTiming copy = new NetworkTiming();
+    copy.host = host;
+    copy.protocol = protocol;
+    copy.callStart = callStart;
+    copy.dnsStart = dnsStart;
+    copy.dnsEnd = dnsEnd;
+    copy.connectStart = connectStart;
+    copy.connectEnd = connectEnd;
+    copy.secureConnectStart = secureConnectStart;
+    copy.secureConnectEnd = secureConnectEnd;
+    copy.requestHeadersStart = requestHeadersStart;
+    copy.responseHeadersStart = responseHeadersStart;
+    copy.responseHeadersEnd = responseHeadersEnd;
+    copy.responseBodyEnd = responseBodyEnd;
+    copy.callEnd = callEnd;
+    copy.connectionAcquired = connectionAcquired;
+    copy.connectionReused = connectionReused;
+    copy.failed = failed;
+    return copy;
+  }
+
+  /**
+   * Returns the duration of a phase in milliseconds, or -1 if the phase did not happen. The
+   * phases are the ones of {@link #PHASES}: ttfb runs from the start of the request headers to the
+   * start of the response headers, download from the end of the response headers to the end of the
+   * body, and total from the start to the end of the call (or to now if it has not ended).
+   */
+  /* package */ double getDurationMs(String phase) {
+    switch (phase) {
+      case "dns":
+        return durationMs(dnsStart, dnsEnd);
+      case "connect":
+        return durationMs(connectStart, connectEnd);
+      case "tls":
+        return durationMs(secureConnectStart, secureConnectEnd);
+      case "ttfb":
+        return durationMs(requestHeadersStart, responseHeadersStart);
+      case "download":
+        return durationMs(responseHeadersEnd, responseBodyEnd);
+      case "total":
+        return durationMs(callStart, callEnd != 0 ? callEnd : System.nanoTime());
+      default:
+        throw new IllegalArgumentException("Unknown phase " + phase);
+    }
+  }
+
+  /** Returns the summary sent to JS along with the completion of the request. */
+  public WritableMap toWritableMap() {
+    WritableMap map = Arguments.createMap();
+    for (String phase : PHASES) {
+      map.putDouble(phase, getDurationMs(phase));
+    }
+    map.putBoolean("connectionReused", connectionReused);
+    map.putString("protocol", protocol);
+    return map;
+  }
+
+  private static double durationMs(long start, long end) {
+    if (start == 0 || end == 0 || end < start) {
+      return -1;
+    }
+    return (end - start) / 1e6;
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.modules.network;
+
+import androidx.annotation.Nullable;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * Records the phase timings of every call made by the clients of {@link OkHttpClientProvider}.
+ *
+ * <p>Completed calls are kept in a fixed size ring buffer that writers claim slots of with an
+ * atomic counter, so recording never takes a lock on the network threads. Per host histograms are
+ * computed from the buffer when they are asked for, see {@link #getHostHistograms()}.
+ */
+public class NetworkTimingEventListener extends EventListener {
+
+  /** Number of completed calls kept for the histograms, must be a power of two. */
+  private static final int RING_BUFFER_SIZE = 512;
+
+  /** Upper bounds of the histogram buckets in milliseconds, the last bucket is unbounded. */
+  private static final double[] BUCKET_BOUNDS_MS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+  private static final AtomicReferenceArray<NetworkTiming> sCompleted =
+      new AtomicReferenceArray<>(RING_BUFFER_SIZE);
+  private static final AtomicLong sCompletedCount = new AtomicLong();
+
+  // Totals since the process started, to compare connection reuse across configurations
+  private static final AtomicLong sConnectionsOpened = new AtomicLong();
+  private static final AtomicLong sConnectionsAcquired = new AtomicLong();
+  private static final AtomicLong sTlsHandshakes = new AtomicLong();
+
+  public static final EventListener.Factory FACTORY =
+      new EventListener.Factory() {
+        @Override
+        public EventListener create(Call call) {
+          NetworkTiming timing = call.request().tag(NetworkTiming.class);
+          return new NetworkTimingEventListener(timing != null ? timing : new NetworkTiming());
+        }
+      };
+
+  private final NetworkTiming mTiming;
+
+  private NetworkTimingEventListener(NetworkTiming timing) {
+    mTiming = timing;
+  }
+
+  @Override
+  public void callStart(Call call) {
+    mTiming.host = call.request().url().host();
+    mTiming.callStart = System.nanoTime();
+  }
+
+  @Override
+  public void dnsStart(Call call, String domainName) {
+    if (mTiming.dnsStart == 0) {
+      mTiming.dnsStart = System.nanoTime();
+    }
+  }
+
+  @Override
+  public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+    mTiming.dnsEnd = System.nanoTime();
+  }
+
+  @Override
+  public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+    if (mTiming.connectStart == 0) {
+      mTiming.connectStart = System.nanoTime();
+    }
+  }
+
+  @Override
+  public void secureConnectStart(Call call) {
+    if (mTiming.secureConnectStart == 0) {
+      mTiming.secureConnectStart = System.nanoTime();
+    }
+  }
+
+  @Override
+  public void secureConnectEnd(Call call, @Nullable Handshake handshake) {
+    mTiming.secureConnectEnd = System.nanoTime();
+    sTlsHandshakes.incrementAndGet();
+  }
+
+  @Override
+  public void connectEnd(
+      Call call, InetSocketAddress inetSocketAddress, Proxy proxy, @Nullable Protocol protocol) {
+    mTiming.connectEnd = System.nanoTime();
+    sConnectionsOpened.incrementAndGet();
+  }
+
+  @Override
+  public void connectFailed(
+      Call call,
+      InetSocketAddress inetSocketAddress,
+      Proxy proxy,
+      @Nullable Protocol protocol,
+      IOException ioe) {
+    mTiming.connectEnd = System.nanoTime();
+  }
+
+  @Override
+  public void connectionAcquired(Call call, Connection connection) {
+    sConnectionsAcquired.incrementAndGet();
+    if (!mTiming.connectionAcquired) {
+      mTiming.connectionAcquired = true;
+      // Acquiring a connection without having connected means it came from the pool
+      mTiming.connectionReused = mTiming.connectStart == 0;
+    }
+    mTiming.protocol = connection.protocol().toString();
+  }
+
+  @Override
+  public void requestHeadersStart(Call call) {
+    if (mTiming.requestHeadersStart == 0) {
+      mTiming.requestHeadersStart = System.nanoTime();
+    }
+  }
+
+  @Override
+  public void responseHeadersStart(Call call) {
+    mTiming.responseHeadersStart = System.nanoTime();
+  }
+
+  @Override
+  public void responseHeadersEnd(Call call, Response response) {
+    mTiming.responseHeadersEnd = System.nanoTime();
+  }
+
+  @Override
+  public void responseBodyEnd(Call call, long byteCount) {
+    mTiming.responseBodyEnd = System.nanoTime();
+  }
+
+  @Override
+  public void callEnd(Call call) {
+    mTiming.callEnd = System.nanoTime();
+    record(mTiming);
+  }
+
+  @Override
+  public void callFailed(Call call, IOException ioe) {
+    mTiming.callEnd = System.nanoTime();
+    mTiming.failed = true;
+    record(mTiming);
+  }
+
+  private static void record(NetworkTiming timing) {
+    long index = sCompletedCount.getAndIncrement();
+    // A copy, the instance of the call may still be written to, e.g. if the request is retried
+    sCompleted.set((int) (index & (RING_BUFFER_SIZE - 1)), timing.copy());
+  }
+
+  /**
+   * Returns, for each host of the recently completed calls, the number of calls, how many reused a
+   * pooled connection or failed, and for each phase of {@link NetworkTiming#PHASES} the median,
+   * the 90th percentile and a histogram of the durations. The histogram has one count per bucket
+   * of {@code bucketBoundsMs}, plus one for the durations above the last bound.
+   *
+   * <p>{@code totals} holds the number of connections opened, TLS handshakes and connection
+   * acquisitions since the process started, acquisitions beyond the opened connections reused one.
+   */
+  public static WritableMap getHostHistograms() {
+    Map<String, List<NetworkTiming>> timingsByHost = new HashMap<>();
+    for (int i = 0; i < RING_BUFFER_SIZE; i++) {
+      NetworkTiming timing = sCompleted.get(i);
+      if (timing == null || timing.host == null) {
+        continue;
+      }
+      List<NetworkTiming> timings = timingsByHost.get(timing.host);
+      if (timings == null) {
+        timings = new ArrayList<>();
+        timingsByHost.put(timing.host, timings);
+      }
+      timings.add(timing);
+    }
+
+    WritableMap result = Arguments.createMap();
+    WritableArray bounds = Arguments.createArray();
+    for (double bound : BUCKET_BOUNDS_MS) {
+      bounds.pushDouble(bound);
+    }
+    result.putArray("bucketBoundsMs", bounds);
+    WritableMap hosts = Arguments.createMap();
+    for (Map.Entry<String, List<NetworkTiming>> entry : timingsByHost.entrySet()) {
+      hosts.putMap(entry.getKey(), getHistograms(entry.getValue()));
+    }
+    result.putMap("hosts", hosts);
+    WritableMap totals = Arguments.createMap();
+    totals.putDouble("connectionsOpened", sConnectionsOpened.get());
+    totals.putDouble("connectionsAcquired", sConnectionsAcquired.get());
+    totals.putDouble("tlsHandshakes", sTlsHandshakes.get());
+    result.putMap("totals", totals);
+    return result;
+  }
+
+  private static WritableMap getHistograms(List<NetworkTiming> timings) {
+    WritableMap histograms = Arguments.createMap();
+    int reusedCount = 0;
+    int failedCount = 0;
+    for (NetworkTiming timing : timings) {
+      reusedCount += timing.connectionReused ? 1 : 0;
+      failedCount += timing.failed ? 1 : 0;
+    }
+    histograms.putInt("count", timings.size());
+    histograms.putInt("connectionReusedCount", reusedCount);
+    histograms.putInt("failedCount", failedCount);
+
+    for (String phase : NetworkTiming.PHASES) {
+      double[] durations = new double[timings.size()];
+      int count = 0;
+      for (NetworkTiming timing : timings) {
+        double duration = timing.getDurationMs(phase);
+        if (duration >= 0) {
+          durations[count++] = duration;
+        }
+      }
+      Arrays.sort(durations, 0, count);
+      int[] buckets = new int[BUCKET_BOUNDS_MS.length + 1];
+      for (int i = 0; i < count; i++) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && durations[i] > BUCKET_BOUNDS_MS[bucket]) {
+          bucket++;
+        }
+        buckets[bucket]++;
+      }
+
+      WritableMap histogram = Arguments.createMap();
+      histogram.putInt("count", count);
+      histogram.putDouble("p50", percentile(durations, count, 0.5));
+      histogram.putDouble("p90", percentile(durations, count, 0.9));
+      WritableArray bucketCounts = Arguments.createArray();
+      for (int bucketCount : buckets) {
+        bucketCounts.pushInt(bucketCount);
+      }
+      histogram.putArray("buckets", bucketCounts);
+      histograms.putMap(phase, histogram);
+    }
+    return histograms;
+  }
+
+  /** Nearest-rank percentile of the first count sorted values, -1 if there are none. */
+  private static double percentile(double[] sorted, int count, double fraction) {
+    if (count == 0) {
+      return -1;
+    }
+    int rank = (int) Math.ceil(fraction * count);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+}
@@ -15,6 +15,7 @@ import com.facebook.common.logging.FLog;
 import com.facebook.fbreact.specs.NativeNetworkingAndroidSpec;
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.GuardedAsyncTask;
+import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReadableArray;
@@ -32,6 +33,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import okhttp3.Cache;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.CookieJar;
@@ -89,13 +91,21 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
   private static final String REQUEST_BODY_KEY_URI = "uri";
   private static final String REQUEST_BODY_KEY_FORMDATA = "formData";
   private static final String REQUEST_BODY_KEY_BASE64 = "base64";
+  private static final String REQUEST_PRIORITY_KEY = "priority";
   private static final String USER_AGENT_HEADER_NAME = "user-agent";
   private static final int CHUNK_TIMEOUT_NS = 100 * 1000000; // 100ms
   private static final int MAX_CHUNK_SIZE_BETWEEN_FLUSHES = 8 * 1024; // 8K
+  // Multiple of 3 so that base64 batches concatenate without padding in between
+  private static final int MAX_BATCH_SIZE = 48 * 1024; // 48K
+  // Batches are coalesced up to this size unless CHUNK_TIMEOUT_NS elapsed since the last event
+  private static final int MAX_PENDING_BATCH_SIZE = 8 * MAX_BATCH_SIZE;
 
   private static @Nullable com.facebook.react.modules.network.CustomClientBuilder
       customClientBuilder = null;
 
+  private static boolean sRequestMergingEnabled = false;
+  private static int sStaleWhileRevalidateSeconds = 0;
+
   private final OkHttpClient mClient;
   private final ForwardingCookieHandler mCookieHandler;
   private final @Nullable String mDefaultUserAgent;
@@ -104,6 +114,7 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
   private final List<RequestBodyHandler> mRequestBodyHandlers = new ArrayList<>();
   private final List<UriHandler> mUriHandlers = new ArrayList<>();
   private final List<ResponseHandler> mResponseHandlers = new ArrayList<>();
+  private final InFlightRequestMerger mRequestMerger = new InFlightRequestMerger();
   private boolean mShuttingDown;
 
   public NetworkingModule(
@@ -141,7 +152,7 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
 
   /** @param context the ReactContext of the application */
   public NetworkingModule(final ReactApplicationContext context) {
-    this(context, null, OkHttpClientProvider.createClient(context), null);
+    this(context, null, OkHttpClientProvider.createSharedClient(context), null);
   }
 
   /**
@@ -151,7 +162,11 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
    */
   public NetworkingModule(
       ReactApplicationContext context, List<NetworkInterceptorCreator> networkInterceptorCreators) {
-    this(context, null, OkHttpClientProvider.createClient(context), networkInterceptorCreators);
+    this(
+        context,
+        null,
+        OkHttpClientProvider.createSharedClient(context),
+        networkInterceptorCreators);
   }
 
   /**
@@ -160,7 +175,7 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
    *     caller does not provide one explicitly
    */
   public NetworkingModule(ReactApplicationContext context, String defaultUserAgent) {
-    this(context, defaultUserAgent, OkHttpClientProvider.createClient(context), null);
+    this(context, defaultUserAgent, OkHttpClientProvider.createSharedClient(context), null);
   }
 
   public static void setCustomClientBuilder(
@@ -176,6 +191,23 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
   public interface CustomClientBuilder
       extends com.facebook.react.modules.network.CustomClientBuilder {}
 
+  /**
+   * Enables merging of identical GET and HEAD requests while they are in flight: only the first one
+   * goes to the network and its response is delivered to all of them. Disabled by default.
+   */
+  public static void setRequestMergingEnabled(boolean enabled) {
+    sRequestMergingEnabled = enabled;
+  }
+
+  /**
+   * Allows GET requests to be answered with a stale response from the HTTP cache, at most {@code
+   * seconds} past its expiration, while the cache entry is refreshed in the background. 0, the
+   * default, disables this.
+   */
+  public static void setStaleWhileRevalidateSeconds(int seconds) {
+    sStaleWhileRevalidateSeconds = seconds;
+  }
+
   private static void applyCustomBuilder(OkHttpClient.Builder builder) {
     if (customClientBuilder != null) {
       customClientBuilder.apply(builder);
@@ -306,6 +338,19 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
       clientBuilder.cookieJar(CookieJar.NO_COOKIES);
     }
 
+    String lowerCaseMethod = method.toLowerCase(Locale.ROOT);
+    boolean isIdempotent = lowerCaseMethod.equals("get") || lowerCaseMethod.equals("head");
+    boolean mergeable = sRequestMergingEnabled && isIdempotent && !useIncrementalUpdates;
+    if (sStaleWhileRevalidateSeconds > 0
+        && lowerCaseMethod.equals("get")
+        && mClient.cache() != null) {
+      OkHttpClient revalidationClient =
+          withCredentials ? mClient : mClient.newBuilder().cookieJar(CookieJar.NO_COOKIES).build();
+      clientBuilder.addInterceptor(
+          new StaleWhileRevalidateInterceptor(revalidationClient, sStaleWhileRevalidateSeconds));
+      clientBuilder.addNetworkInterceptor(StaleWhileRevalidateInterceptor.NETWORK_INTERCEPTOR);
+    }
+
     // If JS is listening for progress updates, install a ProgressResponseBody that intercepts the
     // response and counts bytes received.
     if (useIncrementalUpdates) {
@@ -451,113 +496,138 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
     }
 
     requestBuilder.method(method, wrapRequestBodyWithProgressEmitter(requestBody, requestId));
+    // Filled in by NetworkTimingEventListener if the client has it, and sent to JS on completion
+    final NetworkTiming timing = new NetworkTiming();
+    requestBuilder.tag(NetworkTiming.class, timing);
+    if (data != null && data.hasKey(REQUEST_PRIORITY_KEY)) {
+      requestBuilder.tag(
+          RequestScheduler.Priority.class,
+          RequestScheduler.Priority.fromString(
+              data.getString(REQUEST_PRIORITY_KEY), RequestScheduler.Priority.INTERACTIVE));
+    }
 
     addRequest(requestId);
-    client
-        .newCall(requestBuilder.build())
-        .enqueue(
-            new Callback() {
-              @Override
-              public void onFailure(Call call, IOException e) {
-                if (mShuttingDown) {
-                  return;
-                }
-                removeRequest(requestId);
-                String errorMessage =
-                    e.getMessage() != null
-                        ? e.getMessage()
-                        : "Error while executing request: " + e.getClass().getSimpleName();
-                ResponseUtil.onRequestError(reactApplicationContext, requestId, errorMessage, e);
+    Call scheduledCall =
+        RequestScheduler.getInstance()
+            .newCall(client, requestBuilder.build(), RequestScheduler.Priority.INTERACTIVE);
+    Callback callback =
+        new Callback() {
+          @Override
+          public void onFailure(Call call, IOException e) {
+            if (mShuttingDown) {
+              return;
+            }
+            removeRequest(requestId);
+            String errorMessage =
+                e.getMessage() != null
+                    ? e.getMessage()
+                    : "Error while executing request: " + e.getClass().getSimpleName();
+            ResponseUtil.onRequestError(
+                reactApplicationContext, requestId, errorMessage, e, timing);
+          }
+
+          @Override
+          public void onResponse(Call call, Response response) throws IOException {
+            if (mShuttingDown) {
+              return;
+            }
+            removeRequest(requestId);
+            // Before we touch the body send headers to JS
+            ResponseUtil.onResponseReceived(
+                reactApplicationContext,
+                requestId,
+                response.code(),
+                translateHeaders(response.headers()),
+                response.request().url().toString());
+
+            try {
+              // OkHttp implements something called transparent gzip, which mean that it will
+              // automatically add the Accept-Encoding gzip header and handle decoding
+              // internally.
+              // The issue is that it won't handle decoding if the user provides a
+              // Accept-Encoding
+              // header. This is also undesirable considering that iOS does handle the decoding
+              // even
+              // when the header is provided. To make sure this works in all cases, handle gzip
+              // body
+              // here also. This works fine since OKHttp will remove the Content-Encoding header
+              // if
+              // it used transparent gzip.
+              // See
+              // https://github.com/square/okhttp/blob/5b37cda9e00626f43acf354df145fd452c3031f1/okhttp/src/main/java/okhttp3/internal/http/BridgeInterceptor.java#L76-L111
+              ResponseBody responseBody = response.body();
+              if ("gzip".equalsIgnoreCase(response.header("Content-Encoding"))
+                  && responseBody != null) {
+                GzipSource gzipSource = new GzipSource(responseBody.source());
+                String contentType = response.header("Content-Type");
+                responseBody =
+                    ResponseBody.create(
+                        contentType != null ? MediaType.parse(contentType) : null,
+                        -1L,
+                        Okio.buffer(gzipSource));
               }
 
-              @Override
-              public void onResponse(Call call, Response response) throws IOException {
-                if (mShuttingDown) {
+              // Check if a handler is registered
+              for (ResponseHandler handler : mResponseHandlers) {
+                if (handler.supports(responseType)) {
+                  WritableMap res = handler.toResponseData(responseBody);
+                  ResponseUtil.onDataReceived(reactApplicationContext, requestId, res);
+                  ResponseUtil.onRequestSuccess(reactApplicationContext, requestId, timing);
                   return;
                 }
-                removeRequest(requestId);
-                // Before we touch the body send headers to JS
-                ResponseUtil.onResponseReceived(
-                    reactApplicationContext,
-                    requestId,
-                    response.code(),
-                    translateHeaders(response.headers()),
-                    response.request().url().toString());
-
-                try {
-                  // OkHttp implements something called transparent gzip, which mean that it will
-                  // automatically add the Accept-Encoding gzip header and handle decoding
-                  // internally.
-                  // The issue is that it won't handle decoding if the user provides a
-                  // Accept-Encoding
-                  // header. This is also undesirable considering that iOS does handle the decoding
-                  // even
-                  // when the header is provided. To make sure this works in all cases, handle gzip
-                  // body
-                  // here also. This works fine since OKHttp will remove the Content-Encoding header
-                  // if
-                  // it used transparent gzip.
-                  // See
-                  // https://github.com/square/okhttp/blob/5b37cda9e00626f43acf354df145fd452c3031f1/okhttp/src/main/java/okhttp3/internal/http/BridgeInterceptor.java#L76-L111
-                  ResponseBody responseBody = response.body();
-                  if ("gzip".equalsIgnoreCase(response.header("Content-Encoding"))
-                      && responseBody != null) {
-                    GzipSource gzipSource = new GzipSource(responseBody.source());
-                    String contentType = response.header("Content-Type");
-                    responseBody =
-                        ResponseBody.create(
-                            contentType != null ? MediaType.parse(contentType) : null,
-                            -1L,
-                            Okio.buffer(gzipSource));
-                  }
+              }
 
-                  // Check if a handler is registered
-                  for (ResponseHandler handler : mResponseHandlers) {
-                    if (handler.supports(responseType)) {
-                      WritableMap res = handler.toResponseData(responseBody);
-                      ResponseUtil.onDataReceived(reactApplicationContext, requestId, res);
-                      ResponseUtil.onRequestSuccess(reactApplicationContext, requestId);
-                      return;
-                    }
-                  }
+              // If JS wants progress updates during the download, and it requested a text
+              // response,
+              // periodically send response data updates to JS.
+              if (useIncrementalUpdates && responseType.equals("text")) {
+                readWithProgress(requestId, responseBody);
+                ResponseUtil.onRequestSuccess(reactApplicationContext, requestId, timing);
+                return;
+              }
 
-                  // If JS wants progress updates during the download, and it requested a text
-                  // response,
-                  // periodically send response data updates to JS.
-                  if (useIncrementalUpdates && responseType.equals("text")) {
-                    readWithProgress(requestId, responseBody);
-                    ResponseUtil.onRequestSuccess(reactApplicationContext, requestId);
-                    return;
-                  }
+              // Large or unknown-length bodies are pushed to JS in bounded batches through
+              // the incremental data event, which XMLHttpRequest always listens to, so that
+              // the whole response never has to be materialized here.
+              if (shouldReadInBatches(responseType, responseBody, response.request())) {
+                readInBatches(requestId, responseBody, responseType.equals("base64"));
+                ResponseUtil.onRequestSuccess(reactApplicationContext, requestId, timing);
+                return;
+              }
 
-                  // Otherwise send the data in one big chunk, in the format that JS requested.
-                  String responseString = "";
-                  if (responseType.equals("text")) {
-                    try {
-                      responseString = responseBody.string();
-                    } catch (IOException e) {
-                      if (response.request().method().equalsIgnoreCase("HEAD")) {
-                        // The request is an `HEAD` and the body is empty,
-                        // the OkHttp will produce an exception.
-                        // Ignore the exception to not invalidate the request in the
-                        // Javascript layer.
-                        // Introduced to fix issue #7463.
-                      } else {
-                        ResponseUtil.onRequestError(
-                            reactApplicationContext, requestId, e.getMessage(), e);
-                      }
-                    }
-                  } else if (responseType.equals("base64")) {
-                    responseString = Base64.encodeToString(responseBody.bytes(), Base64.NO_WRAP);
-                  }
-                  ResponseUtil.onDataReceived(reactApplicationContext, requestId, responseString);
-                  ResponseUtil.onRequestSuccess(reactApplicationContext, requestId);
+              // Otherwise send the data in one big chunk, in the format that JS requested.
+              String responseString = "";
+              if (responseType.equals("text")) {
+                try {
+                  responseString = responseBody.string();
                 } catch (IOException e) {
-                  ResponseUtil.onRequestError(
-                      reactApplicationContext, requestId, e.getMessage(), e);
+                  if (response.request().method().equalsIgnoreCase("HEAD")) {
+                    // The request is an `HEAD` and the body is empty,
+                    // the OkHttp will produce an exception.
+                    // Ignore the exception to not invalidate the request in the
+                    // Javascript layer.
+                    // Introduced to fix issue #7463.
+                  } else {
+                    ResponseUtil.onRequestError(
+                        reactApplicationContext, requestId, e.getMessage(), e, timing);
+                  }
                 }
+              } else if (responseType.equals("base64")) {
+                responseString = Base64.encodeToString(responseBody.bytes(), Base64.NO_WRAP);
               }
-            });
+              ResponseUtil.onDataReceived(reactApplicationContext, requestId, responseString);
+              ResponseUtil.onRequestSuccess(reactApplicationContext, requestId, timing);
+            } catch (IOException e) {
+              ResponseUtil.onRequestError(
+                  reactApplicationContext, requestId, e.getMessage(), e, timing);
+            }
+          }
+        };
+    if (mergeable) {
+      mRequestMerger.enqueue(scheduledCall, withCredentials, callback);
+    } else {
+      scheduledCall.enqueue(callback);
+    }
   }
 
   private RequestBody wrapRequestBodyWithProgressEmitter(
@@ -615,11 +685,98 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
             totalBytesRead,
             contentLength);
       }
+      String tail = streamDecoder.finish();
+      if (!tail.isEmpty()) {
+        ResponseUtil.onIncrementalDataReceived(
+            reactApplicationContext, requestId, tail, totalBytesRead, contentLength);
+      }
     } finally {
       inputStream.close();
     }
   }
 
+  private static boolean shouldReadInBatches(
+      String responseType, @Nullable ResponseBody responseBody, Request request) {
+    if (responseBody == null || request.method().equalsIgnoreCase("HEAD")) {
+      return false;
+    }
+    if (!responseType.equals("text") && !responseType.equals("base64")) {
+      return false;
+    }
+    long contentLength = responseBody.contentLength();
+    return contentLength < 0 || contentLength > MAX_BATCH_SIZE;
+  }
+
+  /**
+   * Reads the response body in batches of at most {@link #MAX_BATCH_SIZE} bytes and sends them to
+   * JS as incremental data, either decoded as text or base64 encoded. Batches are coalesced until
+   * {@link #MAX_PENDING_BATCH_SIZE} or {@link #CHUNK_TIMEOUT_NS} is reached, so that a body read
+   * quickly, e.g. a small gzipped response of unknown length, is sent in a single event.
+   */
+  private void readInBatches(int requestId, ResponseBody responseBody, boolean base64)
+      throws IOException {
+    long contentLength = responseBody.contentLength();
+    ProgressiveStringDecoder streamDecoder = null;
+    if (!base64) {
+      Charset charset =
+          responseBody.contentType() == null
+              ? StandardCharsets.UTF_8
+              : responseBody.contentType().charset(StandardCharsets.UTF_8);
+      streamDecoder = new ProgressiveStringDecoder(charset);
+    }
+
+    InputStream inputStream = responseBody.byteStream();
+    try {
+      byte[] buffer = new byte[MAX_BATCH_SIZE];
+      StringBuilder pending = new StringBuilder();
+      long totalBytesRead = 0;
+      long last = System.nanoTime();
+      int read;
+      final ReactApplicationContext reactApplicationContext =
+          getReactApplicationContextIfActiveOrWarn();
+      while ((read = readFully(inputStream, buffer)) > 0) {
+        totalBytesRead += read;
+        pending.append(
+            streamDecoder != null
+                ? streamDecoder.decodeNext(buffer, read)
+                : Base64.encodeToString(buffer, 0, read, Base64.NO_WRAP));
+        long now = System.nanoTime();
+        if (pending.length() >= MAX_PENDING_BATCH_SIZE || shouldDispatch(now, last)) {
+          ResponseUtil.onIncrementalDataReceived(
+              reactApplicationContext,
+              requestId,
+              pending.toString(),
+              totalBytesRead,
+              contentLength);
+          pending.setLength(0);
+          last = now;
+        }
+      }
+      if (streamDecoder != null) {
+        pending.append(streamDecoder.finish());
+      }
+      if (pending.length() > 0) {
+        ResponseUtil.onIncrementalDataReceived(
+            reactApplicationContext, requestId, pending.toString(), totalBytesRead, contentLength);
+      }
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  /** Fills the buffer unless the stream ends first. Returns the number of bytes read. */
+  private static int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+    int total = 0;
+    while (total < buffer.length) {
+      int read = inputStream.read(buffer, total, buffer.length - total);
+      if (read == -1) {
+        break;
+      }
+      total += read;
+    }
+    return total;
+  }
+
   private static boolean shouldDispatch(long now, long last) {
     return last + CHUNK_TIMEOUT_NS < now;
   }
@@ -667,7 +824,10 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
     new GuardedAsyncTask<Void, Void>(getReactApplicationContext()) {
       @Override
       protected void doInBackgroundGuarded(Void... params) {
-        OkHttpCallUtil.cancelTag(mClient, Integer.valueOf(requestId));
+        if (!mRequestMerger.cancelTag(Integer.valueOf(requestId))
+            && !RequestScheduler.getInstance().cancelTag(Integer.valueOf(requestId))) {
+          OkHttpCallUtil.cancelTag(mClient, Integer.valueOf(requestId));
+        }
       }
     }.execute();
   }
@@ -677,6 +837,53 @@ public final class NetworkingModule extends NativeNetworkingAndroidSpec {
     mCookieHandler.clearCookies(callback);
   }
 
+  /**
+   * Resolves with counters of the HTTP cache and of request merging: {@code requestCount}, {@code
+   * cacheHitCount} and {@code networkCount} from the HTTP cache, {@code staleHitCount} for stale
+   * responses served while revalidating, and {@code startedCount}/{@code mergedCount} for requests
+   * that went to the network or were merged into another in-flight request.
+   */
+  @Override
+  public void getCacheStatistics(Promise promise) {
+    WritableMap statistics = Arguments.createMap();
+    Cache cache = mClient.cache();
+    statistics.putDouble("requestCount", cache != null ? cache.requestCount() : 0);
+    statistics.putDouble("cacheHitCount", cache != null ? cache.hitCount() : 0);
+    statistics.putDouble("networkCount", cache != null ? cache.networkCount() : 0);
+    statistics.putDouble("staleHitCount", StaleWhileRevalidateInterceptor.getStaleHitCount());
+    statistics.putDouble("startedCount", mRequestMerger.getStartedCount());
+    statistics.putDouble("mergedCount", mRequestMerger.getMergedCount());
+    promise.resolve(statistics);
+  }
+
+  /**
+   * Resolves with per host histograms of the phase timings of the recently completed requests, see
+   * {@link NetworkTimingEventListener#getHostHistograms()}.
+   */
+  @Override
+  public void getTimingHistograms(Promise promise) {
+    WritableMap histograms = NetworkTimingEventListener.getHostHistograms();
+    WritableMap pool = Arguments.createMap();
+    pool.putInt("connectionCount", mClient.connectionPool().connectionCount());
+    pool.putInt("idleConnectionCount", mClient.connectionPool().idleConnectionCount());
+    histograms.putMap("connectionPool", pool);
+    promise.resolve(histograms);
+  }
+
+  /**
+   * Pauses or resumes the start of the requests of a {@link RequestScheduler.Priority}, given by
+   * name, such as all prefetches.
+   */
+  @Override
+  public void setPriorityPaused(String priority, boolean paused) {
+    RequestScheduler.Priority parsed = RequestScheduler.Priority.fromString(priority, null);
+    if (parsed == null) {
+      FLog.w(TAG, "Unknown request priority: " + priority);
+      return;
+    }
+    RequestScheduler.getInstance().setPaused(parsed, paused);
+  }
+
   @Override
   public void addListener(String eventName) {}
 
@@ -17,6 +17,10 @@ import okhttp3.OkHttpClient;
 /**
  * Helper class that provides the same OkHttpClient instance that will be used for all networking
  * requests.
+ *
+ * <p>Clients derived from that instance with {@link OkHttpClient#newBuilder()}, such as the ones
+ * of {@link #createSharedClient(Context)}, share its connection pool and dispatcher, so that
+ * networking and image requests to the same host reuse the same connections.
  */
 public class OkHttpClientProvider {
 
@@ -26,17 +30,45 @@ public class OkHttpClientProvider {
   // User-provided OkHttpClient factory
   private static @Nullable OkHttpClientFactory sFactory;
 
+  // HTTP cache shared by all clients created with a context, OkHttp does not support several
+  // Cache instances on the same directory
+  private static @Nullable Cache sCache;
+
+  private static long sCacheSize = 10 * 1024 * 1024; // 10 Mo
+
   public static void setOkHttpClientFactory(OkHttpClientFactory factory) {
     sFactory = factory;
   }
 
-  public static OkHttpClient getOkHttpClient() {
+  public static synchronized OkHttpClient getOkHttpClient() {
     if (sClient == null) {
       sClient = createClient();
     }
     return sClient;
   }
 
+  /**
+   * Returns the process wide client, with the shared HTTP cache unless a factory has been set. If
+   * the client was created without a context, the cache is added to it.
+   */
+  public static synchronized OkHttpClient getOkHttpClient(Context context) {
+    if (sClient == null) {
+      sClient = createClient(context);
+    } else if (sFactory == null && sClient.cache() == null && sCacheSize != 0) {
+      sClient = sClient.newBuilder().cache(getOrCreateCache(context, sCacheSize)).build();
+    }
+    return sClient;
+  }
+
+  /**
+   * Returns a client that shares the connection pool, dispatcher and HTTP cache of {@link
+   * #getOkHttpClient(Context)}, with its own cookie jar container so that its users can set and
+   * remove their cookie jar independently.
+   */
+  public static OkHttpClient createSharedClient(Context context) {
+    return getOkHttpClient(context).newBuilder().cookieJar(new ReactCookieJarContainer()).build();
+  }
+
   public static OkHttpClient createClient() {
     if (sFactory != null) {
       return sFactory.createNewNetworkModuleClient();
@@ -58,26 +90,48 @@ public class OkHttpClientProvider {
             .connectTimeout(0, TimeUnit.MILLISECONDS)
             .readTimeout(0, TimeUnit.MILLISECONDS)
             .writeTimeout(0, TimeUnit.MILLISECONDS)
-            .cookieJar(new ReactCookieJarContainer());
+            .cookieJar(new ReactCookieJarContainer())
+            .eventListenerFactory(NetworkTimingEventListener.FACTORY);
 
     return client;
   }
 
+  /**
+   * Sets the size of the shared HTTP cache used by {@link #createClientBuilder(Context)}. Must be
+   * called before the first client is created, the cache is not resized afterwards.
+   */
+  public static void setCacheSize(long cacheSize) {
+    sCacheSize = cacheSize;
+  }
+
+  /** Returns the shared HTTP cache, or null if no client with a cache has been created yet. */
+  public static synchronized @Nullable Cache getCache() {
+    return sCache;
+  }
+
   public static OkHttpClient.Builder createClientBuilder(Context context) {
-    int cacheSize = 10 * 1024 * 1024; // 10 Mo
-    return createClientBuilder(context, cacheSize);
+    return createClientBuilder(context, sCacheSize);
   }
 
   public static OkHttpClient.Builder createClientBuilder(Context context, int cacheSize) {
+    return createClientBuilder(context, (long) cacheSize);
+  }
+
+  private static OkHttpClient.Builder createClientBuilder(Context context, long cacheSize) {
     OkHttpClient.Builder client = createClientBuilder();
 
     if (cacheSize == 0) {
       return client;
     }
 
-    File cacheDirectory = new File(context.getCacheDir(), "http-cache");
-    Cache cache = new Cache(cacheDirectory, cacheSize);
+    return client.cache(getOrCreateCache(context, cacheSize));
+  }
 
-    return client.cache(cache);
+  private static synchronized Cache getOrCreateCache(Context context, long cacheSize) {
+    if (sCache == null) {
+      File cacheDirectory = new File(context.getCacheDir(), "http-cache");
+      sCache = new Cache(cacheDirectory, cacheSize);
+    }
+    return sCache;
   }
 }
@@ -27,15 +27,33 @@ class ProgressiveStringDecoder {
 
   private static final String EMPTY_STRING = "";
 
+  private final Charset mCharset;
   private final CharsetDecoder mDecoder;
 
   private byte[] remainder = null;
 
   /** @param charset expected charset of the data */
   public ProgressiveStringDecoder(Charset charset) {
+    mCharset = charset;
     mDecoder = charset.newDecoder();
   }
 
+  /**
+   * Decodes the bytes kept from a partial multi-byte symbol at the end of the stream. Must be
+   * called once the last chunk was passed to {@link #decodeNext}.
+   *
+   * @return the remaining characters, with the replacement character for a truncated symbol
+   */
+  public String finish() {
+    if (remainder == null) {
+      return EMPTY_STRING;
+    }
+    FLog.w(ReactConstants.TAG, "string ends with a partial multi-byte symbol");
+    String result = new String(remainder, mCharset);
+    remainder = null;
+    return result;
+  }
+
   /**
    * Parses data to String If there is a partial multi-byte symbol on the edge of the String it get
    * saved to the reminder and added to the string on the decodeNext call.
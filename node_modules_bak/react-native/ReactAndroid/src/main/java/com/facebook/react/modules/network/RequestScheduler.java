@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.modules.network;
+
+import androidx.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Timeout;
+
+/**
+ * Process-wide scheduler that decides the order in which asynchronous calls of {@link
+ * NetworkingModule} and the image pipeline reach OkHttp's dispatcher.
+ *
+ * <p>OkHttp runs queued calls first in, first out, so a burst of image downloads can delay the API
+ * call the visible screen is waiting on. Calls created through {@link #newCall} or {@link #wrap}
+ * are held here until they can run within the limits, and are then started in order of {@link
+ * Priority}, first in first out within a priority. Low priority calls may only use up to one less
+ * than the per host limit, which leaves a connection free for higher priority calls to the same
+ * host. The calls of a priority can be paused and resumed as a group, see {@link #setPaused}.
+ *
+ * <p>The limits should not be higher than the ones of the dispatchers of the clients, otherwise
+ * calls would still wait in the dispatcher's queue.
+ */
+public final class RequestScheduler {
+
+  /** Priority classes, from the most to the least urgent. */
+  public enum Priority {
+    /** Requests the current screen is waiting on, such as API calls. The default for JS. */
+    INTERACTIVE,
+    /** Images that are visible on screen. */
+    VISIBLE,
+    /** Data or images that may be needed soon. */
+    PREFETCH,
+    /** Everything else. */
+    BACKGROUND;
+
+    /** Returns the priority with the given name, case insensitive, or the fallback. */
+    public static @Nullable Priority fromString(
+        @Nullable String name, @Nullable Priority fallback) {
+      if (name == null) {
+        return fallback;
+      }
+      try {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        return fallback;
+      }
+    }
+
+    private boolean isLow() {
+      return this == PREFETCH || this == BACKGROUND;
+    }
+  }
+
+  private static final RequestScheduler sInstance = new RequestScheduler();
+
+  private final Object mLock = new Object();
+  private final List<ArrayDeque<ScheduledCall>> mQueues = new ArrayList<>();
+  private final EnumSet<Priority> mPaused = EnumSet.noneOf(Priority.class);
+  private final Map<String, Integer> mRunningPerHost = new HashMap<>();
+  private int mRunningCount = 0;
+  // Same defaults as OkHttp's Dispatcher
+  private int mMaxRequests = 64;
+  private int mMaxRequestsPerHost = 5;
+
+  private RequestScheduler() {
+    for (int i = 0; i < Priority.values().length; i++) {
+      mQueues.add(new ArrayDeque<ScheduledCall>());
+    }
+  }
+
+  public static RequestScheduler getInstance() {
+    return sInstance;
+  }
+
+  public void setMaxRequests(int maxRequests) {
+    synchronized (mLock) {
+      mMaxRequests = maxRequests;
+    }
+    promote();
+  }
+
+  public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+    synchronized (mLock) {
+      mMaxRequestsPerHost = maxRequestsPerHost;
+    }
+    promote();
+  }
+
+  /**
+   * Pauses or resumes the start of the calls of a priority. Calls that are already running are not
+   * affected.
+   */
+  public void setPaused(Priority priority, boolean paused) {
+    synchronized (mLock) {
+      if (paused) {
+        mPaused.add(priority);
+      } else {
+        mPaused.remove(priority);
+      }
+    }
+    promote();
+  }
+
+  /**
+   * Creates a scheduled call for the request. Its priority is the request's tag of type {@link
+   * Priority}, or {@code defaultPriority} if it has none.
+   */
+  public Call newCall(Call.Factory factory, Request request, Priority defaultPriority) {
+    Priority priority = request.tag(Priority.class);
+    return new ScheduledCall(
+        factory.newCall(request), priority != null ? priority : defaultPriority);
+  }
+
+  /** Returns a factory of scheduled calls, see {@link #newCall}. */
+  public Call.Factory wrap(final Call.Factory factory, final Priority defaultPriority) {
+    return new Call.Factory() {
+      @Override
+      public Call newCall(Request request) {
+        return RequestScheduler.this.newCall(factory, request, defaultPriority);
+      }
+    };
+  }
+
+  /**
+   * Cancels the first queued call whose request has the given tag. Returns false if there is none,
+   * the call may then be running already.
+   */
+  public boolean cancelTag(Object tag) {
+    ScheduledCall canceled = null;
+    synchronized (mLock) {
+      for (ArrayDeque<ScheduledCall> queue : mQueues) {
+        for (Iterator<ScheduledCall> it = queue.iterator(); it.hasNext(); ) {
+          ScheduledCall call = it.next();
+          if (tag.equals(call.request().tag())) {
+            it.remove();
+            canceled = call;
+            break;
+          }
+        }
+        if (canceled != null) {
+          break;
+        }
+      }
+    }
+    if (canceled == null) {
+      return false;
+    }
+    canceled.failCanceled();
+    return true;
+  }
+
+  private void enqueue(ScheduledCall call) {
+    synchronized (mLock) {
+      mQueues.get(call.mPriority.ordinal()).add(call);
+    }
+    promote();
+  }
+
+  private void finished(ScheduledCall call) {
+    synchronized (mLock) {
+      mRunningCount--;
+      Integer running = mRunningPerHost.get(call.mHost);
+      if (running != null && running > 1) {
+        mRunningPerHost.put(call.mHost, running - 1);
+      } else {
+        mRunningPerHost.remove(call.mHost);
+      }
+    }
+    promote();
+  }
+
+  private boolean dequeue(ScheduledCall call) {
+    synchronized (mLock) {
+      return mQueues.get(call.mPriority.ordinal()).remove(call);
+    }
+  }
+
+  /** Starts the queued calls that fit within the limits, the most urgent first. */
+  private void promote() {
+    List<ScheduledCall> toStart = new ArrayList<>();
+    synchronized (mLock) {
+      for (Priority priority : Priority.values()) {
+        if (mPaused.contains(priority)) {
+          continue;
+        }
+        int maxPerHost =
+            priority.isLow() ? Math.max(1, mMaxRequestsPerHost - 1) : mMaxRequestsPerHost;
+        ArrayDeque<ScheduledCall> queue = mQueues.get(priority.ordinal());
+        for (Iterator<ScheduledCall> it = queue.iterator(); it.hasNext(); ) {
+          if (mRunningCount >= mMaxRequests) {
+            break;
+          }
+          ScheduledCall call = it.next();
+          Integer running = mRunningPerHost.get(call.mHost);
+          if (running != null && running >= maxPerHost) {
+            continue;
+          }
+          it.remove();
+          mRunningCount++;
+          mRunningPerHost.put(call.mHost, running != null ? running + 1 : 1);
+          toStart.add(call);
+        }
+      }
+    }
+    for (ScheduledCall call : toStart) {
+      call.start();
+    }
+  }
+
+  /**
+   * A call that waits in the scheduler until it may be enqueued in OkHttp. Synchronous execution
+   * is not scheduled.
+   */
+  private final class ScheduledCall implements Call {
+    private final Call mDelegate;
+    private final Priority mPriority;
+    private final String mHost;
+    private @Nullable Callback mCallback;
+    private boolean mExecuted = false;
+    private volatile boolean mCanceledWhileQueued = false;
+
+    ScheduledCall(Call delegate, Priority priority) {
+      mDelegate = delegate;
+      mPriority = priority;
+      mHost = delegate.request().url().host();
+    }
+
+    @Override
+    public Request request() {
+      return mDelegate.request();
+    }
+
+    @Override
+    public Response execute() throws IOException {
+      synchronized (this) {
+        if (mExecuted) {
+          throw new IllegalStateException("Already Executed");
+        }
+        mExecuted = true;
+      }
+      return mDelegate.execute();
+    }
+
+    @Override
+    public void enqueue(Callback callback) {
+      synchronized (this) {
+        if (mExecuted) {
+          throw new IllegalStateException("Already Executed");
+        }
+        mExecuted = true;
+        mCallback = callback;
+      }
+      RequestScheduler.this.enqueue(this);
+    }
+
+    @Override
+    public void cancel() {
+      if (mCallback != null && dequeue(this)) {
+        failCanceled();
+      } else {
+        mDelegate.cancel();
+      }
+    }
+
+    @Override
+    public synchronized boolean isExecuted() {
+      return mExecuted;
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return mCanceledWhileQueued || mDelegate.isCanceled();
+    }
+
+    @Override
+    public Timeout timeout() {
+      return mDelegate.timeout();
+    }
+
+    @Override
+    public Call clone() {
+      return new ScheduledCall(mDelegate.clone(), mPriority);
+    }
+
+    private void failCanceled() {
+      mCanceledWhileQueued = true;
+      mDelegate.cancel();
+      mCallback.onFailure(this, new IOException("Canceled"));
+    }
+
+    private void start() {
+      final Callback callback = mCallback;
+      mDelegate.enqueue(
+          new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+              try {
+                callback.onFailure(ScheduledCall.this, e);
+              } finally {
+                finished(ScheduledCall.this);
+              }
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+              // The slot is held until the callback has consumed the response
+              try {
+                callback.onResponse(ScheduledCall.this, response);
+              } finally {
+                finished(ScheduledCall.this);
+              }
+            }
+          });
+    }
+  }
+}
@@ -80,12 +80,26 @@ public class ResponseUtil {
 
   public static void onRequestError(
       @Nullable ReactApplicationContext reactContext, int requestId, String error, Throwable e) {
+    onRequestError(reactContext, requestId, error, e, null);
+  }
+
+  /** @param timing the timing summary of the request, sent as the last argument of the event */
+  public static void onRequestError(
+      @Nullable ReactApplicationContext reactContext,
+      int requestId,
+      String error,
+      Throwable e,
+      @Nullable NetworkTiming timing) {
     WritableArray args = Arguments.createArray();
     args.pushInt(requestId);
     args.pushString(error);
 
-    if ((e != null) && (e.getClass() == SocketTimeoutException.class)) {
-      args.pushBoolean(true); // last argument is a time out boolean
+    boolean timedOut = (e != null) && (e.getClass() == SocketTimeoutException.class);
+    if (timedOut || timing != null) {
+      args.pushBoolean(timedOut); // time out boolean
+    }
+    if (timing != null) {
+      args.pushMap(timing.toWritableMap());
     }
 
     if (reactContext != null) {
@@ -95,9 +109,21 @@ public class ResponseUtil {
 
   public static void onRequestSuccess(
       @Nullable ReactApplicationContext reactContext, int requestId) {
+    onRequestSuccess(reactContext, requestId, null);
+  }
+
+  /** @param timing the timing summary of the request, sent as the last argument of the event */
+  public static void onRequestSuccess(
+      @Nullable ReactApplicationContext reactContext,
+      int requestId,
+      @Nullable NetworkTiming timing) {
     WritableArray args = Arguments.createArray();
     args.pushInt(requestId);
     args.pushNull();
+    if (timing != null) {
+      args.pushBoolean(false); // time out boolean
+      args.pushMap(timing.toWritableMap());
+    }
 
     if (reactContext != null) {
       reactContext.emitDeviceEvent("didCompleteNetworkResponse", args);
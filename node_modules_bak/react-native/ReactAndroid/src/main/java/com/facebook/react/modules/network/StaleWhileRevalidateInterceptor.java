@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.modules.network;
+
+import androidx.annotation.Nullable;
+import com.facebook.common.logging.FLog;
+import com.facebook.react.common.ReactConstants;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.CacheControl;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Okio;
+
+/**
+ * Application interceptor that answers GET requests from the HTTP cache even when the cached
+ * response is stale, as long as it is not older than the configured limit, and refreshes the cache
+ * entry in the background.
+ *
+ * <p>The allowed staleness is added to the cache directives of the request, which are otherwise
+ * kept; requests that must not be answered from a stale entry, with no-cache, no-store or
+ * max-age=0, are left alone. {@link #NETWORK_INTERCEPTOR} puts the original directives back on the
+ * requests that miss the cache, so that the added staleness is not sent to the origin.
+ *
+ * <p>The revalidation goes through a client that does not have this interceptor installed, so it
+ * always reaches the network and stores the fresh response in the cache. At most one revalidation
+ * per URL is in flight at a time.
+ */
+class StaleWhileRevalidateInterceptor implements Interceptor {
+
+  /** Added by OkHttp to responses served from the cache after they expired. */
+  private static final String STALE_WARNING_PREFIX = "110";
+
+  private static final AtomicLong sStaleHitCount = new AtomicLong();
+  private static final Set<String> sRevalidatingUrls =
+      Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  /**
+   * Network interceptor that restores the cache directives of the requests this interceptor
+   * changed. Must be installed on the same client.
+   */
+  static final Interceptor NETWORK_INTERCEPTOR =
+      chain -> {
+        Request request = chain.request();
+        OriginalCacheControl original = request.tag(OriginalCacheControl.class);
+        if (original == null) {
+          return chain.proceed(request);
+        }
+        Request.Builder builder = request.newBuilder().tag(OriginalCacheControl.class, null);
+        if (original.mValue != null) {
+          builder.header("Cache-Control", original.mValue);
+        } else {
+          builder.removeHeader("Cache-Control");
+        }
+        return chain.proceed(builder.build());
+      };
+
+  private final OkHttpClient mRevalidationClient;
+  private final int mMaxStaleSeconds;
+
+  StaleWhileRevalidateInterceptor(OkHttpClient revalidationClient, int maxStaleSeconds) {
+    mRevalidationClient = revalidationClient;
+    mMaxStaleSeconds = maxStaleSeconds;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Request request = chain.request();
+    CacheControl cacheControl = request.cacheControl();
+    if (!"GET".equals(request.method())
+        || cacheControl.noCache()
+        || cacheControl.noStore()
+        || cacheControl.maxAgeSeconds() == 0
+        || cacheControl.onlyIfCached()
+        || request.header("Range") != null) {
+      return chain.proceed(request);
+    }
+
+    // A single pass through the cache: a stale entry within the limit is served as is, with a
+    // warning, and anything else goes to the network as usual
+    OriginalCacheControl original = new OriginalCacheControl(request.header("Cache-Control"));
+    Request maxStaleRequest =
+        request
+            .newBuilder()
+            .cacheControl(withMaxStale(cacheControl))
+            .tag(OriginalCacheControl.class, original)
+            .build();
+    Response response = chain.proceed(maxStaleRequest);
+    if (response.networkResponse() == null
+        && response.cacheResponse() != null
+        && isStale(response)) {
+      sStaleHitCount.incrementAndGet();
+      revalidate(request);
+    }
+    return response.newBuilder().request(request).build();
+  }
+
+  /** Number of stale responses that were served while being revalidated. */
+  static long getStaleHitCount() {
+    return sStaleHitCount.get();
+  }
+
+  /** Adds the allowed staleness to the directives, unless the request sets its own. */
+  private CacheControl withMaxStale(CacheControl cacheControl) {
+    CacheControl.Builder builder = new CacheControl.Builder();
+    if (cacheControl.maxAgeSeconds() != -1) {
+      builder.maxAge(cacheControl.maxAgeSeconds(), TimeUnit.SECONDS);
+    }
+    if (cacheControl.minFreshSeconds() != -1) {
+      builder.minFresh(cacheControl.minFreshSeconds(), TimeUnit.SECONDS);
+    }
+    if (cacheControl.noTransform()) {
+      builder.noTransform();
+    }
+    if (cacheControl.immutable()) {
+      builder.immutable();
+    }
+    int maxStaleSeconds =
+        cacheControl.maxStaleSeconds() != -1 ? cacheControl.maxStaleSeconds() : mMaxStaleSeconds;
+    return builder.maxStale(maxStaleSeconds, TimeUnit.SECONDS).build();
+  }
+
+  private static boolean isStale(Response response) {
+    for (String warning : response.headers("Warning")) {
+      if (warning.startsWith(STALE_WARNING_PREFIX)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void revalidate(Request request) {
+    String url = request.url().toString();
+    if (!sRevalidatingUrls.add(url)) {
+      return;
+    }
+    // A new request rather than a copy, so that it carries none of the tags of the original one:
+    // aborting the original request must not cancel it and it must not report network timings
+    Request networkRequest =
+        new Request.Builder()
+            .url(request.url())
+            .headers(request.headers())
+            .cacheControl(CacheControl.FORCE_NETWORK)
+            .build();
+    mRevalidationClient
+        .newCall(networkRequest)
+        .enqueue(
+            new Callback() {
+              @Override
+              public void onFailure(Call call, IOException e) {
+                sRevalidatingUrls.remove(url);
+                FLog.w(ReactConstants.TAG, "Failed to revalidate " + call.request().url(), e);
+              }
+
+              @Override
+              public void onResponse(Call call, Response response) throws IOException {
+                // The cache entry is only written once the body has been read completely
+                try (ResponseBody body = response.body()) {
+                  if (body != null) {
+                    body.source().readAll(Okio.blackhole());
+                  }
+                } finally {
+                  sRevalidatingUrls.remove(url);
+                }
+              }
+            });
+  }
+
+  /** The Cache-Control header of a request before the allowed staleness was added. */
+  private static final class OriginalCacheControl {
+    private final @Nullable String mValue;
+
+    OriginalCacheControl(@Nullable String value) {
+      mValue = value;
+    }
+  }
+}
@@ -7,6 +7,7 @@
 
 package com.facebook.react.modules.websocket;
 
+import android.view.Choreographer;
 import androidx.annotation.Nullable;
 import com.facebook.common.logging.FLog;
 import com.facebook.fbreact.specs.NativeWebSocketModuleSpec;
@@ -16,17 +17,21 @@ import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.ReadableMapKeySetIterator;
 import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.common.ReactConstants;
 import com.facebook.react.module.annotations.ReactModule;
+import com.facebook.react.modules.core.ReactChoreographer;
 import com.facebook.react.modules.network.CustomClientBuilder;
 import com.facebook.react.modules.network.ForwardingCookieHandler;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import okhttp3.OkHttpClient;
@@ -47,6 +52,23 @@ public final class WebSocketModule extends NativeWebSocketModuleSpec {
   private final Map<Integer, WebSocket> mWebSocketConnections = new ConcurrentHashMap<>();
   private final Map<Integer, ContentHandler> mContentHandlers = new ConcurrentHashMap<>();
 
+  // Sockets opened with the batchMessages option. Their messages are queued and sent to JS once
+  // per frame, as a single websocketMessageBatch event per socket.
+  private final Set<Integer> mBatchingSockets =
+      Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+  // Guards mFlushScheduled as well. Batches are sent while holding it, so that an event that ends
+  // a connection, also sent while holding it, cannot overtake the messages that came before it.
+  private final Map<Integer, WritableArray> mPendingMessages = new HashMap<>();
+  private boolean mFlushScheduled = false;
+
+  private final Choreographer.FrameCallback mFlushMessagesCallback =
+      new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+          flushPendingMessages();
+        }
+      };
+
   private ForwardingCookieHandler mCookieHandler;
 
   private static @Nullable CustomClientBuilder customClientBuilder = null;
@@ -73,6 +95,16 @@ public final class WebSocketModule extends NativeWebSocketModuleSpec {
     }
     mWebSocketConnections.clear();
     mContentHandlers.clear();
+    mBatchingSockets.clear();
+    synchronized (mPendingMessages) {
+      mPendingMessages.clear();
+      if (mFlushScheduled) {
+        mFlushScheduled = false;
+        ReactChoreographer.getInstance()
+            .removeFrameCallback(
+                ReactChoreographer.CallbackType.TIMERS_EVENTS, mFlushMessagesCallback);
+      }
+    }
   }
 
   private void sendEvent(String eventName, WritableMap params) {
@@ -82,6 +114,59 @@ public final class WebSocketModule extends NativeWebSocketModuleSpec {
     }
   }
 
+  /**
+   * Sends a message event right away, or queues it until the next frame if the socket batches its
+   * messages.
+   */
+  private void sendMessageEvent(int id, WritableMap params) {
+    if (!mBatchingSockets.contains(id)) {
+      sendEvent("websocketMessage", params);
+      return;
+    }
+    synchronized (mPendingMessages) {
+      WritableArray messages = mPendingMessages.get(id);
+      if (messages == null) {
+        messages = Arguments.createArray();
+        mPendingMessages.put(id, messages);
+      }
+      messages.pushMap(params);
+      if (!mFlushScheduled) {
+        mFlushScheduled = true;
+        ReactChoreographer.getInstance()
+            .postFrameCallback(
+                ReactChoreographer.CallbackType.TIMERS_EVENTS, mFlushMessagesCallback);
+      }
+    }
+  }
+
+  private void flushPendingMessages() {
+    synchronized (mPendingMessages) {
+      mFlushScheduled = false;
+      for (Map.Entry<Integer, WritableArray> entry : mPendingMessages.entrySet()) {
+        sendMessageBatch(entry.getKey(), entry.getValue());
+      }
+      mPendingMessages.clear();
+    }
+  }
+
+  /**
+   * Sends the queued messages of a socket. Must be called while holding the lock on
+   * mPendingMessages, along with sending the event that ends the connection.
+   */
+  private void flushPendingMessages(int id) {
+    WritableArray messages = mPendingMessages.remove(id);
+    if (messages != null) {
+      sendMessageBatch(id, messages);
+    }
+  }
+
+  private void sendMessageBatch(int id, WritableArray messages) {
+    WritableMap params = Arguments.createMap();
+    params.putInt("id", id);
+    params.putArray("messages", messages);
+    sendEvent("websocketMessageBatch", params);
+  }
+
   public void setContentHandler(final int id, final ContentHandler contentHandler) {
     if (contentHandler != null) {
       mContentHandlers.put(id, contentHandler);
@@ -97,6 +182,12 @@ public final class WebSocketModule extends NativeWebSocketModuleSpec {
       @Nullable final ReadableMap options,
       final double socketID) {
     final int id = (int) socketID;
+    if (options != null
+        && options.hasKey("batchMessages")
+        && options.getType("batchMessages") == ReadableType.Boolean
+        && options.getBoolean("batchMessages")) {
+      mBatchingSockets.add(id);
+    }
     OkHttpClient.Builder okHttpBuilder =
         new OkHttpClient.Builder()
             .connectTimeout(10, TimeUnit.SECONDS)
@@ -179,12 +270,20 @@ public final class WebSocketModule extends NativeWebSocketModuleSpec {
             params.putInt("id", id);
             params.putInt("code", code);
             params.putString("reason", reason);
-            sendEvent("websocketClosed", params);
+            synchronized (mPendingMessages) {
+              flushPendingMessages(id);
+              mBatchingSockets.remove(id);
+              sendEvent("websocketClosed", params);
+            }
           }
 
           @Override
           public void onFailure(WebSocket webSocket, Throwable t, Response response) {
-            notifyWebSocketFailed(id, t.getMessage());
+            synchronized (mPendingMessages) {
+              flushPendingMessages(id);
+              mBatchingSockets.remove(id);
+              notifyWebSocketFailed(id, t.getMessage());
+            }
           }
 
           @Override
@@ -199,7 +298,7 @@ public final class WebSocketModule extends NativeWebSocketModuleSpec {
             } else {
               params.putString("data", text);
             }
-            sendEvent("websocketMessage", params);
+            sendMessageEvent(id, params);
           }
 
           @Override
@@ -217,7 +316,7 @@ public final class WebSocketModule extends NativeWebSocketModuleSpec {
               params.putString("data", text);
             }
 
-            sendEvent("websocketMessage", params);
+            sendMessageEvent(id, params);
           }
         });
 
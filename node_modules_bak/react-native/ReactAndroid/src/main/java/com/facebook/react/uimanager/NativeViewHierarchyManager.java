@@ -140,6 +140,7 @@ public class NativeViewHierarchyManager {
 
       if (props != null) {
         viewManager.updateProperties(viewToUpdate, props);
+        TouchTargetHelper.invalidateTouchTargetBounds(viewToUpdate);
       }
     } catch (IllegalViewOperationException e) {
       FLog.e(TAG, "Unable to update properties for view tag " + tag, e);
@@ -224,6 +225,7 @@ public class NativeViewHierarchyManager {
       } else {
         updateLayout(viewToUpdate, x, y, width, height);
       }
+      TouchTargetHelper.invalidateTouchTargetBounds(viewToUpdate);
     } finally {
       Systrace.endSection(Systrace.TRACE_TAG_REACT_VIEW);
     }
@@ -532,6 +534,7 @@ public class NativeViewHierarchyManager {
 
         viewManager.addView(viewToManage, viewToAdd, normalizedIndex);
       }
+      TouchTargetHelper.invalidateTouchTargetBounds(viewToManage);
     }
     if (pendingDeletionTags.isEmpty()) {
       mPendingDeletionsForTag.remove(tag);
@@ -587,6 +590,7 @@ public class NativeViewHierarchyManager {
       }
       viewManager.addView(viewToManage, viewToAdd, i);
     }
+    TouchTargetHelper.invalidateTouchTargetBounds(viewToManage);
   }
 
   /** See {@link UIManagerModule#addRootView}. */
@@ -13,6 +13,7 @@ import android.annotation.SuppressLint;
 import android.graphics.Matrix;
 import android.graphics.PointF;
 import android.graphics.Rect;
+import android.graphics.RectF;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
@@ -149,6 +150,17 @@ public class TouchTargetHelper {
     return pathAccumulator;
   }
 
+  /**
+   * Invalidates the bounds used to skip the subtrees that cannot contain a touch point, for the
+   * given view and its ancestors. Must be called when the layout, props or children of the view
+   * change.
+   *
+   * @param view the view that changed
+   */
+  public static void invalidateTouchTargetBounds(View view) {
+    TouchTargetIndex.invalidate(view);
+  }
+
   @SuppressLint("ResourceType")
   private static View findClosestReactAncestor(View view) {
     while (view != null && view.getId() <= 0) {
@@ -217,6 +229,13 @@ public class TouchTargetHelper {
         int childIndex =
             zIndexedViewGroup != null ? zIndexedViewGroup.getZIndexMappedChildIndex(i) : i;
         View child = viewGroup.getChildAt(childIndex);
+        // Skip the subtrees that cannot contain the touch point before mapping it to the child
+        RectF childBounds = TouchTargetIndex.getBoundsInParent(child);
+        if (childBounds != null
+            && !childBounds.contains(
+                eventCoords[0] + viewGroup.getScrollX(), eventCoords[1] + viewGroup.getScrollY())) {
+          continue;
+        }
         PointF childPoint = mTempPoint;
         getChildPoint(eventCoords[0], eventCoords[1], viewGroup, child, childPoint);
         // The childPoint value will contain the view coordinates relative to the child.
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.uimanager;
+
+import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import androidx.annotation.Nullable;
+import com.facebook.react.R;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.touch.ReactHitSlopView;
+
+/**
+ * Bounding volume hierarchy over the view tree, used by {@link TouchTargetHelper} to skip the
+ * subtrees that cannot contain a touch point without mapping the point through every view.
+ *
+ * <p>Each view caches, in a view tag, the bounds in its parent of every point where it or one of
+ * its descendants could be hit: its hit rect, extended by the bounds of its children unless it
+ * clips touches to its own bounds. The bounds are computed lazily on the first hit test after a
+ * change and invalidated, along with the bounds of the ancestors, by {@link #invalidate} from the
+ * layout, props and mount operations.
+ *
+ * <p>Views can also move without such operations, e.g. when a native container offsets its
+ * children or an animator sets a translation. The position, size, transform and running {@link
+ * android.view.animation.Animation} that the bounds were computed with are kept with them, and
+ * compared only for the view that is looked up: a hit test checks the children of the views it
+ * descends into, not the subtree of every candidate. When they differ, the bounds of the view and
+ * of its ancestors are recomputed. A view that moved this way inside a subtree that hit tests skip
+ * is therefore only noticed once a hit test descends into its parent again. Subtrees that change
+ * their children without operations, such as view groups that do not clip their children and are
+ * not React view groups or remove clipped subviews, views running an animation and views with a
+ * perspective transform, have no bounds and are walked as before.
+ */
+/* package */ final class TouchTargetIndex {
+
+  private static final class Entry {
+    private final RectF mBounds = new RectF();
+    private boolean mIsValid;
+    private boolean mIsBounded;
+
+    // The geometry of the view the bounds were computed with
+    private int mLeft;
+    private int mTop;
+    private int mWidth;
+    private int mHeight;
+    private int mScrollX;
+    private int mScrollY;
+    private boolean mHasAnimation;
+    private final Matrix mMatrix = new Matrix();
+
+    private void setGeometry(View view) {
+      mLeft = view.getLeft();
+      mTop = view.getTop();
+      mWidth = view.getWidth();
+      mHeight = view.getHeight();
+      mScrollX = view.getScrollX();
+      mScrollY = view.getScrollY();
+      mHasAnimation = view.getAnimation() != null;
+      mMatrix.set(view.getMatrix());
+    }
+
+    private boolean hasGeometry(View view) {
+      return mLeft == view.getLeft()
+          && mTop == view.getTop()
+          && mWidth == view.getWidth()
+          && mHeight == view.getHeight()
+          && mScrollX == view.getScrollX()
+          && mScrollY == view.getScrollY()
+          && mHasAnimation == (view.getAnimation() != null)
+          && mMatrix.equals(view.getMatrix());
+    }
+  }
+
+  private TouchTargetIndex() {}
+
+  /**
+   * Returns the bounds, in the coordinates of the parent and before the parent scroll is applied,
+   * of the points where the view or one of its descendants could be hit, or null if unknown.
+   */
+  /* package */ static @Nullable RectF getBoundsInParent(View view) {
+    Entry entry = (Entry) view.getTag(R.id.touch_target_bounds);
+    if (entry == null) {
+      entry = new Entry();
+      view.setTag(R.id.touch_target_bounds, entry);
+    }
+    if (entry.mIsValid && !entry.hasGeometry(view)) {
+      // The bounds of the ancestors include the old bounds, recompute them on the next hit test
+      invalidate(view);
+    }
+    if (!entry.mIsValid) {
+      entry.setGeometry(view);
+      entry.mIsBounded = computeBoundsInParent(view, entry);
+      entry.mIsValid = true;
+    }
+    return entry.mIsBounded ? entry.mBounds : null;
+  }
+
+  /** Invalidates the bounds of the view and of its ancestors. */
+  /* package */ static void invalidate(View view) {
+    UiThreadUtil.assertOnUiThread();
+    View current = view;
+    while (true) {
+      Entry entry = (Entry) current.getTag(R.id.touch_target_bounds);
+      if (entry != null) {
+        entry.mIsValid = false;
+      }
+      ViewParent parent = current.getParent();
+      if (!(parent instanceof View)) {
+        return;
+      }
+      current = (View) parent;
+    }
+  }
+
+  private static boolean computeBoundsInParent(View view, Entry entry) {
+    if (view.getAnimation() != null) {
+      return false;
+    }
+    Matrix matrix = view.getMatrix();
+    if (!matrix.isAffine()) {
+      return false;
+    }
+
+    RectF outBounds = entry.mBounds;
+    outBounds.set(0, 0, view.getWidth(), view.getHeight());
+    if (view instanceof ReactHitSlopView) {
+      Rect hitSlopRect = ((ReactHitSlopView) view).getHitSlopRect();
+      if (hitSlopRect != null) {
+        outBounds.left -= hitSlopRect.left;
+        outBounds.top -= hitSlopRect.top;
+        outBounds.right += hitSlopRect.right;
+        outBounds.bottom += hitSlopRect.bottom;
+      }
+    }
+
+    if (view instanceof ViewGroup && !clipsTouchesToBounds((ViewGroup) view)) {
+      // Only the children of React view groups are laid out by the operations that invalidate the
+      // bounds. Children detached by subview clipping are attached again without any operation.
+      if (!(view instanceof ReactClippingViewGroup)
+          || ((ReactClippingViewGroup) view).getRemoveClippedSubviews()
+          || view.getScrollX() != 0
+          || view.getScrollY() != 0) {
+        return false;
+      }
+      ViewGroup viewGroup = (ViewGroup) view;
+      for (int i = 0; i < viewGroup.getChildCount(); i++) {
+        RectF childBounds = getBoundsInParent(viewGroup.getChildAt(i));
+        if (childBounds == null) {
+          return false;
+        }
+        outBounds.union(childBounds);
+      }
+    }
+
+    if (!matrix.isIdentity()) {
+      matrix.mapRect(outBounds);
+    }
+    outBounds.offset(view.getLeft(), view.getTop());
+    return true;
+  }
+
+  /** Mirrors the checks of {@link TouchTargetHelper} that reject children outside the bounds. */
+  private static boolean clipsTouchesToBounds(ViewGroup viewGroup) {
+    if (viewGroup.getClipChildren()) {
+      return true;
+    }
+    if (viewGroup instanceof ReactOverflowViewWithInset) {
+      @Nullable String overflow = ((ReactOverflowViewWithInset) viewGroup).getOverflow();
+      return ViewProps.HIDDEN.equals(overflow) || ViewProps.SCROLL.equals(overflow);
+    }
+    return false;
+  }
+}
@@ -12,7 +12,9 @@ import android.view.View;
 import androidx.annotation.GuardedBy;
 import androidx.annotation.Nullable;
 import androidx.annotation.UiThread;
+import androidx.core.util.Pools;
 import com.facebook.common.logging.FLog;
+import com.facebook.infer.annotation.Assertions;
 import com.facebook.react.bridge.Callback;
 import com.facebook.react.bridge.GuardedRunnable;
 import com.facebook.react.bridge.ReactApplicationContext;
@@ -42,13 +44,17 @@ import java.util.Map;
  * operations is finished. This is to make sure that we execute all the JS operation coming from a
  * single batch a single loop of the main (UI) android looper.
  *
- * <p>TODO(7135923): Pooling of operation objects TODO(5694019): Consider a better data structure
- * for operations queue to save on allocations
+ * <p>The most frequent operations (view creation, props and layout updates) are taken from pools
+ * and released once executed, and the lists of a batch are swapped with empty ones that are reused
+ * once the batch has run, so that dispatching view updates does not allocate after warm-up.
  */
 public class UIViewOperationQueue {
 
   public static final int DEFAULT_MIN_TIME_LEFT_IN_FRAME_FOR_NONBATCHED_OPERATION_MS = 8;
   private static final String TAG = UIViewOperationQueue.class.getSimpleName();
+  private static final int OPERATIONS_POOL_SIZE = 1024;
+  private static final int CREATE_VIEW_OPERATIONS_POOL_SIZE = 256;
+  private static final int BATCHES_POOL_SIZE = 4;
 
   private final int[] mMeasureBuffer = new int[4];
 
@@ -66,6 +72,9 @@ public class UIViewOperationQueue {
     public ViewOperation(int tag) {
       mTag = tag;
     }
+
+    /** Called once the operation has been executed, pooled operations release themselves. */
+    /* package */ void recycle() {}
   }
 
   private final class RemoveRootViewOperation extends ViewOperation {
@@ -82,25 +91,39 @@ public class UIViewOperationQueue {
 
   private final class UpdatePropertiesOperation extends ViewOperation {
 
-    private final ReactStylesDiffMap mProps;
+    private @Nullable ReactStylesDiffMap mProps;
 
-    private UpdatePropertiesOperation(int tag, ReactStylesDiffMap props) {
-      super(tag);
+    private UpdatePropertiesOperation() {
+      super(View.NO_ID);
+    }
+
+    private void init(int tag, ReactStylesDiffMap props) {
+      mTag = tag;
       mProps = props;
     }
 
     @Override
     public void execute() {
-      mNativeViewHierarchyManager.updateProperties(mTag, mProps);
+      mNativeViewHierarchyManager.updateProperties(mTag, Assertions.assertNotNull(mProps));
+    }
+
+    @Override
+    /* package */ void recycle() {
+      mProps = null;
+      mUpdatePropertiesOperationsPool.release(this);
     }
   }
 
   private final class UpdateInstanceHandleOperation extends ViewOperation {
 
-    private final long mInstanceHandle;
+    private long mInstanceHandle;
 
-    private UpdateInstanceHandleOperation(int tag, long instanceHandle) {
-      super(tag);
+    private UpdateInstanceHandleOperation() {
+      super(View.NO_ID);
+    }
+
+    private void init(int tag, long instanceHandle) {
+      mTag = tag;
       mInstanceHandle = instanceHandle;
     }
 
@@ -108,6 +131,11 @@ public class UIViewOperationQueue {
     public void execute() {
       mNativeViewHierarchyManager.updateInstanceHandle(mTag, mInstanceHandle);
     }
+
+    @Override
+    /* package */ void recycle() {
+      mUpdateInstanceHandleOperationsPool.release(this);
+    }
   }
 
   /**
@@ -117,10 +145,14 @@ public class UIViewOperationQueue {
    */
   private final class UpdateLayoutOperation extends ViewOperation {
 
-    private final int mParentTag, mX, mY, mWidth, mHeight;
+    private int mParentTag, mX, mY, mWidth, mHeight;
 
-    public UpdateLayoutOperation(int parentTag, int tag, int x, int y, int width, int height) {
-      super(tag);
+    private UpdateLayoutOperation() {
+      super(View.NO_ID);
+    }
+
+    private void init(int parentTag, int tag, int x, int y, int width, int height) {
+      mTag = tag;
       mParentTag = parentTag;
       mX = x;
       mY = y;
@@ -134,20 +166,29 @@ public class UIViewOperationQueue {
       Systrace.endAsyncFlow(Systrace.TRACE_TAG_REACT_VIEW, "updateLayout", mTag);
       mNativeViewHierarchyManager.updateLayout(mParentTag, mTag, mX, mY, mWidth, mHeight);
     }
+
+    @Override
+    /* package */ void recycle() {
+      mUpdateLayoutOperationsPool.release(this);
+    }
   }
 
   private final class CreateViewOperation extends ViewOperation {
 
-    private final ThemedReactContext mThemedContext;
-    private final String mClassName;
-    private final @Nullable ReactStylesDiffMap mInitialProps;
+    private @Nullable ThemedReactContext mThemedContext;
+    private @Nullable String mClassName;
+    private @Nullable ReactStylesDiffMap mInitialProps;
 
-    public CreateViewOperation(
+    private CreateViewOperation() {
+      super(View.NO_ID);
+    }
+
+    private void init(
         ThemedReactContext themedContext,
         int tag,
         String className,
         @Nullable ReactStylesDiffMap initialProps) {
-      super(tag);
+      mTag = tag;
       mThemedContext = themedContext;
       mClassName = className;
       mInitialProps = initialProps;
@@ -157,7 +198,19 @@ public class UIViewOperationQueue {
     @Override
     public void execute() {
       Systrace.endAsyncFlow(Systrace.TRACE_TAG_REACT_VIEW, "createView", mTag);
-      mNativeViewHierarchyManager.createView(mThemedContext, mTag, mClassName, mInitialProps);
+      mNativeViewHierarchyManager.createView(
+          Assertions.assertNotNull(mThemedContext),
+          mTag,
+          Assertions.assertNotNull(mClassName),
+          mInitialProps);
+    }
+
+    @Override
+    /* package */ void recycle() {
+      mThemedContext = null;
+      mClassName = null;
+      mInitialProps = null;
+      mCreateViewOperationsPool.release(this);
     }
   }
 
@@ -584,6 +637,121 @@ public class UIViewOperationQueue {
     }
   }
 
+  /**
+   * The operations of a batch sent to the UI thread by {@link #dispatchViewUpdates}. Batches are
+   * pooled, and their lists are swapped with the ones receiving new operations.
+   */
+  private final class ViewUpdatesBatch implements Runnable {
+
+    private ArrayList<DispatchCommandViewOperation> mViewCommands = new ArrayList<>();
+    private ArrayList<UIOperation> mBatched = new ArrayList<>();
+    private ArrayDeque<UIOperation> mNonBatched = new ArrayDeque<>();
+    private int mBatchId;
+    private long mCommitStartTime;
+    private long mLayoutTime;
+    private long mDispatchViewUpdatesTime;
+    private long mNativeModulesThreadCpuTime;
+
+    @Override
+    public void run() {
+      SystraceMessage.beginSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "DispatchUI")
+          .arg("BatchId", mBatchId)
+          .flush();
+      try {
+        long runStartTime = SystemClock.uptimeMillis();
+
+        // All ViewCommands should be executed first as a perf optimization.
+        for (int i = 0; i < mViewCommands.size(); i++) {
+          DispatchCommandViewOperation op = mViewCommands.get(i);
+          try {
+            op.executeWithExceptions();
+          } catch (RetryableMountingLayerException e) {
+            // Catch errors in DispatchCommands. We allow all commands to be retried
+            // exactly once, after the current batch of other mountitems. If the second
+            // attempt fails, then  we log a soft error. This will still crash only in
+            // debug. We do this because it is a ~relatively common pattern to dispatch a
+            // command during render, for example, to scroll to the bottom of a ScrollView
+            // in render. This dispatches the command before that View is even mounted. By
+            // retrying once, we can still dispatch the vast majority of commands faster,
+            // avoid errors, and still operate correctly for most commands even when
+            // they're executed too soon.
+            if (op.getRetries() == 0) {
+              op.incrementRetries();
+              mViewCommandOperations.add(op);
+            } else {
+              // Retryable exceptions should be logged, but never crash in debug.
+              ReactSoftExceptionLogger.logSoftException(TAG, new ReactNoCrashSoftException(e));
+            }
+          } catch (Throwable e) {
+            // Non-retryable exceptions should be logged in prod, and crash in Debug.
+            ReactSoftExceptionLogger.logSoftException(TAG, e);
+          }
+        }
+
+        // All nonBatchedOperations should be executed before regular operations as
+        // regular operations may depend on them
+        UIOperation nonBatchedOperation;
+        while ((nonBatchedOperation = mNonBatched.pollFirst()) != null) {
+          nonBatchedOperation.execute();
+          recycleOperation(nonBatchedOperation);
+        }
+
+        for (int i = 0; i < mBatched.size(); i++) {
+          UIOperation op = mBatched.get(i);
+          op.execute();
+          recycleOperation(op);
+        }
+
+        if (mIsProfilingNextBatch && mProfiledBatchCommitStartTime == 0) {
+          mProfiledBatchCommitStartTime = mCommitStartTime;
+          mProfiledBatchCommitEndTime = SystemClock.uptimeMillis();
+          mProfiledBatchLayoutTime = mLayoutTime;
+          mProfiledBatchDispatchViewUpdatesTime = mDispatchViewUpdatesTime;
+          mProfiledBatchRunStartTime = runStartTime;
+          mProfiledBatchRunEndTime = mProfiledBatchCommitEndTime;
+          mThreadCpuTime = mNativeModulesThreadCpuTime;
+
+          Systrace.beginAsyncSection(
+              Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+              "delayBeforeDispatchViewUpdates",
+              0,
+              mProfiledBatchCommitStartTime * 1000000);
+          Systrace.endAsyncSection(
+              Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+              "delayBeforeDispatchViewUpdates",
+              0,
+              mProfiledBatchDispatchViewUpdatesTime * 1000000);
+          Systrace.beginAsyncSection(
+              Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+              "delayBeforeBatchRunStart",
+              0,
+              mProfiledBatchDispatchViewUpdatesTime * 1000000);
+          Systrace.endAsyncSection(
+              Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
+              "delayBeforeBatchRunStart",
+              0,
+              mProfiledBatchRunStartTime * 1000000);
+        }
+
+        // Clear layout animation, as animation only apply to current UI operations batch.
+        mNativeViewHierarchyManager.clearLayoutAnimation();
+
+        if (mViewHierarchyUpdateDebugListener != null) {
+          mViewHierarchyUpdateDebugListener.onViewHierarchyUpdateFinished();
+        }
+      } catch (Exception e) {
+        mIsInIllegalUIState = true;
+        throw e;
+      } finally {
+        Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
+      }
+
+      mViewCommands.clear();
+      mBatched.clear();
+      mBatchesPool.release(this);
+    }
+  }
+
   private final NativeViewHierarchyManager mNativeViewHierarchyManager;
   private final Object mDispatchRunnablesLock = new Object();
   private final Object mNonBatchedOperationsLock = new Object();
@@ -598,6 +766,10 @@ public class UIViewOperationQueue {
   @GuardedBy("mDispatchRunnablesLock")
   private ArrayList<Runnable> mDispatchUIRunnables = new ArrayList<>();
 
+  // Empty list that replaces mDispatchUIRunnables when the pending batches are taken, only accessed
+  // from the UI thread. Null while flushPendingBatches runs.
+  private @Nullable ArrayList<Runnable> mSpareDispatchUIRunnables = new ArrayList<>();
+
   @GuardedBy("mNonBatchedOperationsLock")
   private ArrayDeque<UIOperation> mNonBatchedOperations = new ArrayDeque<>();
 
@@ -618,6 +790,18 @@ public class UIViewOperationQueue {
   private long mCreateViewCount;
   private long mUpdatePropertiesOperationCount;
 
+  private final Pools.SynchronizedPool<UpdatePropertiesOperation> mUpdatePropertiesOperationsPool =
+      new Pools.SynchronizedPool<>(OPERATIONS_POOL_SIZE);
+  private final Pools.SynchronizedPool<UpdateLayoutOperation> mUpdateLayoutOperationsPool =
+      new Pools.SynchronizedPool<>(OPERATIONS_POOL_SIZE);
+  private final Pools.SynchronizedPool<CreateViewOperation> mCreateViewOperationsPool =
+      new Pools.SynchronizedPool<>(CREATE_VIEW_OPERATIONS_POOL_SIZE);
+  private final Pools.SynchronizedPool<UpdateInstanceHandleOperation>
+      mUpdateInstanceHandleOperationsPool =
+          new Pools.SynchronizedPool<>(CREATE_VIEW_OPERATIONS_POOL_SIZE);
+  private final Pools.SynchronizedPool<ViewUpdatesBatch> mBatchesPool =
+      new Pools.SynchronizedPool<>(BATCHES_POOL_SIZE);
+
   public UIViewOperationQueue(
       ReactApplicationContext reactContext,
       NativeViewHierarchyManager nativeViewHierarchyManager,
@@ -741,25 +925,44 @@ public class UIViewOperationQueue {
       int viewReactTag,
       String viewClassName,
       @Nullable ReactStylesDiffMap initialProps) {
+    CreateViewOperation operation = mCreateViewOperationsPool.acquire();
+    if (operation == null) {
+      operation = new CreateViewOperation();
+    }
+    operation.init(themedContext, viewReactTag, viewClassName, initialProps);
     synchronized (mNonBatchedOperationsLock) {
       mCreateViewCount++;
-      mNonBatchedOperations.addLast(
-          new CreateViewOperation(themedContext, viewReactTag, viewClassName, initialProps));
+      mNonBatchedOperations.addLast(operation);
     }
   }
 
   public void enqueueUpdateInstanceHandle(int reactTag, long instanceHandle) {
-    mOperations.add(new UpdateInstanceHandleOperation(reactTag, instanceHandle));
+    UpdateInstanceHandleOperation operation = mUpdateInstanceHandleOperationsPool.acquire();
+    if (operation == null) {
+      operation = new UpdateInstanceHandleOperation();
+    }
+    operation.init(reactTag, instanceHandle);
+    mOperations.add(operation);
   }
 
   public void enqueueUpdateProperties(int reactTag, String className, ReactStylesDiffMap props) {
     mUpdatePropertiesOperationCount++;
-    mOperations.add(new UpdatePropertiesOperation(reactTag, props));
+    UpdatePropertiesOperation operation = mUpdatePropertiesOperationsPool.acquire();
+    if (operation == null) {
+      operation = new UpdatePropertiesOperation();
+    }
+    operation.init(reactTag, props);
+    mOperations.add(operation);
   }
 
   public void enqueueUpdateLayout(
       int parentTag, int reactTag, int x, int y, int width, int height) {
-    mOperations.add(new UpdateLayoutOperation(parentTag, reactTag, x, y, width, height));
+    UpdateLayoutOperation operation = mUpdateLayoutOperationsPool.acquire();
+    if (operation == null) {
+      operation = new UpdateLayoutOperation();
+    }
+    operation.init(parentTag, reactTag, x, y, width, height);
+    mOperations.add(operation);
   }
 
   public void enqueueManageChildren(
@@ -824,146 +1027,43 @@ public class UIViewOperationQueue {
       final long dispatchViewUpdatesTime = SystemClock.uptimeMillis();
       final long nativeModulesThreadCpuTime = SystemClock.currentThreadTimeMillis();
 
-      // Store the current operation queues to dispatch and create new empty ones to continue
-      // receiving new operations
-      final ArrayList<DispatchCommandViewOperation> viewCommandOperations;
-      if (!mViewCommandOperations.isEmpty()) {
-        viewCommandOperations = mViewCommandOperations;
-        mViewCommandOperations = new ArrayList<>();
-      } else {
-        viewCommandOperations = null;
+      ViewUpdatesBatch batch = mBatchesPool.acquire();
+      if (batch == null) {
+        batch = new ViewUpdatesBatch();
       }
+      batch.mBatchId = batchId;
+      batch.mCommitStartTime = commitStartTime;
+      batch.mLayoutTime = layoutTime;
+      batch.mDispatchViewUpdatesTime = dispatchViewUpdatesTime;
+      batch.mNativeModulesThreadCpuTime = nativeModulesThreadCpuTime;
 
-      final ArrayList<UIOperation> batchedOperations;
-      if (!mOperations.isEmpty()) {
-        batchedOperations = mOperations;
-        mOperations = new ArrayList<>();
-      } else {
-        batchedOperations = null;
-      }
+      // Hand the current operation queues to the batch and take its empty ones to continue
+      // receiving new operations
+      ArrayList<DispatchCommandViewOperation> viewCommandOperations = batch.mViewCommands;
+      batch.mViewCommands = mViewCommandOperations;
+      mViewCommandOperations = viewCommandOperations;
+
+      ArrayList<UIOperation> batchedOperations = batch.mBatched;
+      batch.mBatched = mOperations;
+      mOperations = batchedOperations;
 
-      final ArrayDeque<UIOperation> nonBatchedOperations;
+      ArrayDeque<UIOperation> nonBatchedOperations = batch.mNonBatched;
       synchronized (mNonBatchedOperationsLock) {
-        if (!mNonBatchedOperations.isEmpty()) {
-          nonBatchedOperations = mNonBatchedOperations;
-          mNonBatchedOperations = new ArrayDeque<>();
-        } else {
-          nonBatchedOperations = null;
-        }
+        batch.mNonBatched = mNonBatchedOperations;
+        mNonBatchedOperations = nonBatchedOperations;
       }
 
       if (mViewHierarchyUpdateDebugListener != null) {
         mViewHierarchyUpdateDebugListener.onViewHierarchyUpdateEnqueued();
       }
 
-      Runnable runOperations =
-          new Runnable() {
-            @Override
-            public void run() {
-              SystraceMessage.beginSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "DispatchUI")
-                  .arg("BatchId", batchId)
-                  .flush();
-              try {
-                long runStartTime = SystemClock.uptimeMillis();
-
-                // All ViewCommands should be executed first as a perf optimization.
-                // This entire block is only executed if there's at least one ViewCommand queued.
-                if (viewCommandOperations != null) {
-                  for (DispatchCommandViewOperation op : viewCommandOperations) {
-                    try {
-                      op.executeWithExceptions();
-                    } catch (RetryableMountingLayerException e) {
-                      // Catch errors in DispatchCommands. We allow all commands to be retried
-                      // exactly once, after the current batch of other mountitems. If the second
-                      // attempt fails, then  we log a soft error. This will still crash only in
-                      // debug. We do this because it is a ~relatively common pattern to dispatch a
-                      // command during render, for example, to scroll to the bottom of a ScrollView
-                      // in render. This dispatches the command before that View is even mounted. By
-                      // retrying once, we can still dispatch the vast majority of commands faster,
-                      // avoid errors, and still operate correctly for most commands even when
-                      // they're executed too soon.
-                      if (op.getRetries() == 0) {
-                        op.incrementRetries();
-                        mViewCommandOperations.add(op);
-                      } else {
-                        // Retryable exceptions should be logged, but never crash in debug.
-                        ReactSoftExceptionLogger.logSoftException(
-                            TAG, new ReactNoCrashSoftException(e));
-                      }
-                    } catch (Throwable e) {
-                      // Non-retryable exceptions should be logged in prod, and crash in Debug.
-                      ReactSoftExceptionLogger.logSoftException(TAG, e);
-                    }
-                  }
-                }
-
-                // All nonBatchedOperations should be executed before regular operations as
-                // regular operations may depend on them
-                if (nonBatchedOperations != null) {
-                  for (UIOperation op : nonBatchedOperations) {
-                    op.execute();
-                  }
-                }
-
-                if (batchedOperations != null) {
-                  for (UIOperation op : batchedOperations) {
-                    op.execute();
-                  }
-                }
-
-                if (mIsProfilingNextBatch && mProfiledBatchCommitStartTime == 0) {
-                  mProfiledBatchCommitStartTime = commitStartTime;
-                  mProfiledBatchCommitEndTime = SystemClock.uptimeMillis();
-                  mProfiledBatchLayoutTime = layoutTime;
-                  mProfiledBatchDispatchViewUpdatesTime = dispatchViewUpdatesTime;
-                  mProfiledBatchRunStartTime = runStartTime;
-                  mProfiledBatchRunEndTime = mProfiledBatchCommitEndTime;
-                  mThreadCpuTime = nativeModulesThreadCpuTime;
-
-                  Systrace.beginAsyncSection(
-                      Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-                      "delayBeforeDispatchViewUpdates",
-                      0,
-                      mProfiledBatchCommitStartTime * 1000000);
-                  Systrace.endAsyncSection(
-                      Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-                      "delayBeforeDispatchViewUpdates",
-                      0,
-                      mProfiledBatchDispatchViewUpdatesTime * 1000000);
-                  Systrace.beginAsyncSection(
-                      Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-                      "delayBeforeBatchRunStart",
-                      0,
-                      mProfiledBatchDispatchViewUpdatesTime * 1000000);
-                  Systrace.endAsyncSection(
-                      Systrace.TRACE_TAG_REACT_JAVA_BRIDGE,
-                      "delayBeforeBatchRunStart",
-                      0,
-                      mProfiledBatchRunStartTime * 1000000);
-                }
-
-                // Clear layout animation, as animation only apply to current UI operations batch.
-                mNativeViewHierarchyManager.clearLayoutAnimation();
-
-                if (mViewHierarchyUpdateDebugListener != null) {
-                  mViewHierarchyUpdateDebugListener.onViewHierarchyUpdateFinished();
-                }
-              } catch (Exception e) {
-                mIsInIllegalUIState = true;
-                throw e;
-              } finally {
-                Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
-              }
-            }
-          };
-
       SystraceMessage.beginSection(
               Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, "acquiring mDispatchRunnablesLock")
           .arg("batchId", batchId)
           .flush();
       synchronized (mDispatchRunnablesLock) {
         Systrace.endSection(Systrace.TRACE_TAG_REACT_JAVA_BRIDGE);
-        mDispatchUIRunnables.add(runOperations);
+        mDispatchUIRunnables.add(batch);
       }
 
       // In the case where the frame callback isn't enqueued, the UI isn't being displayed or is
@@ -985,6 +1085,12 @@ public class UIViewOperationQueue {
     }
   }
 
+  private static void recycleOperation(UIOperation operation) {
+    if (operation instanceof ViewOperation) {
+      ((ViewOperation) operation).recycle();
+    }
+  }
+
   /* package */ void resumeFrameCallback() {
     mIsDispatchUIFrameCallbackEnqueued = true;
     if (!ReactFeatureFlags.enableFabricRendererExclusively) {
@@ -1012,15 +1118,23 @@ public class UIViewOperationQueue {
     synchronized (mDispatchRunnablesLock) {
       if (!mDispatchUIRunnables.isEmpty()) {
         runnables = mDispatchUIRunnables;
-        mDispatchUIRunnables = new ArrayList<>();
+        // The spare list is null if a batch reenters this method
+        mDispatchUIRunnables =
+            mSpareDispatchUIRunnables != null ? mSpareDispatchUIRunnables : new ArrayList<>();
+        mSpareDispatchUIRunnables = null;
       } else {
         return;
       }
     }
 
     final long batchedExecutionStartTime = SystemClock.uptimeMillis();
-    for (Runnable runnable : runnables) {
-      runnable.run();
+    try {
+      for (int i = 0; i < runnables.size(); i++) {
+        runnables.get(i).run();
+      }
+    } finally {
+      runnables.clear();
+      mSpareDispatchUIRunnables = runnables;
     }
 
     if (mIsProfilingNextBatch) {
@@ -1105,6 +1219,7 @@ public class UIViewOperationQueue {
         try {
           long nonBatchedExecutionStartTime = SystemClock.uptimeMillis();
           nextOperation.execute();
+          recycleOperation(nextOperation);
           mNonBatchedExecutionTotalTime +=
               SystemClock.uptimeMillis() - nonBatchedExecutionStartTime;
         } catch (Exception e) {
@@ -7,11 +7,16 @@
 
 package com.facebook.react.uimanager;
 
+import android.os.AsyncTask;
 import android.view.View;
 import com.facebook.common.logging.FLog;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ViewManagerPropertyUpdater {
   public interface Settable {
@@ -28,9 +33,12 @@ public class ViewManagerPropertyUpdater {
 
   private static final String TAG = "ViewManagerPropertyUpdater";
 
+  // Setters are looked up from the UI thread, the thread computing the UIManager constants and the
+  // preloading thread
   private static final Map<Class<?>, ViewManagerSetter<?, ?>> VIEW_MANAGER_SETTER_MAP =
-      new HashMap<>();
-  private static final Map<Class<?>, ShadowNodeSetter<?>> SHADOW_NODE_SETTER_MAP = new HashMap<>();
+      new ConcurrentHashMap<>();
+  private static final Map<Class<?>, ShadowNodeSetter<?>> SHADOW_NODE_SETTER_MAP =
+      new ConcurrentHashMap<>();
 
   public static void clear() {
     ViewManagersPropertyCache.clear();
@@ -66,6 +74,34 @@ public class ViewManagerPropertyUpdater {
     }
   }
 
+  /**
+   * Looks up the prop setters of the view managers and of their shadow nodes on a background
+   * thread. Managers without a generated setter otherwise scan their class for {@code @ReactProp}
+   * methods when their first view is updated, usually on the UI thread during the first render.
+   */
+  public static void preloadSettersAsync(Collection<? extends ViewManager> viewManagers) {
+    final List<ViewManager> viewManagersToPreload = new ArrayList<>(viewManagers);
+    AsyncTask.THREAD_POOL_EXECUTOR.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            for (ViewManager viewManager : viewManagersToPreload) {
+              try {
+                findManagerSetter(viewManager.getClass());
+                Class<? extends ReactShadowNode> shadowNodeClass =
+                    viewManager.getShadowNodeClass();
+                if (shadowNodeClass != null) {
+                  findNodeSetter(shadowNodeClass);
+                }
+              } catch (Throwable t) {
+                // The error is reported again when the manager is used
+                FLog.w(TAG, "Could not preload prop setters of " + viewManager.getName(), t);
+              }
+            }
+          }
+        });
+  }
+
   public static Map<String, String> getNativeProps(
       Class<? extends ViewManager> viewManagerTopClass,
       Class<? extends ReactShadowNode> shadowNodeTopClass) {
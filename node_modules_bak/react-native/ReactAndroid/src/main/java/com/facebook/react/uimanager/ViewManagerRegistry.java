@@ -38,12 +38,14 @@ public final class ViewManagerRegistry implements ComponentCallbacks2 {
 
     mViewManagers = viewManagerMap;
     mViewManagerResolver = null;
+    ViewManagerPropertyUpdater.preloadSettersAsync(viewManagerList);
   }
 
   public ViewManagerRegistry(Map<String, ViewManager> viewManagerMap) {
     mViewManagers =
         viewManagerMap != null ? viewManagerMap : MapBuilder.<String, ViewManager>newHashMap();
     mViewManagerResolver = null;
+    ViewManagerPropertyUpdater.preloadSettersAsync(mViewManagers.values());
   }
 
   /**
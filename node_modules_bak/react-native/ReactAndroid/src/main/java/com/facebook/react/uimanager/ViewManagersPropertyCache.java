@@ -23,6 +23,7 @@ import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is responsible for holding view manager property setters and is used in a process of
@@ -30,7 +31,8 @@ import java.util.Map;
  */
 /*package*/ class ViewManagersPropertyCache {
 
-  private static final Map<Class, Map<String, PropSetter>> CLASS_PROPS_CACHE = new HashMap<>();
+  private static final Map<Class, Map<String, PropSetter>> CLASS_PROPS_CACHE =
+      new ConcurrentHashMap<>();
   private static final Map<String, PropSetter> EMPTY_PROPS_MAP = new HashMap<>();
 
   public static void clear() {
@@ -57,6 +59,7 @@ import java.util.Map;
           ReactProp.USE_DEFAULT_TYPE.equals(prop.customType()) ? defaultType : prop.customType();
       mSetter = setter;
       mIndex = null;
+      makeAccessible(setter);
     }
 
     private PropSetter(ReactPropGroup prop, String defaultType, Method setter, int index) {
@@ -67,6 +70,16 @@ import java.util.Map;
               : prop.customType();
       mSetter = setter;
       mIndex = index;
+      makeAccessible(setter);
+    }
+
+    // Skips the access checks that Method#invoke otherwise does on each prop update
+    private static void makeAccessible(Method setter) {
+      try {
+        setter.setAccessible(true);
+      } catch (SecurityException e) {
+        // The checks are done on each call instead
+      }
     }
 
     public String getPropName() {
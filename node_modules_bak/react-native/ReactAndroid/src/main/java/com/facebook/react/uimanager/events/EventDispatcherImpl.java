@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -55,10 +56,40 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  * <p>Event Cookie Composition: VIEW_TAG_MASK = 0x00000000ffffffff EVENT_TYPE_ID_MASK =
  * 0x0000ffff00000000 COALESCING_KEY_MASK = 0xffff000000000000
+ *
+ * <p>Whether events can be coalesced is decided by the events themselves, unless a {@link
+ * CoalescingPolicy} has been set for their name with {@link #setCoalescingPolicy}. This allows
+ * coalescing events of types that do not opt in, such as progress events of third party views.
+ *
+ * <p>== Staging ==
+ *
+ * <p>Dispatched events are staged in ring buffers until the next frame, without taking a lock: one
+ * for the events dispatched on the UI thread, which is also the thread that drains them, and one
+ * shared by the other threads. When a buffer is full, events are staged in a list guarded by a lock
+ * instead, and the later events of the threads using that buffer keep going to the list until it
+ * has been drained, so that none of them is dispatched before an event that overflowed.
  */
 @Nullsafe(Nullsafe.Mode.LOCAL)
 public class EventDispatcherImpl implements EventDispatcher, LifecycleEventListener {
 
+  /** How the events of a given name are coalesced while JS is backed up. */
+  public enum CoalescingPolicy {
+    /**
+     * As decided by {@link Event#canCoalesce}, {@link Event#getCoalescingKey} and {@link
+     * Event#coalesce}.
+     */
+    EVENT_DEFINED,
+    /** Never coalesced. */
+    NEVER,
+    /** Only the latest event of a view is kept. */
+    LATEST
+  }
+
+  private static final int STAGING_CAPACITY = 256;
+
+  private static final Map<String, CoalescingPolicy> sCoalescingPolicies =
+      new ConcurrentHashMap<>();
+
   private static final Comparator<Event> EVENT_COMPARATOR =
       new Comparator<Event>() {
         @Override
@@ -90,7 +121,15 @@ public class EventDispatcherImpl implements EventDispatcher, LifecycleEventListe
   private final LongSparseArray<Integer> mEventCookieToLastEventIdx = new LongSparseArray<>();
   private final Map<String, Short> mEventNameToEventId = MapBuilder.newHashMap();
   private final DispatchEventsRunnable mDispatchEventsRunnable = new DispatchEventsRunnable();
-  private final ArrayList<Event> mEventStaging = new ArrayList<>();
+  private final EventRingBuffer<Event> mUiThreadEventStaging =
+      EventRingBuffer.createSingleProducer(STAGING_CAPACITY);
+  private final EventRingBuffer<Event> mEventStaging =
+      EventRingBuffer.createMultiProducer(STAGING_CAPACITY);
+  // Events that did not fit in the ring buffers
+  private final ArrayList<Event> mOverflowEventStaging = new ArrayList<>();
+  // Whether events of the ring buffers were staged in mOverflowEventStaging since it was drained
+  private volatile boolean mUiThreadEventStagingOverflowed = false;
+  private volatile boolean mEventStagingOverflowed = false;
   private final CopyOnWriteArrayList<EventDispatcherListener> mListeners =
       new CopyOnWriteArrayList<>();
   private final CopyOnWriteArrayList<BatchEventDispatchedListener> mPostEventDispatchListeners =
@@ -111,6 +150,19 @@ public class EventDispatcherImpl implements EventDispatcher, LifecycleEventListe
     mReactEventEmitter = new ReactEventEmitter(mReactContext);
   }
 
+  /**
+   * Sets how the events with the given name are coalesced, for all the dispatchers. Events are
+   * coalesced by view tag and event name, and by coalescing key for {@link
+   * CoalescingPolicy#EVENT_DEFINED}.
+   */
+  public static void setCoalescingPolicy(String eventName, CoalescingPolicy policy) {
+    if (policy == CoalescingPolicy.EVENT_DEFINED) {
+      sCoalescingPolicies.remove(eventName);
+    } else {
+      sCoalescingPolicies.put(eventName, policy);
+    }
+  }
+
   /** Sends the given Event to JS, coalescing eligible events if JS is backed up. */
   public void dispatchEvent(Event event) {
     Assertions.assertCondition(event.isInitialized(), "Dispatched event hasn't been initialized");
@@ -119,10 +171,20 @@ public class EventDispatcherImpl implements EventDispatcher, LifecycleEventListe
       listener.onEventDispatch(event);
     }
 
-    synchronized (mEventsStagingLock) {
-      mEventStaging.add(event);
-      Systrace.startAsyncFlow(
-          Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, event.getEventName(), event.getUniqueID());
+    Systrace.startAsyncFlow(
+        Systrace.TRACE_TAG_REACT_JAVA_BRIDGE, event.getEventName(), event.getUniqueID());
+    boolean isOnUiThread = UiThreadUtil.isOnUiThread();
+    EventRingBuffer<Event> staging = isOnUiThread ? mUiThreadEventStaging : mEventStaging;
+    boolean overflowed = isOnUiThread ? mUiThreadEventStagingOverflowed : mEventStagingOverflowed;
+    if (overflowed || !staging.offer(event)) {
+      synchronized (mEventsStagingLock) {
+        mOverflowEventStaging.add(event);
+        if (isOnUiThread) {
+          mUiThreadEventStagingOverflowed = true;
+        } else {
+          mEventStagingOverflowed = true;
+        }
+      }
     }
     maybePostFrameCallbackFromNonUI();
   }
@@ -199,49 +261,77 @@ public class EventDispatcherImpl implements EventDispatcher, LifecycleEventListe
    * frame and another from this frame during the next.
    */
   private void moveStagedEventsToDispatchQueue() {
-    synchronized (mEventsStagingLock) {
-      synchronized (mEventsToDispatchLock) {
-        for (int i = 0; i < mEventStaging.size(); i++) {
-          Event event = mEventStaging.get(i);
-
-          if (!event.canCoalesce()) {
-            addEventToEventsToDispatch(event);
-            continue;
-          }
+    synchronized (mEventsToDispatchLock) {
+      Event event;
+      while ((event = mUiThreadEventStaging.poll()) != null) {
+        moveEventToDispatchQueue(event);
+      }
+      while ((event = mEventStaging.poll()) != null) {
+        moveEventToDispatchQueue(event);
+      }
+      synchronized (mEventsStagingLock) {
+        for (int i = 0; i < mOverflowEventStaging.size(); i++) {
+          moveEventToDispatchQueue(mOverflowEventStaging.get(i));
+        }
+        mOverflowEventStaging.clear();
+        mUiThreadEventStagingOverflowed = false;
+        mEventStagingOverflowed = false;
+      }
+    }
+  }
 
-          long eventCookie =
-              getEventCookie(event.getViewTag(), event.getEventName(), event.getCoalescingKey());
+  private void moveEventToDispatchQueue(Event event) {
+    CoalescingPolicy policy = getCoalescingPolicy(event);
+    if (policy == CoalescingPolicy.NEVER) {
+      addEventToEventsToDispatch(event);
+      return;
+    }
 
-          Event eventToAdd = null;
-          Event eventToDispose = null;
-          Integer lastEventIdx = mEventCookieToLastEventIdx.get(eventCookie);
+    short coalescingKey = policy == CoalescingPolicy.LATEST ? 0 : event.getCoalescingKey();
+    long eventCookie = getEventCookie(event.getViewTag(), event.getEventName(), coalescingKey);
 
-          if (lastEventIdx == null) {
-            eventToAdd = event;
-            mEventCookieToLastEventIdx.put(eventCookie, mEventsToDispatchSize);
-          } else {
-            Event lastEvent = mEventsToDispatch[lastEventIdx];
-            Event coalescedEvent = event.coalesce(lastEvent);
-            if (coalescedEvent != lastEvent) {
-              eventToAdd = coalescedEvent;
-              mEventCookieToLastEventIdx.put(eventCookie, mEventsToDispatchSize);
-              eventToDispose = lastEvent;
-              mEventsToDispatch[lastEventIdx] = null;
-            } else {
-              eventToDispose = event;
-            }
-          }
+    Event eventToAdd = null;
+    Event eventToDispose = null;
+    Integer lastEventIdx = mEventCookieToLastEventIdx.get(eventCookie);
 
-          if (eventToAdd != null) {
-            addEventToEventsToDispatch(eventToAdd);
-          }
-          if (eventToDispose != null) {
-            eventToDispose.dispose();
-          }
-        }
+    if (lastEventIdx == null) {
+      eventToAdd = event;
+      mEventCookieToLastEventIdx.put(eventCookie, mEventsToDispatchSize);
+    } else {
+      Event lastEvent = mEventsToDispatch[lastEventIdx];
+      Event coalescedEvent;
+      if (policy == CoalescingPolicy.LATEST) {
+        // Events staged by different threads are not necessarily moved in the order they happened
+        coalescedEvent = event.getTimestampMs() >= lastEvent.getTimestampMs() ? event : lastEvent;
+      } else {
+        coalescedEvent = event.coalesce(lastEvent);
+      }
+      if (coalescedEvent != lastEvent) {
+        eventToAdd = coalescedEvent;
+        mEventCookieToLastEventIdx.put(eventCookie, mEventsToDispatchSize);
+        eventToDispose = lastEvent;
+        mEventsToDispatch[lastEventIdx] = null;
+      } else {
+        eventToDispose = event;
       }
-      mEventStaging.clear();
     }
+
+    if (eventToAdd != null) {
+      addEventToEventsToDispatch(eventToAdd);
+    }
+    if (eventToDispose != null) {
+      eventToDispose.dispose();
+    }
+  }
+
+  /** Returns the policy of the event, {@link CoalescingPolicy#NEVER} if it cannot coalesce. */
+  private static CoalescingPolicy getCoalescingPolicy(Event event) {
+    CoalescingPolicy policy =
+        sCoalescingPolicies.isEmpty() ? null : sCoalescingPolicies.get(event.getEventName());
+    if (policy != null) {
+      return policy;
+    }
+    return event.canCoalesce() ? CoalescingPolicy.EVENT_DEFINED : CoalescingPolicy.NEVER;
   }
 
   private long getEventCookie(int viewTag, String eventName, short coalescingKey) {
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.uimanager.events;
+
+import androidx.annotation.Nullable;
+import com.facebook.infer.annotation.Nullsafe;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded queue with a single consumer that producers add to without taking a lock, used by {@link
+ * EventDispatcherImpl} to stage events until the next frame.
+ *
+ * <p>The slots are allocated once and reused, so that adding an item does not allocate. A slot is
+ * published by writing the item into it, and freed by the consumer by clearing it before it moves
+ * on. {@link #offer} returns false when all slots are taken, the caller is then expected to fall
+ * back to a slower, unbounded path.
+ *
+ * <p>The {@link #createSingleProducer single producer} variant must only be added to from one
+ * thread at a time and does not need an atomic instruction to claim a slot. The {@link
+ * #createMultiProducer multi producer} variant claims slots with a compare-and-set.
+ */
+@Nullsafe(Nullsafe.Mode.LOCAL)
+/* package */ abstract class EventRingBuffer<T> {
+
+  protected final AtomicReferenceArray<T> mSlots;
+  protected final int mCapacity;
+  // Index of the next slot to read, only written by the consumer
+  protected final AtomicLong mHead = new AtomicLong();
+
+  private EventRingBuffer(int capacity) {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    mSlots = new AtomicReferenceArray<>(capacity);
+    mCapacity = capacity;
+  }
+
+  /* package */ static <T> EventRingBuffer<T> createSingleProducer(int capacity) {
+    return new SingleProducer<>(capacity);
+  }
+
+  /* package */ static <T> EventRingBuffer<T> createMultiProducer(int capacity) {
+    return new MultiProducer<>(capacity);
+  }
+
+  /** Adds an item, returns false if the buffer is full. */
+  /* package */ abstract boolean offer(T item);
+
+  /**
+   * Removes and returns the oldest item, or null if there is none. An item whose slot has been
+   * claimed but not written yet is returned by a later call. Must only be called by the consumer.
+   */
+  /* package */ @Nullable
+  T poll() {
+    long head = mHead.get();
+    int index = (int) (head & (mCapacity - 1));
+    T item = mSlots.get(index);
+    if (item == null) {
+      return null;
+    }
+    // The slot is cleared before the head moves, so that producers see it free once they see the
+    // new head
+    mSlots.lazySet(index, null);
+    mHead.lazySet(head + 1);
+    return item;
+  }
+
+  private static final class SingleProducer<T> extends EventRingBuffer<T> {
+    // Only accessed by the producer
+    private long mTail;
+
+    private SingleProducer(int capacity) {
+      super(capacity);
+    }
+
+    @Override
+    boolean offer(T item) {
+      if (mTail - mHead.get() >= mCapacity) {
+        return false;
+      }
+      mSlots.lazySet((int) (mTail & (mCapacity - 1)), item);
+      mTail++;
+      return true;
+    }
+  }
+
+  private static final class MultiProducer<T> extends EventRingBuffer<T> {
+    private final AtomicLong mTail = new AtomicLong();
+
+    private MultiProducer(int capacity) {
+      super(capacity);
+    }
+
+    @Override
+    boolean offer(T item) {
+      while (true) {
+        long tail = mTail.get();
+        if (tail - mHead.get() >= mCapacity) {
+          return false;
+        }
+        if (mTail.compareAndSet(tail, tail + 1)) {
+          mSlots.set((int) (tail & (mCapacity - 1)), item);
+          return true;
+        }
+      }
+    }
+  }
+}
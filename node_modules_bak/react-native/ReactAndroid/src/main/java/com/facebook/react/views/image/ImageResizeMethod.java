@@ -13,5 +13,6 @@ import com.facebook.infer.annotation.Nullsafe;
 public enum ImageResizeMethod {
   AUTO,
   RESIZE,
-  SCALE
+  SCALE,
+  DOWNSAMPLE
 }
@@ -210,6 +210,8 @@ public class ReactImageManager extends SimpleViewManager<ReactImageView> {
       view.setResizeMethod(ImageResizeMethod.RESIZE);
     } else if ("scale".equals(resizeMethod)) {
       view.setResizeMethod(ImageResizeMethod.SCALE);
+    } else if ("downsample".equals(resizeMethod)) {
+      view.setResizeMethod(ImageResizeMethod.DOWNSAMPLE);
     } else {
       view.setResizeMethod(ImageResizeMethod.AUTO);
       FLog.w(ReactConstants.TAG, "Invalid resize method: '" + resizeMethod + "'");
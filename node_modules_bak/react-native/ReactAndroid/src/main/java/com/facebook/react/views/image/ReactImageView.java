@@ -67,6 +67,7 @@ import java.util.List;
 public class ReactImageView extends GenericDraweeView {
 
   public static final int REMOTE_IMAGE_FADE_DURATION_MS = 300;
+  private static final int MIN_DOWNSAMPLE_BUCKET_SIZE = 64;
 
   private static float[] sComputedCornerRadii = new float[4];
 
@@ -477,7 +478,7 @@ public class ReactImageView extends GenericDraweeView {
     }
     Postprocessor postprocessor = MultiPostprocessor.from(postprocessors);
 
-    ResizeOptions resizeOptions = doResize ? new ResizeOptions(getWidth(), getHeight()) : null;
+    ResizeOptions resizeOptions = doResize ? getResizeOptions() : null;
 
     ImageRequestBuilder imageRequestBuilder =
         ImageRequestBuilder.newBuilderWithSource(mImageSource.getUri())
@@ -485,6 +486,11 @@ public class ReactImageView extends GenericDraweeView {
             .setResizeOptions(resizeOptions)
             .setAutoRotateEnabled(true)
             .setProgressiveRenderingEnabled(mProgressiveRenderingEnabled);
+    if (doResize && mResizeMethod == ImageResizeMethod.DOWNSAMPLE) {
+      // Decode with a sample size instead of transcoding. Downsampling stays disabled in the
+      // pipeline config so that 'auto' and 'resize' keep their resize behavior.
+      imageRequestBuilder.setDownsampleOverride(true);
+    }
 
     ImageRequest imageRequest =
         ReactNetworkImageRequest.fromBuilderWithHeaders(imageRequestBuilder, mHeaders);
@@ -586,6 +592,27 @@ public class ReactImageView extends GenericDraweeView {
     mImageSource = mSources.get(0);
   }
 
+  private ResizeOptions getResizeOptions() {
+    if (mResizeMethod == ImageResizeMethod.DOWNSAMPLE) {
+      // Bucket the target size so that views of similar size share decoded bitmaps in the cache
+      return new ResizeOptions(
+          getDownsampleBucketSize(getWidth()), getDownsampleBucketSize(getHeight()));
+    }
+    return new ResizeOptions(getWidth(), getHeight());
+  }
+
+  /**
+   * Rounds a view dimension up to the next downsample bucket. Buckets are a quarter of the highest
+   * power of two below the size apart, e.g. 256, 320, 384, 448, 512, 640, ...
+   */
+  /* package */ static int getDownsampleBucketSize(int size) {
+    if (size <= MIN_DOWNSAMPLE_BUCKET_SIZE) {
+      return MIN_DOWNSAMPLE_BUCKET_SIZE;
+    }
+    int step = Integer.highestOneBit(size) / 4;
+    return ((size + step - 1) / step) * step;
+  }
+
   private boolean shouldResize(ImageSource imageSource) {
     // Resizing is inferior to scaling. See http://frescolib.org/docs/resizing-rotating.html#_
     // We resize here only for images likely to be from the device's camera, where the app developer
@@ -593,7 +620,10 @@ public class ReactImageView extends GenericDraweeView {
     if (mResizeMethod == ImageResizeMethod.AUTO) {
       return UriUtil.isLocalContentUri(imageSource.getUri())
           || UriUtil.isLocalFileUri(imageSource.getUri());
-    } else if (mResizeMethod == ImageResizeMethod.RESIZE) {
+    } else if (mResizeMethod == ImageResizeMethod.RESIZE
+        || mResizeMethod == ImageResizeMethod.DOWNSAMPLE) {
+      // DOWNSAMPLE is also safe for network images: the request decodes with a sample size
+      // instead of transcoding the encoded image, so no extra resize pass is needed
       return true;
     } else {
       return false;
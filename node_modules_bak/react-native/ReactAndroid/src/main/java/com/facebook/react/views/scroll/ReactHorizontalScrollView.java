@@ -115,6 +115,8 @@ public class ReactHorizontalScrollView extends HorizontalScrollView
   private int mScrollEventThrottle = 0;
   private @Nullable View mContentView;
   private @Nullable MaintainVisibleScrollPositionHelper mMaintainVisibleContentPositionHelper;
+  private final VirtualizationWindowHelper mVirtualizationWindowHelper =
+      new VirtualizationWindowHelper(this, true);
 
   private final Rect mTempRect = new Rect();
 
@@ -280,6 +282,18 @@ public class ReactHorizontalScrollView extends HorizontalScrollView
     }
   }
 
+  /**
+   * Sets the length of the virtualization window in viewport lengths, or disables it when 0. See
+   * {@link VirtualizationWindowHelper}.
+   */
+  public void setVirtualizationWindowSize(float windowSize) {
+    mVirtualizationWindowHelper.setWindowSize(windowSize);
+    if (mRemoveClippedSubviews) {
+      updateClippingRect();
+    }
+    mVirtualizationWindowHelper.updateVisibleRange();
+  }
+
   @Override
   public @Nullable String getOverflow() {
     return mOverflow;
@@ -469,6 +483,7 @@ public class ReactHorizontalScrollView extends HorizontalScrollView
       if (mRemoveClippedSubviews) {
         updateClippingRect();
       }
+      mVirtualizationWindowHelper.updateVisibleRange();
 
       ReactScrollViewHelper.updateStateOnScrollChanged(
           this,
@@ -722,6 +737,7 @@ public class ReactHorizontalScrollView extends HorizontalScrollView
     if (mRemoveClippedSubviews) {
       updateClippingRect();
     }
+    mVirtualizationWindowHelper.updateVisibleRange();
   }
 
   @Override
@@ -752,6 +768,7 @@ public class ReactHorizontalScrollView extends HorizontalScrollView
     Assertions.assertNotNull(mClippingRect);
 
     ReactClippingViewGroupHelper.calculateClippingRect(this, mClippingRect);
+    mVirtualizationWindowHelper.extendToWindow(mClippingRect);
     View contentView = getContentView();
     if (contentView instanceof ReactClippingViewGroup) {
       ((ReactClippingViewGroup) contentView).updateClippingRect();
@@ -1374,6 +1391,8 @@ public class ReactHorizontalScrollView extends HorizontalScrollView
     } else if (mMaintainVisibleContentPositionHelper != null) {
       mMaintainVisibleContentPositionHelper.updateScrollPosition();
     }
+
+    mVirtualizationWindowHelper.updateVisibleRange();
   }
 
   private void adjustPositionForContentChangeRTL(int left, int right, int oldLeft, int oldRight) {
@@ -118,6 +118,8 @@ public class ReactScrollView extends ScrollView
   private int mScrollEventThrottle = 0;
   private @Nullable MaintainVisibleScrollPositionHelper mMaintainVisibleContentPositionHelper =
       null;
+  private final VirtualizationWindowHelper mVirtualizationWindowHelper =
+      new VirtualizationWindowHelper(this, false);
 
   public ReactScrollView(Context context) {
     this(context, null);
@@ -269,6 +271,18 @@ public class ReactScrollView extends ScrollView
     }
   }
 
+  /**
+   * Sets the length of the virtualization window in viewport lengths, or disables it when 0. See
+   * {@link VirtualizationWindowHelper}.
+   */
+  public void setVirtualizationWindowSize(float windowSize) {
+    mVirtualizationWindowHelper.setWindowSize(windowSize);
+    if (mRemoveClippedSubviews) {
+      updateClippingRect();
+    }
+    mVirtualizationWindowHelper.updateVisibleRange();
+  }
+
   @Override
   public @Nullable String getOverflow() {
     return mOverflow;
@@ -314,6 +328,7 @@ public class ReactScrollView extends ScrollView
     if (mRemoveClippedSubviews) {
       updateClippingRect();
     }
+    mVirtualizationWindowHelper.updateVisibleRange();
   }
 
   @Override
@@ -387,6 +402,7 @@ public class ReactScrollView extends ScrollView
       if (mRemoveClippedSubviews) {
         updateClippingRect();
       }
+      mVirtualizationWindowHelper.updateVisibleRange();
 
       ReactScrollViewHelper.updateStateOnScrollChanged(
           this,
@@ -506,6 +522,7 @@ public class ReactScrollView extends ScrollView
     Assertions.assertNotNull(mClippingRect);
 
     ReactClippingViewGroupHelper.calculateClippingRect(this, mClippingRect);
+    mVirtualizationWindowHelper.extendToWindow(mClippingRect);
     View contentView = getContentView();
     if (contentView instanceof ReactClippingViewGroup) {
       ((ReactClippingViewGroup) contentView).updateClippingRect();
@@ -1143,6 +1160,8 @@ public class ReactScrollView extends ScrollView
         scrollTo(getScrollX(), maxScrollY);
       }
     }
+
+    mVirtualizationWindowHelper.updateVisibleRange();
   }
 
   @Override
@@ -335,6 +335,11 @@ public class ReactScrollViewManager extends ViewGroupManager<ReactScrollView>
     }
   }
 
+  @ReactProp(name = "virtualizationWindowSize", defaultFloat = 0f)
+  public void setVirtualizationWindowSize(ReactScrollView view, float windowSize) {
+    view.setVirtualizationWindowSize(windowSize);
+  }
+
   @Override
   public Object updateState(
       ReactScrollView view, ReactStylesDiffMap props, StateWrapper stateWrapper) {
@@ -369,6 +374,9 @@ public class ReactScrollViewManager extends ViewGroupManager<ReactScrollView>
         .put(
             ScrollEventType.getJSEventName(ScrollEventType.MOMENTUM_END),
             MapBuilder.of("registrationName", "onMomentumScrollEnd"))
+        .put(
+            VisibleRangeChangeEvent.EVENT_NAME,
+            MapBuilder.of("registrationName", "onVisibleRangeChange"))
         .build();
   }
 
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.views.scroll;
+
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.uimanager.UIManagerHelper;
+import com.facebook.react.uimanager.events.EventDispatcher;
+import com.facebook.react.views.view.ReactViewGroup;
+
+/**
+ * Virtualization window of {@link ReactScrollView} and {@link ReactHorizontalScrollView}.
+ *
+ * <p>The window is the viewport extended along the scroll axis to {@code windowSize} viewport
+ * lengths, the unit of the windowSize of VirtualizedList. With removeClippedSubviews, the children
+ * of the content view are detached when they leave the window rather than the viewport, so that
+ * the ones about to scroll in are already attached.
+ *
+ * <p>The indices of the first and last children of the content view that intersect the viewport
+ * and the window are reported with a {@link VisibleRangeChangeEvent} whenever they change. Native
+ * code only widens the clipping and reports the range: it is up to the lists to unmount the items
+ * outside the window in response. The views of unmounted items are destroyed, not recycled, as
+ * view recycling is disabled unless {@code ReactFeatureFlags.enableViewRecycling} is set.
+ */
+/* package */ final class VirtualizationWindowHelper {
+
+  private final ViewGroup mScrollView;
+  private final boolean mHorizontal;
+  private final Rect mViewport = new Rect();
+  private final Rect mWindow = new Rect();
+
+  // 0 when the window is disabled
+  private float mWindowSize;
+  private int mFirstVisibleIndex = -1;
+  private int mLastVisibleIndex = -1;
+  private int mFirstWindowIndex = -1;
+  private int mLastWindowIndex = -1;
+
+  /* package */ VirtualizationWindowHelper(ViewGroup scrollView, boolean horizontal) {
+    mScrollView = scrollView;
+    mHorizontal = horizontal;
+  }
+
+  /* package */ boolean isEnabled() {
+    return mWindowSize > 0;
+  }
+
+  /* package */ void setWindowSize(float windowSize) {
+    mWindowSize = Math.max(windowSize, 0);
+    mFirstVisibleIndex = -1;
+    mLastVisibleIndex = -1;
+    mFirstWindowIndex = -1;
+    mLastWindowIndex = -1;
+  }
+
+  /** Extends a rect the size of the viewport to the window. */
+  /* package */ void extendToWindow(Rect rect) {
+    if (mWindowSize <= 1) {
+      return;
+    }
+    if (mHorizontal) {
+      int extent = (int) (rect.width() * (mWindowSize - 1) / 2);
+      rect.left -= extent;
+      rect.right += extent;
+    } else {
+      int extent = (int) (rect.height() * (mWindowSize - 1) / 2);
+      rect.top -= extent;
+      rect.bottom += extent;
+    }
+  }
+
+  /**
+   * Finds the children of the content view that intersect the viewport and the window, and
+   * dispatches a {@link VisibleRangeChangeEvent} if they changed since the last call.
+   *
+   * <p>Children are expected in order along the scroll axis, as the cells of a list are. The search
+   * starts from the last range found, so a scroll only visits the children that entered or left the
+   * window.
+   */
+  /* package */ void updateVisibleRange() {
+    if (!isEnabled()) {
+      return;
+    }
+    View contentView = mScrollView.getChildAt(0);
+    if (!(contentView instanceof ViewGroup)) {
+      return;
+    }
+
+    // In the coordinates of the content view
+    mScrollView.getDrawingRect(mViewport);
+    mViewport.offset(-contentView.getLeft(), -contentView.getTop());
+    mWindow.set(mViewport);
+    extendToWindow(mWindow);
+
+    ViewGroup contentViewGroup = (ViewGroup) contentView;
+    int firstWindowIndex = findFirstIntersecting(contentViewGroup, mWindow, mFirstWindowIndex);
+    int lastWindowIndex = findLastIntersecting(contentViewGroup, mWindow, mLastWindowIndex);
+    int firstVisibleIndex = -1;
+    int lastVisibleIndex = -1;
+    if (firstWindowIndex > lastWindowIndex) {
+      firstWindowIndex = -1;
+      lastWindowIndex = -1;
+    } else {
+      firstVisibleIndex =
+          findFirstIntersecting(
+              contentViewGroup,
+              mViewport,
+              mFirstVisibleIndex != -1 ? mFirstVisibleIndex : firstWindowIndex);
+      lastVisibleIndex =
+          findLastIntersecting(
+              contentViewGroup,
+              mViewport,
+              mLastVisibleIndex != -1 ? mLastVisibleIndex : lastWindowIndex);
+      if (firstVisibleIndex > lastVisibleIndex) {
+        firstVisibleIndex = -1;
+        lastVisibleIndex = -1;
+      }
+    }
+
+    if (firstVisibleIndex == mFirstVisibleIndex
+        && lastVisibleIndex == mLastVisibleIndex
+        && firstWindowIndex == mFirstWindowIndex
+        && lastWindowIndex == mLastWindowIndex) {
+      return;
+    }
+    mFirstVisibleIndex = firstVisibleIndex;
+    mLastVisibleIndex = lastVisibleIndex;
+    mFirstWindowIndex = firstWindowIndex;
+    mLastWindowIndex = lastWindowIndex;
+
+    ReactContext reactContext = (ReactContext) mScrollView.getContext();
+    EventDispatcher eventDispatcher =
+        UIManagerHelper.getEventDispatcherForReactTag(reactContext, mScrollView.getId());
+    if (eventDispatcher != null) {
+      eventDispatcher.dispatchEvent(
+          new VisibleRangeChangeEvent(
+              UIManagerHelper.getSurfaceId(reactContext),
+              mScrollView.getId(),
+              firstVisibleIndex,
+              lastVisibleIndex,
+              firstWindowIndex,
+              lastWindowIndex));
+    }
+  }
+
+  /**
+   * Returns the index of the first child that ends after the start of the rect along the scroll
+   * axis, searching from the given index, or the child count if there is none.
+   */
+  private int findFirstIntersecting(ViewGroup contentView, Rect rect, int fromIndex) {
+    int childCount = getChildCount(contentView);
+    int rectStart = mHorizontal ? rect.left : rect.top;
+    int i = Math.max(0, Math.min(fromIndex, childCount - 1));
+    if (i < childCount && getEnd(getChildAt(contentView, i)) > rectStart) {
+      while (i > 0 && getEnd(getChildAt(contentView, i - 1)) > rectStart) {
+        i--;
+      }
+      return i;
+    }
+    while (i < childCount && getEnd(getChildAt(contentView, i)) <= rectStart) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Returns the index of the last child that starts before the end of the rect along the scroll
+   * axis, searching from the given index, or -1 if there is none.
+   */
+  private int findLastIntersecting(ViewGroup contentView, Rect rect, int fromIndex) {
+    int childCount = getChildCount(contentView);
+    int rectEnd = mHorizontal ? rect.right : rect.bottom;
+    int i = Math.max(0, Math.min(fromIndex, childCount - 1));
+    if (i < childCount && getStart(getChildAt(contentView, i)) < rectEnd) {
+      while (i < childCount - 1 && getStart(getChildAt(contentView, i + 1)) < rectEnd) {
+        i++;
+      }
+      return i;
+    }
+    while (i >= 0 && i < childCount && getStart(getChildAt(contentView, i)) >= rectEnd) {
+      i--;
+    }
+    return Math.min(i, childCount - 1);
+  }
+
+  private int getStart(View child) {
+    return mHorizontal ? child.getLeft() : child.getTop();
+  }
+
+  private int getEnd(View child) {
+    return mHorizontal ? child.getRight() : child.getBottom();
+  }
+
+  // Children detached by subview clipping are still counted, so that indices do not depend on it
+  private static int getChildCount(ViewGroup contentView) {
+    if (contentView instanceof ReactViewGroup
+        && ((ReactViewGroup) contentView).getRemoveClippedSubviews()) {
+      return ((ReactViewGroup) contentView).getAllChildrenCount();
+    }
+    return contentView.getChildCount();
+  }
+
+  private static View getChildAt(ViewGroup contentView, int index) {
+    if (contentView instanceof ReactViewGroup
+        && ((ReactViewGroup) contentView).getRemoveClippedSubviews()) {
+      return ((ReactViewGroup) contentView).getChildAtWithSubviewClippingEnabled(index);
+    }
+    return contentView.getChildAt(index);
+  }
+}
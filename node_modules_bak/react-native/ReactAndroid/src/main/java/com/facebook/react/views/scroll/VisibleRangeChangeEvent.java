@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.views.scroll;
+
+import androidx.annotation.Nullable;
+import com.facebook.infer.annotation.Nullsafe;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.uimanager.events.Event;
+
+/**
+ * Dispatched by a scroll view with a virtualization window when the children of its content view
+ * that intersect the viewport or the window change. Indices are -1 when no child intersects.
+ */
+@Nullsafe(Nullsafe.Mode.LOCAL)
+public class VisibleRangeChangeEvent extends Event<VisibleRangeChangeEvent> {
+  public static final String EVENT_NAME = "topVisibleRangeChange";
+
+  private final int mFirstVisibleIndex;
+  private final int mLastVisibleIndex;
+  private final int mFirstWindowIndex;
+  private final int mLastWindowIndex;
+
+  public VisibleRangeChangeEvent(
+      int surfaceId,
+      int viewId,
+      int firstVisibleIndex,
+      int lastVisibleIndex,
+      int firstWindowIndex,
+      int lastWindowIndex) {
+    super(surfaceId, viewId);
+    mFirstVisibleIndex = firstVisibleIndex;
+    mLastVisibleIndex = lastVisibleIndex;
+    mFirstWindowIndex = firstWindowIndex;
+    mLastWindowIndex = lastWindowIndex;
+  }
+
+  @Override
+  public String getEventName() {
+    return EVENT_NAME;
+  }
+
+  @Nullable
+  @Override
+  protected WritableMap getEventData() {
+    WritableMap eventData = Arguments.createMap();
+    eventData.putInt("firstVisibleIndex", mFirstVisibleIndex);
+    eventData.putInt("lastVisibleIndex", mLastVisibleIndex);
+    eventData.putInt("firstWindowIndex", mFirstWindowIndex);
+    eventData.putInt("lastWindowIndex", mLastWindowIndex);
+    return eventData;
+  }
+}
@@ -146,6 +146,10 @@ public class ReactTextViewManager
 
     ReadableMap attributedString = state.getMap("attributedString");
     ReadableMap paragraphAttributes = state.getMap("paragraphAttributes");
+    // Keeps the measurements of mounted texts cached, or builds them again if they were evicted,
+    // for the next layout pass that measures the same content
+    TextLayoutManager.precomputeText(
+        view.getContext(), attributedString, paragraphAttributes, mReactTextViewManagerCallback);
     Spannable spanned =
         TextLayoutManager.getOrCreateSpannableForText(
             view.getContext(), attributedString, mReactTextViewManagerCallback);
@@ -18,7 +18,6 @@ import android.text.Spanned;
 import android.text.StaticLayout;
 import android.text.TextPaint;
 import android.util.LayoutDirection;
-import android.util.LruCache;
 import android.view.View;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -27,7 +26,6 @@ import com.facebook.react.bridge.ReactNoCrashSoftException;
 import com.facebook.react.bridge.ReactSoftExceptionLogger;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
-import com.facebook.react.bridge.ReadableNativeMap;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.common.ReactConstants;
 import com.facebook.react.common.build.ReactBuildConfig;
@@ -57,6 +55,8 @@ import com.facebook.yoga.YogaMeasureOutput;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /** Class responsible of creating {@link Spanned} object for the JS representation of Text */
 public class TextLayoutManager {
@@ -71,21 +71,31 @@ public class TextLayoutManager {
   // The bug is that unicode emoticons aren't measured properly which causes text to be clipped.
   private static final TextPaint sTextPaintInstance = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
 
-  // Specifies the amount of spannable that are stored into the {@link sSpannableCache}.
-  private static final int spannableCacheSize = 100;
+  private static final int PRECOMPUTE_THREAD_COUNT = 2;
+
+  // Paints of the threads of sPrecomputeExecutor
+  private static final ThreadLocal<TextPaint> sPrecomputeTextPaint =
+      new ThreadLocal<TextPaint>() {
+        @Override
+        protected TextPaint initialValue() {
+          return new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+        }
+      };
 
   private static final String INLINE_VIEW_PLACEHOLDER = "0";
 
-  private static final Object sSpannableCacheLock = new Object();
+  // Layout widths of the texts that are laid out on their own width, whatever the width available
+  private static final int LAYOUT_WIDTH_DESIRED = -1;
+  private static final int LAYOUT_WIDTH_BORING = -2;
+
   private static final boolean DEFAULT_INCLUDE_FONT_PADDING = true;
   private static final String INCLUDE_FONT_PADDING_KEY = "includeFontPadding";
   private static final String TEXT_BREAK_STRATEGY_KEY = "textBreakStrategy";
   private static final String HYPHENATION_FREQUENCY_KEY = "android_hyphenationFrequency";
   private static final String MAXIMUM_NUMBER_OF_LINES_KEY = "maximumNumberOfLines";
-  private static final LruCache<ReadableNativeMap, Spannable> sSpannableCache =
-      new LruCache<>(spannableCacheSize);
   private static final ConcurrentHashMap<Integer, Spannable> sTagToSpannableCache =
       new ConcurrentHashMap<>();
+  private static @Nullable ExecutorService sPrecomputeExecutor;
 
   public static boolean isRTL(ReadableMap attributedString) {
     ReadableArray fragments = attributedString.getArray("fragments");
@@ -274,23 +284,44 @@ public class TextLayoutManager {
     return sb;
   }
 
+  private static float getDesiredWidth(
+      Spannable text, @Nullable BoringLayout.Metrics boring, TextPaint textPaint) {
+    return boring == null ? Layout.getDesiredWidth(text, textPaint) : Float.NaN;
+  }
+
+  /**
+   * Returns the width the text is laid out at: the available width if the text has to wrap,
+   * otherwise {@link #LAYOUT_WIDTH_DESIRED} or {@link #LAYOUT_WIDTH_BORING}. Measurements with the
+   * same layout width use the same layout.
+   */
+  private static int getLayoutWidth(
+      @Nullable BoringLayout.Metrics boring,
+      float desiredWidth,
+      float width,
+      YogaMeasureMode widthYogaMeasureMode) {
+    boolean unconstrainedWidth = widthYogaMeasureMode == YogaMeasureMode.UNDEFINED || width < 0;
+    if (boring == null
+        && (unconstrainedWidth
+            || (!YogaConstants.isUndefined(desiredWidth) && desiredWidth <= width))) {
+      return LAYOUT_WIDTH_DESIRED;
+    } else if (boring != null && (unconstrainedWidth || boring.width <= width)) {
+      return LAYOUT_WIDTH_BORING;
+    }
+    return (int) width;
+  }
+
   private static Layout createLayout(
       Spannable text,
       BoringLayout.Metrics boring,
-      float width,
-      YogaMeasureMode widthYogaMeasureMode,
+      float desiredWidth,
+      int layoutWidth,
       boolean includeFontPadding,
       int textBreakStrategy,
       int hyphenationFrequency) {
     Layout layout;
     int spanLength = text.length();
-    boolean unconstrainedWidth = widthYogaMeasureMode == YogaMeasureMode.UNDEFINED || width < 0;
-    float desiredWidth =
-        boring == null ? Layout.getDesiredWidth(text, sTextPaintInstance) : Float.NaN;
 
-    if (boring == null
-        && (unconstrainedWidth
-            || (!YogaConstants.isUndefined(desiredWidth) && desiredWidth <= width))) {
+    if (layoutWidth == LAYOUT_WIDTH_DESIRED) {
       // Is used when the width is not known and the text is not boring, ie. if it contains
       // unicode characters.
 
@@ -303,7 +334,7 @@ public class TextLayoutManager {
               .setBreakStrategy(textBreakStrategy)
               .setHyphenationFrequency(hyphenationFrequency)
               .build();
-    } else if (boring != null && (unconstrainedWidth || boring.width <= width)) {
+    } else if (layoutWidth == LAYOUT_WIDTH_BORING) {
       int boringLayoutWidth = boring.width;
       if (boring.width < 0) {
         ReactSoftExceptionLogger.logSoftException(
@@ -326,7 +357,7 @@ public class TextLayoutManager {
     } else {
       // Is used for multiline, boring text and the width is known.
       StaticLayout.Builder builder =
-          StaticLayout.Builder.obtain(text, 0, spanLength, sTextPaintInstance, (int) width)
+          StaticLayout.Builder.obtain(text, 0, spanLength, sTextPaintInstance, layoutWidth)
               .setAlignment(Layout.Alignment.ALIGN_NORMAL)
               .setLineSpacing(0.f, 1.f)
               .setIncludePad(includeFontPadding)
@@ -342,6 +373,68 @@ public class TextLayoutManager {
     return layout;
   }
 
+  private static TextMeasureCache.Entry createMeasureCacheEntry(
+      Context context,
+      ReadableMap attributedString,
+      @Nullable ReactTextViewManagerCallback reactTextViewManagerCallback,
+      TextPaint textPaint) {
+    Spannable text =
+        getOrCreateSpannableForText(context, attributedString, reactTextViewManagerCallback);
+    BoringLayout.Metrics boring = BoringLayout.isBoring(text, textPaint);
+    boolean hasAttachments =
+        text.getSpans(0, text.length(), TextInlineViewPlaceholderSpan.class).length > 0;
+    return new TextMeasureCache.Entry(
+        attributedString,
+        text,
+        boring,
+        getDesiredWidth(text, boring, textPaint),
+        hasAttachments);
+  }
+
+  /**
+   * Builds the spannable of the attributed string and measures its glyphs on a background thread,
+   * unless they are already cached, so that a later {@link #measureText} of the same content only
+   * has to break it into lines.
+   */
+  public static void precomputeText(
+      final Context context,
+      final ReadableMap attributedString,
+      final ReadableMap paragraphAttributes,
+      final @Nullable ReactTextViewManagerCallback reactTextViewManagerCallback) {
+    if (attributedString.hasKey("cacheId")) {
+      // Measured from the spannable kept for the tag instead
+      return;
+    }
+    getPrecomputeExecutor()
+        .execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                long key =
+                    TextMeasureCache.computeKey(
+                        attributedString, paragraphAttributes, reactTextViewManagerCallback);
+                if (TextMeasureCache.peek(key, attributedString) != null) {
+                  return;
+                }
+                TextMeasureCache.put(
+                    key,
+                    createMeasureCacheEntry(
+                        context,
+                        attributedString,
+                        reactTextViewManagerCallback,
+                        sPrecomputeTextPaint.get()));
+                TextMeasureCache.onPrecomputed();
+              }
+            });
+  }
+
+  private static synchronized ExecutorService getPrecomputeExecutor() {
+    if (sPrecomputeExecutor == null) {
+      sPrecomputeExecutor = Executors.newFixedThreadPool(PRECOMPUTE_THREAD_COUNT);
+    }
+    return sPrecomputeExecutor;
+  }
+
   public static long measureText(
       Context context,
       ReadableMap attributedString,
@@ -355,6 +448,7 @@ public class TextLayoutManager {
 
     // TODO(5578671): Handle text direction (see View#getTextDirectionHeuristic)
     Spannable text;
+    TextMeasureCache.Entry cacheEntry = null;
     if (attributedString.hasKey("cacheId")) {
       int cacheId = attributedString.getInt("cacheId");
       if (ENABLE_MEASURE_LOGGING) {
@@ -372,7 +466,17 @@ public class TextLayoutManager {
         return 0;
       }
     } else {
-      text = getOrCreateSpannableForText(context, attributedString, reactTextViewManagerCallback);
+      long key =
+          TextMeasureCache.computeKey(
+              attributedString, paragraphAttributes, reactTextViewManagerCallback);
+      cacheEntry = TextMeasureCache.get(key, attributedString);
+      if (cacheEntry == null) {
+        cacheEntry =
+            createMeasureCacheEntry(
+                context, attributedString, reactTextViewManagerCallback, sTextPaintInstance);
+        TextMeasureCache.put(key, cacheEntry);
+      }
+      text = cacheEntry.mText;
     }
 
     int textBreakStrategy =
@@ -390,43 +494,66 @@ public class TextLayoutManager {
       throw new IllegalStateException("Spannable element has not been prepared in onBeforeLayout");
     }
 
-    BoringLayout.Metrics boring = BoringLayout.isBoring(text, sTextPaintInstance);
-
-    Layout layout =
-        createLayout(
-            text,
-            boring,
-            width,
-            widthYogaMeasureMode,
-            includeFontPadding,
-            textBreakStrategy,
-            hyphenationFrequency);
-
-    int maximumNumberOfLines =
-        paragraphAttributes.hasKey(MAXIMUM_NUMBER_OF_LINES_KEY)
-            ? paragraphAttributes.getInt(MAXIMUM_NUMBER_OF_LINES_KEY)
-            : ReactConstants.UNSET;
-
-    int calculatedLineCount =
-        maximumNumberOfLines == ReactConstants.UNSET || maximumNumberOfLines == 0
-            ? layout.getLineCount()
-            : Math.min(maximumNumberOfLines, layout.getLineCount());
-
-    // Instead of using `layout.getWidth()` (which may yield a significantly larger width for
-    // text that is wrapping), compute width using the longest line.
-    float calculatedWidth = 0;
-    if (widthYogaMeasureMode == YogaMeasureMode.EXACTLY) {
-      calculatedWidth = width;
+    BoringLayout.Metrics boring;
+    float desiredWidth;
+    if (cacheEntry != null) {
+      boring = cacheEntry.mBoring;
+      desiredWidth = cacheEntry.mDesiredWidth;
     } else {
+      boring = BoringLayout.isBoring(text, sTextPaintInstance);
+      desiredWidth = getDesiredWidth(text, boring, sTextPaintInstance);
+    }
+    int layoutWidth = getLayoutWidth(boring, desiredWidth, width, widthYogaMeasureMode);
+
+    // Width of the longest line and bottom of the last line
+    float[] layoutSize = new float[2];
+    Layout layout = null;
+    if (cacheEntry == null
+        || cacheEntry.mHasAttachments
+        || !cacheEntry.getLayoutSize(layoutWidth, layoutSize)) {
+      layout =
+          createLayout(
+              text,
+              boring,
+              desiredWidth,
+              layoutWidth,
+              includeFontPadding,
+              textBreakStrategy,
+              hyphenationFrequency);
+
+      int maximumNumberOfLines =
+          paragraphAttributes.hasKey(MAXIMUM_NUMBER_OF_LINES_KEY)
+              ? paragraphAttributes.getInt(MAXIMUM_NUMBER_OF_LINES_KEY)
+              : ReactConstants.UNSET;
+
+      int calculatedLineCount =
+          maximumNumberOfLines == ReactConstants.UNSET || maximumNumberOfLines == 0
+              ? layout.getLineCount()
+              : Math.min(maximumNumberOfLines, layout.getLineCount());
+
+      // Instead of using `layout.getWidth()` (which may yield a significantly larger width for
+      // text that is wrapping), compute width using the longest line.
       for (int lineIndex = 0; lineIndex < calculatedLineCount; lineIndex++) {
         boolean endsWithNewLine =
             text.length() > 0 && text.charAt(layout.getLineEnd(lineIndex) - 1) == '\n';
         float lineWidth =
             endsWithNewLine ? layout.getLineMax(lineIndex) : layout.getLineWidth(lineIndex);
-        if (lineWidth > calculatedWidth) {
-          calculatedWidth = lineWidth;
+        if (lineWidth > layoutSize[0]) {
+          layoutSize[0] = lineWidth;
         }
       }
+      layoutSize[1] = layout.getLineBottom(calculatedLineCount - 1);
+
+      if (cacheEntry != null && !cacheEntry.mHasAttachments) {
+        cacheEntry.putLayoutSize(layoutWidth, layoutSize[0], layoutSize[1]);
+      }
+    }
+
+    float calculatedWidth;
+    if (widthYogaMeasureMode == YogaMeasureMode.EXACTLY) {
+      calculatedWidth = width;
+    } else {
+      calculatedWidth = layoutSize[0];
       if (widthYogaMeasureMode == YogaMeasureMode.AT_MOST && calculatedWidth > width) {
         calculatedWidth = width;
       }
@@ -441,12 +568,43 @@ public class TextLayoutManager {
 
     float calculatedHeight = height;
     if (heightYogaMeasureMode != YogaMeasureMode.EXACTLY) {
-      calculatedHeight = layout.getLineBottom(calculatedLineCount - 1);
+      calculatedHeight = layoutSize[1];
       if (heightYogaMeasureMode == YogaMeasureMode.AT_MOST && calculatedHeight > height) {
         calculatedHeight = height;
       }
     }
 
+    if (layout != null) {
+      calculateAttachmentsPositions(text, layout, calculatedWidth, attachmentsPositions);
+    }
+
+    float widthInSP = PixelUtil.toDIPFromPixel(calculatedWidth);
+    float heightInSP = PixelUtil.toDIPFromPixel(calculatedHeight);
+
+    if (ENABLE_MEASURE_LOGGING) {
+      FLog.e(
+          TAG,
+          "TextMeasure call ('"
+              + text
+              + "'): w: "
+              + calculatedWidth
+              + " px - h: "
+              + calculatedHeight
+              + " px - w : "
+              + widthInSP
+              + " sp - h: "
+              + heightInSP
+              + " sp");
+    }
+
+    return YogaMeasureOutput.make(widthInSP, heightInSP);
+  }
+
+  private static void calculateAttachmentsPositions(
+      Spannable text,
+      Layout layout,
+      float calculatedWidth,
+      @Nullable float[] attachmentsPositions) {
     // Calculate the positions of the attachments (views) that will be rendered inside the Spanned
     // Text. The following logic is only executed when a text contains views inside. This
     // follows a similar logic than used in pre-fabric (see ReactTextView.onLayout method).
@@ -526,27 +684,6 @@ public class TextLayoutManager {
         }
       }
     }
-
-    float widthInSP = PixelUtil.toDIPFromPixel(calculatedWidth);
-    float heightInSP = PixelUtil.toDIPFromPixel(calculatedHeight);
-
-    if (ENABLE_MEASURE_LOGGING) {
-      FLog.e(
-          TAG,
-          "TextMeasure call ('"
-              + text
-              + "'): w: "
-              + calculatedWidth
-              + " px - h: "
-              + calculatedHeight
-              + " px - w : "
-              + widthInSP
-              + " sp - h: "
-              + heightInSP
-              + " sp");
-    }
-
-    return YogaMeasureOutput.make(widthInSP, heightInSP);
   }
 
   public static WritableArray measureLines(
@@ -556,6 +693,7 @@ public class TextLayoutManager {
       float width) {
     Spannable text = getOrCreateSpannableForText(context, attributedString, null);
     BoringLayout.Metrics boring = BoringLayout.isBoring(text, sTextPaintInstance);
+    float desiredWidth = getDesiredWidth(text, boring, sTextPaintInstance);
 
     int textBreakStrategy =
         TextAttributeProps.getTextBreakStrategy(
@@ -572,8 +710,8 @@ public class TextLayoutManager {
         createLayout(
             text,
             boring,
-            width,
-            YogaMeasureMode.EXACTLY,
+            desiredWidth,
+            getLayoutWidth(boring, desiredWidth, width, YogaMeasureMode.EXACTLY),
             includeFontPadding,
             textBreakStrategy,
             hyphenationFrequency);
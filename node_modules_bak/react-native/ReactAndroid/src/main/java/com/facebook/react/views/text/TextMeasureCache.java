@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.views.text;
+
+import android.text.BoringLayout;
+import android.text.Spannable;
+import android.util.LruCache;
+import androidx.annotation.Nullable;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.common.assets.ReactFontManager;
+import com.facebook.react.uimanager.PixelUtil;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measurements of attributed strings done by {@link TextLayoutManager}, shared by all the text
+ * components that show the same content.
+ *
+ * <p>Entries are keyed by a 64 bit hash of the content of the attributed string and of the
+ * paragraph attributes. The tags of the fragments are left out, so that the items of a list that
+ * show the same text share an entry. An entry keeps the spannable and the width independent
+ * metrics of the text, and the size of its layout for the last few widths it was laid out at.
+ * Widths that lead to the same layout, such as any width larger than a single line text, share a
+ * bucket.
+ *
+ * <p>An entry also keeps the strings of the fragments, compared on lookup, so that a collision of
+ * the hash with another text cannot return wrong measurements. The cache is cleared when fonts are
+ * registered with {@link ReactFontManager}.
+ *
+ * <p>Entries are created by the layout pass when it measures a text, and ahead of it by {@link
+ * TextLayoutManager#precomputeText} on a background thread.
+ */
+public final class TextMeasureCache {
+
+  private static final int MAX_ENTRIES = 500;
+  private static final int LAYOUT_WIDTH_BUCKETS = 4;
+
+  // Seeds of the hashes of the values of each type
+  private static final long NULL_HASH = 0x6a09e667f3bcc908L;
+  private static final long TRUE_HASH = 0xbb67ae8584caa73bL;
+  private static final long FALSE_HASH = 0x3c6ef372fe94f82bL;
+  private static final long MAP_SEED = 0xa54ff53a5f1d36f1L;
+  private static final long ARRAY_SEED = 0x510e527fade682d1L;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+
+  private static final AtomicLong sHitCount = new AtomicLong();
+  private static final AtomicLong sMissCount = new AtomicLong();
+  private static final AtomicLong sLayoutHitCount = new AtomicLong();
+  private static final AtomicLong sLayoutMissCount = new AtomicLong();
+  private static final AtomicLong sEvictionCount = new AtomicLong();
+  private static final AtomicLong sPrecomputedCount = new AtomicLong();
+
+  private static final LruCache<Long, Entry> sEntries =
+      new LruCache<Long, Entry>(MAX_ENTRIES) {
+        @Override
+        protected void entryRemoved(boolean evicted, Long key, Entry oldValue, Entry newValue) {
+          if (evicted) {
+            sEvictionCount.incrementAndGet();
+          }
+        }
+      };
+  // Generation of the fonts of ReactFontManager the entries were measured with
+  private static volatile int sFontGeneration;
+
+  /** A measured text, see {@link TextMeasureCache}. */
+  /* package */ static final class Entry {
+    private final String[] mStrings;
+    /* package */ final Spannable mText;
+    /* package */ final @Nullable BoringLayout.Metrics mBoring;
+    // NaN for boring text, as it is not needed to lay it out
+    /* package */ final float mDesiredWidth;
+    // Attachment positions depend on the layout, the sizes of such texts are not kept
+    /* package */ final boolean mHasAttachments;
+
+    private final int[] mLayoutWidths = new int[LAYOUT_WIDTH_BUCKETS];
+    private final float[] mLineWidths = new float[LAYOUT_WIDTH_BUCKETS];
+    private final float[] mLineBottoms = new float[LAYOUT_WIDTH_BUCKETS];
+    private int mBucketCount;
+    private int mNextBucket;
+
+    /* package */ Entry(
+        ReadableMap attributedString,
+        Spannable text,
+        @Nullable BoringLayout.Metrics boring,
+        float desiredWidth,
+        boolean hasAttachments) {
+      mStrings = getStrings(attributedString);
+      mText = text;
+      mBoring = boring;
+      mDesiredWidth = desiredWidth;
+      mHasAttachments = hasAttachments;
+    }
+
+    private boolean hasStrings(ReadableMap attributedString) {
+      ReadableArray fragments = attributedString.getArray("fragments");
+      int count = fragments != null ? fragments.size() : 0;
+      if (count != mStrings.length) {
+        return false;
+      }
+      for (int i = 0; i < count; i++) {
+        if (!Objects.equals(mStrings[i], fragments.getMap(i).getString("string"))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Looks up the size of the layout of the text at the given layout width. Writes the width of
+     * the longest line and the bottom of the last line to {@code out} and returns true if found.
+     */
+    /* package */ synchronized boolean getLayoutSize(int layoutWidth, float[] out) {
+      for (int i = 0; i < mBucketCount; i++) {
+        if (mLayoutWidths[i] == layoutWidth) {
+          out[0] = mLineWidths[i];
+          out[1] = mLineBottoms[i];
+          sLayoutHitCount.incrementAndGet();
+          return true;
+        }
+      }
+      sLayoutMissCount.incrementAndGet();
+      return false;
+    }
+
+    /* package */ synchronized void putLayoutSize(int layoutWidth, float lineWidth, float bottom) {
+      mLayoutWidths[mNextBucket] = layoutWidth;
+      mLineWidths[mNextBucket] = lineWidth;
+      mLineBottoms[mNextBucket] = bottom;
+      mNextBucket = (mNextBucket + 1) % LAYOUT_WIDTH_BUCKETS;
+      mBucketCount = Math.min(mBucketCount + 1, LAYOUT_WIDTH_BUCKETS);
+    }
+  }
+
+  private TextMeasureCache() {}
+
+  /**
+   * Returns the measurements of the attributed string, or null if they are not cached.
+   *
+   * @param key the key of the attributed string, see {@link #computeKey}
+   */
+  /* package */ static @Nullable Entry get(long key, ReadableMap attributedString) {
+    Entry entry = peek(key, attributedString);
+    if (entry != null) {
+      sHitCount.incrementAndGet();
+    } else {
+      sMissCount.incrementAndGet();
+    }
+    return entry;
+  }
+
+  /** Like {@link #get} but not counted in the statistics. */
+  /* package */ static @Nullable Entry peek(long key, ReadableMap attributedString) {
+    int fontGeneration = ReactFontManager.getInstance().getGeneration();
+    if (fontGeneration != sFontGeneration) {
+      sFontGeneration = fontGeneration;
+      clear();
+      return null;
+    }
+    Entry entry = sEntries.get(key);
+    if (entry == null || !entry.hasStrings(attributedString)) {
+      return null;
+    }
+    return entry;
+  }
+
+  /* package */ static void put(long key, Entry entry) {
+    sEntries.put(key, entry);
+  }
+
+  /* package */ static void onPrecomputed() {
+    sPrecomputedCount.incrementAndGet();
+  }
+
+  /**
+   * Returns the key of the measurements of an attributed string. Besides the content, it covers the
+   * scale of text and of layout sizes, and the callback that post processes the spannable.
+   */
+  /* package */ static long computeKey(
+      ReadableMap attributedString,
+      ReadableMap paragraphAttributes,
+      @Nullable ReactTextViewManagerCallback reactTextViewManagerCallback) {
+    long hash = FNV_OFFSET_BASIS;
+    ReadableArray fragments = attributedString.getArray("fragments");
+    if (fragments != null) {
+      for (int i = 0, length = fragments.size(); i < length; i++) {
+        ReadableMap fragment = fragments.getMap(i);
+        hash = combine(hash, hashString(fragment.getString("string")));
+        hash = combine(hash, hashValue(fragment, "isAttachment"));
+        hash = combine(hash, hashValue(fragment, "width"));
+        hash = combine(hash, hashValue(fragment, "height"));
+        hash = combine(hash, hashValue(fragment, "textAttributes"));
+      }
+    }
+    hash = combine(hash, hashMap(paragraphAttributes));
+    hash = combine(hash, Float.floatToIntBits(PixelUtil.toPixelFromSP(1f)));
+    hash = combine(hash, Float.floatToIntBits(PixelUtil.toPixelFromDIP(1f)));
+    hash = combine(hash, System.identityHashCode(reactTextViewManagerCallback));
+    return mix(hash);
+  }
+
+  /**
+   * Returns the counters of the cache: its size, the hits and misses of the lookups of texts and of
+   * their layouts at a width, the evicted texts and the texts precomputed in the background.
+   */
+  public static Map<String, Long> getStatistics() {
+    Map<String, Long> statistics = new HashMap<>();
+    statistics.put("size", (long) sEntries.size());
+    statistics.put("hits", sHitCount.get());
+    statistics.put("misses", sMissCount.get());
+    statistics.put("layoutHits", sLayoutHitCount.get());
+    statistics.put("layoutMisses", sLayoutMissCount.get());
+    statistics.put("evictions", sEvictionCount.get());
+    statistics.put("precomputed", sPrecomputedCount.get());
+    return statistics;
+  }
+
+  /** Removes all the measurements. Done when fonts are registered with {@link ReactFontManager}. */
+  public static void clear() {
+    sEntries.evictAll();
+  }
+
+  private static String[] getStrings(ReadableMap attributedString) {
+    ReadableArray fragments = attributedString.getArray("fragments");
+    if (fragments == null) {
+      return new String[0];
+    }
+    String[] strings = new String[fragments.size()];
+    for (int i = 0; i < strings.length; i++) {
+      strings[i] = fragments.getMap(i).getString("string");
+    }
+    return strings;
+  }
+
+  private static long hashValue(ReadableMap map, String name) {
+    if (!map.hasKey(name)) {
+      return NULL_HASH;
+    }
+    switch (map.getType(name)) {
+      case Null:
+        return NULL_HASH;
+      case Boolean:
+        return map.getBoolean(name) ? TRUE_HASH : FALSE_HASH;
+      case Number:
+        return mix(Double.doubleToLongBits(map.getDouble(name)));
+      case String:
+        return hashString(map.getString(name));
+      case Map:
+        return hashMap(map.getMap(name));
+      case Array:
+        return hashArray(map.getArray(name));
+      default:
+        return NULL_HASH;
+    }
+  }
+
+  private static long hashValue(ReadableArray array, int index) {
+    switch (array.getType(index)) {
+      case Null:
+        return NULL_HASH;
+      case Boolean:
+        return array.getBoolean(index) ? TRUE_HASH : FALSE_HASH;
+      case Number:
+        return mix(Double.doubleToLongBits(array.getDouble(index)));
+      case String:
+        return hashString(array.getString(index));
+      case Map:
+        return hashMap(array.getMap(index));
+      case Array:
+        return hashArray(array.getArray(index));
+      default:
+        return NULL_HASH;
+    }
+  }
+
+  // The order of the keys of a map is not defined, so the hashes of the entries are summed
+  private static long hashMap(@Nullable ReadableMap map) {
+    if (map == null) {
+      return NULL_HASH;
+    }
+    long hash = MAP_SEED;
+    Iterator<Map.Entry<String, Object>> iterator = map.getEntryIterator();
+    while (iterator.hasNext()) {
+      String name = iterator.next().getKey();
+      hash += mix(combine(hashString(name), hashValue(map, name)));
+    }
+    return hash;
+  }
+
+  private static long hashArray(@Nullable ReadableArray array) {
+    if (array == null) {
+      return NULL_HASH;
+    }
+    long hash = ARRAY_SEED;
+    for (int i = 0, size = array.size(); i < size; i++) {
+      hash = combine(hash, hashValue(array, i));
+    }
+    return hash;
+  }
+
+  private static long hashString(@Nullable String string) {
+    if (string == null) {
+      return NULL_HASH;
+    }
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0, length = string.length(); i < length; i++) {
+      hash = (hash ^ string.charAt(i)) * FNV_PRIME;
+    }
+    return mix(hash ^ string.length());
+  }
+
+  private static long combine(long hash, long value) {
+    return (hash ^ mix(value)) * GOLDEN_RATIO + 1;
+  }
+
+  // Finalizer of MurmurHash3, spreads every bit of the input over the output
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
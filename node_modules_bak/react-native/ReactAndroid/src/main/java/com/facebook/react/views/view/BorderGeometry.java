@@ -0,0 +1,483 @@
+/*
+ * Copyright (c) Meta Platforms, Inc. and affiliates.
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package com.facebook.react.views.view;
+
+import android.graphics.Path;
+import android.graphics.PointF;
+import android.graphics.RectF;
+import android.util.LruCache;
+import java.util.Arrays;
+
+/**
+ * Paths used by {@link ReactViewBackgroundDrawable} to draw a rounded background and its borders.
+ *
+ * <p>The geometry only depends on the size of the drawable, its corner radii and its border widths,
+ * so it is built with its top left corner at the origin and shared by all the drawables with the
+ * same values, e.g. the items of a list. Instances are immutable once built.
+ */
+/* package */ final class BorderGeometry {
+
+  private static final int MAX_CACHED_GEOMETRIES = 64;
+
+  // There is a small gap between the edges of adjacent paths
+  // such as between the mBackgroundColorRenderPath and its border.
+  // The smallest amount (found to be 0.8f) is used to extend
+  // the paths, overlapping them and closing the visible gap.
+  /* package */ static final float GAP_BETWEEN_PATHS = 0.8f;
+
+  private static final LruCache<Key, BorderGeometry> sCache =
+      new LruCache<>(MAX_CACHED_GEOMETRIES);
+
+  /* package */ final Path mInnerClipPath = new Path();
+  /* package */ final Path mBackgroundColorRenderPath = new Path();
+  /* package */ final Path mOuterClipPath = new Path();
+  /* package */ final Path mOutlinePath = new Path();
+  /* package */ final Path mCenterDrawPath = new Path();
+  /* package */ final RectF mInnerClipRect;
+  /* package */ final RectF mOuterClipRect;
+  /* package */ final PointF mInnerTopLeftCorner = new PointF();
+  /* package */ final PointF mInnerTopRightCorner = new PointF();
+  /* package */ final PointF mInnerBottomRightCorner = new PointF();
+  /* package */ final PointF mInnerBottomLeftCorner = new PointF();
+
+  private static final class Key {
+    private final float[] mValues;
+
+    private Key(float[] values) {
+      mValues = values;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key && Arrays.equals(mValues, ((Key) other).mValues);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(mValues);
+    }
+  }
+
+  /**
+   * Returns the geometry of a drawable of the given size, built or taken from the cache.
+   *
+   * @param insetInnerClip whether the inner clip path excludes the borders, which is only the case
+   *     when none of the border colors is transparent
+   * @param extraRadiusForOutline added to the radii of the outline path
+   */
+  /* package */ static BorderGeometry obtain(
+      float width,
+      float height,
+      float topLeftRadius,
+      float topRightRadius,
+      float bottomRightRadius,
+      float bottomLeftRadius,
+      RectF borderWidth,
+      boolean insetInnerClip,
+      float extraRadiusForOutline) {
+    Key key =
+        new Key(
+            new float[] {
+              width,
+              height,
+              topLeftRadius,
+              topRightRadius,
+              bottomRightRadius,
+              bottomLeftRadius,
+              borderWidth.left,
+              borderWidth.top,
+              borderWidth.right,
+              borderWidth.bottom,
+              insetInnerClip ? 1 : 0,
+              extraRadiusForOutline
+            });
+    BorderGeometry geometry = sCache.get(key);
+    if (geometry == null) {
+      geometry =
+          new BorderGeometry(
+              width,
+              height,
+              topLeftRadius,
+              topRightRadius,
+              bottomRightRadius,
+              bottomLeftRadius,
+              borderWidth,
+              insetInnerClip,
+              extraRadiusForOutline);
+      sCache.put(key, geometry);
+    }
+    return geometry;
+  }
+
+  private BorderGeometry(
+      float width,
+      float height,
+      float topLeftRadius,
+      float topRightRadius,
+      float bottomRightRadius,
+      float bottomLeftRadius,
+      RectF borderWidth,
+      boolean insetInnerClip,
+      float extraRadiusForOutline) {
+    mInnerClipRect = new RectF(0, 0, width, height);
+    mOuterClipRect = new RectF(0, 0, width, height);
+    RectF outlineRect = new RectF(0, 0, width, height);
+    RectF centerDrawRect = new RectF(0, 0, width, height);
+
+    if (insetInnerClip) {
+      mInnerClipRect.top += borderWidth.top;
+      mInnerClipRect.bottom -= borderWidth.bottom;
+      mInnerClipRect.left += borderWidth.left;
+      mInnerClipRect.right -= borderWidth.right;
+    }
+
+    centerDrawRect.top += borderWidth.top * 0.5f;
+    centerDrawRect.bottom -= borderWidth.bottom * 0.5f;
+    centerDrawRect.left += borderWidth.left * 0.5f;
+    centerDrawRect.right -= borderWidth.right * 0.5f;
+
+    final float innerTopLeftRadiusX = Math.max(topLeftRadius - borderWidth.left, 0);
+    final float innerTopLeftRadiusY = Math.max(topLeftRadius - borderWidth.top, 0);
+    final float innerTopRightRadiusX = Math.max(topRightRadius - borderWidth.right, 0);
+    final float innerTopRightRadiusY = Math.max(topRightRadius - borderWidth.top, 0);
+    final float innerBottomRightRadiusX = Math.max(bottomRightRadius - borderWidth.right, 0);
+    final float innerBottomRightRadiusY = Math.max(bottomRightRadius - borderWidth.bottom, 0);
+    final float innerBottomLeftRadiusX = Math.max(bottomLeftRadius - borderWidth.left, 0);
+    final float innerBottomLeftRadiusY = Math.max(bottomLeftRadius - borderWidth.bottom, 0);
+
+    final float[] innerRadii =
+        new float[] {
+          innerTopLeftRadiusX,
+          innerTopLeftRadiusY,
+          innerTopRightRadiusX,
+          innerTopRightRadiusY,
+          innerBottomRightRadiusX,
+          innerBottomRightRadiusY,
+          innerBottomLeftRadiusX,
+          innerBottomLeftRadiusY,
+        };
+
+    mInnerClipPath.addRoundRect(mInnerClipRect, innerRadii, Path.Direction.CW);
+
+    // There is a small gap between mBackgroundColorRenderPath and its
+    // border. GAP_BETWEEN_PATHS is used to slightly enlarge the rectangle
+    // (mInnerClipRect), ensuring the border can be drawn on top without the gap.
+    mBackgroundColorRenderPath.addRoundRect(
+        mInnerClipRect.left - GAP_BETWEEN_PATHS,
+        mInnerClipRect.top - GAP_BETWEEN_PATHS,
+        mInnerClipRect.right + GAP_BETWEEN_PATHS,
+        mInnerClipRect.bottom + GAP_BETWEEN_PATHS,
+        innerRadii,
+        Path.Direction.CW);
+
+    mOuterClipPath.addRoundRect(
+        mOuterClipRect,
+        new float[] {
+          topLeftRadius,
+          topLeftRadius,
+          topRightRadius,
+          topRightRadius,
+          bottomRightRadius,
+          bottomRightRadius,
+          bottomLeftRadius,
+          bottomLeftRadius
+        },
+        Path.Direction.CW);
+
+    mOutlinePath.addRoundRect(
+        outlineRect,
+        new float[] {
+          topLeftRadius + extraRadiusForOutline,
+          topLeftRadius + extraRadiusForOutline,
+          topRightRadius + extraRadiusForOutline,
+          topRightRadius + extraRadiusForOutline,
+          bottomRightRadius + extraRadiusForOutline,
+          bottomRightRadius + extraRadiusForOutline,
+          bottomLeftRadius + extraRadiusForOutline,
+          bottomLeftRadius + extraRadiusForOutline
+        },
+        Path.Direction.CW);
+
+    mCenterDrawPath.addRoundRect(
+        centerDrawRect,
+        new float[] {
+          Math.max(
+              topLeftRadius - borderWidth.left * 0.5f,
+              (borderWidth.left > 0.0f) ? (topLeftRadius / borderWidth.left) : 0.0f),
+          Math.max(
+              topLeftRadius - borderWidth.top * 0.5f,
+              (borderWidth.top > 0.0f) ? (topLeftRadius / borderWidth.top) : 0.0f),
+          Math.max(
+              topRightRadius - borderWidth.right * 0.5f,
+              (borderWidth.right > 0.0f) ? (topRightRadius / borderWidth.right) : 0.0f),
+          Math.max(
+              topRightRadius - borderWidth.top * 0.5f,
+              (borderWidth.top > 0.0f) ? (topRightRadius / borderWidth.top) : 0.0f),
+          Math.max(
+              bottomRightRadius - borderWidth.right * 0.5f,
+              (borderWidth.right > 0.0f) ? (bottomRightRadius / borderWidth.right) : 0.0f),
+          Math.max(
+              bottomRightRadius - borderWidth.bottom * 0.5f,
+              (borderWidth.bottom > 0.0f) ? (bottomRightRadius / borderWidth.bottom) : 0.0f),
+          Math.max(
+              bottomLeftRadius - borderWidth.left * 0.5f,
+              (borderWidth.left > 0.0f) ? (bottomLeftRadius / borderWidth.left) : 0.0f),
+          Math.max(
+              bottomLeftRadius - borderWidth.bottom * 0.5f,
+              (borderWidth.bottom > 0.0f) ? (bottomLeftRadius / borderWidth.bottom) : 0.0f)
+        },
+        Path.Direction.CW);
+
+    /**
+     * Rounded Multi-Colored Border Algorithm:
+     *
+     * <p>Let O (for outer) = (top, left, bottom, right) be the rectangle that represents the size
+     * and position of a view V. Since the box-sizing of all React Native views is border-box, any
+     * border of V will render inside O.
+     *
+     * <p>Let BorderWidth = (borderTop, borderLeft, borderBottom, borderRight).
+     *
+     * <p>Let I (for inner) = O - BorderWidth.
+     *
+     * <p>Then, remembering that O and I are rectangles and that I is inside O, O - I gives us the
+     * border of V. Therefore, we can use canvas.clipPath to draw V's border.
+     *
+     * <p>canvas.clipPath(O, Region.OP.INTERSECT);
+     *
+     * <p>canvas.clipPath(I, Region.OP.DIFFERENCE);
+     *
+     * <p>canvas.drawRect(O, paint);
+     *
+     * <p>This lets us draw non-rounded single-color borders.
+     *
+     * <p>To extend this algorithm to rounded single-color borders, we:
+     *
+     * <p>1. Curve the corners of O by the (border radii of V) using Path#addRoundRect.
+     *
+     * <p>2. Curve the corners of I by (border radii of V - border widths of V) using
+     * Path#addRoundRect.
+     *
+     * <p>Let O' = curve(O, border radii of V).
+     *
+     * <p>Let I' = curve(I, border radii of V - border widths of V)
+     *
+     * <p>The rationale behind this decision is the (first sentence of the) following section in the
+     * CSS Backgrounds and Borders Module Level 3:
+     * https://www.w3.org/TR/css3-background/#the-border-radius.
+     *
+     * <p>After both O and I have been curved, we can execute the following lines once again to
+     * render curved single-color borders:
+     *
+     * <p>canvas.clipPath(O, Region.OP.INTERSECT);
+     *
+     * <p>canvas.clipPath(I, Region.OP.DIFFERENCE);
+     *
+     * <p>canvas.drawRect(O, paint);
+     *
+     * <p>To extend this algorithm to rendering multi-colored rounded borders, we render each side
+     * of the border as its own quadrilateral. Suppose that we were handling the case where all the
+     * border radii are 0. Then, the four quadrilaterals would be:
+     *
+     * <p>Left: (O.left, O.top), (I.left, I.top), (I.left, I.bottom), (O.left, O.bottom)
+     *
+     * <p>Top: (O.left, O.top), (I.left, I.top), (I.right, I.top), (O.right, O.top)
+     *
+     * <p>Right: (O.right, O.top), (I.right, I.top), (I.right, I.bottom), (O.right, O.bottom)
+     *
+     * <p>Bottom: (O.right, O.bottom), (I.right, I.bottom), (I.left, I.bottom), (O.left, O.bottom)
+     *
+     * <p>Now, lets consider what happens when we render a rounded border (radii != 0). For the sake
+     * of simplicity, let's focus on the top edge of the Left border:
+     *
+     * <p>Let borderTopLeftRadius = 5. Let borderLeftWidth = 1. Let borderTopWidth = 2.
+     *
+     * <p>We know that O is curved by the ellipse E_O (a = 5, b = 5). We know that I is curved by
+     * the ellipse E_I (a = 5 - 1, b = 5 - 2).
+     *
+     * <p>Since we have clipping, it should be safe to set the top-left point of the Left
+     * quadrilateral's top edge to (O.left, O.top).
+     *
+     * <p>But, what should the top-right point be?
+     *
+     * <p>The fact that the border is curved shouldn't change the slope (nor the position) of the
+     * line connecting the top-left and top-right points of the Left quadrilateral's top edge.
+     * Therefore, The top-right point should lie somewhere on the line L = (1 - a) * (O.left, O.top)
+     * + a * (I.left, I.top).
+     *
+     * <p>a != 0, because then the top-left and top-right points would be the same and
+     * borderLeftWidth = 1. a != 1, because then the top-right point would not touch an edge of the
+     * ellipse E_I. We want the top-right point to touch an edge of the inner ellipse because the
+     * border curves with E_I on the top-left corner of V.
+     *
+     * <p>Therefore, it must be the case that a > 1. Two natural locations of the top-right point
+     * exist: 1. The first intersection of L with E_I. 2. The second intersection of L with E_I.
+     *
+     * <p>We choose the top-right point of the top edge of the Left quadrilateral to be an arbitrary
+     * intersection of L with E_I.
+     */
+
+    /** Compute mInnerTopLeftCorner */
+    mInnerTopLeftCorner.x = mInnerClipRect.left;
+    mInnerTopLeftCorner.y = mInnerClipRect.top;
+
+    getEllipseIntersectionWithLine(
+        // Ellipse Bounds
+        mInnerClipRect.left,
+        mInnerClipRect.top,
+        mInnerClipRect.left + 2 * innerTopLeftRadiusX,
+        mInnerClipRect.top + 2 * innerTopLeftRadiusY,
+
+        // Line Start
+        mOuterClipRect.left,
+        mOuterClipRect.top,
+
+        // Line End
+        mInnerClipRect.left,
+        mInnerClipRect.top,
+
+        // Result
+        mInnerTopLeftCorner);
+
+    /** Compute mInnerBottomLeftCorner */
+    mInnerBottomLeftCorner.x = mInnerClipRect.left;
+    mInnerBottomLeftCorner.y = mInnerClipRect.bottom;
+
+    getEllipseIntersectionWithLine(
+        // Ellipse Bounds
+        mInnerClipRect.left,
+        mInnerClipRect.bottom - 2 * innerBottomLeftRadiusY,
+        mInnerClipRect.left + 2 * innerBottomLeftRadiusX,
+        mInnerClipRect.bottom,
+
+        // Line Start
+        mOuterClipRect.left,
+        mOuterClipRect.bottom,
+
+        // Line End
+        mInnerClipRect.left,
+        mInnerClipRect.bottom,
+
+        // Result
+        mInnerBottomLeftCorner);
+
+    /** Compute mInnerTopRightCorner */
+    mInnerTopRightCorner.x = mInnerClipRect.right;
+    mInnerTopRightCorner.y = mInnerClipRect.top;
+
+    getEllipseIntersectionWithLine(
+        // Ellipse Bounds
+        mInnerClipRect.right - 2 * innerTopRightRadiusX,
+        mInnerClipRect.top,
+        mInnerClipRect.right,
+        mInnerClipRect.top + 2 * innerTopRightRadiusY,
+
+        // Line Start
+        mOuterClipRect.right,
+        mOuterClipRect.top,
+
+        // Line End
+        mInnerClipRect.right,
+        mInnerClipRect.top,
+
+        // Result
+        mInnerTopRightCorner);
+
+    /** Compute mInnerBottomRightCorner */
+    mInnerBottomRightCorner.x = mInnerClipRect.right;
+    mInnerBottomRightCorner.y = mInnerClipRect.bottom;
+
+    getEllipseIntersectionWithLine(
+        // Ellipse Bounds
+        mInnerClipRect.right - 2 * innerBottomRightRadiusX,
+        mInnerClipRect.bottom - 2 * innerBottomRightRadiusY,
+        mInnerClipRect.right,
+        mInnerClipRect.bottom,
+
+        // Line Start
+        mOuterClipRect.right,
+        mOuterClipRect.bottom,
+
+        // Line End
+        mInnerClipRect.right,
+        mInnerClipRect.bottom,
+
+        // Result
+        mInnerBottomRightCorner);
+  }
+
+  private static void getEllipseIntersectionWithLine(
+      double ellipseBoundsLeft,
+      double ellipseBoundsTop,
+      double ellipseBoundsRight,
+      double ellipseBoundsBottom,
+      double lineStartX,
+      double lineStartY,
+      double lineEndX,
+      double lineEndY,
+      PointF result) {
+    final double ellipseCenterX = (ellipseBoundsLeft + ellipseBoundsRight) / 2;
+    final double ellipseCenterY = (ellipseBoundsTop + ellipseBoundsBottom) / 2;
+
+    /**
+     * Step 1:
+     *
+     * <p>Translate the line so that the ellipse is at the origin.
+     *
+     * <p>Why? It makes the math easier by changing the ellipse equation from ((x -
+     * ellipseCenterX)/a)^2 + ((y - ellipseCenterY)/b)^2 = 1 to (x/a)^2 + (y/b)^2 = 1.
+     */
+    lineStartX -= ellipseCenterX;
+    lineStartY -= ellipseCenterY;
+    lineEndX -= ellipseCenterX;
+    lineEndY -= ellipseCenterY;
+
+    /**
+     * Step 2:
+     *
+     * <p>Ellipse equation: (x/a)^2 + (y/b)^2 = 1 Line equation: y = mx + c
+     */
+    final double a = Math.abs(ellipseBoundsRight - ellipseBoundsLeft) / 2;
+    final double b = Math.abs(ellipseBoundsBottom - ellipseBoundsTop) / 2;
+    final double m = (lineEndY - lineStartY) / (lineEndX - lineStartX);
+    final double c = lineStartY - m * lineStartX; // Just a point on the line
+
+    /**
+     * Step 3:
+     *
+     * <p>Substitute the Line equation into the Ellipse equation. Solve for x. Eventually, you'll
+     * have to use the quadratic formula.
+     *
+     * <p>Quadratic formula: Ax^2 + Bx + C = 0
+     */
+    final double A = (b * b + a * a * m * m);
+    final double B = 2 * a * a * c * m;
+    final double C = (a * a * (c * c - b * b));
+
+    /**
+     * Step 4:
+     *
+     * <p>Apply Quadratic formula. D = determinant / 2A
+     */
+    final double D = Math.sqrt(-C / A + Math.pow(B / (2 * A), 2));
+    final double x2 = -B / (2 * A) - D;
+    final double y2 = m * x2 + c;
+
+    /**
+     * Step 5:
+     *
+     * <p>Undo the space transformation in Step 5.
+     */
+    final double x = x2 + ellipseCenterX;
+    final double y = y2 + ellipseCenterY;
+
+    if (!Double.isNaN(x) && !Double.isNaN(y)) {
+      result.x = (float) x;
+      result.y = (float) y;
+    }
+  }
+}
@@ -16,7 +16,6 @@ import android.graphics.Outline;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PathEffect;
-import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Region;
@@ -37,9 +36,10 @@ import java.util.Locale;
  * (setter for each of those properties).
  *
  * <p>The implementation tries to allocate as few objects as possible depending on which properties
- * are set. E.g. for views with rounded background/borders we allocate {@code
- * mInnerClipPathForBorderRadius} and {@code mInnerClipTempRectForBorderRadius}. In case when view
- * have a rectangular borders we allocate {@code mBorderWidthResult} and similar. When only
+ * are set. E.g. for views with rounded background/borders we use a {@link BorderGeometry}, shared
+ * with the other drawables of the same size, radii and border widths. Rounded backgrounds with the
+ * same radius at each corner and no border are drawn as a round rect and need no path. In case when
+ * view have a rectangular borders we allocate {@code mBorderWidthResult} and similar. When only
  * background color is set we won't allocate any extra/unnecessary objects.
  */
 public class ReactViewBackgroundDrawable extends Drawable {
@@ -82,21 +82,12 @@ public class ReactViewBackgroundDrawable extends Drawable {
   private @Nullable Spacing mBorderAlpha;
   private @Nullable BorderStyle mBorderStyle;
 
-  private @Nullable Path mInnerClipPathForBorderRadius;
-  private @Nullable Path mBackgroundColorRenderPath;
-  private @Nullable Path mOuterClipPathForBorderRadius;
-  private @Nullable Path mPathForBorderRadiusOutline;
   private @Nullable Path mPathForBorder;
   private final Path mPathForSingleBorder = new Path();
-  private @Nullable Path mCenterDrawPath;
-  private @Nullable RectF mInnerClipTempRectForBorderRadius;
-  private @Nullable RectF mOuterClipTempRectForBorderRadius;
-  private @Nullable RectF mTempRectForBorderRadiusOutline;
-  private @Nullable RectF mTempRectForCenterDrawPath;
-  private @Nullable PointF mInnerTopLeftCorner;
-  private @Nullable PointF mInnerTopRightCorner;
-  private @Nullable PointF mInnerBottomRightCorner;
-  private @Nullable PointF mInnerBottomLeftCorner;
+  // Null when the background is drawn with mUniformBorderRadius
+  private @Nullable BorderGeometry mBorderGeometry;
+  private float mUniformBorderRadius = YogaConstants.UNDEFINED;
+  private @Nullable RectF mTempRectForUniformBorderRadius;
   private boolean mNeedUpdatePathForBorderRadius = false;
   private float mBorderRadius = YogaConstants.UNDEFINED;
 
@@ -105,11 +96,7 @@ public class ReactViewBackgroundDrawable extends Drawable {
   private int mColor = Color.TRANSPARENT;
   private int mAlpha = 255;
 
-  // There is a small gap between the edges of adjacent paths
-  // such as between the mBackgroundColorRenderPath and its border.
-  // The smallest amount (found to be 0.8f) is used to extend
-  // the paths, overlapping them and closing the visible gap.
-  private final float mGapBetweenPaths = 0.8f;
+  private final float mGapBetweenPaths = BorderGeometry.GAP_BETWEEN_PATHS;
 
   private @Nullable float[] mBorderCornerRadii;
   private final Context mContext;
@@ -196,7 +183,13 @@ public class ReactViewBackgroundDrawable extends Drawable {
         || mBorderCornerRadii != null) {
       updatePath();
 
-      outline.setConvexPath(mPathForBorderRadiusOutline);
+      if (mBorderGeometry == null) {
+        outline.setRoundRect(getBounds(), mUniformBorderRadius);
+      } else {
+        // The geometry is shared, and built with its top left corner at the origin
+        outline.setConvexPath(mBorderGeometry.mOutlinePath);
+        outline.offset(getBounds().left, getBounds().top);
+      }
     } else {
       outline.setRect(getBounds());
     }
@@ -333,19 +326,53 @@ public class ReactViewBackgroundDrawable extends Drawable {
     return mColor;
   }
 
+  /**
+   * Whether the background is a round rect with the same radius at each corner and no border. Its
+   * outline is then the shape the children of the view are clipped to when overflow is hidden.
+   */
+  /* package */ boolean hasUniformBorderRadiusWithoutBorder() {
+    if (!hasRoundedBorders()) {
+      return false;
+    }
+    updatePath();
+    return mBorderGeometry == null;
+  }
+
+  private void drawUniformRoundedBackground(Canvas canvas) {
+    int useColor = ColorUtil.multiplyColorAlpha(mColor, mAlpha);
+    if (Color.alpha(useColor) != 0) { // color is not transparent
+      if (mTempRectForUniformBorderRadius == null) {
+        mTempRectForUniformBorderRadius = new RectF();
+      }
+      mTempRectForUniformBorderRadius.set(getBounds());
+      mPaint.setColor(useColor);
+      mPaint.setStyle(Paint.Style.FILL);
+      canvas.drawRoundRect(
+          mTempRectForUniformBorderRadius, mUniformBorderRadius, mUniformBorderRadius, mPaint);
+    }
+  }
+
   private void drawRoundedBackgroundWithBorders(Canvas canvas) {
     updatePath();
+    final BorderGeometry geometry = mBorderGeometry;
+    if (geometry == null) {
+      drawUniformRoundedBackground(canvas);
+      return;
+    }
+
     canvas.save();
+    // The geometry is shared, and built with its top left corner at the origin
+    canvas.translate(getBounds().left, getBounds().top);
 
     // Clip outer border
-    canvas.clipPath(mOuterClipPathForBorderRadius, Region.Op.INTERSECT);
+    canvas.clipPath(geometry.mOuterClipPath, Region.Op.INTERSECT);
 
     // Draws the View without its border first (with background color fill)
     int useColor = ColorUtil.multiplyColorAlpha(mColor, mAlpha);
     if (Color.alpha(useColor) != 0) { // color is not transparent
       mPaint.setColor(useColor);
       mPaint.setStyle(Paint.Style.FILL);
-      canvas.drawPath(mBackgroundColorRenderPath, mPaint);
+      canvas.drawPath(geometry.mBackgroundColorRenderPath, mPaint);
     }
 
     final RectF borderWidth = getDirectionAwareBorderInsets();
@@ -389,7 +416,7 @@ public class ReactViewBackgroundDrawable extends Drawable {
           mPaint.setColor(ColorUtil.multiplyColorAlpha(borderColor, mAlpha));
           mPaint.setStyle(Paint.Style.STROKE);
           mPaint.setStrokeWidth(fullBorderWidth);
-          canvas.drawPath(mCenterDrawPath, mPaint);
+          canvas.drawPath(geometry.mCenterDrawPath, mPaint);
         }
       }
       // In the case of uneven border widths/colors draw quadrilateral in each direction
@@ -397,7 +424,7 @@ public class ReactViewBackgroundDrawable extends Drawable {
         mPaint.setStyle(Paint.Style.FILL);
 
         // Clip inner border
-        canvas.clipPath(mInnerClipPathForBorderRadius, Region.Op.DIFFERENCE);
+        canvas.clipPath(geometry.mInnerClipPath, Region.Op.DIFFERENCE);
 
         final boolean isRTL = getResolvedLayoutDirection() == View.LAYOUT_DIRECTION_RTL;
         int colorStart = getBorderColor(Spacing.START);
@@ -437,20 +464,20 @@ public class ReactViewBackgroundDrawable extends Drawable {
           }
         }
 
-        final float left = mOuterClipTempRectForBorderRadius.left;
-        final float right = mOuterClipTempRectForBorderRadius.right;
-        final float top = mOuterClipTempRectForBorderRadius.top;
-        final float bottom = mOuterClipTempRectForBorderRadius.bottom;
+        final float left = geometry.mOuterClipRect.left;
+        final float right = geometry.mOuterClipRect.right;
+        final float top = geometry.mOuterClipRect.top;
+        final float bottom = geometry.mOuterClipRect.bottom;
 
         // mGapBetweenPaths is used to close the gap between the diagonal
         // edges of the quadrilaterals on adjacent sides of the rectangle
         if (borderWidth.left > 0) {
           final float x1 = left;
           final float y1 = top - mGapBetweenPaths;
-          final float x2 = mInnerTopLeftCorner.x;
-          final float y2 = mInnerTopLeftCorner.y - mGapBetweenPaths;
-          final float x3 = mInnerBottomLeftCorner.x;
-          final float y3 = mInnerBottomLeftCorner.y + mGapBetweenPaths;
+          final float x2 = geometry.mInnerTopLeftCorner.x;
+          final float y2 = geometry.mInnerTopLeftCorner.y - mGapBetweenPaths;
+          final float x3 = geometry.mInnerBottomLeftCorner.x;
+          final float y3 = geometry.mInnerBottomLeftCorner.y + mGapBetweenPaths;
           final float x4 = left;
           final float y4 = bottom + mGapBetweenPaths;
 
@@ -460,10 +487,10 @@ public class ReactViewBackgroundDrawable extends Drawable {
         if (borderWidth.top > 0) {
           final float x1 = left - mGapBetweenPaths;
           final float y1 = top;
-          final float x2 = mInnerTopLeftCorner.x - mGapBetweenPaths;
-          final float y2 = mInnerTopLeftCorner.y;
-          final float x3 = mInnerTopRightCorner.x + mGapBetweenPaths;
-          final float y3 = mInnerTopRightCorner.y;
+          final float x2 = geometry.mInnerTopLeftCorner.x - mGapBetweenPaths;
+          final float y2 = geometry.mInnerTopLeftCorner.y;
+          final float x3 = geometry.mInnerTopRightCorner.x + mGapBetweenPaths;
+          final float y3 = geometry.mInnerTopRightCorner.y;
           final float x4 = right + mGapBetweenPaths;
           final float y4 = top;
 
@@ -473,10 +500,10 @@ public class ReactViewBackgroundDrawable extends Drawable {
         if (borderWidth.right > 0) {
           final float x1 = right;
           final float y1 = top - mGapBetweenPaths;
-          final float x2 = mInnerTopRightCorner.x;
-          final float y2 = mInnerTopRightCorner.y - mGapBetweenPaths;
-          final float x3 = mInnerBottomRightCorner.x;
-          final float y3 = mInnerBottomRightCorner.y + mGapBetweenPaths;
+          final float x2 = geometry.mInnerTopRightCorner.x;
+          final float y2 = geometry.mInnerTopRightCorner.y - mGapBetweenPaths;
+          final float x3 = geometry.mInnerBottomRightCorner.x;
+          final float y3 = geometry.mInnerBottomRightCorner.y + mGapBetweenPaths;
           final float x4 = right;
           final float y4 = bottom + mGapBetweenPaths;
 
@@ -486,10 +513,10 @@ public class ReactViewBackgroundDrawable extends Drawable {
         if (borderWidth.bottom > 0) {
           final float x1 = left - mGapBetweenPaths;
           final float y1 = bottom;
-          final float x2 = mInnerBottomLeftCorner.x - mGapBetweenPaths;
-          final float y2 = mInnerBottomLeftCorner.y;
-          final float x3 = mInnerBottomRightCorner.x + mGapBetweenPaths;
-          final float y3 = mInnerBottomRightCorner.y;
+          final float x2 = geometry.mInnerBottomLeftCorner.x - mGapBetweenPaths;
+          final float y2 = geometry.mInnerBottomLeftCorner.y;
+          final float x3 = geometry.mInnerBottomRightCorner.x + mGapBetweenPaths;
+          final float y3 = geometry.mInnerBottomRightCorner.y;
           final float x4 = right + mGapBetweenPaths;
           final float y4 = bottom;
 
@@ -508,53 +535,6 @@ public class ReactViewBackgroundDrawable extends Drawable {
 
     mNeedUpdatePathForBorderRadius = false;
 
-    if (mInnerClipPathForBorderRadius == null) {
-      mInnerClipPathForBorderRadius = new Path();
-    }
-
-    if (mBackgroundColorRenderPath == null) {
-      mBackgroundColorRenderPath = new Path();
-    }
-
-    if (mOuterClipPathForBorderRadius == null) {
-      mOuterClipPathForBorderRadius = new Path();
-    }
-
-    if (mPathForBorderRadiusOutline == null) {
-      mPathForBorderRadiusOutline = new Path();
-    }
-
-    if (mCenterDrawPath == null) {
-      mCenterDrawPath = new Path();
-    }
-
-    if (mInnerClipTempRectForBorderRadius == null) {
-      mInnerClipTempRectForBorderRadius = new RectF();
-    }
-
-    if (mOuterClipTempRectForBorderRadius == null) {
-      mOuterClipTempRectForBorderRadius = new RectF();
-    }
-
-    if (mTempRectForBorderRadiusOutline == null) {
-      mTempRectForBorderRadiusOutline = new RectF();
-    }
-
-    if (mTempRectForCenterDrawPath == null) {
-      mTempRectForCenterDrawPath = new RectF();
-    }
-
-    mInnerClipPathForBorderRadius.reset();
-    mBackgroundColorRenderPath.reset();
-    mOuterClipPathForBorderRadius.reset();
-    mPathForBorderRadiusOutline.reset();
-    mCenterDrawPath.reset();
-
-    mInnerClipTempRectForBorderRadius.set(getBounds());
-    mOuterClipTempRectForBorderRadius.set(getBounds());
-    mTempRectForBorderRadiusOutline.set(getBounds());
-    mTempRectForCenterDrawPath.set(getBounds());
-
     final RectF borderWidth = getDirectionAwareBorderInsets();
 
     int colorLeft = getBorderColor(Spacing.LEFT);
@@ -579,22 +559,12 @@ public class ReactViewBackgroundDrawable extends Drawable {
     }
 
     // Clip border ONLY if its color is non transparent
-    if (Color.alpha(colorLeft) != 0
-        && Color.alpha(colorTop) != 0
-        && Color.alpha(colorRight) != 0
-        && Color.alpha(colorBottom) != 0
-        && Color.alpha(borderColor) != 0) {
-
-      mInnerClipTempRectForBorderRadius.top += borderWidth.top;
-      mInnerClipTempRectForBorderRadius.bottom -= borderWidth.bottom;
-      mInnerClipTempRectForBorderRadius.left += borderWidth.left;
-      mInnerClipTempRectForBorderRadius.right -= borderWidth.right;
-    }
-
-    mTempRectForCenterDrawPath.top += borderWidth.top * 0.5f;
-    mTempRectForCenterDrawPath.bottom -= borderWidth.bottom * 0.5f;
-    mTempRectForCenterDrawPath.left += borderWidth.left * 0.5f;
-    mTempRectForCenterDrawPath.right -= borderWidth.right * 0.5f;
+    final boolean insetInnerClip =
+        Color.alpha(colorLeft) != 0
+            && Color.alpha(colorTop) != 0
+            && Color.alpha(colorRight) != 0
+            && Color.alpha(colorBottom) != 0
+            && Color.alpha(borderColor) != 0;
 
     final float borderRadius = getFullBorderRadius();
     float topLeftRadius = getBorderRadiusOrDefaultTo(borderRadius, BorderRadiusLocation.TOP_LEFT);
@@ -688,375 +658,39 @@ public class ReactViewBackgroundDrawable extends Drawable {
       }
     }
 
-    final float innerTopLeftRadiusX = Math.max(topLeftRadius - borderWidth.left, 0);
-    final float innerTopLeftRadiusY = Math.max(topLeftRadius - borderWidth.top, 0);
-    final float innerTopRightRadiusX = Math.max(topRightRadius - borderWidth.right, 0);
-    final float innerTopRightRadiusY = Math.max(topRightRadius - borderWidth.top, 0);
-    final float innerBottomRightRadiusX = Math.max(bottomRightRadius - borderWidth.right, 0);
-    final float innerBottomRightRadiusY = Math.max(bottomRightRadius - borderWidth.bottom, 0);
-    final float innerBottomLeftRadiusX = Math.max(bottomLeftRadius - borderWidth.left, 0);
-    final float innerBottomLeftRadiusY = Math.max(bottomLeftRadius - borderWidth.bottom, 0);
-
-    mInnerClipPathForBorderRadius.addRoundRect(
-        mInnerClipTempRectForBorderRadius,
-        new float[] {
-          innerTopLeftRadiusX,
-          innerTopLeftRadiusY,
-          innerTopRightRadiusX,
-          innerTopRightRadiusY,
-          innerBottomRightRadiusX,
-          innerBottomRightRadiusY,
-          innerBottomLeftRadiusX,
-          innerBottomLeftRadiusY,
-        },
-        Path.Direction.CW);
-
-    // There is a small gap between mBackgroundColorRenderPath and its
-    // border. mGapBetweenPaths is used to slightly enlarge the rectangle
-    // (mInnerClipTempRectForBorderRadius), ensuring the border can be
-    // drawn on top without the gap.
-    mBackgroundColorRenderPath.addRoundRect(
-        mInnerClipTempRectForBorderRadius.left - mGapBetweenPaths,
-        mInnerClipTempRectForBorderRadius.top - mGapBetweenPaths,
-        mInnerClipTempRectForBorderRadius.right + mGapBetweenPaths,
-        mInnerClipTempRectForBorderRadius.bottom + mGapBetweenPaths,
-        new float[] {
-          innerTopLeftRadiusX,
-          innerTopLeftRadiusY,
-          innerTopRightRadiusX,
-          innerTopRightRadiusY,
-          innerBottomRightRadiusX,
-          innerBottomRightRadiusY,
-          innerBottomLeftRadiusX,
-          innerBottomLeftRadiusY,
-        },
-        Path.Direction.CW);
-
-    mOuterClipPathForBorderRadius.addRoundRect(
-        mOuterClipTempRectForBorderRadius,
-        new float[] {
-          topLeftRadius,
-          topLeftRadius,
-          topRightRadius,
-          topRightRadius,
-          bottomRightRadius,
-          bottomRightRadius,
-          bottomLeftRadius,
-          bottomLeftRadius
-        },
-        Path.Direction.CW);
-
     float extraRadiusForOutline = 0;
 
     if (mBorderWidth != null) {
       extraRadiusForOutline = mBorderWidth.get(Spacing.ALL) / 2f;
     }
 
-    mPathForBorderRadiusOutline.addRoundRect(
-        mTempRectForBorderRadiusOutline,
-        new float[] {
-          topLeftRadius + extraRadiusForOutline,
-          topLeftRadius + extraRadiusForOutline,
-          topRightRadius + extraRadiusForOutline,
-          topRightRadius + extraRadiusForOutline,
-          bottomRightRadius + extraRadiusForOutline,
-          bottomRightRadius + extraRadiusForOutline,
-          bottomLeftRadius + extraRadiusForOutline,
-          bottomLeftRadius + extraRadiusForOutline
-        },
-        Path.Direction.CW);
-
-    mCenterDrawPath.addRoundRect(
-        mTempRectForCenterDrawPath,
-        new float[] {
-          Math.max(
-              topLeftRadius - borderWidth.left * 0.5f,
-              (borderWidth.left > 0.0f) ? (topLeftRadius / borderWidth.left) : 0.0f),
-          Math.max(
-              topLeftRadius - borderWidth.top * 0.5f,
-              (borderWidth.top > 0.0f) ? (topLeftRadius / borderWidth.top) : 0.0f),
-          Math.max(
-              topRightRadius - borderWidth.right * 0.5f,
-              (borderWidth.right > 0.0f) ? (topRightRadius / borderWidth.right) : 0.0f),
-          Math.max(
-              topRightRadius - borderWidth.top * 0.5f,
-              (borderWidth.top > 0.0f) ? (topRightRadius / borderWidth.top) : 0.0f),
-          Math.max(
-              bottomRightRadius - borderWidth.right * 0.5f,
-              (borderWidth.right > 0.0f) ? (bottomRightRadius / borderWidth.right) : 0.0f),
-          Math.max(
-              bottomRightRadius - borderWidth.bottom * 0.5f,
-              (borderWidth.bottom > 0.0f) ? (bottomRightRadius / borderWidth.bottom) : 0.0f),
-          Math.max(
-              bottomLeftRadius - borderWidth.left * 0.5f,
-              (borderWidth.left > 0.0f) ? (bottomLeftRadius / borderWidth.left) : 0.0f),
-          Math.max(
-              bottomLeftRadius - borderWidth.bottom * 0.5f,
-              (borderWidth.bottom > 0.0f) ? (bottomLeftRadius / borderWidth.bottom) : 0.0f)
-        },
-        Path.Direction.CW);
-
-    /**
-     * Rounded Multi-Colored Border Algorithm:
-     *
-     * <p>Let O (for outer) = (top, left, bottom, right) be the rectangle that represents the size
-     * and position of a view V. Since the box-sizing of all React Native views is border-box, any
-     * border of V will render inside O.
-     *
-     * <p>Let BorderWidth = (borderTop, borderLeft, borderBottom, borderRight).
-     *
-     * <p>Let I (for inner) = O - BorderWidth.
-     *
-     * <p>Then, remembering that O and I are rectangles and that I is inside O, O - I gives us the
-     * border of V. Therefore, we can use canvas.clipPath to draw V's border.
-     *
-     * <p>canvas.clipPath(O, Region.OP.INTERSECT);
-     *
-     * <p>canvas.clipPath(I, Region.OP.DIFFERENCE);
-     *
-     * <p>canvas.drawRect(O, paint);
-     *
-     * <p>This lets us draw non-rounded single-color borders.
-     *
-     * <p>To extend this algorithm to rounded single-color borders, we:
-     *
-     * <p>1. Curve the corners of O by the (border radii of V) using Path#addRoundRect.
-     *
-     * <p>2. Curve the corners of I by (border radii of V - border widths of V) using
-     * Path#addRoundRect.
-     *
-     * <p>Let O' = curve(O, border radii of V).
-     *
-     * <p>Let I' = curve(I, border radii of V - border widths of V)
-     *
-     * <p>The rationale behind this decision is the (first sentence of the) following section in the
-     * CSS Backgrounds and Borders Module Level 3:
-     * https://www.w3.org/TR/css3-background/#the-border-radius.
-     *
-     * <p>After both O and I have been curved, we can execute the following lines once again to
-     * render curved single-color borders:
-     *
-     * <p>canvas.clipPath(O, Region.OP.INTERSECT);
-     *
-     * <p>canvas.clipPath(I, Region.OP.DIFFERENCE);
-     *
-     * <p>canvas.drawRect(O, paint);
-     *
-     * <p>To extend this algorithm to rendering multi-colored rounded borders, we render each side
-     * of the border as its own quadrilateral. Suppose that we were handling the case where all the
-     * border radii are 0. Then, the four quadrilaterals would be:
-     *
-     * <p>Left: (O.left, O.top), (I.left, I.top), (I.left, I.bottom), (O.left, O.bottom)
-     *
-     * <p>Top: (O.left, O.top), (I.left, I.top), (I.right, I.top), (O.right, O.top)
-     *
-     * <p>Right: (O.right, O.top), (I.right, I.top), (I.right, I.bottom), (O.right, O.bottom)
-     *
-     * <p>Bottom: (O.right, O.bottom), (I.right, I.bottom), (I.left, I.bottom), (O.left, O.bottom)
-     *
-     * <p>Now, lets consider what happens when we render a rounded border (radii != 0). For the sake
-     * of simplicity, let's focus on the top edge of the Left border:
-     *
-     * <p>Let borderTopLeftRadius = 5. Let borderLeftWidth = 1. Let borderTopWidth = 2.
-     *
-     * <p>We know that O is curved by the ellipse E_O (a = 5, b = 5). We know that I is curved by
-     * the ellipse E_I (a = 5 - 1, b = 5 - 2).
-     *
-     * <p>Since we have clipping, it should be safe to set the top-left point of the Left
-     * quadrilateral's top edge to (O.left, O.top).
-     *
-     * <p>But, what should the top-right point be?
-     *
-     * <p>The fact that the border is curved shouldn't change the slope (nor the position) of the
-     * line connecting the top-left and top-right points of the Left quadrilateral's top edge.
-     * Therefore, The top-right point should lie somewhere on the line L = (1 - a) * (O.left, O.top)
-     * + a * (I.left, I.top).
-     *
-     * <p>a != 0, because then the top-left and top-right points would be the same and
-     * borderLeftWidth = 1. a != 1, because then the top-right point would not touch an edge of the
-     * ellipse E_I. We want the top-right point to touch an edge of the inner ellipse because the
-     * border curves with E_I on the top-left corner of V.
-     *
-     * <p>Therefore, it must be the case that a > 1. Two natural locations of the top-right point
-     * exist: 1. The first intersection of L with E_I. 2. The second intersection of L with E_I.
-     *
-     * <p>We choose the top-right point of the top edge of the Left quadrilateral to be an arbitrary
-     * intersection of L with E_I.
-     */
-    if (mInnerTopLeftCorner == null) {
-      mInnerTopLeftCorner = new PointF();
-    }
-
-    /** Compute mInnerTopLeftCorner */
-    mInnerTopLeftCorner.x = mInnerClipTempRectForBorderRadius.left;
-    mInnerTopLeftCorner.y = mInnerClipTempRectForBorderRadius.top;
-
-    getEllipseIntersectionWithLine(
-        // Ellipse Bounds
-        mInnerClipTempRectForBorderRadius.left,
-        mInnerClipTempRectForBorderRadius.top,
-        mInnerClipTempRectForBorderRadius.left + 2 * innerTopLeftRadiusX,
-        mInnerClipTempRectForBorderRadius.top + 2 * innerTopLeftRadiusY,
-
-        // Line Start
-        mOuterClipTempRectForBorderRadius.left,
-        mOuterClipTempRectForBorderRadius.top,
-
-        // Line End
-        mInnerClipTempRectForBorderRadius.left,
-        mInnerClipTempRectForBorderRadius.top,
-
-        // Result
-        mInnerTopLeftCorner);
-
-    /** Compute mInnerBottomLeftCorner */
-    if (mInnerBottomLeftCorner == null) {
-      mInnerBottomLeftCorner = new PointF();
-    }
-
-    mInnerBottomLeftCorner.x = mInnerClipTempRectForBorderRadius.left;
-    mInnerBottomLeftCorner.y = mInnerClipTempRectForBorderRadius.bottom;
-
-    getEllipseIntersectionWithLine(
-        // Ellipse Bounds
-        mInnerClipTempRectForBorderRadius.left,
-        mInnerClipTempRectForBorderRadius.bottom - 2 * innerBottomLeftRadiusY,
-        mInnerClipTempRectForBorderRadius.left + 2 * innerBottomLeftRadiusX,
-        mInnerClipTempRectForBorderRadius.bottom,
-
-        // Line Start
-        mOuterClipTempRectForBorderRadius.left,
-        mOuterClipTempRectForBorderRadius.bottom,
-
-        // Line End
-        mInnerClipTempRectForBorderRadius.left,
-        mInnerClipTempRectForBorderRadius.bottom,
-
-        // Result
-        mInnerBottomLeftCorner);
-
-    /** Compute mInnerTopRightCorner */
-    if (mInnerTopRightCorner == null) {
-      mInnerTopRightCorner = new PointF();
-    }
-
-    mInnerTopRightCorner.x = mInnerClipTempRectForBorderRadius.right;
-    mInnerTopRightCorner.y = mInnerClipTempRectForBorderRadius.top;
-
-    getEllipseIntersectionWithLine(
-        // Ellipse Bounds
-        mInnerClipTempRectForBorderRadius.right - 2 * innerTopRightRadiusX,
-        mInnerClipTempRectForBorderRadius.top,
-        mInnerClipTempRectForBorderRadius.right,
-        mInnerClipTempRectForBorderRadius.top + 2 * innerTopRightRadiusY,
-
-        // Line Start
-        mOuterClipTempRectForBorderRadius.right,
-        mOuterClipTempRectForBorderRadius.top,
-
-        // Line End
-        mInnerClipTempRectForBorderRadius.right,
-        mInnerClipTempRectForBorderRadius.top,
-
-        // Result
-        mInnerTopRightCorner);
-
-    /** Compute mInnerBottomRightCorner */
-    if (mInnerBottomRightCorner == null) {
-      mInnerBottomRightCorner = new PointF();
+    if (FloatUtil.floatsEqual(topLeftRadius, topRightRadius)
+        && FloatUtil.floatsEqual(topLeftRadius, bottomRightRadius)
+        && FloatUtil.floatsEqual(topLeftRadius, bottomLeftRadius)
+        && borderWidth.top == 0
+        && borderWidth.bottom == 0
+        && borderWidth.left == 0
+        && borderWidth.right == 0
+        && extraRadiusForOutline == 0) {
+      // Drawn as a round rect and clipped by outline, the paths are not needed
+      mUniformBorderRadius = topLeftRadius;
+      mBorderGeometry = null;
+      return;
     }
 
-    mInnerBottomRightCorner.x = mInnerClipTempRectForBorderRadius.right;
-    mInnerBottomRightCorner.y = mInnerClipTempRectForBorderRadius.bottom;
-
-    getEllipseIntersectionWithLine(
-        // Ellipse Bounds
-        mInnerClipTempRectForBorderRadius.right - 2 * innerBottomRightRadiusX,
-        mInnerClipTempRectForBorderRadius.bottom - 2 * innerBottomRightRadiusY,
-        mInnerClipTempRectForBorderRadius.right,
-        mInnerClipTempRectForBorderRadius.bottom,
-
-        // Line Start
-        mOuterClipTempRectForBorderRadius.right,
-        mOuterClipTempRectForBorderRadius.bottom,
-
-        // Line End
-        mInnerClipTempRectForBorderRadius.right,
-        mInnerClipTempRectForBorderRadius.bottom,
-
-        // Result
-        mInnerBottomRightCorner);
-  }
-
-  private static void getEllipseIntersectionWithLine(
-      double ellipseBoundsLeft,
-      double ellipseBoundsTop,
-      double ellipseBoundsRight,
-      double ellipseBoundsBottom,
-      double lineStartX,
-      double lineStartY,
-      double lineEndX,
-      double lineEndY,
-      PointF result) {
-    final double ellipseCenterX = (ellipseBoundsLeft + ellipseBoundsRight) / 2;
-    final double ellipseCenterY = (ellipseBoundsTop + ellipseBoundsBottom) / 2;
-
-    /**
-     * Step 1:
-     *
-     * <p>Translate the line so that the ellipse is at the origin.
-     *
-     * <p>Why? It makes the math easier by changing the ellipse equation from ((x -
-     * ellipseCenterX)/a)^2 + ((y - ellipseCenterY)/b)^2 = 1 to (x/a)^2 + (y/b)^2 = 1.
-     */
-    lineStartX -= ellipseCenterX;
-    lineStartY -= ellipseCenterY;
-    lineEndX -= ellipseCenterX;
-    lineEndY -= ellipseCenterY;
-
-    /**
-     * Step 2:
-     *
-     * <p>Ellipse equation: (x/a)^2 + (y/b)^2 = 1 Line equation: y = mx + c
-     */
-    final double a = Math.abs(ellipseBoundsRight - ellipseBoundsLeft) / 2;
-    final double b = Math.abs(ellipseBoundsBottom - ellipseBoundsTop) / 2;
-    final double m = (lineEndY - lineStartY) / (lineEndX - lineStartX);
-    final double c = lineStartY - m * lineStartX; // Just a point on the line
-
-    /**
-     * Step 3:
-     *
-     * <p>Substitute the Line equation into the Ellipse equation. Solve for x. Eventually, you'll
-     * have to use the quadratic formula.
-     *
-     * <p>Quadratic formula: Ax^2 + Bx + C = 0
-     */
-    final double A = (b * b + a * a * m * m);
-    final double B = 2 * a * a * c * m;
-    final double C = (a * a * (c * c - b * b));
-
-    /**
-     * Step 4:
-     *
-     * <p>Apply Quadratic formula. D = determinant / 2A
-     */
-    final double D = Math.sqrt(-C / A + Math.pow(B / (2 * A), 2));
-    final double x2 = -B / (2 * A) - D;
-    final double y2 = m * x2 + c;
-
-    /**
-     * Step 5:
-     *
-     * <p>Undo the space transformation in Step 5.
-     */
-    final double x = x2 + ellipseCenterX;
-    final double y = y2 + ellipseCenterY;
-
-    if (!Double.isNaN(x) && !Double.isNaN(y)) {
-      result.x = (float) x;
-      result.y = (float) y;
-    }
+    mUniformBorderRadius = YogaConstants.UNDEFINED;
+    final Rect bounds = getBounds();
+    mBorderGeometry =
+        BorderGeometry.obtain(
+            bounds.width(),
+            bounds.height(),
+            topLeftRadius,
+            topRightRadius,
+            bottomRightRadius,
+            bottomLeftRadius,
+            borderWidth,
+            insetInnerClip,
+            extraRadiusForOutline);
   }
 
   public float getBorderWidthOrDefaultTo(final float defaultValue, final int spacingType) {
@@ -165,6 +165,7 @@ public class ReactViewGroup extends ViewGroup
   /* package */ void recycleView() {
     // Set default field values
     initView();
+    updateClipToOutline();
     mOverflowInset.setEmpty();
     sHelperRect.setEmpty();
 
@@ -309,6 +310,7 @@ public class ReactViewGroup extends ViewGroup
 
   public void setBorderWidth(int position, float width) {
     getOrCreateReactViewBackground().setBorderWidth(position, width);
+    updateClipToOutline();
   }
 
   public void setBorderColor(int position, float rgb, float alpha) {
@@ -318,11 +320,13 @@ public class ReactViewGroup extends ViewGroup
   public void setBorderRadius(float borderRadius) {
     ReactViewBackgroundDrawable backgroundDrawable = getOrCreateReactViewBackground();
     backgroundDrawable.setRadius(borderRadius);
+    updateClipToOutline();
   }
 
   public void setBorderRadius(float borderRadius, int position) {
     ReactViewBackgroundDrawable backgroundDrawable = getOrCreateReactViewBackground();
     backgroundDrawable.setRadius(borderRadius, position);
+    updateClipToOutline();
   }
 
   public void setBorderStyle(@Nullable String style) {
@@ -633,11 +637,13 @@ public class ReactViewGroup extends ViewGroup
     mPointerEvents = PointerEvents.AUTO;
   }
 
-  /*package*/ int getAllChildrenCount() {
+  /** Returns the number of children, including the ones detached by subview clipping. */
+  public int getAllChildrenCount() {
     return mAllChildrenCount;
   }
 
-  /*package*/ View getChildAtWithSubviewClippingEnabled(int index) {
+  /** Returns a child, attached or not, when subview clipping is enabled. */
+  public View getChildAtWithSubviewClippingEnabled(int index) {
     return Assertions.assertNotNull(mAllChildren)[index];
   }
 
@@ -810,9 +816,27 @@ public class ReactViewGroup extends ViewGroup
 
   public void setOverflow(String overflow) {
     mOverflow = overflow;
+    updateClipToOutline();
     invalidate();
   }
 
+  /**
+   * Clips the children to the outline of the background when overflow is hidden and the background
+   * is a round rect without border, which the render node does without drawing a clip path.
+   */
+  private void updateClipToOutline() {
+    boolean clipToOutline =
+        (ViewProps.HIDDEN.equals(mOverflow) || ViewProps.SCROLL.equals(mOverflow))
+            && mReactBackgroundDrawable != null
+            && mReactBackgroundDrawable.hasUniformBorderRadiusWithoutBorder();
+    if (clipToOutline != getClipToOutline()) {
+      setClipToOutline(clipToOutline);
+    }
+    if (clipToOutline) {
+      invalidateOutline();
+    }
+  }
+
   @Override
   public @Nullable String getOverflow() {
     return mOverflow;
@@ -888,6 +912,11 @@ public class ReactViewGroup extends ViewGroup
           break;
         case ViewProps.HIDDEN:
         case ViewProps.SCROLL:
+          if (getClipToOutline() && canvas.isHardwareAccelerated()) {
+            // Already clipped to the outline, see updateClipToOutline
+            break;
+          }
+
           float left = 0f;
           float top = 0f;
           float right = getWidth();
@@ -20,11 +20,18 @@ export type ImageSize = {
 
 export interface Spec extends TurboModule {
   +abortRequest: (requestId: number) => void;
+  +clearPrefetchWindow: (railId: string) => void;
   +getConstants: () => {||};
   +getSize: (uri: string) => Promise<ImageSize>;
   +getSizeWithHeaders: (uri: string, headers: Object) => Promise<ImageSize>;
   +prefetchImage: (uri: string, requestId: number) => Promise<boolean>;
   +queryCache: (uris: Array<string>) => Promise<Object>;
+  +setPrefetchWindow: (
+    railId: string,
+    uris: ?Array<string>,
+    firstVisibleIndex: number,
+    lastVisibleIndex: number,
+  ) => void;
 }
 
 export default (TurboModuleRegistry.getEnforcing<Spec>('ImageLoader'): Spec);
@@ -28,6 +28,9 @@ export interface Spec extends TurboModule {
   ) => void;
   +abortRequest: (requestId: number) => void;
   +clearCookies: (callback: (result: boolean) => void) => void;
+  +getCacheStatistics: () => Promise<Object>;
+  +getTimingHistograms: () => Promise<Object>;
+  +setPriorityPaused: (priority: string, paused: boolean) => void;
 
   // RCTEventEmitter
   +addListener: (eventName: string) => void;
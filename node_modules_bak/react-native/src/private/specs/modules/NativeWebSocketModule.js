@@ -16,7 +16,7 @@ export interface Spec extends TurboModule {
   +connect: (
     url: string,
     protocols: ?Array<string>,
-    options: {|headers?: Object|},
+    options: {|headers?: Object, batchMessages?: boolean|},
     socketID: number,
   ) => void;
   +send: (message: string, forSocketID: number) => void;
@@ -263,6 +263,20 @@ interface XMLHttpRequest extends EventTarget, XMLHttpRequestEventTarget {
   timeout: number;
   readonly upload: XMLHttpRequestUpload;
   withCredentials: boolean;
+  /**
+   * Android only: phase durations in milliseconds, -1 for the phases that did
+   * not happen, set once the request completes.
+   */
+  readonly networkTiming: {
+    dns: number;
+    connect: number;
+    tls: number;
+    ttfb: number;
+    download: number;
+    total: number;
+    connectionReused: boolean;
+    protocol: string | null;
+  } | null;
   abort(): void;
   getAllResponseHeaders(): string;
   getResponseHeader(header: string): string | null;
@@ -277,6 +291,13 @@ interface XMLHttpRequest extends EventTarget, XMLHttpRequestEventTarget {
   overrideMimeType(mime: string): void;
   send(data?: any): void;
   setRequestHeader(header: string, value: string): void;
+  /**
+   * Android only: schedules the request ahead of or behind the other requests,
+   * 'interactive' by default.
+   */
+  setPriority(
+    priority: 'interactive' | 'visible' | 'prefetch' | 'background',
+  ): XMLHttpRequest;
   readonly DONE: 4;
   readonly HEADERS_RECEIVED: 2;
   readonly LOADING: 3;
@@ -476,6 +497,8 @@ declare var WebSocket: {
     protocols?: string | string[] | null,
     options?: {
       headers: {[headerName: string]: string};
+      /** Android only: deliver the messages received during a frame together */
+      batchMessages?: boolean | undefined;
       [optionName: string]: any;
     } | null,
   ): WebSocket;